@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that every benchmark also reports its allocation
+ * rate. The usual JMH command line options are supported, e.g. a benchmark name pattern.
+ */
+public final class BenchmarkRunner {
+
+  /**
+   * Instantiates a new benchmark runner.
+   */
+  private BenchmarkRunner() {
+    // Entry point
+  }
+
+  /**
+   * The main method.
+   *
+   * @param arguments
+   *          the JMH command line arguments
+   * @throws CommandLineOptionException
+   *           if the arguments are invalid
+   * @throws RunnerException
+   *           if a benchmark failed
+   */
+  public static void main(String[] arguments)
+      throws CommandLineOptionException, RunnerException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(arguments);
+    Options options = new OptionsBuilder()
+        .parent(commandLineOptions)
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.benchmarks;
+
+import io.github.scambon.cliwrapper4j.converters.ReflectiveResultConverter;
+
+/**
+ * A type that is created from the output by the {@link ReflectiveResultConverter}.
+ */
+public final class BenchmarkVersion {
+
+  /** The version. */
+  private final String version;
+
+  /**
+   * Instantiates a new benchmark version.
+   *
+   * @param version
+   *          the version
+   */
+  public BenchmarkVersion(String version) {
+    this.version = version;
+  }
+
+  @Override
+  public String toString() {
+    return version;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.benchmarks;
+
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.converters.ResultConverter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks <code>CompositeConverter#convert</code> through the default {@link ResultConverter},
+ * for direct and reflective conversions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+  /** The result converter. */
+  private final ResultConverter resultConverter = new ResultConverter();
+  /** The result. */
+  private final Result result = StubExecutor.RESULT;
+  /** The extra parameters. */
+  private final Map<String, Object> extraParameterName2ValueMap = Collections.emptyMap();
+
+  /**
+   * Measures a conversion to the output string, the first delegates.
+   *
+   * @return the output
+   */
+  @Benchmark
+  public Object convertToString() {
+    return convert(String.class);
+  }
+
+  /**
+   * Measures a conversion to the return code.
+   *
+   * @return the return code
+   */
+  @Benchmark
+  public Object convertToInt() {
+    return convert(int.class);
+  }
+
+  /**
+   * Measures a reflective conversion using a constructor.
+   *
+   * @return the converted object
+   */
+  @Benchmark
+  public Object convertReflectively() {
+    return convert(BenchmarkVersion.class);
+  }
+
+  /**
+   * Converts the result to the given type.
+   *
+   * @param outType
+   *          the out type
+   * @return the converted result
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private Object convert(Class<?> outType) {
+    return resultConverter.convert(result, (Class) outType, extraParameterName2ValueMap);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.benchmarks;
+
+import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.aggregators.SymbolAggregator;
+import io.github.scambon.cliwrapper4j.converters.StringQuotedIfNeededConverter;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.flatteners.JoiningOnDelimiterFlattener;
+import io.github.scambon.cliwrapper4j.instantiators.ReflectiveInstantiator;
+import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
+import io.github.scambon.cliwrapper4j.internal.nodes.ParameterNode;
+import io.github.scambon.cliwrapper4j.internal.nodes.SwitchNode;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks <code>ExecutableNode#flatten</code>, i.e. the conversion of the switches and their
+ * parameters into command line elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlattenBenchmark {
+
+  /** The number of switches. */
+  @Param({"1", "10", "100"})
+  private int switchCount;
+
+  /** The executable node. */
+  private ExecutableNode executableNode;
+
+  /**
+   * Sets up the benchmark.
+   *
+   * @throws NoSuchMethodException
+   *           if the switch method does not exist
+   */
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws NoSuchMethodException {
+    Switch zwitch = IBenchmarkCommandLine.class.getMethod("option", String.class)
+        .getAnnotation(Switch.class);
+    executableNode = new ExecutableNode(
+        new String[]{"benchmark"}, new Class[0], new ReflectiveInstantiator(),
+        new DefaultExecutionEnvironment());
+    for (int index = 0; index < switchCount; index++) {
+      SwitchNode switchNode = new SwitchNode(
+          zwitch, new SymbolAggregator(), " ", new JoiningOnDelimiterFlattener(), " ");
+      switchNode.addParameter(
+          new ParameterNode<>(new StringQuotedIfNeededConverter(), "value " + index));
+      executableNode.addSwitchNodes(switchNode);
+    }
+  }
+
+  /**
+   * Measures the flattening.
+   *
+   * @return the command line elements
+   */
+  @Benchmark
+  public List<String> flatten() {
+    return executableNode.flatten();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.benchmarks;
+
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.ExecuteNow;
+import io.github.scambon.cliwrapper4j.Executor;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.Switch;
+
+/**
+ * A command line whose executions use the {@link StubExecutor}.
+ */
+@Executable("benchmark")
+public interface IBenchmarkCommandLine extends IExecutable {
+
+  /**
+   * Adds a flag.
+   *
+   * @return this command line
+   */
+  @Switch("--flag")
+  IBenchmarkCommandLine flag();
+
+  /**
+   * Adds an option with a value.
+   *
+   * @param value
+   *          the value
+   * @return this command line
+   */
+  @Switch("--option")
+  IBenchmarkCommandLine option(String value);
+
+  /**
+   * Runs and returns the output.
+   *
+   * @return the output
+   */
+  @Switch("run")
+  @ExecuteNow
+  @Executor(StubExecutor.class)
+  String run();
+
+  /**
+   * Runs and converts the output to a {@link BenchmarkVersion}.
+   *
+   * @return the version
+   */
+  @Switch("version")
+  @ExecuteNow
+  @Executor(StubExecutor.class)
+  BenchmarkVersion version();
+}
\ No newline at end of file
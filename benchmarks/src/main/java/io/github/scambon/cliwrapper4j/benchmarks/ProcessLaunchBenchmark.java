@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.benchmarks;
+
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.ExecuteNow;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.IExecutableFactory;
+import io.github.scambon.cliwrapper4j.ReflectiveExecutableFactory;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.executors.ProcessExecutor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks end-to-end executions of real processes with <code>ProcessExecutor#execute</code>,
+ * directly and through a wrapper. This requires <code>/bin/true</code> and <code>/bin/cat</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcessLaunchBenchmark {
+
+  /** The size of the file to print with <code>/bin/cat</code>, in bytes. */
+  @Param({"0", "65536", "1048576"})
+  private int fileSize;
+
+  /** The process executor. */
+  private final ProcessExecutor processExecutor = new ProcessExecutor();
+  /** The environment. */
+  private DefaultExecutionEnvironment environment;
+  /** The true command line. */
+  private List<String> trueCommandLine;
+  /** The cat command line. */
+  private List<String> catCommandLine;
+  /** The file to print. */
+  private Path file;
+  /** The wrapper factory. */
+  private IExecutableFactory<ICatCommandLine> catFactory;
+
+  /**
+   * Sets up the benchmark.
+   *
+   * @throws IOException
+   *           if the file could not be created
+   */
+  @Setup
+  public void setUp() throws IOException {
+    environment = new DefaultExecutionEnvironment();
+    environment.setEncoding(StandardCharsets.UTF_8);
+    file = Files.createTempFile("cliwrapper4j-benchmark", ".txt");
+    byte[] content = new byte[fileSize];
+    Arrays.fill(content, (byte) 'a');
+    Files.write(file, content);
+    trueCommandLine = Collections.singletonList("/bin/true");
+    catCommandLine = Arrays.asList("/bin/cat", file.toString());
+    catFactory = new ReflectiveExecutableFactory<>(ICatCommandLine.class);
+  }
+
+  /**
+   * Tears down the benchmark.
+   *
+   * @throws IOException
+   *           if the file could not be deleted
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Measures the launch of a process that does nothing.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public Result executeTrue() {
+    return processExecutor.execute(trueCommandLine, environment, Collections.emptyMap());
+  }
+
+  /**
+   * Measures the launch of a process that prints a file.
+   *
+   * @return the result
+   */
+  @Benchmark
+  public Result executeCat() {
+    return processExecutor.execute(catCommandLine, environment, Collections.emptyMap());
+  }
+
+  /**
+   * Measures the launch of a process that prints a file, through a wrapper.
+   *
+   * @return the output
+   */
+  @Benchmark
+  public String executeCatThroughWrapper() {
+    return catFactory.create(environment)
+        .cat(file.toString());
+  }
+
+  /**
+   * A wrapper around <code>/bin/cat</code>.
+   */
+  @Executable("/bin/cat")
+  public interface ICatCommandLine extends IExecutable {
+
+    /**
+     * Prints the given file.
+     *
+     * @param file
+     *          the file
+     * @return the file content
+     */
+    @Switch("")
+    @ExecuteNow
+    String cat(String file);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.benchmarks;
+
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.executors.IExecutor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An executor that does not launch any process and returns a constant result, so that benchmarks
+ * only measure the Java-side cost.
+ */
+public final class StubExecutor implements IExecutor {
+
+  /** The constant result. */
+  public static final Result RESULT = new Result("1.2.3\nsecond line\n", "", 0);
+
+  @Override
+  public Result execute(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    return RESULT;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.benchmarks;
+
+import io.github.scambon.cliwrapper4j.BytecodeExecutableFactory;
+import io.github.scambon.cliwrapper4j.IExecutableFactory;
+import io.github.scambon.cliwrapper4j.ReflectiveExecutableFactory;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the wrapper stages that do not launch processes: factory creation, wrapper creation,
+ * proxy dispatch of switch methods and a full execution using the {@link StubExecutor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WrapperBenchmark {
+
+  /** The factory. */
+  private IExecutableFactory<IBenchmarkCommandLine> factory;
+  /** The factory using a generated class. */
+  private IExecutableFactory<IBenchmarkCommandLine> bytecodeFactory;
+  /** The environment. */
+  private IExecutionEnvironment environment;
+
+  /**
+   * Sets up the benchmark.
+   */
+  @Setup
+  public void setUp() {
+    factory = new ReflectiveExecutableFactory<>(IBenchmarkCommandLine.class);
+    bytecodeFactory = new BytecodeExecutableFactory<>(IBenchmarkCommandLine.class);
+    DefaultExecutionEnvironment defaultEnvironment = new DefaultExecutionEnvironment();
+    // Avoid detecting the console encoding during measurements
+    defaultEnvironment.setEncoding(StandardCharsets.UTF_8);
+    environment = defaultEnvironment;
+  }
+
+  /**
+   * Measures the factory creation, including the interface validation.
+   *
+   * @return the factory
+   */
+  @Benchmark
+  public IExecutableFactory<IBenchmarkCommandLine> createFactory() {
+    return new ReflectiveExecutableFactory<>(IBenchmarkCommandLine.class);
+  }
+
+  /**
+   * Measures <code>ReflectiveExecutableFactory#create</code>.
+   *
+   * @return the wrapper
+   */
+  @Benchmark
+  public IBenchmarkCommandLine create() {
+    return factory.create(environment);
+  }
+
+  /**
+   * Measures the proxy dispatch of switch methods, i.e. <code>ExecutableHandler#invoke</code> and
+   * <code>SwitchMethodHandler#handle</code>.
+   *
+   * @return the wrapper
+   */
+  @Benchmark
+  public IBenchmarkCommandLine dispatchSwitches() {
+    return factory.create(environment)
+        .flag()
+        .option("value")
+        .option("value with spaces");
+  }
+
+  /**
+   * Measures the dispatch of switch methods by a class generated by
+   * <code>BytecodeExecutableFactory</code>.
+   *
+   * @return the wrapper
+   */
+  @Benchmark
+  public IBenchmarkCommandLine dispatchSwitchesGenerated() {
+    return bytecodeFactory.create(environment)
+        .flag()
+        .option("value")
+        .option("value with spaces");
+  }
+
+  /**
+   * Measures a full execution using the stub executor, converting the result to a string.
+   *
+   * @return the output
+   */
+  @Benchmark
+  public String executeToString() {
+    return factory.create(environment)
+        .flag()
+        .option("value")
+        .run();
+  }
+
+  /**
+   * Measures a full execution using the stub executor, converting the result reflectively.
+   *
+   * @return the version
+   */
+  @Benchmark
+  public BenchmarkVersion executeToReflectiveType() {
+    return factory.create(environment)
+        .flag()
+        .option("value")
+        .version();
+  }
+}
\ No newline at end of file
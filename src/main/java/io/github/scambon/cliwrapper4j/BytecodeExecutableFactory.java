@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.instantiators.CachingInstantiator;
+import io.github.scambon.cliwrapper4j.instantiators.IInstantiator;
+import io.github.scambon.cliwrapper4j.internal.ExecutableDefinition;
+import io.github.scambon.cliwrapper4j.internal.ExecutableDefinition.GeneratedClass;
+import io.github.scambon.cliwrapper4j.internal.handlers.IMethodHandler;
+import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
+
+import java.lang.invoke.MethodHandle;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A factory that creates {@link IExecutable} sub-interfaces objects from classes generated at
+ * runtime, so that method calls are plain virtual calls instead of proxy dispatches.
+ * </p>
+ * <p>
+ * It is a drop-in replacement for {@link ReflectiveExecutableFactory}, which it falls back to
+ * when the class cannot be generated, e.g. for a non-public interface before Java 15. The class is
+ * generated once per interface definition, i.e. once for all the factories created with the
+ * default instantiator.
+ * </p>
+ *
+ * @param <W>
+ *          the wrapper type
+ */
+public class BytecodeExecutableFactory<W extends IExecutable> implements IExecutableFactory<W> {
+
+  /** The definition of the executable interface, possibly shared with other factories. */
+  private final ExecutableDefinition definition;
+  /** The handlers, in the order expected by the generated class. */
+  private final IMethodHandler[] handlers;
+  /** The generated class constructor, or <code>null</code> when falling back to proxies. */
+  private final MethodHandle constructor;
+  /** The fallback factory, or <code>null</code> when the class has been generated. */
+  private final IExecutableFactory<W> fallbackFactory;
+  /** The wrapper creator for immutable wrappers, or <code>null</code> for mutable ones. */
+  private final Function<ExecutableNode, Object> wrapperCreator;
+
+  /**
+   * Instantiates a factory with the {@link CachingInstantiator#getDefault() default instantiator}.
+   * The interface is only validated and compiled by the first such factory.
+   *
+   * @param executableInterface
+   *          the executable interface
+   */
+  public BytecodeExecutableFactory(Class<W> executableInterface) {
+    this(executableInterface, CachingInstantiator.getDefault());
+  }
+
+  /**
+   * Instantiates a factory.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @param instantiator
+   *          the instantiator
+   */
+  public BytecodeExecutableFactory(Class<W> executableInterface, IInstantiator instantiator) {
+    this.definition = ExecutableDefinition.get(executableInterface, instantiator);
+    GeneratedClass generatedClass = definition.getGeneratedClass(executableInterface);
+    this.handlers = generatedClass.getHandlers();
+    this.constructor = generatedClass.getConstructor();
+    this.fallbackFactory = constructor == null
+        ? new ReflectiveExecutableFactory<>(executableInterface, definition)
+        : null;
+    this.wrapperCreator = definition.isImmutable() ? this::createWrapper : null;
+  }
+
+  @Override
+  public W create(IExecutionEnvironment executionEnvironment) {
+    if (fallbackFactory != null) {
+      return fallbackFactory.create(executionEnvironment);
+    }
+    ExecutableNode executableNode = definition.createNode(executionEnvironment, wrapperCreator);
+    return createWrapper(executableNode);
+  }
+
+  /**
+   * Creates a wrapper around an executable node.
+   *
+   * @param executableNode
+   *          the executable node
+   * @return the wrapper
+   */
+  @SuppressWarnings({"unchecked", "squid:S1181"})
+  private W createWrapper(ExecutableNode executableNode) {
+    try {
+      return (W) (Object) constructor.invokeExact(handlers, executableNode);
+    } catch (Throwable throwable) {
+      throw new CommandLineException(throwable);
+    }
+  }
+
+  /**
+   * Checks whether the objects are created from a generated class, rather than from proxies.
+   *
+   * @return true, if a class has been generated
+   */
+  public boolean isGenerated() {
+    return fallbackFactory == null;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import io.github.scambon.cliwrapper4j.executors.CachingExecutor;
+import io.github.scambon.cliwrapper4j.executors.ResultCache;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An annotation for @{@link ExecuteNow} and @{@link ExecuteLater} methods whose command line
+ * result can be reused, as it only depends on the command line, working directory, environment
+ * variables and encoding.
+ * </p>
+ * <p>
+ * The {@link Executor} of the method is wrapped in a {@link CachingExecutor} that uses the
+ * {@link ResultCache#getDefault() default result cache}.
+ * </p>
+ *
+ * @see CachingExecutor
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Cacheable {
+
+  /**
+   * How long a result is kept once its execution completes.
+   *
+   * @return the time-to-live, in {@link #unit()}
+   */
+  long ttl();
+
+  /**
+   * The unit of {@link #ttl()}.
+   *
+   * @return the time unit, defaults to seconds
+   */
+  TimeUnit unit() default TimeUnit.SECONDS;
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import io.github.scambon.cliwrapper4j.executors.CoalescingExecutor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * An annotation for @{@link ExecuteNow} and @{@link ExecuteLater} methods whose identical
+ * concurrent executions can share a single process and its result, e.g. a burst of
+ * <code>git fetch</code> on the same repository.
+ * </p>
+ * <p>
+ * The {@link Executor} of the method is wrapped in a {@link CoalescingExecutor}. Unlike
+ * with @{@link Cacheable}, the result is not reused once the execution completes.
+ * </p>
+ *
+ * @see CoalescingExecutor
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Coalesced {
+
+}
\ No newline at end of file
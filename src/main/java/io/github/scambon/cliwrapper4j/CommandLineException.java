@@ -18,8 +18,10 @@ package io.github.scambon.cliwrapper4j;
 
 /**
  * An exception that denotes that something went wrong in the CLiWrapper4J library.
+ *
+ * @see CommandLineTimeoutException
  */
-public final class CommandLineException extends RuntimeException {
+public class CommandLineException extends RuntimeException {
 
   /** The Constant serialVersionUID. */
   private static final long serialVersionUID = 1L;
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An exception that denotes that a command line did not complete before its {@link Deadline}. The
+ * process and its descendants have been destroyed when it is thrown.
+ *
+ * @see Timeout
+ */
+public final class CommandLineTimeoutException extends CommandLineException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /** The command line elements. */
+  private final List<String> elements;
+  /** The timeout. */
+  private final Duration timeout;
+
+  /**
+   * Instantiates a new command line timeout exception.
+   *
+   * @param elements
+   *          the command line elements
+   * @param timeout
+   *          the timeout the deadline was computed from
+   */
+  public CommandLineTimeoutException(List<String> elements, Duration timeout) {
+    super("The command line '" + elements + "' did not complete within '"
+        + timeout.toMillis() + "' ms");
+    this.elements = new ArrayList<>(elements);
+    this.timeout = timeout;
+  }
+
+  /**
+   * Gets the command line elements.
+   *
+   * @return the command line elements
+   */
+  public List<String> getElements() {
+    return Collections.unmodifiableList(elements);
+  }
+
+  /**
+   * Gets the timeout the deadline was computed from.
+   *
+   * @return the timeout
+   */
+  public Duration getTimeout() {
+    return timeout;
+  }
+}
\ No newline at end of file
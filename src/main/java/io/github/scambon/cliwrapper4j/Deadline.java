@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import io.github.scambon.cliwrapper4j.internal.utils.ExtraParameterUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The point in time by which an execution must complete, as computed from a {@link Timeout} when
+ * the execution starts. It is based on {@link System#nanoTime()}, so it is not affected by wall
+ * clock changes.
+ * </p>
+ * <p>
+ * It is passed to the executors as the @{@link Extra} parameter named
+ * {@value #EXTRA_PARAMETER_NAME}. A deadline can also be passed explicitly as such a parameter,
+ * e.g. to share it between several executions: the earliest of this deadline and the one from the
+ * {@link Timeout} applies.
+ * </p>
+ */
+public final class Deadline {
+
+  /** The name of the @{@link Extra} parameter that holds the deadline. */
+  public static final String EXTRA_PARAMETER_NAME = "deadline";
+
+  /** The timeout the deadline was computed from. */
+  private final Duration timeout;
+  /** The deadline, in {@link System#nanoTime()} time. */
+  private final long deadlineNanos;
+
+  /**
+   * Instantiates a new deadline.
+   *
+   * @param timeout
+   *          the timeout the deadline was computed from
+   * @param deadlineNanos
+   *          the deadline, in {@link System#nanoTime()} time
+   */
+  private Deadline(Duration timeout, long deadlineNanos) {
+    this.timeout = timeout;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * Creates a deadline that expires once the given timeout has elapsed from now.
+   *
+   * @param timeout
+   *          the timeout
+   * @return the deadline
+   */
+  public static Deadline after(Duration timeout) {
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new CommandLineException("The timeout must be positive but was '" + timeout + "'");
+    }
+    return new Deadline(timeout, System.nanoTime() + timeout.toNanos());
+  }
+
+  /**
+   * Gets the deadline from the extra parameters.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map, may be <code>null</code>
+   * @return the deadline, or <code>null</code> if there is none
+   */
+  public static Deadline get(Map<String, Object> extraParameterName2ValueMap) {
+    return ExtraParameterUtils.get(
+        extraParameterName2ValueMap, EXTRA_PARAMETER_NAME, Deadline.class);
+  }
+
+  /**
+   * Gets the timeout the deadline was computed from.
+   *
+   * @return the timeout
+   */
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Gets the time remaining before the deadline.
+   *
+   * @param unit
+   *          the unit
+   * @return the remaining time, which is zero or negative once expired
+   */
+  public long getRemaining(TimeUnit unit) {
+    return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Checks whether the deadline has passed.
+   *
+   * @return true, if expired
+   */
+  public boolean isExpired() {
+    return deadlineNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * Checks whether this deadline is before the given one.
+   *
+   * @param other
+   *          the other deadline
+   * @return true, if this deadline expires first
+   */
+  public boolean isBefore(Deadline other) {
+    return deadlineNanos - other.deadlineNanos < 0;
+  }
+
+  @Override
+  public String toString() {
+    return "Deadline [timeout=" + timeout + ", remaining="
+        + getRemaining(TimeUnit.MILLISECONDS) + "ms]";
+  }
+}
\ No newline at end of file
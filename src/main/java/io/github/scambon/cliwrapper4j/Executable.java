@@ -51,4 +51,13 @@ public @interface Executable {
    * @return the pre-processor classes
    */
   Class<? extends ICommandLinePreProcessor>[] preProcessors() default {};
+
+  /**
+   * Whether the wrappers are immutable. Then, each @{@link Switch} method returns a new wrapper
+   * that shares the previous switches, and leaves the called one unchanged. A wrapper can then be
+   * used as a prototype, e.g. shared by many threads, without locking.
+   *
+   * @return true, if the wrappers are immutable
+   */
+  boolean immutable() default false;
 }
\ No newline at end of file
@@ -52,6 +52,12 @@ import java.util.Map;
  * <p>
  * This annotation is not compatible with {@link Converter}: values are passed without conversion.
  * </p>
+ * <p>
+ * The {@value io.github.scambon.cliwrapper4j.events.ExecutionTrace#EXTRA_PARAMETER_NAME} and
+ * {@value io.github.scambon.cliwrapper4j.metrics.ExecutionMetrics#EXTRA_PARAMETER_NAME} names are
+ * reserved for the values added to each execution, and a
+ * {@value Deadline#EXTRA_PARAMETER_NAME} parameter must be a {@link Deadline}.
+ * </p>
  */
 @Retention(RUNTIME)
 @Target(PARAMETER)
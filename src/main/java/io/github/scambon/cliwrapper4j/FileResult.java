@@ -0,0 +1,538 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import io.github.scambon.cliwrapper4j.executors.FileRedirectingProcessExecutor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * A result whose output and error were redirected to files by the operating system, so that they
+ * never cross the Java heap unless explicitly requested. The output can be accessed as a
+ * {@link #getOutputPath() path}, a {@link #openOutputChannel() file channel}, a
+ * {@link #mapOutput() memory-mapped buffer}, lazily read {@link #getOutputLines() lines} or an
+ * {@link #getOutputSequence() off-heap character sequence} that regular expressions can scan.
+ * {@link #getOutput()} still reads the whole output into a string.
+ * </p>
+ * <p>
+ * Closing the result deletes its temporary files.
+ * </p>
+ *
+ * @see FileRedirectingProcessExecutor
+ */
+public final class FileResult extends Result implements AutoCloseable {
+
+  /** The number of characters per direct buffer of a decoded output. */
+  private static final int SEGMENT_CHARACTERS = 64 * 1024 * 1024;
+  /** The size of the buffers the output is decoded through. */
+  private static final int DECODING_BUFFER_SIZE = 64 * 1024;
+
+  /** The output path. */
+  private final Path outputPath;
+  /** The error path. */
+  private final Path errorPath;
+  /** The encoding. */
+  private final Charset encoding;
+  /** The temporary files, deleted on close. */
+  private final List<Path> temporaryFiles;
+
+  /**
+   * Instantiates a new file result.
+   *
+   * @param outputPath
+   *          the file holding the output
+   * @param errorPath
+   *          the file holding the error
+   * @param encoding
+   *          the encoding
+   * @param returnCode
+   *          the return code
+   * @param temporaryFiles
+   *          the files to delete on close
+   */
+  public FileResult(Path outputPath, Path errorPath, Charset encoding, int returnCode,
+      Collection<Path> temporaryFiles) {
+    super(null, null, returnCode);
+    this.outputPath = outputPath;
+    this.errorPath = errorPath;
+    this.encoding = encoding;
+    this.temporaryFiles = new ArrayList<>(temporaryFiles);
+  }
+
+  /**
+   * Gets the file holding the output.
+   *
+   * @return the output path
+   */
+  public Path getOutputPath() {
+    return outputPath;
+  }
+
+  /**
+   * Gets the file holding the error.
+   *
+   * @return the error path
+   */
+  public Path getErrorPath() {
+    return errorPath;
+  }
+
+  /**
+   * Opens a read-only channel on the output, to be closed by the caller.
+   *
+   * @return the output channel
+   */
+  public FileChannel openOutputChannel() {
+    try {
+      return FileChannel.open(outputPath, StandardOpenOption.READ);
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * Maps the output in memory, read-only. The mapping stays valid until the buffer is garbage
+   * collected, even once this result is closed.
+   *
+   * @return the mapped output
+   */
+  public MappedByteBuffer mapOutput() {
+    try (FileChannel channel = openOutputChannel()) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new CommandLineException(
+            "The output '" + outputPath + "' is too large to be mapped: '" + size + "' bytes");
+      }
+      return channel.map(MapMode.READ_ONLY, 0, size);
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * <p>
+   * Gets the output as a character sequence that is not on the Java heap: a view on the mapped
+   * output for ISO-8859-1 and US-ASCII encodings, or the output decoded into direct buffers for
+   * other encodings.
+   * </p>
+   * <p>
+   * As the length of a character sequence is an <code>int</code>, the output can have at most
+   * {@link Integer#MAX_VALUE} characters. The decoded output is read through a small buffer and
+   * stored in direct buffers of {@value #SEGMENT_CHARACTERS} characters, so it is only limited by
+   * the available direct memory, i.e. 2 bytes per character; see
+   * <code>-XX:MaxDirectMemorySize</code>.
+   * </p>
+   *
+   * @return the output character sequence
+   */
+  @Override
+  public CharSequence getOutputSequence() {
+    if (StandardCharsets.ISO_8859_1.equals(encoding)
+        || StandardCharsets.US_ASCII.equals(encoding)) {
+      return new SingleByteCharSequence(mapOutput());
+    }
+    return decodeOutput(SEGMENT_CHARACTERS);
+  }
+
+  /**
+   * Decodes the output into direct buffers.
+   *
+   * @param segmentCharacters
+   *          the number of characters per direct buffer
+   * @return the decoded output
+   */
+  CharSequence decodeOutput(int segmentCharacters) {
+    CharsetDecoder decoder = encoding.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    ByteBuffer bytes = ByteBuffer.allocate(DECODING_BUFFER_SIZE);
+    CharBuffer characters = CharBuffer.allocate(DECODING_BUFFER_SIZE);
+    try (FileChannel channel = openOutputChannel()) {
+      long maxCharacters = (long) Math.ceil(channel.size() * (double) decoder.maxCharsPerByte());
+      SegmentedCharSequence.Builder builder =
+          new SegmentedCharSequence.Builder(segmentCharacters, maxCharacters);
+      boolean endOfInput = false;
+      while (!endOfInput) {
+        endOfInput = channel.read(bytes) == -1;
+        bytes.flip();
+        CoderResult coderResult;
+        do {
+          coderResult = decoder.decode(bytes, characters, endOfInput);
+          append(characters, builder);
+        } while (coderResult.isOverflow());
+        bytes.compact();
+      }
+      CoderResult coderResult;
+      do {
+        coderResult = decoder.flush(characters);
+        append(characters, builder);
+      } while (coderResult.isOverflow());
+      return builder.build();
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * Appends decoded characters to the output being built, then clears them.
+   *
+   * @param characters
+   *          the decoded characters
+   * @param builder
+   *          the output builder
+   */
+  private void append(CharBuffer characters, SegmentedCharSequence.Builder builder) {
+    characters.flip();
+    if (!builder.append(characters)) {
+      throw new CommandLineException("The output '" + outputPath
+          + "' is too large to be decoded: more than '" + Integer.MAX_VALUE + "' characters");
+    }
+    characters.clear();
+  }
+
+  /**
+   * Gets the output, read from its file.
+   *
+   * @return the output
+   */
+  @Override
+  public String getOutput() {
+    return readFile(outputPath);
+  }
+
+  /**
+   * Gets the output lines, lazily read from the output file. Close the stream to release the file.
+   *
+   * @return the output lines
+   */
+  @Override
+  public Stream<String> getOutputLines() {
+    try {
+      BufferedReader reader = Files.newBufferedReader(outputPath, encoding);
+      return reader.lines()
+          .onClose(() -> {
+            try {
+              reader.close();
+            } catch (IOException ioException) {
+              throw new UncheckedIOException(ioException);
+            }
+          });
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * Gets the error, read from its file.
+   *
+   * @return the error
+   */
+  @Override
+  public String getError() {
+    return readFile(errorPath);
+  }
+
+  /**
+   * Deletes the temporary files.
+   */
+  @Override
+  public void close() {
+    deleteTemporaryFiles(false);
+  }
+
+  /**
+   * Deletes the temporary files but the output one, which the caller then owns, e.g. to return it
+   * as a {@link Path}.
+   */
+  public void closeKeepingOutput() {
+    deleteTemporaryFiles(true);
+  }
+
+  /**
+   * Deletes the temporary files.
+   *
+   * @param keepOutput
+   *          whether to keep the output file
+   */
+  private void deleteTemporaryFiles(boolean keepOutput) {
+    for (Path temporaryFile : temporaryFiles) {
+      if (keepOutput && temporaryFile.equals(outputPath)) {
+        continue;
+      }
+      try {
+        Files.deleteIfExists(temporaryFile);
+      } catch (IOException ioException) {
+        throw new CommandLineException(ioException);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "FileResult [outputPath='" + outputPath + "', errorPath='" + errorPath
+        + "', returnCode='" + getReturnCode() + "']";
+  }
+
+  /**
+   * Reads a whole file.
+   *
+   * @param path
+   *          the path
+   * @return the file content
+   */
+  private String readFile(Path path) {
+    try {
+      return new String(Files.readAllBytes(path), encoding);
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * A character sequence view on bytes encoded with a single-byte encoding whose byte values are
+   * the character values, i.e. ISO-8859-1 or US-ASCII.
+   */
+  private static final class SingleByteCharSequence implements CharSequence {
+
+    /** The bytes. */
+    private final ByteBuffer bytes;
+
+    /**
+     * Instantiates a new single byte char sequence.
+     *
+     * @param bytes
+     *          the bytes, from their position to their limit
+     */
+    private SingleByteCharSequence(ByteBuffer bytes) {
+      this.bytes = bytes.slice();
+    }
+
+    @Override
+    public int length() {
+      return bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (bytes.get(index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      ByteBuffer duplicate = bytes.duplicate();
+      duplicate.position(start);
+      duplicate.limit(end);
+      return new SingleByteCharSequence(duplicate);
+    }
+
+    @Override
+    public String toString() {
+      char[] characters = new char[length()];
+      for (int index = 0; index < characters.length; index++) {
+        characters[index] = charAt(index);
+      }
+      return new String(characters);
+    }
+  }
+
+  /**
+   * A character sequence stored in direct buffers of the same capacity, so that it is not limited
+   * by the maximum size of a buffer.
+   */
+  private static final class SegmentedCharSequence implements CharSequence {
+
+    /** The segments, all full but the last one. */
+    private final CharBuffer[] segments;
+    /** The number of characters per segment. */
+    private final int segmentCharacters;
+    /** The index of the first character of this sequence. */
+    private final long offset;
+    /** The length. */
+    private final int length;
+
+    /**
+     * Instantiates a new segmented char sequence.
+     *
+     * @param segments
+     *          the segments, all full but the last one
+     * @param segmentCharacters
+     *          the number of characters per segment
+     * @param offset
+     *          the index of the first character of this sequence
+     * @param length
+     *          the length
+     */
+    private SegmentedCharSequence(
+        CharBuffer[] segments, int segmentCharacters, long offset, int length) {
+      this.segments = segments;
+      this.segmentCharacters = segmentCharacters;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length) {
+        throw new IndexOutOfBoundsException("Index '" + index + "' not in [0, " + length + "[");
+      }
+      long absoluteIndex = offset + index;
+      return segments[(int) (absoluteIndex / segmentCharacters)]
+          .get((int) (absoluteIndex % segmentCharacters));
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      if (start < 0 || end > length || start > end) {
+        throw new IndexOutOfBoundsException(
+            "Sub-sequence [" + start + ", " + end + "[ not in [0, " + length + "[");
+      }
+      return new SegmentedCharSequence(segments, segmentCharacters, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder(length);
+      for (int index = 0; index < length; index++) {
+        builder.append(charAt(index));
+      }
+      return builder.toString();
+    }
+
+    /**
+     * A builder that appends characters to direct buffers.
+     */
+    private static final class Builder {
+
+      /** The number of characters per segment. */
+      private final int segmentCharacters;
+      /** The maximum number of characters to append, to size the last segment. */
+      private final long maxCharacters;
+      /** The segments. */
+      private final List<CharBuffer> segments = new ArrayList<>();
+      /** The number of appended characters. */
+      private long length;
+
+      /**
+       * Instantiates a new builder.
+       *
+       * @param segmentCharacters
+       *          the number of characters per segment
+       * @param maxCharacters
+       *          the maximum number of characters to append, to size the last segment
+       */
+      private Builder(int segmentCharacters, long maxCharacters) {
+        this.segmentCharacters = segmentCharacters;
+        this.maxCharacters = maxCharacters;
+      }
+
+      /**
+       * Appends characters.
+       *
+       * @param characters
+       *          the characters, from their position to their limit
+       * @return false if the sequence would be longer than {@link Integer#MAX_VALUE}
+       */
+      private boolean append(CharBuffer characters) {
+        if (length + characters.remaining() > Integer.MAX_VALUE) {
+          return false;
+        }
+        while (characters.hasRemaining()) {
+          CharBuffer segment = getWritableSegment();
+          int appendedCharacters = Math.min(characters.remaining(), segment.remaining());
+          CharBuffer appended = characters.duplicate();
+          appended.limit(appended.position() + appendedCharacters);
+          segment.put(appended);
+          characters.position(characters.position() + appendedCharacters);
+          length += appendedCharacters;
+        }
+        return true;
+      }
+
+      /**
+       * Gets the last segment if it is not full, or adds a new one otherwise.
+       *
+       * @return the segment to write to
+       */
+      private CharBuffer getWritableSegment() {
+        int lastIndex = segments.size() - 1;
+        CharBuffer lastSegment = lastIndex < 0 ? null : segments.get(lastIndex);
+        if (lastSegment != null && lastSegment.hasRemaining()) {
+          return lastSegment;
+        }
+        if (lastSegment != null && lastSegment.capacity() < segmentCharacters) {
+          // The last segment was sized for fewer characters: make it a full one
+          CharBuffer fullSegment = allocate(segmentCharacters);
+          lastSegment.flip();
+          fullSegment.put(lastSegment);
+          segments.set(lastIndex, fullSegment);
+          return fullSegment;
+        }
+        long remainingCharacters = Math.max(1, maxCharacters - length);
+        CharBuffer segment = allocate((int) Math.min(segmentCharacters, remainingCharacters));
+        segments.add(segment);
+        return segment;
+      }
+
+      /**
+       * Builds the sequence.
+       *
+       * @return the sequence
+       */
+      private SegmentedCharSequence build() {
+        return new SegmentedCharSequence(segments.toArray(new CharBuffer[segments.size()]),
+            segmentCharacters, 0, (int) length);
+      }
+
+      /**
+       * Allocates a direct segment.
+       *
+       * @param capacity
+       *          the capacity, in characters
+       * @return the segment
+       */
+      private static CharBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Character.BYTES)
+            .asCharBuffer();
+      }
+    }
+  }
+}
\ No newline at end of file
@@ -16,6 +16,8 @@
 
 package io.github.scambon.cliwrapper4j;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * <p>
  * The base interface that defines the command line.
@@ -30,6 +32,10 @@ package io.github.scambon.cliwrapper4j;
  * You can still define and implement static methods, default methods or even private methods
  * (JDK9+) in your sub-interface.
  * </p>
+ * <p>
+ * An @{@link ExecuteNow} method that returns a {@link CompletableFuture} is executed
+ * asynchronously: the future completes with the result converted to its type argument.
+ * </p>
  */
 public interface IExecutable {
 
@@ -42,4 +48,45 @@ public interface IExecutable {
    * @return the command line result
    */
   <O> O execute();
+
+  /**
+   * Executes the command line defined by the previous method calls in case
+   * of @{@link ExecuteLater}, without blocking the calling thread. The result conversion runs once
+   * the execution completes.
+   *
+   * @param <O>
+   *          the output type
+   * @return the future command line result
+   */
+  <O> CompletableFuture<O> executeAsync();
+
+  /**
+   * Prepares the command line defined by the previous method calls in case
+   * of @{@link ExecuteLater}, so that it can be executed many times without redefining it. The
+   * switch parameters given a <code>null</code> value are bound at each execution.
+   *
+   * @param <O>
+   *          the output type
+   * @return the prepared command
+   */
+  <O> PreparedCommand<O> prepare();
+
+  /**
+   * Pipes the output of the command line defined by the previous method calls in case
+   * of @{@link ExecuteLater} into the input of the given command line, also defined by
+   * an @{@link ExecuteLater} method. The processes are connected by the operating system, so
+   * that only the output of the last one is read.
+   * <p>
+   * The pipeline starts the processes itself: the @{@link Executor} of each command line is not
+   * used, so neither are its decorations, such as scheduling limits, caching and coalescing, nor
+   * the metrics and the process events of the executors.
+   * </p>
+   *
+   * @param <O>
+   *          the output type of the last command line
+   * @param next
+   *          the next command line
+   * @return the pipeline
+   */
+  <O> Pipeline<O> pipeTo(IExecutable next);
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.internal.executors.DeadlineUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.ProcessUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+import io.github.scambon.cliwrapper4j.internal.nodes.PreparedExecutableNode;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A chain of command lines, each one reading the output of the previous one, as created by
+ * {@link IExecutable#pipeTo(IExecutable)}. On Java 9+, the processes are started with
+ * <code>ProcessBuilder#startPipeline(List)</code>, so that the data flows between them through
+ * operating system pipes without crossing the JVM; on Java 8, it is copied by background threads.
+ * </p>
+ * <p>
+ * The input of the first command line is closed. Only the output of the last one is read; the
+ * errors of all of them are drained. Once the last one exits, the previous ones still running are
+ * destroyed, as they would be by a broken pipe. The result is a {@link PipelineResult}, validated
+ * and converted by the @{@link ExecuteLater} method of the last command line.
+ * </p>
+ * <p>
+ * The processes are started by the pipeline itself, bypassing the
+ * @{@link io.github.scambon.cliwrapper4j.Executor} of each command line: the launches are not
+ * bounded by a {@link io.github.scambon.cliwrapper4j.executors.SchedulingExecutor}, the results
+ * are neither cached nor coalesced, and no metrics nor process events are recorded.
+ * </p>
+ * <p>
+ * The @{@link Timeout} of the last command line applies to the whole pipeline: once it expires,
+ * the process trees of all the command lines are destroyed and the execution fails with a
+ * {@link CommandLineTimeoutException}.
+ * </p>
+ * <p>
+ * As it is immutable, it can be executed many times, concurrently.
+ * </p>
+ *
+ * @param <O>
+ *          the output type
+ */
+public final class Pipeline<O> {
+
+  /** The stages. */
+  private final List<PreparedExecutableNode> stages;
+
+  /**
+   * Instantiates a new pipeline with a single command line.
+   *
+   * @param first
+   *          the first command line
+   */
+  public Pipeline(PreparedExecutableNode first) {
+    this(Collections.singletonList(first));
+  }
+
+  /**
+   * Instantiates a new pipeline.
+   *
+   * @param stages
+   *          the stages
+   */
+  private Pipeline(List<PreparedExecutableNode> stages) {
+    for (PreparedExecutableNode stage : stages) {
+      if (stage.getSlotCount() != 0) {
+        throw new CommandLineException("Cannot pipe a command line with '" + stage.getSlotCount()
+            + "' parameters without value");
+      }
+    }
+    this.stages = stages;
+  }
+
+  /**
+   * Pipes the output of this pipeline into the input of the given command line, defined by
+   * an @{@link ExecuteLater} method.
+   *
+   * @param <P>
+   *          the output type of the next command line
+   * @param next
+   *          the next command line
+   * @return the new pipeline
+   */
+  public <P> Pipeline<P> pipeTo(IExecutable next) {
+    List<PreparedExecutableNode> nextStages = new ArrayList<>(stages.size() + 1);
+    nextStages.addAll(stages);
+    nextStages.add(next.prepare()
+        .getPreparedExecutableNode());
+    return new Pipeline<>(nextStages);
+  }
+
+  /**
+   * Gets the number of command lines.
+   *
+   * @return the stage count
+   */
+  public int getStageCount() {
+    return stages.size();
+  }
+
+  /**
+   * Executes the pipeline.
+   *
+   * @return the converted result of the last command line
+   */
+  @SuppressWarnings("unchecked")
+  public O execute() {
+    PreparedExecutableNode lastStage = stages.get(stages.size() - 1);
+    return (O) lastStage.postProcess(run());
+  }
+
+  /**
+   * Executes the pipeline without blocking the calling thread. The processes are waited for by a
+   * thread of the {@link StreamDrainingUtils#getDefaultDrainingExecutor() default draining pool},
+   * and the result is converted on the
+   * {@link IExecutionEnvironment#getAsyncExecutor() async executor} of the last command line.
+   *
+   * @return the future converted result of the last command line
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<O> executeAsync() {
+    PreparedExecutableNode lastStage = stages.get(stages.size() - 1);
+    Executor asyncExecutor = lastStage.getExecutionEnvironment()
+        .getAsyncExecutor();
+    Executor drainingExecutor = StreamDrainingUtils.getDefaultDrainingExecutor();
+    return CompletableFuture.supplyAsync(this::run, drainingExecutor)
+        .thenApplyAsync(result -> (O) lastStage.postProcess(result), asyncExecutor);
+  }
+
+  /**
+   * Runs the processes.
+   *
+   * @return the pipeline result
+   */
+  private PipelineResult run() {
+    PreparedExecutableNode lastStage = stages.get(stages.size() - 1);
+    Deadline deadline = lastStage.startDeadline();
+    List<ProcessBuilder> processBuilders = new ArrayList<>(stages.size());
+    for (PreparedExecutableNode stage : stages) {
+      ProcessBuilder processBuilder = new ProcessBuilder(stage.toCommandLine());
+      stage.getExecutionEnvironment()
+          .configure(processBuilder);
+      processBuilders.add(processBuilder);
+    }
+    List<String> lastElements = processBuilders.get(processBuilders.size() - 1)
+        .command();
+    DeadlineUtils.checkNotExpired(lastElements, deadline);
+    Executor drainingExecutor = StreamDrainingUtils.getDefaultDrainingExecutor();
+    try {
+      List<Process> processes = ProcessUtils.startPipeline(processBuilders, drainingExecutor);
+      Runnable deadlineCheck =
+          DeadlineUtils.destroyOnExpiration(processes, lastElements, deadline);
+      List<CompletableFuture<String>> errorFutures = new ArrayList<>(processes.size());
+      String output;
+      try {
+        processes.get(0)
+            .getOutputStream()
+            .close();
+        for (int index = 0; index < processes.size(); index++) {
+          Charset encoding = getEncoding(index);
+          errorFutures.add(StreamDrainingUtils.drain(
+              processes.get(index).getErrorStream(), encoding, drainingExecutor));
+        }
+        Process lastProcess = processes.get(processes.size() - 1);
+        output = StreamDrainingUtils.readInputStream(
+            lastProcess.getInputStream(), getEncoding(processes.size() - 1));
+        lastProcess.waitFor();
+      } finally {
+        // A failure caused by the destruction of the processes is reported as a timeout
+        deadlineCheck.run();
+      }
+      List<Integer> returnCodes = new ArrayList<>(processes.size());
+      StringBuilder error = new StringBuilder();
+      for (int index = 0; index < processes.size(); index++) {
+        Process process = processes.get(index);
+        if (process.isAlive()) {
+          // As with a broken pipe, since nothing reads its output anymore
+          ProcessUtils.destroyTree(process);
+        }
+        returnCodes.add(process.waitFor());
+        error.append(StreamDrainingUtils.join(errorFutures.get(index)));
+      }
+      return new PipelineResult(output, error.toString(), returnCodes);
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * Gets the encoding of a stage.
+   *
+   * @param index
+   *          the stage index
+   * @return the encoding
+   */
+  private Charset getEncoding(int index) {
+    IExecutionEnvironment executionEnvironment = stages.get(index)
+        .getExecutionEnvironment();
+    return executionEnvironment.getEncoding();
+  }
+}
\ No newline at end of file
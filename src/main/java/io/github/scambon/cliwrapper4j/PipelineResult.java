@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A result of a {@link Pipeline}: its output and return code are the ones of the last command
+ * line, its error is the concatenation of the errors of all the command lines.
+ */
+public final class PipelineResult extends Result {
+
+  /** The return codes, in pipeline order. */
+  private final List<Integer> returnCodes;
+
+  /**
+   * Instantiates a new pipeline result.
+   *
+   * @param output
+   *          the output of the last command line
+   * @param error
+   *          the errors of all the command lines
+   * @param returnCodes
+   *          the return codes, in pipeline order
+   */
+  public PipelineResult(String output, String error, List<Integer> returnCodes) {
+    super(output, error, returnCodes.get(returnCodes.size() - 1));
+    this.returnCodes = Collections.unmodifiableList(new ArrayList<>(returnCodes));
+  }
+
+  /**
+   * Gets the return codes of all the command lines, in pipeline order.
+   *
+   * @return the return codes
+   */
+  public List<Integer> getReturnCodes() {
+    return returnCodes;
+  }
+
+  @Override
+  public String toString() {
+    return "PipelineResult [output='" + getOutput() + "', error='" + getError()
+        + "', returnCodes='" + returnCodes + "']";
+  }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import io.github.scambon.cliwrapper4j.internal.nodes.PreparedExecutableNode;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ * A command line that is defined once and executed many times, in the spirit of a JDBC prepared
+ * statement. It is obtained by {@link IExecutable#prepare()}.
+ * </p>
+ * <p>
+ * The executable, the switches, the converters, the pre-processors and the executing method
+ * settings are frozen when preparing. The switch parameters that were given a <code>null</code>
+ * value are the slots: their values are given, in order, at each execution, and only them are
+ * converted. A prepared command is immutable and can be executed concurrently.
+ * </p>
+ *
+ * <pre>
+ * PreparedCommand&lt;Integer&gt; commit = git.commit()
+ *     .message(null)
+ *     .prepare();
+ * commit.execute("First message");
+ * commit.execute("Second message");
+ * </pre>
+ *
+ * @param <O>
+ *          the output type
+ */
+public final class PreparedCommand<O> {
+
+  /** The prepared executable node. */
+  private final PreparedExecutableNode preparedExecutableNode;
+
+  /**
+   * Instantiates a new prepared command.
+   *
+   * @param preparedExecutableNode
+   *          the prepared executable node
+   */
+  public PreparedCommand(PreparedExecutableNode preparedExecutableNode) {
+    this.preparedExecutableNode = preparedExecutableNode;
+  }
+
+  /**
+   * Gets the prepared executable node.
+   *
+   * @return the prepared executable node
+   */
+  PreparedExecutableNode getPreparedExecutableNode() {
+    return preparedExecutableNode;
+  }
+
+  /**
+   * Gets the slot count, i.e. the number of arguments expected by the execute methods.
+   *
+   * @return the slot count
+   */
+  public int getSlotCount() {
+    return preparedExecutableNode.getSlotCount();
+  }
+
+  /**
+   * Executes the command line with the given slot values.
+   *
+   * @param arguments
+   *          the slot values, in order
+   * @return the command line result
+   */
+  @SuppressWarnings("unchecked")
+  public O execute(Object... arguments) {
+    return (O) preparedExecutableNode.execute(arguments);
+  }
+
+  /**
+   * Executes the command line with the given slot values, without blocking the calling thread.
+   *
+   * @param arguments
+   *          the slot values, in order
+   * @return the future command line result
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<O> executeAsync(Object... arguments) {
+    return (CompletableFuture<O>) (CompletableFuture<?>) preparedExecutableNode
+        .executeAsync(arguments);
+  }
+}
\ No newline at end of file
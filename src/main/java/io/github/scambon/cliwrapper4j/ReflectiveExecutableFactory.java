@@ -19,13 +19,11 @@ package io.github.scambon.cliwrapper4j;
 import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
 import io.github.scambon.cliwrapper4j.instantiators.CachingInstantiator;
 import io.github.scambon.cliwrapper4j.instantiators.IInstantiator;
-import io.github.scambon.cliwrapper4j.instantiators.ReflectiveInstantiator;
+import io.github.scambon.cliwrapper4j.internal.ExecutableDefinition;
 import io.github.scambon.cliwrapper4j.internal.ExecutableHandler;
-import io.github.scambon.cliwrapper4j.internal.handlers.IMethodHandler;
+import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
 
-import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -37,23 +35,22 @@ import java.util.function.Function;
 public class ReflectiveExecutableFactory<W extends IExecutable>
     implements IExecutableFactory<W> {
 
-  /** The executable interface. */
-  private final Class<W> executableInterface;
-  /** The method 2 handler map. */
-  private final Map<Method, IMethodHandler> method2HandlerMap;
+  /** The definition of the executable interface, possibly shared with other factories. */
+  private final ExecutableDefinition definition;
   /** The proxy constructor. */
   private final Function<ExecutableHandler<W>, W> proxyConstructor;
-  /** The instantiator. */
-  private final IInstantiator instantiator;
+  /** The wrapper creator for immutable wrappers, or <code>null</code> for mutable ones. */
+  private final Function<ExecutableNode, Object> wrapperCreator;
 
   /**
-   * Instantiates a factory with default reflective handling of constructors.
+   * Instantiates a factory with the {@link CachingInstantiator#getDefault() default instantiator}.
+   * The interface is only validated and compiled by the first such factory.
    *
    * @param executableInterface
    *          the executable interface
    */
   public ReflectiveExecutableFactory(Class<W> executableInterface) {
-    this(executableInterface, new CachingInstantiator(new ReflectiveInstantiator()));
+    this(executableInterface, CachingInstantiator.getDefault());
   }
 
   /**
@@ -64,20 +61,43 @@ public class ReflectiveExecutableFactory<W extends IExecutable>
    * @param instantiator
    *          the instantiator
    */
-  @SuppressWarnings("unchecked")
   public ReflectiveExecutableFactory(Class<W> executableInterface, IInstantiator instantiator) {
-    this.executableInterface = executableInterface;
-    this.instantiator = instantiator;
-    this.method2HandlerMap = ExecutableHandler.createHandlers(executableInterface, instantiator);
+    this(executableInterface, ExecutableDefinition.get(executableInterface, instantiator));
+  }
+
+  /**
+   * Instantiates a factory from an existing definition.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @param definition
+   *          the definition of the executable interface
+   */
+  @SuppressWarnings("unchecked")
+  ReflectiveExecutableFactory(Class<W> executableInterface, ExecutableDefinition definition) {
+    this.definition = definition;
     ClassLoader classLoader = executableInterface.getClassLoader();
     Class<?>[] interfaces = new Class<?>[]{executableInterface};
     this.proxyConstructor = handler -> (W) Proxy.newProxyInstance(classLoader, interfaces, handler);
+    this.wrapperCreator = definition.isImmutable() ? this::createProxy : null;
   }
 
   @Override
   public W create(IExecutionEnvironment executionEnvironment) {
+    ExecutableNode executableNode = definition.createNode(executionEnvironment, wrapperCreator);
+    return createProxy(executableNode);
+  }
+
+  /**
+   * Creates a proxy around an executable node.
+   *
+   * @param executableNode
+   *          the executable node
+   * @return the proxy
+   */
+  private W createProxy(ExecutableNode executableNode) {
     ExecutableHandler<W> invocationHandler = new ExecutableHandler<>(
-        executableInterface, method2HandlerMap, instantiator, executionEnvironment);
+        definition.getMethod2HandlerMap(), executableNode);
     return proxyConstructor.apply(invocationHandler);
   }
 }
\ No newline at end of file
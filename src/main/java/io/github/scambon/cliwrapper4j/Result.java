@@ -16,18 +16,22 @@
 
 package io.github.scambon.cliwrapper4j;
 
+import io.github.scambon.cliwrapper4j.converters.ResultExtractionPlan;
 import io.github.scambon.cliwrapper4j.executors.IExecutor;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.stream.Stream;
 
 /**
  * A class that represents the raw output of calling a command line. Filling this result depends on
  * what the originating {@link IExecutor} deems appropriate.
  * 
  * @see IExecutor
+ * @see StreamingResult
+ * @see FileResult
  */
-public final class Result {
+public class Result {
 
   /** The output. */
   private final String output;
@@ -61,6 +65,25 @@ public final class Result {
     return output;
   }
 
+  /**
+   * Gets the output stream contents as a character sequence, e.g. to be scanned by a regular
+   * expression. Subclasses may return a sequence that is not backed by a string.
+   *
+   * @return the output stream contents
+   */
+  public CharSequence getOutputSequence() {
+    return getOutput();
+  }
+
+  /**
+   * Gets the output stream contents, line by line.
+   *
+   * @return the output stream lines
+   */
+  public Stream<String> getOutputLines() {
+    return new BufferedReader(new StringReader(getOutput())).lines();
+  }
+
   /**
    * Gets the error stream contents.
    *
@@ -110,40 +133,24 @@ public final class Result {
    * <td><code>null</code></td>
    * </tr>
    * </table>
+   * <p>
+   * Callers converting many results with the same types should keep the corresponding
+   * {@link ResultExtractionPlan} instead.
+   * </p>
    * 
    * @param types
    *          the array element types
    * @return the value array
    */
   public Object[] toArray(Class<?>[] types) {
-    List<Object> values = new ArrayList<>();
-    boolean outputAdded = false;
-    for (Class<?> type : types) {
-      if (Result.class.equals(type)) {
-        values.add(this);
-      } else if (String.class.equals(type)) {
-        if (!outputAdded) {
-          values.add(output);
-          outputAdded = true;
-        } else {
-          values.add(error);
-        }
-      } else if (Integer.class.equals(type) || int.class.equals(type)) {
-        values.add(returnCode);
-      } else if (Void.class.equals(type) || void.class.equals(type)) {
-        values.add(null);
-      } else {
-        throw new CommandLineException(
-            "Cannot convert result '" + this + "' or its fields to type '" + type + "'.");
-      }
-    }
-    return values.toArray();
+    return ResultExtractionPlan.of(types)
+        .apply(this);
   }
 
   @Override
   public String toString() {
-    return "Result [output='" + shorten(output) + "', error='" + shorten(error) + "', returnCode='"
-        + returnCode + "']";
+    return "Result [output='" + shorten(getOutput()) + "', error='" + shorten(getError())
+        + "', returnCode='" + getReturnCode() + "']";
   }
 
   /**
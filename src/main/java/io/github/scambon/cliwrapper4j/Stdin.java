@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import io.github.scambon.cliwrapper4j.executors.IExecutor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * An annotation for the @{@link Switch} method parameter that holds the standard input of the
+ * command line, instead of passing it as an argument. The method must be the executing one, i.e.
+ * an @{@link ExecuteNow} or @{@link ExecuteLater} method.
+ * </p>
+ * <p>
+ * The parameter type must be one of:
+ * </p>
+ * <ul>
+ * <li>{@link java.nio.file.Path}, for a file the process reads directly, without copying it
+ * through the JVM</li>
+ * <li>{@link java.io.InputStream} or {@link java.nio.channels.ReadableByteChannel}, copied to the
+ * process while its outputs are read, so that large inputs are never buffered in memory</li>
+ * </ul>
+ * <p>
+ * The value is passed to the {@link IExecutor} as the @{@link Extra} parameter named
+ * {@value #EXTRA_PARAMETER_NAME}. It is not closed once copied, and a stream or channel can only be
+ * read by one execution.
+ * </p>
+ * <p>
+ * This annotation is not compatible with {@link Converter} and {@link Extra}.
+ * </p>
+ */
+@Retention(RUNTIME)
+@Target(PARAMETER)
+public @interface Stdin {
+
+  /** The name of the @{@link Extra} parameter that holds the standard input. */
+  String EXTRA_PARAMETER_NAME = "stdin";
+}
\ No newline at end of file
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import io.github.scambon.cliwrapper4j.executors.StreamingProcessExecutor;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * A result whose output is read incrementally from a running process instead of being fully
+ * materialized, so that memory use is bounded by the read buffer and not by the output size.
+ * </p>
+ * <p>
+ * The output can be consumed only once, either with {@link #getOutputLines()} or with
+ * {@link #getOutput()}. The error and the return code are only available once the output has been
+ * consumed, as the process may otherwise be blocked on a full output pipe: if the output has not
+ * been requested, getting them discards it; if it is being read, getting them fails. Closing the
+ * line stream before its end destroys the process.
+ * </p>
+ *
+ * @see StreamingProcessExecutor
+ */
+public final class StreamingResult extends Result {
+
+  /** The process. */
+  private final Process process;
+  /** The output reader. */
+  private final BufferedReader outputReader;
+  /** The future error. */
+  private final CompletableFuture<String> errorFuture;
+  /** The checks to run on completion. */
+  private final List<Consumer<? super Result>> completionChecks = new ArrayList<>();
+
+  /** Whether the output has already been requested. */
+  private boolean outputRequested;
+  /** Whether the process completed and the checks were run. */
+  private boolean completed;
+  /** Whether the output was closed before its end. */
+  private boolean closed;
+  /** The output, if requested as a whole. */
+  private String output;
+
+  /**
+   * Instantiates a new streaming result.
+   *
+   * @param process
+   *          the running process
+   * @param encoding
+   *          the encoding
+   * @param errorFuture
+   *          the future error stream contents, which must be drained independently
+   */
+  public StreamingResult(
+      Process process, Charset encoding, CompletableFuture<String> errorFuture) {
+    super(null, null, -1);
+    this.process = process;
+    InputStream inputStream = process.getInputStream();
+    this.outputReader = new BufferedReader(new InputStreamReader(inputStream, encoding));
+    this.errorFuture = errorFuture;
+  }
+
+  /**
+   * Adds a check to run once the output has been fully consumed and the process has exited, for
+   * instance to validate the return code. The check may throw a {@link CommandLineException}, which
+   * is then raised to the output consumer.
+   *
+   * @param completionCheck
+   *          the completion check
+   */
+  public synchronized void addCompletionCheck(Consumer<? super Result> completionCheck) {
+    completionChecks.add(completionCheck);
+  }
+
+  @Override
+  public synchronized String getOutput() {
+    if (output == null) {
+      markOutputRequested();
+      try {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[8 * 1024];
+        int readCharacters;
+        while ((readCharacters = outputReader.read(buffer)) != -1) {
+          builder.append(buffer, 0, readCharacters);
+        }
+        output = builder.toString();
+      } catch (IOException ioException) {
+        throw new CommandLineException(ioException);
+      }
+      complete();
+    }
+    return output;
+  }
+
+  @Override
+  public synchronized Stream<String> getOutputLines() {
+    markOutputRequested();
+    Spliterator<String> lineSpliterator = new AbstractSpliterator<String>(
+        Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(Consumer<? super String> action) {
+        String line = readLine();
+        if (line == null) {
+          complete();
+          return false;
+        }
+        action.accept(line);
+        return true;
+      }
+    };
+    return StreamSupport.stream(lineSpliterator, false)
+        .onClose(this::close);
+  }
+
+  @Override
+  public String getError() {
+    ensureCompleted();
+    try {
+      return StreamDrainingUtils.join(errorFuture);
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    }
+  }
+
+  @Override
+  public int getReturnCode() {
+    ensureCompleted();
+    return process.exitValue();
+  }
+
+  /**
+   * Discards the output if it has not been requested, then waits for the process and runs the
+   * completion checks. This is a no-op if the output has already been requested.
+   */
+  public synchronized void discardOutputIfNotRequested() {
+    if (!outputRequested) {
+      outputRequested = true;
+      try {
+        char[] buffer = new char[8 * 1024];
+        while (outputReader.read(buffer) != -1) {
+          // Discard the output, so that the process is not blocked on a full pipe
+        }
+      } catch (IOException ioException) {
+        throw new CommandLineException(ioException);
+      }
+      complete();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "StreamingResult [process='" + process + "']";
+  }
+
+  /**
+   * Marks the output as requested, which can only happen once.
+   */
+  private void markOutputRequested() {
+    if (outputRequested) {
+      throw new CommandLineException("The output of '" + this + "' can only be consumed once");
+    }
+    outputRequested = true;
+  }
+
+  /**
+   * Reads the next output line.
+   *
+   * @return the line, or <code>null</code> if the end of the output was reached
+   */
+  private String readLine() {
+    try {
+      return outputReader.readLine();
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * Ensures that the process has exited, discarding the output if it has not been requested.
+   */
+  private synchronized void ensureCompleted() {
+    discardOutputIfNotRequested();
+    if (!completed) {
+      if (!closed) {
+        throw new CommandLineException("The error and the return code of '" + this
+            + "' are only available once its output has been consumed");
+      }
+      // The process has been destroyed
+      waitForCompletion();
+    }
+  }
+
+  /**
+   * Waits for the process to exit.
+   */
+  private void waitForCompletion() {
+    try {
+      process.waitFor();
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    }
+  }
+
+  /**
+   * Completes the result once the output is fully consumed: waits for the process, then runs the
+   * completion checks.
+   */
+  private synchronized void complete() {
+    if (!completed) {
+      completed = true;
+      waitForCompletion();
+      closeOutputReader();
+      for (Consumer<? super Result> completionCheck : completionChecks) {
+        completionCheck.accept(this);
+      }
+    }
+  }
+
+  /**
+   * Closes the output, destroying the process if it is still running.
+   */
+  private void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    closeOutputReader();
+    if (process.isAlive()) {
+      process.destroy();
+    }
+  }
+
+  /**
+   * Closes the output reader.
+   */
+  private void closeOutputReader() {
+    try {
+      outputReader.close();
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An annotation for @{@link ExecuteNow} and @{@link ExecuteLater} methods whose command line must
+ * complete within a given time. It overrides the
+ * {@link IExecutionEnvironment#getTimeout() environment timeout}, if any.
+ * </p>
+ * <p>
+ * When the execution starts, the timeout is turned into a {@link Deadline}, which the executor
+ * receives even when the execution is asynchronous. Once it expires, the process and its
+ * descendants are asked to terminate, then killed if they are still alive after a grace period,
+ * and the execution fails with a {@link CommandLineTimeoutException}.
+ * </p>
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Timeout {
+
+  /**
+   * The maximum duration of the execution.
+   *
+   * @return the timeout, in {@link #unit()}
+   */
+  long value();
+
+  /**
+   * The unit of {@link #value()}.
+   *
+   * @return the time unit, defaults to seconds
+   */
+  TimeUnit unit() default TimeUnit.SECONDS;
+}
\ No newline at end of file
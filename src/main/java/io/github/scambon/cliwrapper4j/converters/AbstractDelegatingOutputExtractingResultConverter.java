@@ -21,8 +21,16 @@ import io.github.scambon.cliwrapper4j.Result;
 import java.util.Map;
 
 /**
+ * <p>
  * A result converter that extracts some text from the output and converts it through a delegate
  * converter.
+ * </p>
+ * <p>
+ * The source text is a string by default. To scan huge outputs, such as the ones of
+ * {@link io.github.scambon.cliwrapper4j.FileResult file results}, without reading them into a
+ * string, subclasses can override {@link #extractSourceSequence(Result)} and
+ * {@link #extractRelevantTextFromSequence(CharSequence)}.
+ * </p>
  *
  * @param <O>
  *          the output type
@@ -51,8 +59,8 @@ public abstract class AbstractDelegatingOutputExtractingResultConverter<O>
   @Override
   public final O convert(
       Result in, Class<O> outClass, Map<String, Object> extraParameterName2ValueMap) {
-    String sourceText = extractSourceText(in);
-    String relevantString = extractRelevantText(sourceText);
+    CharSequence sourceSequence = extractSourceSequence(in);
+    String relevantString = extractRelevantTextFromSequence(sourceSequence);
     return delegate.convert(relevantString, outClass, extraParameterName2ValueMap);
   }
 
@@ -67,6 +75,20 @@ public abstract class AbstractDelegatingOutputExtractingResultConverter<O>
     return result.getOutput();
   }
 
+  /**
+   * Extracts the source text where the relevant string will be searched, as a character sequence.
+   * By default, this is the {@link #extractSourceText(Result) source text}; it can be overridden
+   * to return the {@link Result#getOutputSequence() output sequence}, so that file results are
+   * not read into a string.
+   *
+   * @param result
+   *          the result
+   * @return the source sequence
+   */
+  protected CharSequence extractSourceSequence(Result result) {
+    return extractSourceText(result);
+  }
+
   /**
    * Extracts the relevant part of the given text, to be fed into the delegate converter.
    *
@@ -75,4 +97,17 @@ public abstract class AbstractDelegatingOutputExtractingResultConverter<O>
    * @return the relevant part of the source text
    */
   protected abstract String extractRelevantText(String sourceText);
+
+  /**
+   * Extracts the relevant part of the given character sequence, to be fed into the delegate
+   * converter. By default, the sequence is turned into a string and given to
+   * {@link #extractRelevantText(String)}.
+   *
+   * @param sourceSequence
+   *          the source sequence
+   * @return the relevant part of the source sequence
+   */
+  protected String extractRelevantTextFromSequence(CharSequence sourceSequence) {
+    return extractRelevantText(sourceSequence.toString());
+  }
 }
\ No newline at end of file
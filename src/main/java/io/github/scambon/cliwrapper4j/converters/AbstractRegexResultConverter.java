@@ -31,6 +31,9 @@ import java.util.regex.Pattern;
 public abstract class AbstractRegexResultConverter<O>
     extends AbstractDelegatingOutputExtractingResultConverter<O> {
 
+  /** The maximum output length in error messages. */
+  private static final int MAX_MESSAGE_OUTPUT_LENGTH = 1000;
+
   /** The pattern. */
   private final Pattern pattern;
 
@@ -50,11 +53,31 @@ public abstract class AbstractRegexResultConverter<O>
 
   @Override
   protected final String extractRelevantText(String output) {
+    return extractRelevantTextFromSequence(output);
+  }
+
+  @Override
+  protected final String extractRelevantTextFromSequence(CharSequence output) {
     Matcher matcher = pattern.matcher(output);
     if (matcher.find()) {
       return matcher.group(1);
     }
     throw new CommandLineException(
-        "Pattern '" + pattern + "' did not match output '" + output + "'");
+        "Pattern '" + pattern + "' did not match output '" + shorten(output) + "'");
+  }
+
+  /**
+   * Shortens the output for error messages, as it may be huge.
+   *
+   * @param output
+   *          the output
+   * @return the shortened output
+   */
+  private static String shorten(CharSequence output) {
+    if (output.length() > MAX_MESSAGE_OUTPUT_LENGTH) {
+      return output.subSequence(0, MAX_MESSAGE_OUTPUT_LENGTH) + "...";
+    } else {
+      return output.toString();
+    }
   }
 }
\ No newline at end of file
@@ -18,13 +18,18 @@ package io.github.scambon.cliwrapper4j.converters;
 
 import io.github.scambon.cliwrapper4j.CommandLineException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * A converter that converts with its first delegate which is able to.
+ * A converter that converts with its first delegate which is able to. The delegate chosen for a
+ * given input and output class pair is cached, as well as the absence of such a delegate, so that
+ * only the first conversion of each pair scans the delegates.
  *
  * @param <I>
  *          the input type
@@ -36,6 +41,10 @@ public class CompositeConverter<I, O> implements IConverter<I, O> {
   /** The delegate converters. */
   @SuppressWarnings("rawtypes")
   private final List<IConverter> converters;
+  /** The cache from a conversion to its delegate converter, empty if none can convert. */
+  @SuppressWarnings("rawtypes")
+  private final Map<Conversion, Optional<IConverter>> conversion2ConverterMap =
+      new ConcurrentHashMap<>();
 
   /**
    * Instantiates a new composite converter.
@@ -45,7 +54,7 @@ public class CompositeConverter<I, O> implements IConverter<I, O> {
    */
   @SuppressWarnings({"rawtypes", "unchecked"})
   public CompositeConverter(List<? extends IConverter<? extends I, ? extends O>> converters) {
-    this.converters = (List) converters;
+    this.converters = Collections.unmodifiableList(new ArrayList<>(converters));
   }
 
   /**
@@ -60,24 +69,96 @@ public class CompositeConverter<I, O> implements IConverter<I, O> {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public boolean canConvert(Class<I> inClass, Class<O> outClass) {
-    return converters.stream()
-        .anyMatch(converter -> converter.canConvert(inClass, outClass));
+    return findConverter(inClass, outClass).isPresent();
   }
 
   @Override
-  @SuppressWarnings("unchecked")
+  @SuppressWarnings({"rawtypes", "unchecked"})
   public O convert(I in, Class<O> outClass, Map<String, Object> extraParameterName2ValueMap) {
-    Class<I> inClass = (Class<I>) in.getClass();
-    return (O) converters.stream()
-        .filter(converter -> converter.canConvert(inClass, outClass))
-        .map(converter -> converter.convert(in, outClass, extraParameterName2ValueMap))
-        // Prevent NPE if the converter returns null 
-        .map(Optional::ofNullable)
-        .findFirst()
-        .orElseThrow(
-            () -> new CommandLineException("Could not convert '" + in + "' to '" + outClass + "'"))
-        .orElseGet(() -> null);
+    Class<I> inClass = getInClass(in);
+    Optional<IConverter> converter = findConverter(inClass, outClass);
+    if (!converter.isPresent()) {
+      throw new CommandLineException("Could not convert '" + in + "' to '" + outClass + "'");
+    }
+    return (O) converter.get()
+        .convert(in, outClass, extraParameterName2ValueMap);
+  }
+
+  /**
+   * Finds the first delegate converter that can convert between the given classes, using the
+   * cache.
+   *
+   * @param inClass
+   *          the input class
+   * @param outClass
+   *          the output class
+   * @return the delegate converter, empty if none can convert
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private Optional<IConverter> findConverter(Class<?> inClass, Class<?> outClass) {
+    Conversion conversion = new Conversion(inClass, outClass);
+    Optional<IConverter> converter = conversion2ConverterMap.get(conversion);
+    if (converter == null) {
+      // Not computed under the map lock, as delegates may use reflection
+      converter = converters.stream()
+          .filter(delegate -> delegate.canConvert(inClass, outClass))
+          .findFirst();
+      conversion2ConverterMap.putIfAbsent(conversion, converter);
+    }
+    return converter;
+  }
+
+  /**
+   * Gets the class used to select the delegate converter for the given input.
+   *
+   * @param in
+   *          the element to convert
+   * @return the input class, defaults to the runtime class of the element
+   */
+  @SuppressWarnings("unchecked")
+  protected Class<I> getInClass(I in) {
+    return (Class<I>) in.getClass();
+  }
+
+  /**
+   * A conversion from an input class to an output class, used as a cache key.
+   */
+  private static final class Conversion {
+
+    /** The input class. */
+    private final Class<?> inClass;
+    /** The output class. */
+    private final Class<?> outClass;
+
+    /**
+     * Instantiates a new conversion.
+     *
+     * @param inClass
+     *          the input class
+     * @param outClass
+     *          the output class
+     */
+    private Conversion(Class<?> inClass, Class<?> outClass) {
+      this.inClass = inClass;
+      this.outClass = outClass;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * inClass.hashCode() + outClass.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (!(object instanceof Conversion)) {
+        return false;
+      }
+      Conversion other = (Conversion) object;
+      return inClass == other.inClass && outClass == other.outClass;
+    }
   }
 }
\ No newline at end of file
@@ -18,30 +18,49 @@ package io.github.scambon.cliwrapper4j.converters;
 
 import io.github.scambon.cliwrapper4j.CommandLineException;
 import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.internal.converters.ResultConverterHandleUtils;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 /**
  * A result converter that reflectively calls the constructor corresponding to the given
  * parameter types. If such a constructor is not defined, then {@link #canConvert(Class, Class)}
- * returns <code>false</code>.
+ * returns <code>false</code>. The constructor is looked up once per output class, then invoked
+ * through a cached method handle.
  */
 public class ConstructorResultConverter implements IConverter<Result, Object> {
   /** The parameter types to look for. */
   private final Class<?>[] constructorParameterTypes;
   /** The parameters extractor. */
   private final Function<Result, Object[]> constructorParametersExtractor;
+  /** The constructor handles, empty if there is no such constructor. */
+  private final ClassValue<Optional<MethodHandle>> constructorHandles =
+      new ClassValue<Optional<MethodHandle>>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> outClass) {
+          try {
+            Constructor<?> constructor = outClass.getConstructor(constructorParameterTypes);
+            return Optional.of(ResultConverterHandleUtils.toSpreadingHandle(constructor));
+          } catch (ReflectiveOperationException roe) {
+            return Optional.empty();
+          }
+        }
+      };
 
   /**
-   * Creates the converter, using {@link Result#toArray(Class[])}.
+   * Creates the converter, using a {@link ResultExtractionPlan}, i.e. the rules of
+   * {@link Result#toArray(Class[])}.
    * 
    * @param constructorParameterTypes
    *          the expected constructor parameter types
    */
   public ConstructorResultConverter(Class<?>... constructorParameterTypes) {
-    this(constructorParameterTypes, result -> result.toArray(constructorParameterTypes));
+    this(constructorParameterTypes, ResultExtractionPlan.of(constructorParameterTypes));
   }
   
   /**
@@ -63,23 +82,17 @@ public class ConstructorResultConverter implements IConverter<Result, Object> {
     if (!Result.class.equals(inClass)) {
       return false;
     }
-    try {
-      Constructor<?> constructor = outClass.getConstructor(constructorParameterTypes);
-      return constructor != null;
-    } catch (ReflectiveOperationException roe) {
-      return false;
-    }
+    return constructorHandles.get(outClass)
+        .isPresent();
   }
 
   @Override
   public Object convert(
       Result in, Class<Object> outClass, Map<String, Object> extraParameterName2ValueMap) {
-    try {
-      Constructor<?> constructor = outClass.getConstructor(constructorParameterTypes);
-      Object[] arguments = constructorParametersExtractor.apply(in);
-      return constructor.newInstance(arguments);
-    } catch (ReflectiveOperationException roe) {
-      throw new CommandLineException(roe);
-    }
+    MethodHandle constructorHandle = constructorHandles.get(outClass)
+        .orElseThrow(() -> new CommandLineException("No public constructor with parameters '"
+            + Arrays.toString(constructorParameterTypes) + "' in '" + outClass + "'"));
+    Object[] arguments = constructorParametersExtractor.apply(in);
+    return ResultConverterHandleUtils.invoke(constructorHandle, arguments);
   }
 }
\ No newline at end of file
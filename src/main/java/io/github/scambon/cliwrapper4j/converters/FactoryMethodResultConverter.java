@@ -19,8 +19,9 @@ package io.github.scambon.cliwrapper4j.converters;
 import io.github.scambon.cliwrapper4j.CommandLineException;
 import io.github.scambon.cliwrapper4j.Result;
 import io.github.scambon.cliwrapper4j.internal.converters.FactoryMethodResultConverterUtils;
+import io.github.scambon.cliwrapper4j.internal.converters.ResultConverterHandleUtils;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
@@ -60,6 +61,10 @@ import java.util.function.Function;
  * </li>
  * <li><code>toString()</code> representation (avoid this one!)</li>
  * </ol>
+ * <p>
+ * The factory method is looked up once per output class, then invoked through a cached method
+ * handle.
+ * </p>
  */
 public class FactoryMethodResultConverter implements IConverter<Result, Object> {
 
@@ -67,15 +72,25 @@ public class FactoryMethodResultConverter implements IConverter<Result, Object>
   private final Class<?>[] methodParameterTypes;
   /** The parameters extractor. */
   private final Function<Result, Object[]> methodParametersExtractor;
+  /** The factory method handles, empty if there is no such factory method. */
+  private final ClassValue<Optional<MethodHandle>> factoryMethodHandles =
+      new ClassValue<Optional<MethodHandle>>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> outClass) {
+          return FactoryMethodResultConverterUtils.findFactoryMethod(outClass, methodParameterTypes)
+              .map(ResultConverterHandleUtils::toSpreadingHandle);
+        }
+      };
 
   /**
-   * Creates the converter, using {@link Result#toArray(Class[])}.
+   * Creates the converter, using a {@link ResultExtractionPlan}, i.e. the rules of
+   * {@link Result#toArray(Class[])}.
    * 
    * @param methodParameterTypes
    *          the expected constructor parameter types
    */
   public FactoryMethodResultConverter(Class<?>... methodParameterTypes) {
-    this(methodParameterTypes, result -> result.toArray(methodParameterTypes));
+    this(methodParameterTypes, ResultExtractionPlan.of(methodParameterTypes));
   }
 
   /**
@@ -94,25 +109,19 @@ public class FactoryMethodResultConverter implements IConverter<Result, Object>
 
   @Override
   public boolean canConvert(Class<Result> inClass, Class<Object> outClass) {
-    Optional<Method> factoryMethodOpt = FactoryMethodResultConverterUtils.findFactoryMethod(
-        outClass, methodParameterTypes);
-    return factoryMethodOpt.isPresent();
+    return factoryMethodHandles.get(outClass)
+        .isPresent();
   }
 
   @Override
   public Object convert(
       Result in, Class<Object> outClass, Map<String, Object> extraParameterName2ValueMap) {
-    try {
-      Optional<Method> factoryMethodOpt = FactoryMethodResultConverterUtils.findFactoryMethod(
-          outClass, methodParameterTypes);
-      Object[] arguments = methodParametersExtractor.apply(in);
-      Method factoryMethod = factoryMethodOpt.orElseThrow(
-          () -> new CommandLineException(
-              "The converter '" + this + "' said it could convert from '"
-                  + Result.class + "' to '" + outClass + "', but now it seems it cannot"));
-      return factoryMethod.invoke(null, arguments);
-    } catch (ReflectiveOperationException roe) {
-      throw new CommandLineException(roe);
-    }
+    MethodHandle factoryMethodHandle = factoryMethodHandles.get(outClass)
+        .orElseThrow(
+            () -> new CommandLineException(
+                "The converter '" + this + "' said it could convert from '"
+                    + Result.class + "' to '" + outClass + "', but now it seems it cannot"));
+    Object[] arguments = methodParametersExtractor.apply(in);
+    return ResultConverterHandleUtils.invoke(factoryMethodHandle, arguments);
   }
 }
\ No newline at end of file
@@ -128,4 +128,10 @@ public class ReflectiveResultConverter extends CompositeConverter<Result, Object
   public ReflectiveResultConverter() {
     super(DELEGATE_CONVERTERS);
   }
+
+  @Override
+  protected Class<Result> getInClass(Result in) {
+    // Result subclasses, e.g. streaming results, are converted like results
+    return Result.class;
+  }
 }
\ No newline at end of file
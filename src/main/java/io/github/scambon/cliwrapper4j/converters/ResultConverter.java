@@ -16,14 +16,23 @@
 
 package io.github.scambon.cliwrapper4j.converters;
 
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.FileResult;
 import io.github.scambon.cliwrapper4j.Result;
 
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
 /**
  * A converter that provides the base {@link Result} or its properties. The conversion uses the
  * following rules, based on the output type:
  * <ul>
  * <li>{@link Result} returns the same {@link Result}</li>
  * <li>{@link String} returns to the method output stream contents</li>
+ * <li>{@link Stream} returns the method output stream lines</li>
+ * <li>{@link FileResult} returns the same {@link FileResult}, if the output was redirected to a
+ * file</li>
+ * <li>{@link Path} returns the output file, if the output was redirected to a file</li>
  * <li><code>int</code> and {@link Integer} returns to the return code</li>
  * <li><code>void</code> and {@link Void} returns nothing</li>
  * <li>Other: the {@link ReflectiveResultConverter} is used to create the output instance</li>
@@ -34,14 +43,40 @@ public final class ResultConverter extends CompositeConverter<Result, Object> {
   /**
    * Instantiates a new result converter.
    */
+  @SuppressWarnings("rawtypes")
   public ResultConverter() {
     super(
         new LambdaConverter<>(Result.class, Result.class, result -> result),
         new LambdaConverter<>(Result.class, String.class, Result::getOutput),
+        new LambdaConverter<Result, Stream>(Result.class, Stream.class, Result::getOutputLines),
+        new LambdaConverter<>(Result.class, FileResult.class, ResultConverter::toFileResult),
+        new LambdaConverter<>(Result.class, Path.class,
+            result -> toFileResult(result).getOutputPath()),
         new LambdaConverter<>(Result.class, int.class, Result::getReturnCode),
         new LambdaConverter<>(Result.class, Integer.class, Result::getReturnCode),
         new LambdaConverter<>(Result.class, void.class, result -> null),
         new LambdaConverter<>(Result.class, Void.class, result -> null),
         new ReflectiveResultConverter());
   }
+
+  @Override
+  protected Class<Result> getInClass(Result in) {
+    // Result subclasses, e.g. streaming results, are converted like results
+    return Result.class;
+  }
+
+  /**
+   * Casts a result to a file result.
+   *
+   * @param result
+   *          the result
+   * @return the file result
+   */
+  private static FileResult toFileResult(Result result) {
+    if (result instanceof FileResult) {
+      return (FileResult) result;
+    }
+    throw new CommandLineException("The output of '" + result
+        + "' was not redirected to a file, e.g. by a FileRedirectingProcessExecutor");
+  }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.converters;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Result;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A function that turns a {@link Result} into an argument array, following the rules of
+ * {@link Result#toArray(Class[])}. The parameter types are resolved once when the plan is
+ * created, so that applying it only allocates the returned array.
+ * 
+ * @see Result#toArray(Class[])
+ */
+public final class ResultExtractionPlan implements Function<Result, Object[]> {
+
+  /** The plans for the supported parameter type signatures. */
+  private static final Map<List<Class<?>>, ResultExtractionPlan> SIGNATURE_2_PLAN_MAP =
+      new ConcurrentHashMap<>();
+
+  /** The parameter types. */
+  private final Class<?>[] types;
+  /** The slot, i.e. the extracted value, for each parameter type. */
+  private final Slot[] slots;
+  /** Whether all parameter types can be extracted. */
+  private final boolean supported;
+
+  /**
+   * Instantiates a new result extraction plan.
+   *
+   * @param types
+   *          the parameter types
+   */
+  private ResultExtractionPlan(Class<?>[] types) {
+    this.types = types;
+    this.slots = new Slot[types.length];
+    boolean outputUsed = false;
+    boolean allSupported = true;
+    for (int index = 0; index < types.length; index++) {
+      Slot slot = Slot.of(types[index], outputUsed);
+      outputUsed |= slot == Slot.OUTPUT;
+      allSupported &= slot != Slot.UNSUPPORTED;
+      slots[index] = slot;
+    }
+    this.supported = allSupported;
+  }
+
+  /**
+   * Gets the plan for the given parameter types. Plans are shared between identical signatures.
+   *
+   * @param types
+   *          the parameter types
+   * @return the plan
+   */
+  public static ResultExtractionPlan of(Class<?>... types) {
+    List<Class<?>> signature = Arrays.asList(types);
+    ResultExtractionPlan plan = SIGNATURE_2_PLAN_MAP.get(signature);
+    if (plan == null) {
+      plan = new ResultExtractionPlan(types.clone());
+      // Unsupported types are not kept, so that user classes are not retained forever
+      if (plan.supported) {
+        SIGNATURE_2_PLAN_MAP.putIfAbsent(Arrays.asList(plan.types), plan);
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Checks whether all parameter types can be extracted from a result.
+   *
+   * @return true, if {@link #apply(Result)} cannot fail because of an unsupported type
+   */
+  public boolean isSupported() {
+    return supported;
+  }
+
+  @Override
+  public Object[] apply(Result result) {
+    Object[] values = new Object[slots.length];
+    for (int index = 0; index < slots.length; index++) {
+      values[index] = slots[index].extract(result, types[index]);
+    }
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return "ResultExtractionPlan " + Arrays.toString(slots);
+  }
+
+  /** The values that can be extracted from a result. */
+  private enum Slot {
+
+    /** The result itself. */
+    RESULT {
+      @Override
+      Object extract(Result result, Class<?> type) {
+        return result;
+      }
+    },
+    /** The output. */
+    OUTPUT {
+      @Override
+      Object extract(Result result, Class<?> type) {
+        return result.getOutput();
+      }
+    },
+    /** The error. */
+    ERROR {
+      @Override
+      Object extract(Result result, Class<?> type) {
+        return result.getError();
+      }
+    },
+    /** The return code. */
+    RETURN_CODE {
+      @Override
+      Object extract(Result result, Class<?> type) {
+        return result.getReturnCode();
+      }
+    },
+    /** The <code>null</code> value. */
+    NULL {
+      @Override
+      Object extract(Result result, Class<?> type) {
+        return null;
+      }
+    },
+    /** An unsupported type. */
+    UNSUPPORTED {
+      @Override
+      Object extract(Result result, Class<?> type) {
+        throw new CommandLineException(
+            "Cannot convert result '" + result + "' or its fields to type '" + type + "'.");
+      }
+    };
+
+    /**
+     * Extracts the value from the result.
+     *
+     * @param result
+     *          the result
+     * @param type
+     *          the parameter type
+     * @return the value
+     */
+    abstract Object extract(Result result, Class<?> type);
+
+    /**
+     * Gets the slot for the given type.
+     *
+     * @param type
+     *          the type
+     * @param outputUsed
+     *          whether a previous String parameter already uses the output
+     * @return the slot
+     */
+    static Slot of(Class<?> type, boolean outputUsed) {
+      if (Result.class.equals(type)) {
+        return RESULT;
+      } else if (String.class.equals(type)) {
+        return outputUsed ? ERROR : OUTPUT;
+      } else if (Integer.class.equals(type) || int.class.equals(type)) {
+        return RETURN_CODE;
+      } else if (Void.class.equals(type) || void.class.equals(type)) {
+        return NULL;
+      } else {
+        return UNSUPPORTED;
+      }
+    }
+  }
+}
\ No newline at end of file
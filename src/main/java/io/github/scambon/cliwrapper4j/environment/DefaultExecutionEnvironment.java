@@ -16,16 +16,22 @@
 
 package io.github.scambon.cliwrapper4j.environment;
 
+import io.github.scambon.cliwrapper4j.CommandLineException;
 import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Timeout;
+import io.github.scambon.cliwrapper4j.events.IExecutionListener;
 import io.github.scambon.cliwrapper4j.executors.IExecutor;
 import io.github.scambon.cliwrapper4j.internal.os.AbstractOperatingSystem;
+import io.github.scambon.cliwrapper4j.metrics.IMetricsRegistry;
 
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 /**
  * An base execution environment that handles the most common cases.
@@ -39,6 +45,14 @@ public class DefaultExecutionEnvironment implements IExecutionEnvironment {
 
   /** The encoding. */
   private Charset encoding;
+  /** The asynchronous executor. */
+  private Executor asyncExecutor;
+  /** The timeout, <code>null</code> if none. */
+  private Duration timeout;
+  /** The metrics registry, <code>null</code> if none. */
+  private IMetricsRegistry metricsRegistry;
+  /** The execution listener, <code>null</code> if none. */
+  private IExecutionListener executionListener;
 
   /**
    * Instantiates a new default execution environment.
@@ -81,6 +95,73 @@ public class DefaultExecutionEnvironment implements IExecutionEnvironment {
     return encoding;
   }
 
+  /**
+   * Sets the executor that completes asynchronous executions and runs their post-processing.
+   *
+   * @param asyncExecutor
+   *          the new asynchronous executor
+   */
+  public void setAsyncExecutor(Executor asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  @Override
+  public Executor getAsyncExecutor() {
+    if (asyncExecutor == null) {
+      return IExecutionEnvironment.super.getAsyncExecutor();
+    }
+    return asyncExecutor;
+  }
+
+  /**
+   * Sets the timeout of the executions whose method has no @{@link Timeout}.
+   *
+   * @param timeout
+   *          the new timeout, <code>null</code> for none
+   */
+  public void setTimeout(Duration timeout) {
+    if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+      throw new CommandLineException("The timeout must be positive but was '" + timeout + "'");
+    }
+    this.timeout = timeout;
+  }
+
+  @Override
+  public Optional<Duration> getTimeout() {
+    return Optional.ofNullable(timeout);
+  }
+
+  /**
+   * Sets the registry that receives the metrics of the executions.
+   *
+   * @param metricsRegistry
+   *          the new metrics registry, <code>null</code> to disable metrics
+   */
+  public void setMetricsRegistry(IMetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+  }
+
+  @Override
+  public Optional<IMetricsRegistry> getMetricsRegistry() {
+    return Optional.ofNullable(metricsRegistry);
+  }
+
+  /**
+   * Sets the listener that receives the events of the executions. Several listeners can be
+   * combined with {@link IExecutionListener#andThen(IExecutionListener)}.
+   *
+   * @param executionListener
+   *          the new execution listener, <code>null</code> to disable events
+   */
+  public void setExecutionListener(IExecutionListener executionListener) {
+    this.executionListener = executionListener;
+  }
+
+  @Override
+  public Optional<IExecutionListener> getExecutionListener() {
+    return Optional.ofNullable(executionListener);
+  }
+
   @Override
   public void setEnvironmentVariable(String variable, String value) {
     environmentVariables.put(variable, value);
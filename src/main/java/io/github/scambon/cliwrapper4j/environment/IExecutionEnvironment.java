@@ -18,14 +18,21 @@ package io.github.scambon.cliwrapper4j.environment;
 
 import io.github.scambon.cliwrapper4j.Extra;
 import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Timeout;
+import io.github.scambon.cliwrapper4j.events.IExecutionListener;
 import io.github.scambon.cliwrapper4j.executors.IExecutor;
+import io.github.scambon.cliwrapper4j.metrics.IMetricsRegistry;
 
 import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * An interface that describes an execution environment.
@@ -63,6 +70,33 @@ public interface IExecutionEnvironment {
    */
   void setEnvironmentVariable(String variable, String value);
 
+  /**
+   * Gets the timeout of the executions whose method has no @{@link Timeout}.
+   *
+   * @return the timeout, empty by default, i.e. executions may run forever
+   */
+  default Optional<Duration> getTimeout() {
+    return Optional.empty();
+  }
+
+  /**
+   * Gets the registry that receives the metrics of the executions.
+   *
+   * @return the metrics registry, empty by default, i.e. no metrics are collected
+   */
+  default Optional<IMetricsRegistry> getMetricsRegistry() {
+    return Optional.empty();
+  }
+
+  /**
+   * Gets the listener that receives the events of the executions.
+   *
+   * @return the execution listener, empty by default, i.e. no events are emitted
+   */
+  default Optional<IExecutionListener> getExecutionListener() {
+    return Optional.empty();
+  }
+
   /**
    * Runs the execution.
    *
@@ -79,6 +113,34 @@ public interface IExecutionEnvironment {
       List<String> cliElements,
       Map<String, Object> extraParameterName2ValueMap);
 
+  /**
+   * Gets the executor that completes asynchronous executions and runs their post-processing.
+   *
+   * @return the asynchronous executor, the common fork-join pool by default
+   */
+  default Executor getAsyncExecutor() {
+    return ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Runs the execution without blocking the calling thread.
+   *
+   * @param executor
+   *          the executor
+   * @param cliElements
+   *          the command line interface elements
+   * @param extraParameterName2ValueMap
+   *          the {@link Extra} parameter name 2 value map
+   * @return the future result, completed using the {@link #getAsyncExecutor() async executor}
+   */
+  default CompletableFuture<Result> runAsync(
+      IExecutor executor,
+      List<String> cliElements,
+      Map<String, Object> extraParameterName2ValueMap) {
+    return executor.executeAsync(
+        cliElements, this, extraParameterName2ValueMap, getAsyncExecutor());
+  }
+
   /**
    * Configures the given process builder with the elements from this execution environment.
    *
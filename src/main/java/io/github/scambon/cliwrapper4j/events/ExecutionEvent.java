@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.events;
+
+/**
+ * A timestamped event of an execution. The events of an execution share its correlation id, so
+ * that they can be told apart from the ones of concurrent executions.
+ */
+public final class ExecutionEvent {
+
+  /** The correlation id. */
+  private final long correlationId;
+  /** The stage. */
+  private final ExecutionStage stage;
+  /** The name. */
+  private final String name;
+  /** The start time, as given by {@link System#nanoTime()}. */
+  private final long startNanos;
+  /** The duration, in nanoseconds. */
+  private final long durationNanos;
+
+  /**
+   * Instantiates a new execution event.
+   *
+   * @param correlationId
+   *          the correlation id of the execution
+   * @param stage
+   *          the stage
+   * @param name
+   *          the name, whose meaning depends on the stage
+   * @param startNanos
+   *          the start time, as given by {@link System#nanoTime()}
+   * @param durationNanos
+   *          the duration, in nanoseconds
+   */
+  public ExecutionEvent(
+      long correlationId, ExecutionStage stage, String name, long startNanos, long durationNanos) {
+    this.correlationId = correlationId;
+    this.stage = stage;
+    this.name = name;
+    this.startNanos = startNanos;
+    this.durationNanos = durationNanos;
+  }
+
+  /**
+   * Gets the correlation id of the execution.
+   *
+   * @return the correlation id
+   */
+  public long getCorrelationId() {
+    return correlationId;
+  }
+
+  /**
+   * Gets the stage.
+   *
+   * @return the stage
+   */
+  public ExecutionStage getStage() {
+    return stage;
+  }
+
+  /**
+   * Gets the name, whose meaning depends on the {@link ExecutionStage stage}.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the start time. As it is given by {@link System#nanoTime()}, it is only meaningful
+   * relatively to other events.
+   *
+   * @return the start time, in nanoseconds
+   */
+  public long getStartNanos() {
+    return startNanos;
+  }
+
+  /**
+   * Gets the duration.
+   *
+   * @return the duration, in nanoseconds
+   */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "#" + correlationId + " " + stage + " '" + name + "' in " + durationNanos + "ns";
+  }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.events;
+
+/**
+ * The stages of an execution, in the order in which they usually start.
+ */
+public enum ExecutionStage {
+
+  /**
+   * A @{@link io.github.scambon.cliwrapper4j.Switch} method added its switch to the command line.
+   * The event name is the switch. As the switches are added before the execution starts, these
+   * events are emitted when it starts, with the times they were measured at.
+   */
+  SWITCH,
+  /**
+   * The switches and parameters were converted and flattened into the command line elements. The
+   * event name is the executable.
+   */
+  FLATTEN,
+  /**
+   * A pre-processor processed the command line elements. The event name is the pre-processor
+   * class simple name.
+   */
+  PRE_PROCESS,
+  /**
+   * The process was started. The event name is the executable and the duration is the spawn
+   * latency.
+   */
+  PROCESS_START,
+  /**
+   * The process wrote the first byte of its output. The event name is the executable and the
+   * duration is measured from the process start.
+   */
+  FIRST_BYTE,
+  /**
+   * The process exited. The event name is the executable and the duration is measured from the
+   * process start.
+   */
+  PROCESS_EXIT,
+  /**
+   * The result was validated and converted. The event name is the executing method, as
+   * <code>Interface.method</code>.
+   */
+  POST_PROCESS
+}
\ No newline at end of file
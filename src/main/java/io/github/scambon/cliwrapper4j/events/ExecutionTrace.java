@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.events;
+
+import io.github.scambon.cliwrapper4j.Extra;
+import io.github.scambon.cliwrapper4j.internal.utils.ExtraParameterUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * The trace of one execution, which emits its events to the {@link IExecutionListener} with the
+ * correlation id of the execution. It is only created when the execution environment has a
+ * listener, so that executions without one allocate nothing for events.
+ * </p>
+ * <p>
+ * It is passed to the executors as the @{@link Extra} parameter named
+ * {@value #EXTRA_PARAMETER_NAME}, so that they can emit the process events.
+ * </p>
+ */
+public final class ExecutionTrace {
+
+  /** The name of the @{@link Extra} parameter that holds the execution trace. */
+  public static final String EXTRA_PARAMETER_NAME = "trace";
+
+  /** The last correlation id. */
+  private static final AtomicLong LAST_CORRELATION_ID = new AtomicLong();
+
+  /** The listener. */
+  private final IExecutionListener listener;
+  /** The correlation id. */
+  private final long correlationId;
+
+  /**
+   * Instantiates a new execution trace.
+   *
+   * @param listener
+   *          the listener
+   * @param correlationId
+   *          the correlation id
+   */
+  private ExecutionTrace(IExecutionListener listener, long correlationId) {
+    this.listener = listener;
+    this.correlationId = correlationId;
+  }
+
+  /**
+   * Starts the trace of a new execution, with a new correlation id.
+   *
+   * @param listener
+   *          the listener
+   * @return the execution trace
+   */
+  public static ExecutionTrace start(IExecutionListener listener) {
+    return new ExecutionTrace(listener, LAST_CORRELATION_ID.incrementAndGet());
+  }
+
+  /**
+   * Gets the execution trace from the extra parameters.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map, may be <code>null</code>
+   * @return the execution trace, or <code>null</code> if nobody listens
+   */
+  public static ExecutionTrace get(Map<String, Object> extraParameterName2ValueMap) {
+    return ExtraParameterUtils.get(
+        extraParameterName2ValueMap, EXTRA_PARAMETER_NAME, ExecutionTrace.class);
+  }
+
+  /**
+   * Gets the correlation id of the execution.
+   *
+   * @return the correlation id
+   */
+  public long getCorrelationId() {
+    return correlationId;
+  }
+
+  /**
+   * Emits an event.
+   *
+   * @param stage
+   *          the stage
+   * @param name
+   *          the name, whose meaning depends on the stage
+   * @param startNanos
+   *          the start time, as given by {@link System#nanoTime()}
+   * @param durationNanos
+   *          the duration, in nanoseconds
+   */
+  public void emit(ExecutionStage stage, String name, long startNanos, long durationNanos) {
+    listener.onEvent(new ExecutionEvent(correlationId, stage, name, startNanos, durationNanos));
+  }
+
+  /**
+   * Emits an event that ends now.
+   *
+   * @param stage
+   *          the stage
+   * @param name
+   *          the name, whose meaning depends on the stage
+   * @param startNanos
+   *          the start time, as given by {@link System#nanoTime()}
+   */
+  public void emitSince(ExecutionStage stage, String name, long startNanos) {
+    emit(stage, name, startNanos, System.nanoTime() - startNanos);
+  }
+}
\ No newline at end of file
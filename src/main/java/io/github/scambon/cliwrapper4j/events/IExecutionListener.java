@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.events;
+
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+
+/**
+ * <p>
+ * A listener that receives the events of every execution run in an
+ * {@link IExecutionEnvironment#getExecutionListener() execution environment that has one}.
+ * </p>
+ * <p>
+ * Implementations must be thread-safe, as concurrent executions emit concurrently, and should be
+ * fast and not block, as they are called by the executing threads, including the ones that read
+ * the process outputs.
+ * </p>
+ */
+@FunctionalInterface
+public interface IExecutionListener {
+
+  /**
+   * Reacts to an execution event.
+   *
+   * @param event
+   *          the event
+   */
+  void onEvent(ExecutionEvent event);
+
+  /**
+   * Gets a listener that passes the events to this listener, then to the given one.
+   *
+   * @param other
+   *          the other listener
+   * @return the composed listener
+   */
+  default IExecutionListener andThen(IExecutionListener other) {
+    return event -> {
+      onEvent(event);
+      other.onEvent(event);
+    };
+  }
+}
\ No newline at end of file
@@ -21,6 +21,8 @@ import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * A base executor that decorates a delegate executor.
@@ -46,4 +48,12 @@ public abstract class AbstractDelegatingExecutor implements IExecutor {
       Map<String, Object> extraParameterName2ValueMap) {
     return delegate.execute(elements, executionEnvironment, extraParameterName2ValueMap);
   }
+
+  @Override
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment executionEnvironment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    return delegate.executeAsync(
+        elements, executionEnvironment, extraParameterName2ValueMap, completionExecutor);
+  }
 }
\ No newline at end of file
@@ -17,10 +17,17 @@
 package io.github.scambon.cliwrapper4j.executors;
 
 import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Deadline;
 import io.github.scambon.cliwrapper4j.Extra;
 import io.github.scambon.cliwrapper4j.Result;
 import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.events.ExecutionStage;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
 import io.github.scambon.cliwrapper4j.executors.InteractorRunnable.IInteractor;
+import io.github.scambon.cliwrapper4j.internal.executors.DeadlineUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.FirstByteInputStream;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+import io.github.scambon.cliwrapper4j.metrics.ExecutionMetrics;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -29,34 +36,93 @@ import java.io.PrintWriter;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
+ * <p>
  * A base executor that helps implementing interacting with an executable.
+ * </p>
+ * <p>
+ * Each execution runs two interactors, one per process output. By default, each of them runs in
+ * a {@link #createInteractorThread(String, InputStream, OutputStream, Charset, IInteractor, Map)
+ * dedicated thread}; subclasses can pass an interactor executor instead, e.g. a shared pool or
+ * {@link InteractorExecutors#newVirtualThreadExecutor() virtual threads}. An exception thrown by
+ * an interactor stops the process and is rethrown by the execution.
+ * </p>
+ * <p>
+ * When the execution has a {@link Deadline}, the process tree is destroyed once it expires, which
+ * ends the interactors, and the execution fails with a
+ * {@link io.github.scambon.cliwrapper4j.CommandLineTimeoutException}.
+ * </p>
+ * <p>
+ * When the execution has {@link ExecutionMetrics}, they are filled with the spawn latency and the
+ * wall time; the outputs are handled by the interactors, so their sizes are not known. When it
+ * has an {@link ExecutionTrace}, the process start, first output byte and exit events are emitted.
+ * </p>
  */
 public abstract class AbstractInteractiveProcessExecutor implements IExecutor {
 
+  /** The interactor executor, <code>null</code> to use dedicated threads. */
+  private final Executor interactorExecutor;
+
+  /**
+   * Instantiates a new interactive process executor that runs interactors in dedicated threads.
+   */
+  protected AbstractInteractiveProcessExecutor() {
+    this(null);
+  }
+
+  /**
+   * Instantiates a new interactive process executor. A bounded executor must provide two threads
+   * per concurrent execution, otherwise a process whose outputs are not both read may never exit.
+   *
+   * @param interactorExecutor
+   *          the interactor executor, <code>null</code> to use dedicated threads
+   */
+  protected AbstractInteractiveProcessExecutor(Executor interactorExecutor) {
+    this.interactorExecutor = interactorExecutor;
+  }
+
   @Override
   @SuppressWarnings("squid:S4721")
   public final Result execute(
       List<String> elements, IExecutionEnvironment environment,
       Map<String, Object> extraParameterName2ValueMap) {
+    Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+    DeadlineUtils.checkNotExpired(elements, deadline);
+    ExecutionMetrics metrics = ExecutionMetrics.get(extraParameterName2ValueMap);
+    ExecutionTrace trace = ExecutionTrace.get(extraParameterName2ValueMap);
     ProcessBuilder processBuilder = new ProcessBuilder(elements);
     environment.configure(processBuilder);
     try {
+      long startNanos = System.nanoTime();
       Process process = processBuilder.start();
+      long startedNanos = System.nanoTime();
+      String executable = elements.get(0);
+      if (trace != null) {
+        trace.emit(ExecutionStage.PROCESS_START, executable, startNanos, startedNanos - startNanos);
+      }
       OutputStream out = process.getOutputStream();
       Charset encoding = environment.getEncoding();
-      InputStream in = process.getInputStream();
-      Thread standardStreamGobblerThread = createInteractorThread(
-          "Standard", in, out, encoding, this::onStandard, extraParameterName2ValueMap);
-      standardStreamGobblerThread.start();
+      InputStream in = FirstByteInputStream.traceFirstByte(
+          process.getInputStream(), trace, executable, startedNanos);
+      Interaction standardInteraction = startInteractor(
+          "Standard", in, out, encoding, this::onStandard, extraParameterName2ValueMap, process);
       InputStream error = process.getErrorStream();
-      Thread errorStreamGobblerThread = createInteractorThread(
-          "Error", error, out, encoding, this::onError, extraParameterName2ValueMap);
-      errorStreamGobblerThread.start();
-      int returnCode = process.waitFor();
-      standardStreamGobblerThread.join();
-      errorStreamGobblerThread.join();
+      Interaction errorInteraction = startInteractor(
+          "Error", error, out, encoding, this::onError, extraParameterName2ValueMap, process);
+      int returnCode = DeadlineUtils.waitFor(process, elements, deadline);
+      long wallTimeNanos = System.nanoTime() - startedNanos;
+      if (metrics != null) {
+        metrics.setSpawnLatencyNanos(startedNanos - startNanos);
+        metrics.setWallTimeNanos(wallTimeNanos);
+      }
+      if (trace != null) {
+        trace.emit(ExecutionStage.PROCESS_EXIT, executable, startedNanos, wallTimeNanos);
+      }
+      standardInteraction.await();
+      errorInteraction.await();
       return getResult(returnCode, extraParameterName2ValueMap);
     } catch (InterruptedException interruptedException) {
       Thread.currentThread().interrupt();
@@ -67,7 +133,54 @@ public abstract class AbstractInteractiveProcessExecutor implements IExecutor {
   }
 
   /**
-   * Creates the thread to interact with the executable.
+   * Starts an interactor, in a dedicated thread or with the interactor executor. If the interactor
+   * fails, the process is destroyed so that the execution does not wait for it forever.
+   *
+   * @param name
+   *          the interactor name
+   * @param in
+   *          the in
+   * @param out
+   *          the out
+   * @param encoding
+   *          the encoding
+   * @param interactor
+   *          the interactor
+   * @param extraParameterName2ValueMap
+   *          the {@link Extra} parameter name 2 value map
+   * @param process
+   *          the process
+   * @return the interaction
+   */
+  private Interaction startInteractor(
+      String name, InputStream in, OutputStream out, Charset encoding,
+      IInteractor interactor, Map<String, Object> extraParameterName2ValueMap, Process process) {
+    CompletableFuture<Void> completion;
+    Thread thread;
+    if (interactorExecutor == null) {
+      CompletableFuture<Void> threadCompletion = new CompletableFuture<>();
+      thread = createInteractorThread(
+          name, in, out, encoding, interactor, extraParameterName2ValueMap);
+      thread.setUncaughtExceptionHandler(
+          (failedThread, throwable) -> threadCompletion.completeExceptionally(throwable));
+      thread.start();
+      completion = threadCompletion;
+    } else {
+      InteractorRunnable interactorRunnable = new InteractorRunnable(
+          in, out, encoding, interactor, extraParameterName2ValueMap);
+      completion = CompletableFuture.runAsync(interactorRunnable, interactorExecutor);
+      thread = null;
+    }
+    completion.whenComplete((ignored, throwable) -> {
+      if (throwable != null) {
+        process.destroy();
+      }
+    });
+    return new Interaction(thread, completion);
+  }
+
+  /**
+   * Creates the thread to interact with the executable, when no interactor executor is used.
    *
    * @param name
    *          the thread name (or at last a part of it)
@@ -131,4 +244,42 @@ public abstract class AbstractInteractiveProcessExecutor implements IExecutor {
    */
   protected abstract Result getResult(
       int returnCode, Map<String, Object> extraParameterName2ValueMap);
+
+  /**
+   * A running interactor.
+   */
+  private static final class Interaction {
+
+    /** The dedicated thread, <code>null</code> if run by the interactor executor. */
+    private final Thread thread;
+    /** The completion. */
+    private final CompletableFuture<Void> completion;
+
+    /**
+     * Instantiates a new interaction.
+     *
+     * @param thread
+     *          the dedicated thread, <code>null</code> if run by the interactor executor
+     * @param completion
+     *          the completion
+     */
+    private Interaction(Thread thread, CompletableFuture<Void> completion) {
+      this.thread = thread;
+      this.completion = completion;
+    }
+
+    /**
+     * Waits for the interactor to complete, rethrowing its exception if any.
+     *
+     * @throws InterruptedException
+     *           if the current thread was interrupted while waiting
+     */
+    private void await() throws InterruptedException {
+      if (thread != null) {
+        thread.join();
+        completion.complete(null);
+      }
+      StreamDrainingUtils.join(completion);
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.internal.executors.ExecutionKey;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * A command line executor that memoizes the results of its delegate in a {@link ResultCache}, for
+ * command lines whose result only depends on their elements, working directory, environment
+ * variables, encoding and extra parameters, e.g. <code>uname -a</code> or
+ * <code>git rev-parse HEAD</code>.
+ * </p>
+ * <p>
+ * Executions with a @{@link Stdin} standard input are never cached. The callers that wait for an
+ * identical running execution whose result can only be read once, such as a
+ * {@link io.github.scambon.cliwrapper4j.StreamingResult}, run their own execution once it
+ * completes.
+ * </p>
+ * <p>
+ * As the @{@link io.github.scambon.cliwrapper4j.Executor} annotation requires a no-argument
+ * constructor, use @{@link io.github.scambon.cliwrapper4j.Cacheable} instead, or subclass this
+ * executor.
+ * </p>
+ */
+public class CachingExecutor extends AbstractDelegatingExecutor {
+
+  /** The cache. */
+  private final ResultCache cache;
+  /** How long a result is kept once its execution completes. */
+  private final Duration timeToLive;
+
+  /**
+   * Instantiates a new caching executor.
+   *
+   * @param delegate
+   *          the delegate
+   * @param cache
+   *          the cache, usually shared
+   * @param timeToLive
+   *          how long a result is kept once its execution completes
+   */
+  public CachingExecutor(IExecutor delegate, ResultCache cache, Duration timeToLive) {
+    super(delegate);
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new CommandLineException(
+          "The time-to-live must be positive but was '" + timeToLive + "'");
+    }
+    this.cache = cache;
+    this.timeToLive = timeToLive;
+  }
+
+  @Override
+  public Result execute(
+      List<String> elements, IExecutionEnvironment executionEnvironment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    if (hasStandardInput(extraParameterName2ValueMap)) {
+      return super.execute(elements, executionEnvironment, extraParameterName2ValueMap);
+    }
+    ExecutionKey key = new ExecutionKey(
+        elements, executionEnvironment, extraParameterName2ValueMap);
+    AtomicBoolean loading = new AtomicBoolean();
+    CompletableFuture<Result> resultFuture = cache.getOrLoad(key, timeToLive, () -> {
+      loading.set(true);
+      return CompletableFuture.completedFuture(
+          super.execute(elements, executionEnvironment, extraParameterName2ValueMap));
+    });
+    Result result;
+    try {
+      result = StreamDrainingUtils.join(resultFuture);
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    }
+    return loading.get() || ResultCache.isReplayable(result)
+        ? result
+        : super.execute(elements, executionEnvironment, extraParameterName2ValueMap);
+  }
+
+  @Override
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment executionEnvironment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    if (hasStandardInput(extraParameterName2ValueMap)) {
+      return super.executeAsync(
+          elements, executionEnvironment, extraParameterName2ValueMap, completionExecutor);
+    }
+    ExecutionKey key = new ExecutionKey(
+        elements, executionEnvironment, extraParameterName2ValueMap);
+    AtomicBoolean loading = new AtomicBoolean();
+    return cache.getOrLoad(key, timeToLive, () -> {
+      loading.set(true);
+      return super.executeAsync(
+          elements, executionEnvironment, extraParameterName2ValueMap, completionExecutor);
+    })
+        .thenCompose(result -> loading.get() || ResultCache.isReplayable(result)
+            ? CompletableFuture.completedFuture(result)
+            : super.executeAsync(
+                elements, executionEnvironment, extraParameterName2ValueMap, completionExecutor))
+        .thenApplyAsync(result -> result, completionExecutor);
+  }
+
+  /**
+   * Gets the cache.
+   *
+   * @return the cache
+   */
+  public ResultCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Gets how long a result is kept once its execution completes.
+   *
+   * @return the time-to-live
+   */
+  public Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  /**
+   * Checks if the execution has a standard input, which cannot be replayed.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   * @return true, if it has a standard input
+   */
+  private static boolean hasStandardInput(Map<String, Object> extraParameterName2ValueMap) {
+    return extraParameterName2ValueMap != null
+        && extraParameterName2ValueMap.get(Stdin.EXTRA_PARAMETER_NAME) != null;
+  }
+}
\ No newline at end of file
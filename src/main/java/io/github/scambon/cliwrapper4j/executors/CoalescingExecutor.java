@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.internal.executors.ExecutionKey;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A command line executor that coalesces identical concurrent executions: while an execution is
+ * running, the same command line with the same working directory, environment variables, encoding
+ * and extra parameters does not start another process, but shares its result. Unlike
+ * {@link CachingExecutor}, nothing is kept once the execution completes.
+ * </p>
+ * <p>
+ * Running executions are tracked per coalescing executor: the executor of a
+ * @{@link io.github.scambon.cliwrapper4j.Coalesced} method is created once, so that all its calls
+ * coalesce with each other. Executions with a @{@link Stdin} standard input are never coalesced,
+ * and the callers that get a single-use result, such as a
+ * {@link io.github.scambon.cliwrapper4j.StreamingResult}, run their own execution.
+ * </p>
+ */
+public class CoalescingExecutor extends AbstractDelegatingExecutor {
+
+  /** The running executions, by execution key. */
+  private final Map<ExecutionKey, CompletableFuture<Result>> runningExecutions =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new coalescing executor.
+   *
+   * @param delegate
+   *          the delegate
+   */
+  public CoalescingExecutor(IExecutor delegate) {
+    super(delegate);
+  }
+
+  @Override
+  @SuppressWarnings("squid:S1181")
+  public Result execute(
+      List<String> elements, IExecutionEnvironment executionEnvironment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    if (hasStandardInput(extraParameterName2ValueMap)) {
+      return super.execute(elements, executionEnvironment, extraParameterName2ValueMap);
+    }
+    ExecutionKey key = new ExecutionKey(
+        elements, executionEnvironment, extraParameterName2ValueMap);
+    CompletableFuture<Result> resultFuture = new CompletableFuture<>();
+    CompletableFuture<Result> runningFuture = runningExecutions.putIfAbsent(key, resultFuture);
+    if (runningFuture != null) {
+      Result result = join(runningFuture);
+      return ResultCache.isReplayable(result)
+          ? result
+          : super.execute(elements, executionEnvironment, extraParameterName2ValueMap);
+    }
+    try {
+      Result result = super.execute(elements, executionEnvironment, extraParameterName2ValueMap);
+      resultFuture.complete(result);
+      return result;
+    } catch (Throwable throwable) {
+      // Errors too, or the waiters of this execution would never be released
+      resultFuture.completeExceptionally(throwable);
+      throw throwable;
+    } finally {
+      runningExecutions.remove(key, resultFuture);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment executionEnvironment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    if (hasStandardInput(extraParameterName2ValueMap)) {
+      return super.executeAsync(
+          elements, executionEnvironment, extraParameterName2ValueMap, completionExecutor);
+    }
+    ExecutionKey key = new ExecutionKey(
+        elements, executionEnvironment, extraParameterName2ValueMap);
+    CompletableFuture<Result> resultFuture = new CompletableFuture<>();
+    CompletableFuture<Result> runningFuture = runningExecutions.putIfAbsent(key, resultFuture);
+    if (runningFuture != null) {
+      return runningFuture.thenComposeAsync(
+          result -> ResultCache.isReplayable(result)
+              ? CompletableFuture.completedFuture(result)
+              : super.executeAsync(
+                  elements, executionEnvironment, extraParameterName2ValueMap,
+                  completionExecutor),
+          completionExecutor);
+    }
+    CompletableFuture<Result> delegateFuture;
+    try {
+      delegateFuture = super.executeAsync(
+          elements, executionEnvironment, extraParameterName2ValueMap, completionExecutor);
+    } catch (RuntimeException runtimeException) {
+      delegateFuture = new CompletableFuture<>();
+      delegateFuture.completeExceptionally(runtimeException);
+    } catch (Error error) {
+      runningExecutions.remove(key, resultFuture);
+      resultFuture.completeExceptionally(error);
+      throw error;
+    }
+    delegateFuture.whenComplete((result, throwable) -> {
+      runningExecutions.remove(key, resultFuture);
+      if (throwable == null) {
+        resultFuture.complete(result);
+      } else {
+        resultFuture.completeExceptionally(throwable);
+      }
+    });
+    return delegateFuture;
+  }
+
+  /**
+   * Gets the number of running executions tracked for coalescing.
+   *
+   * @return the running execution count
+   */
+  public int getRunningExecutionCount() {
+    return runningExecutions.size();
+  }
+
+  /**
+   * Waits for a running execution.
+   *
+   * @param runningFuture
+   *          the future result of the running execution
+   * @return the result
+   */
+  private static Result join(CompletableFuture<Result> runningFuture) {
+    try {
+      return StreamDrainingUtils.join(runningFuture);
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    }
+  }
+
+  /**
+   * Checks if the execution has a standard input, which cannot be shared.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   * @return true, if it has a standard input
+   */
+  private static boolean hasStandardInput(Map<String, Object> extraParameterName2ValueMap) {
+    return extraParameterName2ValueMap != null
+        && extraParameterName2ValueMap.get(Stdin.EXTRA_PARAMETER_NAME) != null;
+  }
+}
\ No newline at end of file
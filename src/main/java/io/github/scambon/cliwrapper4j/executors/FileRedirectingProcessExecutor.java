@@ -0,0 +1,329 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Extra;
+import io.github.scambon.cliwrapper4j.FileResult;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.internal.executors.DeadlineUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.ProcessUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StandardInputUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A command line executor that redirects the process output and error to files, so that they
+ * never cross the Java heap, and returns a {@link FileResult}. This is suitable for command lines
+ * with huge outputs, such as dumps or archive listings, whose results are scanned or parsed
+ * lazily.
+ * </p>
+ * <p>
+ * The output file can be passed as an @{@link Extra} parameter named
+ * {@value #OUTPUT_FILE_EXTRA_PARAMETER_NAME}, as a {@link Path}, a {@link File} or a string; it
+ * is then kept when the result is closed. Otherwise, the output goes to a temporary file deleted
+ * when the result is closed, as is the error file.
+ * </p>
+ * <p>
+ * Likewise, a {@link Path} @{@link Stdin} standard input is redirected from its file; other ones
+ * are copied by a thread of the {@link StreamDrainingUtils#getDefaultDrainingExecutor() default
+ * draining pool}.
+ * </p>
+ * <p>
+ * When the execution has a {@link Deadline}, the process tree is destroyed once it expires, the
+ * temporary files are deleted and the execution fails with a
+ * {@link io.github.scambon.cliwrapper4j.CommandLineTimeoutException}.
+ * </p>
+ * <p>
+ * As the @{@link io.github.scambon.cliwrapper4j.Executor} annotation requires a no-argument
+ * constructor, use another temporary directory than the default one by subclassing this executor.
+ * </p>
+ */
+public class FileRedirectingProcessExecutor implements IExecutor {
+
+  /** The name of the @{@link Extra} parameter that holds the output file. */
+  public static final String OUTPUT_FILE_EXTRA_PARAMETER_NAME = "outputFile";
+
+  /** The prefix of the temporary files. */
+  private static final String TEMPORARY_FILE_PREFIX = "cliwrapper4j-";
+
+  /** The directory of the temporary files, <code>null</code> for the default one. */
+  private final Path temporaryDirectory;
+
+  /**
+   * Instantiates a new file redirecting process executor that uses the default temporary
+   * directory.
+   */
+  public FileRedirectingProcessExecutor() {
+    this(null);
+  }
+
+  /**
+   * Instantiates a new file redirecting process executor.
+   *
+   * @param temporaryDirectory
+   *          the directory of the temporary files, <code>null</code> for the default one
+   */
+  public FileRedirectingProcessExecutor(Path temporaryDirectory) {
+    this.temporaryDirectory = temporaryDirectory;
+  }
+
+  @Override
+  public Result execute(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+    DeadlineUtils.checkNotExpired(elements, deadline);
+    RedirectedProcess redirectedProcess = start(elements, environment, extraParameterName2ValueMap);
+    try {
+      int returnCode = redirectedProcess.waitFor(elements, deadline);
+      redirectedProcess.awaitInput();
+      return redirectedProcess.toResult(environment, returnCode);
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    Deadline deadline;
+    RedirectedProcess redirectedProcess;
+    try {
+      deadline = Deadline.get(extraParameterName2ValueMap);
+      DeadlineUtils.checkNotExpired(elements, deadline);
+      redirectedProcess = start(elements, environment, extraParameterName2ValueMap);
+    } catch (CommandLineException commandLineException) {
+      CompletableFuture<Result> failedFuture = new CompletableFuture<>();
+      failedFuture.completeExceptionally(commandLineException);
+      return failedFuture;
+    }
+    CompletableFuture<Integer> returnCodeFuture = ProcessUtils.onExit(
+        redirectedProcess.process, StreamDrainingUtils.getDefaultDrainingExecutor())
+        .thenCombine(redirectedProcess.inputFuture, (returnCode, ignored) -> returnCode);
+    return DeadlineUtils.withDeadline(
+        returnCodeFuture, redirectedProcess.process, elements, deadline)
+        .whenComplete((returnCode, throwable) -> {
+          if (throwable != null) {
+            deleteQuietly(redirectedProcess.temporaryFiles);
+          }
+        })
+        .thenApplyAsync(
+            returnCode -> redirectedProcess.toResult(environment, returnCode),
+            completionExecutor);
+  }
+
+  /**
+   * Starts a process whose output and error are redirected to files.
+   *
+   * @param elements
+   *          the command line elements
+   * @param environment
+   *          the environment
+   * @param extraParameterName2ValueMap
+   *          the {@link Extra} parameter name 2 value map
+   * @return the redirected process
+   */
+  @SuppressWarnings("squid:S4721")
+  private RedirectedProcess start(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    ProcessBuilder processBuilder = new ProcessBuilder(elements);
+    environment.configure(processBuilder);
+    StandardInputUtils.redirectInput(processBuilder, extraParameterName2ValueMap);
+    List<Path> temporaryFiles = new ArrayList<>();
+    try {
+      Path outputPath = getOutputPath(extraParameterName2ValueMap);
+      if (outputPath == null) {
+        outputPath = createTemporaryFile(".out");
+        temporaryFiles.add(outputPath);
+      }
+      Path errorPath = createTemporaryFile(".err");
+      temporaryFiles.add(errorPath);
+      processBuilder.redirectOutput(Redirect.to(outputPath.toFile()));
+      processBuilder.redirectError(Redirect.to(errorPath.toFile()));
+      Process process = processBuilder.start();
+      CompletableFuture<Void> inputFuture = StandardInputUtils.feedInput(
+          process, extraParameterName2ValueMap, StreamDrainingUtils.getDefaultDrainingExecutor());
+      return new RedirectedProcess(process, inputFuture, outputPath, errorPath, temporaryFiles);
+    } catch (IOException ioException) {
+      deleteQuietly(temporaryFiles);
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * Gets the output file from the extra parameters.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   * @return the output path, or <code>null</code> if none
+   */
+  private static Path getOutputPath(Map<String, Object> extraParameterName2ValueMap) {
+    Object outputFile = extraParameterName2ValueMap == null
+        ? null
+        : extraParameterName2ValueMap.get(OUTPUT_FILE_EXTRA_PARAMETER_NAME);
+    if (outputFile == null) {
+      return null;
+    } else if (outputFile instanceof Path) {
+      return (Path) outputFile;
+    } else if (outputFile instanceof File) {
+      return ((File) outputFile).toPath();
+    } else {
+      return Paths.get(outputFile.toString());
+    }
+  }
+
+  /**
+   * Creates a temporary file.
+   *
+   * @param suffix
+   *          the suffix
+   * @return the temporary file
+   * @throws IOException
+   *           if an I/O exception has occurred
+   */
+  private Path createTemporaryFile(String suffix) throws IOException {
+    return temporaryDirectory == null
+        ? Files.createTempFile(TEMPORARY_FILE_PREFIX, suffix)
+        : Files.createTempFile(temporaryDirectory, TEMPORARY_FILE_PREFIX, suffix);
+  }
+
+  /**
+   * Deletes files, ignoring errors.
+   *
+   * @param paths
+   *          the paths
+   */
+  private static void deleteQuietly(List<Path> paths) {
+    for (Path path : paths) {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException ioException) {
+        // Best effort
+      }
+    }
+  }
+
+  /**
+   * A started process and its redirection files.
+   */
+  private static final class RedirectedProcess {
+
+    /** The process. */
+    private final Process process;
+    /** The future that completes once the standard input is copied. */
+    private final CompletableFuture<Void> inputFuture;
+    /** The output path. */
+    private final Path outputPath;
+    /** The error path. */
+    private final Path errorPath;
+    /** The temporary files. */
+    private final List<Path> temporaryFiles;
+
+    /**
+     * Instantiates a new redirected process.
+     *
+     * @param process
+     *          the process
+     * @param inputFuture
+     *          the future that completes once the standard input is copied
+     * @param outputPath
+     *          the output path
+     * @param errorPath
+     *          the error path
+     * @param temporaryFiles
+     *          the temporary files
+     */
+    private RedirectedProcess(
+        Process process, CompletableFuture<Void> inputFuture,
+        Path outputPath, Path errorPath, List<Path> temporaryFiles) {
+      this.process = process;
+      this.inputFuture = inputFuture;
+      this.outputPath = outputPath;
+      this.errorPath = errorPath;
+      this.temporaryFiles = temporaryFiles;
+    }
+
+    /**
+     * Waits for the process to exit, at most until the deadline, deleting the temporary files if
+     * it expired.
+     *
+     * @param elements
+     *          the command line elements
+     * @param deadline
+     *          the deadline, <code>null</code> to wait forever
+     * @return the return code
+     * @throws InterruptedException
+     *           if the current thread was interrupted while waiting
+     */
+    private int waitFor(List<String> elements, Deadline deadline) throws InterruptedException {
+      try {
+        return DeadlineUtils.waitFor(process, elements, deadline);
+      } catch (CommandLineException commandLineException) {
+        deleteQuietly(temporaryFiles);
+        throw commandLineException;
+      }
+    }
+
+    /**
+     * Waits for the standard input to be copied, deleting the temporary files if it failed.
+     *
+     * @throws InterruptedException
+     *           if the current thread was interrupted while waiting
+     */
+    private void awaitInput() throws InterruptedException {
+      try {
+        StreamDrainingUtils.join(inputFuture);
+      } catch (CommandLineException commandLineException) {
+        deleteQuietly(temporaryFiles);
+        throw commandLineException;
+      }
+    }
+
+    /**
+     * Creates the result once the process has exited.
+     *
+     * @param environment
+     *          the environment
+     * @param returnCode
+     *          the return code
+     * @return the file result
+     */
+    private FileResult toResult(IExecutionEnvironment environment, int returnCode) {
+      return new FileResult(
+          outputPath, errorPath, environment.getEncoding(), returnCode, temporaryFiles);
+    }
+  }
+}
\ No newline at end of file
@@ -19,9 +19,13 @@ package io.github.scambon.cliwrapper4j.executors;
 import io.github.scambon.cliwrapper4j.Extra;
 import io.github.scambon.cliwrapper4j.Result;
 import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * An interface that actually executes the command line marshalled elements.
@@ -43,6 +47,33 @@ public interface IExecutor {
       List<String> elements, IExecutionEnvironment environment,
       Map<String, Object> extraParameterName2ValueMap);
 
+  /**
+   * Executes the given elements as a command line without blocking the calling thread. The
+   * default implementation runs {@link #execute(List, IExecutionEnvironment, Map)} on a thread of
+   * the {@link StreamDrainingUtils#getDefaultDrainingExecutor() default draining pool}, which it
+   * blocks until the execution completes, so that the completion executor, e.g. the common
+   * fork-join pool, is never blocked; implementations should override it when they can wait for
+   * completion without blocking a thread.
+   *
+   * @param elements
+   *          the command line elements
+   * @param environment
+   *          the environment
+   * @param extraParameterName2ValueMap
+   *          the map from an {@link Extra} parameter name to its value
+   * @param completionExecutor
+   *          the executor that completes the returned future
+   * @return the future result
+   */
+  default CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    return CompletableFuture.supplyAsync(
+        () -> execute(elements, environment, extraParameterName2ValueMap),
+        StreamDrainingUtils.getDefaultDrainingExecutor())
+        .thenApplyAsync(result -> result, completionExecutor);
+  }
+
   /**
    * Gets a command line executor around this one that traces calls to the
    * {@link #execute(List, IExecutionEnvironment, Map)} method.
@@ -52,4 +83,38 @@ public interface IExecutor {
   default IExecutor traced() {
     return new TracingExecutor(this);
   }
+
+  /**
+   * Gets a command line executor around this one that waits for a permit from the given
+   * scheduler before each execution.
+   *
+   * @param scheduler
+   *          the scheduler, usually shared
+   * @return the new scheduling command line executor around this one
+   */
+  default IExecutor scheduled(LaunchScheduler scheduler) {
+    return new SchedulingExecutor(this, scheduler);
+  }
+
+  /**
+   * Gets a command line executor around this one that memoizes results in the given cache.
+   *
+   * @param cache
+   *          the cache, usually shared
+   * @param timeToLive
+   *          how long a result is kept once its execution completes
+   * @return the new caching command line executor around this one
+   */
+  default IExecutor cached(ResultCache cache, Duration timeToLive) {
+    return new CachingExecutor(this, cache, timeToLive);
+  }
+
+  /**
+   * Gets a command line executor around this one that coalesces identical concurrent executions.
+   *
+   * @return the new coalescing command line executor around this one
+   */
+  default IExecutor coalesced() {
+    return new CoalescingExecutor(this);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * An interface that frames the requests sent to, and the responses read from, a long-lived process
+ * used by a {@link PooledProcessExecutor}.
+ */
+public interface IRequestFraming {
+
+  /**
+   * Writes a request on the process input. The writer is flushed afterwards.
+   *
+   * @param request
+   *          the request
+   * @param writer
+   *          the process input writer
+   * @throws IOException
+   *           if an I/O exception has occurred
+   */
+  void writeRequest(String request, Writer writer) throws IOException;
+
+  /**
+   * Reads the response to the last request from the process output. It must read exactly the
+   * response, so that the next request starts on a clean output.
+   *
+   * @param reader
+   *          the process output reader
+   * @return the response
+   * @throws IOException
+   *           if an I/O exception has occurred, e.g. if the process output ended
+   */
+  String readResponse(BufferedReader reader) throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils.DaemonThreadFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>
+ * Factories for the executors that run the interactors of an
+ * {@link AbstractInteractiveProcessExecutor}, so that concurrent interactive executions do not
+ * need two dedicated platform threads each.
+ * </p>
+ * <p>
+ * Virtual threads are looked up at runtime, so that this library still runs on Java 8.
+ * </p>
+ */
+public final class InteractorExecutors {
+
+  /** The Java 21 <code>Executors#newVirtualThreadPerTaskExecutor()</code> method, if any. */
+  private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD =
+      findNewVirtualThreadPerTaskExecutorOrNull();
+
+  /**
+   * Instantiates a new interactor executors.
+   */
+  private InteractorExecutors() {
+    // Utility class
+  }
+
+  /**
+   * Checks whether virtual threads are supported by the running JDK, i.e. Java 21+.
+   *
+   * @return true, if virtual threads are supported
+   */
+  public static boolean isVirtualThreadSupported() {
+    return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD != null;
+  }
+
+  /**
+   * Creates an executor that runs each interactor in a new virtual thread.
+   *
+   * @return the virtual thread executor
+   * @throws CommandLineException
+   *           if virtual threads are not supported
+   */
+  public static ExecutorService newVirtualThreadExecutor() {
+    if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD == null) {
+      throw new CommandLineException("Virtual threads require Java 21+ but running Java '"
+          + System.getProperty("java.version") + "'");
+    }
+    try {
+      return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD.invoke();
+    } catch (Throwable throwable) {
+      throw new CommandLineException(throwable);
+    }
+  }
+
+  /**
+   * Creates an executor that runs interactors in a bounded pool of daemon threads. As each
+   * execution uses two of them until the process exits, the pool size bounds the number of
+   * concurrent executions to half of it, e.g. in combination with a {@link SchedulingExecutor}.
+   *
+   * @param maxThreads
+   *          the maximum number of threads
+   * @return the bounded executor
+   */
+  public static ExecutorService newBoundedExecutor(int maxThreads) {
+    if (maxThreads <= 0) {
+      throw new CommandLineException(
+          "The maximum number of threads must be positive but was '" + maxThreads + "'");
+    }
+    return Executors.newFixedThreadPool(
+        maxThreads, new DaemonThreadFactory("CliWrapper4J interactor"));
+  }
+
+  /**
+   * Creates an executor that runs interactors in virtual threads when supported, or in a bounded
+   * pool of daemon threads otherwise.
+   *
+   * @param maxThreads
+   *          the maximum number of threads, if virtual threads are not supported
+   * @return the executor
+   */
+  public static ExecutorService newVirtualThreadOrBoundedExecutor(int maxThreads) {
+    return isVirtualThreadSupported()
+        ? newVirtualThreadExecutor()
+        : newBoundedExecutor(maxThreads);
+  }
+
+  /**
+   * Finds the <code>Executors#newVirtualThreadPerTaskExecutor()</code> method.
+   *
+   * @return the method handle, or <code>null</code> if not available
+   */
+  private static MethodHandle findNewVirtualThreadPerTaskExecutorOrNull() {
+    try {
+      return MethodHandles.publicLookup()
+          .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+              MethodType.methodType(ExecutorService.class));
+    } catch (NoSuchMethodException | IllegalAccessException exception) {
+      return null;
+    }
+  }
+}
\ No newline at end of file
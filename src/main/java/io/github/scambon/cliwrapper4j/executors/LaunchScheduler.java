@@ -0,0 +1,481 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils.DaemonThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * A scheduler that bounds how many command lines run at once, using a global permit pool and
+ * optional per-executable limits. Executions that cannot start immediately wait in a queue, in
+ * {@link QueueOrder#FIFO FIFO} or {@link QueueOrder#PRIORITY priority} order; a waiting execution
+ * is skipped while its executable is at its limit, so that it does not block other executables.
+ * </p>
+ * <p>
+ * A scheduler is meant to be shared, e.g. by all the {@link SchedulingExecutor} instances of an
+ * application.
+ * </p>
+ */
+public final class LaunchScheduler {
+
+  /** The timer that expires queued executions. */
+  private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+  /** The global permits. */
+  private final int globalPermits;
+  /** The map from an executable name to its maximum number of concurrent executions. */
+  private final Map<String, Integer> executable2LimitMap = new ConcurrentHashMap<>();
+  /** The waiting executions, in queue order. */
+  private final NavigableSet<Waiter> waiters;
+  /** The map from an executable name to its number of running executions. */
+  private final Map<String, Integer> executable2RunningCountMap = new HashMap<>();
+
+  /** The maximum queue waiting time, <code>null</code> to wait indefinitely. */
+  private volatile Duration queueTimeout;
+  /** The number of running executions. */
+  private int runningCount;
+  /** The sequence number of the last queued execution. */
+  private long sequence;
+  /** The number of started executions. */
+  private long startedCount;
+  /** The number of executions that timed out while waiting. */
+  private long timedOutCount;
+  /** The total time spent waiting by started executions, in nanoseconds. */
+  private long totalWaitNanos;
+  /** The longest time spent waiting by a started execution, in nanoseconds. */
+  private long maxWaitNanos;
+
+  /**
+   * Instantiates a new FIFO launch scheduler with as many permits as available processors.
+   */
+  public LaunchScheduler() {
+    this(Runtime.getRuntime()
+        .availableProcessors(), QueueOrder.FIFO);
+  }
+
+  /**
+   * Instantiates a new launch scheduler.
+   *
+   * @param globalPermits
+   *          the maximum number of concurrent executions
+   * @param queueOrder
+   *          the queue order
+   */
+  public LaunchScheduler(int globalPermits, QueueOrder queueOrder) {
+    if (globalPermits <= 0) {
+      throw new CommandLineException(
+          "The global permits must be positive but was '" + globalPermits + "'");
+    }
+    this.globalPermits = globalPermits;
+    this.waiters = new TreeSet<>(queueOrder.comparator);
+  }
+
+  /**
+   * Sets the maximum number of concurrent executions of the given executable.
+   *
+   * @param executable
+   *          the executable name, i.e. the first command line element, usually the
+   *          first @{@link Executable} value
+   * @param limit
+   *          the maximum number of concurrent executions
+   */
+  public void setExecutableLimit(String executable, int limit) {
+    if (limit <= 0) {
+      throw new CommandLineException(
+          "The limit for '" + executable + "' must be positive but was '" + limit + "'");
+    }
+    executable2LimitMap.put(executable, limit);
+    List<Waiter> startedWaiters;
+    synchronized (this) {
+      startedWaiters = dispatch();
+    }
+    grant(startedWaiters);
+  }
+
+  /**
+   * Sets the maximum time an execution waits in the queue, after which it fails with a
+   * {@link CommandLineException}.
+   *
+   * @param queueTimeout
+   *          the queue timeout, <code>null</code> to wait indefinitely
+   */
+  public void setQueueTimeout(Duration queueTimeout) {
+    this.queueTimeout = queueTimeout;
+  }
+
+  /**
+   * Acquires a permit to run the given executable, waiting as needed.
+   *
+   * @param executable
+   *          the executable name
+   * @param priority
+   *          the priority, higher values being served first in {@link QueueOrder#PRIORITY} order
+   * @return the permit, to be closed once the execution is over
+   */
+  public Permit acquire(String executable, int priority) {
+    CompletableFuture<Permit> permitFuture = acquireAsync(executable, priority);
+    try {
+      return StreamDrainingUtils.join(permitFuture);
+    } catch (InterruptedException interruptedException) {
+      cancel(permitFuture);
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    }
+  }
+
+  /**
+   * Acquires a permit to run the given executable without blocking. The returned future is
+   * completed by the thread that releases a permit, or immediately if one is available. Cancelling
+   * the future leaves the queue.
+   *
+   * @param executable
+   *          the executable name
+   * @param priority
+   *          the priority, higher values being served first in {@link QueueOrder#PRIORITY} order
+   * @return the future permit, to be closed once the execution is over
+   */
+  public CompletableFuture<Permit> acquireAsync(String executable, int priority) {
+    Waiter waiter = new Waiter(executable, priority);
+    List<Waiter> startedWaiters;
+    synchronized (this) {
+      waiter.sequence = ++sequence;
+      waiters.add(waiter);
+      startedWaiters = dispatch();
+    }
+    grant(startedWaiters);
+    Duration timeout = queueTimeout;
+    if (timeout != null && !waiter.future.isDone()) {
+      waiter.timeoutTask = TIMER.schedule(
+          () -> expire(waiter, timeout), timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    waiter.future.whenComplete((permit, throwable) -> {
+      if (waiter.future.isCancelled()) {
+        leave(waiter);
+      }
+    });
+    return waiter.future;
+  }
+
+  /**
+   * Cancels the acquisition of a permit, e.g. when the waiting thread is interrupted. If the permit
+   * has already been granted, it is released, so that it is not lost.
+   *
+   * @param permitFuture
+   *          the future permit
+   */
+  static void cancel(CompletableFuture<Permit> permitFuture) {
+    if (!permitFuture.cancel(false)) {
+      permitFuture.thenAccept(Permit::close);
+    }
+  }
+
+  /**
+   * Gets the number of executions waiting in the queue.
+   *
+   * @return the queue depth
+   */
+  public synchronized int getQueueDepth() {
+    return waiters.size();
+  }
+
+  /**
+   * Gets the number of running executions.
+   *
+   * @return the running count
+   */
+  public synchronized int getRunningCount() {
+    return runningCount;
+  }
+
+  /**
+   * Gets the number of executions that were allowed to start.
+   *
+   * @return the started count
+   */
+  public synchronized long getStartedCount() {
+    return startedCount;
+  }
+
+  /**
+   * Gets the number of executions that timed out while waiting in the queue.
+   *
+   * @return the timed out count
+   */
+  public synchronized long getTimedOutCount() {
+    return timedOutCount;
+  }
+
+  /**
+   * Gets the average time spent waiting by started executions.
+   *
+   * @return the average wait time
+   */
+  public synchronized Duration getAverageWaitTime() {
+    if (startedCount == 0) {
+      return Duration.ZERO;
+    }
+    return Duration.ofNanos(totalWaitNanos / startedCount);
+  }
+
+  /**
+   * Gets the longest time spent waiting by a started execution.
+   *
+   * @return the maximum wait time
+   */
+  public synchronized Duration getMaxWaitTime() {
+    return Duration.ofNanos(maxWaitNanos);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "LaunchScheduler [running=" + runningCount + "/" + globalPermits
+        + ", queued=" + waiters.size() + "]";
+  }
+
+  /**
+   * Starts the waiting executions that can run, in queue order. Their permits must then be
+   * {@link #grant(List) granted} outside of the lock, as this runs the waiting code.
+   *
+   * @return the started waiters
+   */
+  private List<Waiter> dispatch() {
+    List<Waiter> startedWaiters = new ArrayList<>();
+    Iterator<Waiter> iterator = waiters.iterator();
+    while (runningCount < globalPermits && iterator.hasNext()) {
+      Waiter waiter = iterator.next();
+      if (hasCapacity(waiter.executable)) {
+        iterator.remove();
+        start(waiter);
+        startedWaiters.add(waiter);
+      }
+    }
+    return startedWaiters;
+  }
+
+  /**
+   * Checks whether the given executable is below its limit.
+   *
+   * @param executable
+   *          the executable
+   * @return true, if another execution can start
+   */
+  private boolean hasCapacity(String executable) {
+    Integer limit = executable2LimitMap.get(executable);
+    return limit == null
+        || executable2RunningCountMap.getOrDefault(executable, 0) < limit;
+  }
+
+  /**
+   * Accounts for a waiting execution that starts.
+   *
+   * @param waiter
+   *          the waiter
+   */
+  private void start(Waiter waiter) {
+    long waitNanos = System.nanoTime() - waiter.queuedNanos;
+    runningCount++;
+    executable2RunningCountMap.merge(waiter.executable, 1, Integer::sum);
+    startedCount++;
+    totalWaitNanos += waitNanos;
+    maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+  }
+
+  /**
+   * Grants their permits to started executions.
+   *
+   * @param startedWaiters
+   *          the started waiters
+   */
+  private void grant(List<Waiter> startedWaiters) {
+    for (Waiter waiter : startedWaiters) {
+      ScheduledFuture<?> timeoutTask = waiter.timeoutTask;
+      if (timeoutTask != null) {
+        timeoutTask.cancel(false);
+      }
+      Permit permit = new Permit(waiter.executable);
+      if (!waiter.future.complete(permit)) {
+        // Cancelled concurrently
+        permit.close();
+      }
+    }
+  }
+
+  /**
+   * Releases the permit of an execution.
+   *
+   * @param executable
+   *          the executable
+   */
+  private void release(String executable) {
+    List<Waiter> startedWaiters;
+    synchronized (this) {
+      runningCount--;
+      executable2RunningCountMap.computeIfPresent(
+          executable, (key, count) -> count == 1 ? null : count - 1);
+      startedWaiters = dispatch();
+    }
+    grant(startedWaiters);
+  }
+
+  /**
+   * Removes a cancelled execution from the queue.
+   *
+   * @param waiter
+   *          the waiter
+   */
+  private synchronized void leave(Waiter waiter) {
+    waiters.remove(waiter);
+  }
+
+  /**
+   * Fails an execution that waited too long.
+   *
+   * @param waiter
+   *          the waiter
+   * @param timeout
+   *          the queue timeout
+   */
+  private void expire(Waiter waiter, Duration timeout) {
+    synchronized (this) {
+      if (!waiters.remove(waiter)) {
+        return;
+      }
+      timedOutCount++;
+    }
+    waiter.future.completeExceptionally(new CommandLineException(
+        "Waited more than '" + timeout + "' to launch '" + waiter.executable + "' with " + this));
+  }
+
+  /**
+   * Creates the timer.
+   *
+   * @return the timer
+   */
+  private static ScheduledThreadPoolExecutor createTimer() {
+    ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(
+        1, new DaemonThreadFactory("CliWrapper4J launch scheduler timer"));
+    timer.setRemoveOnCancelPolicy(true);
+    return timer;
+  }
+
+  /**
+   * The order in which waiting executions are started.
+   */
+  public enum QueueOrder {
+
+    /** First in, first out. */
+    FIFO(Comparator.comparingLong(waiter -> waiter.sequence)),
+
+    /** Highest priority first, then first in, first out. */
+    PRIORITY(Comparator.<Waiter>comparingInt(waiter -> -waiter.priority)
+        .thenComparingLong(waiter -> waiter.sequence));
+
+    /** The waiter comparator. */
+    private final Comparator<Waiter> comparator;
+
+    /**
+     * Instantiates a new queue order.
+     *
+     * @param comparator
+     *          the waiter comparator
+     */
+    QueueOrder(Comparator<Waiter> comparator) {
+      this.comparator = comparator;
+    }
+  }
+
+  /**
+   * A permit to run an execution, which must be closed once the execution is over. Closing it
+   * several times has no further effect.
+   */
+  public final class Permit implements AutoCloseable {
+
+    /** The executable. */
+    private final String executable;
+    /** Whether the permit was released. */
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    /**
+     * Instantiates a new permit.
+     *
+     * @param executable
+     *          the executable
+     */
+    private Permit(String executable) {
+      this.executable = executable;
+    }
+
+    @Override
+    public void close() {
+      if (released.compareAndSet(false, true)) {
+        release(executable);
+      }
+    }
+  }
+
+  /**
+   * An execution waiting for a permit.
+   */
+  private static final class Waiter {
+
+    /** The executable. */
+    private final String executable;
+    /** The priority. */
+    private final int priority;
+    /** The time when the execution was queued. */
+    private final long queuedNanos = System.nanoTime();
+    /** The future permit. */
+    private final CompletableFuture<Permit> future = new CompletableFuture<>();
+
+    /** The sequence number, which identifies the waiter. */
+    private long sequence;
+    /** The task that expires the waiter. */
+    private volatile ScheduledFuture<?> timeoutTask;
+
+    /**
+     * Instantiates a new waiter.
+     *
+     * @param executable
+     *          the executable
+     * @param priority
+     *          the priority
+     */
+    private Waiter(String executable, int priority) {
+      this.executable = executable;
+      this.priority = priority;
+    }
+  }
+}
\ No newline at end of file
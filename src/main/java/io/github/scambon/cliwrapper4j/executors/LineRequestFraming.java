@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A request framing where each request is a line and each response is a single line, e.g. for
+ * <code>cat</code> or <code>git cat-file --batch-check</code>.
+ */
+public final class LineRequestFraming implements IRequestFraming {
+
+  @Override
+  public void writeRequest(String request, Writer writer) throws IOException {
+    writer.write(request);
+    writer.write('\n');
+  }
+
+  @Override
+  public String readResponse(BufferedReader reader) throws IOException {
+    String line = reader.readLine();
+    if (line == null) {
+      throw new EOFException("The process output ended before the response");
+    }
+    return line;
+  }
+}
\ No newline at end of file
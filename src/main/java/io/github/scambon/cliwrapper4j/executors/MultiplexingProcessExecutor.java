@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.internal.executors.DeadlineUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StandardInputUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A command line executor whose process outputs are read by a {@link StreamMultiplexer}, so that
+ * many concurrent short-lived command lines are served by a few I/O threads. When executed
+ * asynchronously, no thread is blocked per process at all.
+ * </p>
+ * <p>
+ * The execution completes once the process has exited and its outputs have been read, without
+ * waiting for its descendants: the output they write afterwards is lost, so command lines that
+ * leave background jobs writing to their outputs should use a {@link ProcessExecutor} instead.
+ * </p>
+ * <p>
+ * The @{@link Stdin} standard input, if any, is redirected from its file, or else copied by a
+ * thread of the {@link StreamDrainingUtils#getDefaultDrainingExecutor() default draining pool}.
+ * </p>
+ * <p>
+ * When the execution has a {@link Deadline}, the process tree is destroyed once it expires and the
+ * execution fails with a {@link io.github.scambon.cliwrapper4j.CommandLineTimeoutException}.
+ * </p>
+ * <p>
+ * As the @{@link io.github.scambon.cliwrapper4j.Executor} annotation requires a no-argument
+ * constructor, use another multiplexer than the default one by subclassing this executor.
+ * </p>
+ */
+public class MultiplexingProcessExecutor implements IExecutor {
+
+  /** The stream multiplexer. */
+  private final StreamMultiplexer streamMultiplexer;
+
+  /**
+   * Instantiates a new multiplexing process executor that uses the default stream multiplexer.
+   */
+  public MultiplexingProcessExecutor() {
+    this(StreamMultiplexer.getDefault());
+  }
+
+  /**
+   * Instantiates a new multiplexing process executor.
+   *
+   * @param streamMultiplexer
+   *          the stream multiplexer, usually shared
+   */
+  public MultiplexingProcessExecutor(StreamMultiplexer streamMultiplexer) {
+    this.streamMultiplexer = streamMultiplexer;
+  }
+
+  @Override
+  public Result execute(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    try {
+      return StreamDrainingUtils.join(start(elements, environment, extraParameterName2ValueMap));
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    try {
+      return start(elements, environment, extraParameterName2ValueMap)
+          .thenApplyAsync(result -> result, completionExecutor);
+    } catch (CommandLineException commandLineException) {
+      CompletableFuture<Result> failedFuture = new CompletableFuture<>();
+      failedFuture.completeExceptionally(commandLineException);
+      return failedFuture;
+    }
+  }
+
+  /**
+   * Gets the stream multiplexer.
+   *
+   * @return the stream multiplexer
+   */
+  public StreamMultiplexer getStreamMultiplexer() {
+    return streamMultiplexer;
+  }
+
+  /**
+   * Starts a process and registers it with the stream multiplexer.
+   *
+   * @param elements
+   *          the command line elements
+   * @param environment
+   *          the environment
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   * @return the future result, completed by an I/O thread or by the deadline timer
+   */
+  @SuppressWarnings("squid:S4721")
+  private CompletableFuture<Result> start(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+    DeadlineUtils.checkNotExpired(elements, deadline);
+    try {
+      ProcessBuilder processBuilder = new ProcessBuilder(elements);
+      environment.configure(processBuilder);
+      StandardInputUtils.redirectInput(processBuilder, extraParameterName2ValueMap);
+      Process process = processBuilder.start();
+      CompletableFuture<Void> inputFuture = StandardInputUtils.feedInput(
+          process, extraParameterName2ValueMap, StreamDrainingUtils.getDefaultDrainingExecutor());
+      CompletableFuture<Result> resultFuture = streamMultiplexer
+          .register(process, environment.getEncoding())
+          .thenCombine(inputFuture, (result, ignored) -> result);
+      return DeadlineUtils.withDeadline(resultFuture, process, elements, deadline);
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,666 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Extra;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.internal.executors.DeadlineUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.ExecutionKey;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils.DaemonThreadFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A command line executor that keeps long-lived processes, such as REPLs or batch modes
+ * (<code>python -i</code>, <code>bc</code>, <code>git cat-file --batch</code>), and sends them
+ * requests instead of starting a process per execution. The command line elements, the working
+ * directory, the environment variables and the encoding select a pool of up
+ * to <code>maxProcesses</code> identical processes; the request is the @{@link Extra}
+ * parameter named {@value #REQUEST_EXTRA_PARAMETER_NAME}. An {@link IRequestFraming} writes the
+ * request on the process input and reads its response from the process output.
+ * </p>
+ * <p>
+ * The result output is the response and its return code is 0. Its error is what the process wrote
+ * on its error output while handling the request, on a best effort basis as this output is read in
+ * the background.
+ * </p>
+ * <p>
+ * A process is discarded when it has exited, when a request fails, when it has handled
+ * {@link #setMaxRequestsPerProcess(int) too many requests}, when it has been
+ * {@link #setIdleTimeout(Duration) idle for too long} or when its
+ * {@link #setHealthCheck(String, Duration) health check} fails. As the environment is part of the
+ * pool key, a process only handles the requests of executions with the environment it was started
+ * with.
+ * </p>
+ * <p>
+ * When the execution has a {@link Deadline}, it bounds the wait for a process, and the process is
+ * destroyed if it has not responded by then; the execution then fails with a
+ * {@link io.github.scambon.cliwrapper4j.CommandLineTimeoutException}.
+ * </p>
+ * <p>
+ * As the @{@link io.github.scambon.cliwrapper4j.Executor} annotation requires a no-argument
+ * constructor, configure a pool by subclassing this executor. Its pools are shared by all the
+ * wrappers using the same instance, e.g. the one cached by the default instantiator. Call
+ * {@link #close()} to stop the processes.
+ * </p>
+ */
+public class PooledProcessExecutor implements IExecutor, AutoCloseable {
+
+  /** The name of the @{@link Extra} parameter that holds the request. */
+  public static final String REQUEST_EXTRA_PARAMETER_NAME = "request";
+
+  /** The timer that evicts idle processes. */
+  private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+  /** The request framing. */
+  private final IRequestFraming requestFraming;
+  /** The maximum number of processes per pool. */
+  private final int maxProcesses;
+  /** The executor that drains the process error outputs. */
+  private final Executor drainingExecutor;
+  /** The map from a command line and its environment to its pool. */
+  private final Map<ExecutionKey, ProcessPool> key2PoolMap = new ConcurrentHashMap<>();
+  /** The number of started processes. */
+  private final AtomicLong startedProcessCount = new AtomicLong();
+
+  /** The maximum waiting time for a process, <code>null</code> to wait indefinitely. */
+  private volatile Duration borrowTimeout;
+  /** The idle time after which a process is stopped, <code>null</code> to keep it. */
+  private volatile Duration idleTimeout;
+  /** The maximum number of requests per process, 0 for no limit. */
+  private volatile int maxRequestsPerProcess;
+  /** The health check request, <code>null</code> for no health check. */
+  private volatile String healthCheckRequest;
+  /** The idle time after which a process is checked before being used. */
+  private volatile Duration healthCheckInterval;
+  /** Whether this executor has been closed. */
+  private volatile boolean closed;
+  /** The idle process eviction task. */
+  private ScheduledFuture<?> evictionTask;
+
+  /**
+   * Instantiates a new pooled process executor with a line framing and as many processes per
+   * command line as available processors.
+   */
+  public PooledProcessExecutor() {
+    this(new LineRequestFraming(), Runtime.getRuntime()
+        .availableProcessors());
+  }
+
+  /**
+   * Instantiates a new pooled process executor.
+   *
+   * @param requestFraming
+   *          the request framing
+   * @param maxProcesses
+   *          the maximum number of processes per command line and environment
+   */
+  public PooledProcessExecutor(IRequestFraming requestFraming, int maxProcesses) {
+    if (maxProcesses <= 0) {
+      throw new CommandLineException(
+          "The maximum number of processes must be positive but was '" + maxProcesses + "'");
+    }
+    this.requestFraming = requestFraming;
+    this.maxProcesses = maxProcesses;
+    this.drainingExecutor = StreamDrainingUtils.getDefaultDrainingExecutor();
+  }
+
+  /**
+   * Sets the maximum time to wait for a process when all of them are busy.
+   *
+   * @param borrowTimeout
+   *          the borrow timeout, <code>null</code> to wait indefinitely
+   */
+  public void setBorrowTimeout(Duration borrowTimeout) {
+    this.borrowTimeout = borrowTimeout;
+  }
+
+  /**
+   * Sets the idle time after which a process is stopped. Idle processes are checked periodically
+   * and whenever a process is used.
+   *
+   * @param idleTimeout
+   *          the idle timeout, <code>null</code> to keep idle processes
+   */
+  public synchronized void setIdleTimeout(Duration idleTimeout) {
+    this.idleTimeout = idleTimeout;
+    if (evictionTask != null) {
+      evictionTask.cancel(false);
+      evictionTask = null;
+    }
+    if (idleTimeout != null && !closed) {
+      long periodNanos = idleTimeout.toNanos();
+      evictionTask = TIMER.scheduleWithFixedDelay(
+          this::evictIdleProcesses, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Sets the maximum number of requests a process handles before being replaced, e.g. to bound
+   * the effect of leaks in the process.
+   *
+   * @param maxRequestsPerProcess
+   *          the maximum number of requests per process, 0 for no limit
+   */
+  public void setMaxRequestsPerProcess(int maxRequestsPerProcess) {
+    this.maxRequestsPerProcess = maxRequestsPerProcess;
+  }
+
+  /**
+   * Sets a health check: before using a process that has been idle for longer than the given
+   * interval, the health check request is sent to it, and the process is replaced if no response
+   * could be read.
+   *
+   * @param healthCheckRequest
+   *          the health check request, <code>null</code> for no health check
+   * @param healthCheckInterval
+   *          the idle time after which a process is checked, {@link Duration#ZERO} to check it
+   *          before each use
+   */
+  public void setHealthCheck(String healthCheckRequest, Duration healthCheckInterval) {
+    this.healthCheckInterval = healthCheckInterval;
+    this.healthCheckRequest = healthCheckRequest;
+  }
+
+  @Override
+  public Result execute(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    Object request = extraParameterName2ValueMap == null
+        ? null
+        : extraParameterName2ValueMap.get(REQUEST_EXTRA_PARAMETER_NAME);
+    if (request == null) {
+      throw new CommandLineException("No @Extra(\"" + REQUEST_EXTRA_PARAMETER_NAME
+          + "\") parameter to send to '" + elements + "'");
+    }
+    Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+    DeadlineUtils.checkNotExpired(elements, deadline);
+    ProcessPool pool = key2PoolMap.computeIfAbsent(
+        new ExecutionKey(elements, environment, null), ProcessPool::new);
+    PooledProcess pooledProcess = pool.borrow(environment, deadline);
+    Runnable deadlineCheck =
+        DeadlineUtils.destroyOnExpiration(pooledProcess.process, elements, deadline);
+    String output;
+    try {
+      output = pooledProcess.send(request.toString(), requestFraming);
+      deadlineCheck.run();
+    } catch (IOException ioException) {
+      pool.discard(pooledProcess);
+      deadlineCheck.run();
+      throw new CommandLineException(ioException);
+    } catch (RuntimeException runtimeException) {
+      pool.discard(pooledProcess);
+      throw runtimeException;
+    }
+    String error = pooledProcess.takeError();
+    pool.release(pooledProcess);
+    return new Result(output, error, 0);
+  }
+
+  /**
+   * Stops the idle processes that have exceeded the idle timeout.
+   */
+  public void evictIdleProcesses() {
+    Duration timeout = idleTimeout;
+    if (timeout != null) {
+      long oldestUseNanos = System.nanoTime() - timeout.toNanos();
+      for (ProcessPool pool : key2PoolMap.values()) {
+        pool.evictIdleProcesses(oldestUseNanos);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of live processes, busy or idle.
+   *
+   * @return the process count
+   */
+  public int getProcessCount() {
+    int processCount = 0;
+    for (ProcessPool pool : key2PoolMap.values()) {
+      processCount += pool.getProcessCount();
+    }
+    return processCount;
+  }
+
+  /**
+   * Gets the number of idle processes.
+   *
+   * @return the idle process count
+   */
+  public int getIdleProcessCount() {
+    int idleProcessCount = 0;
+    for (ProcessPool pool : key2PoolMap.values()) {
+      idleProcessCount += pool.getIdleProcessCount();
+    }
+    return idleProcessCount;
+  }
+
+  /**
+   * Gets the number of processes started since this executor was created.
+   *
+   * @return the started process count
+   */
+  public long getStartedProcessCount() {
+    return startedProcessCount.get();
+  }
+
+  /**
+   * Stops the idle processes and the busy ones once their request completes. Later executions
+   * fail.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (evictionTask != null) {
+      evictionTask.cancel(false);
+      evictionTask = null;
+    }
+    for (ProcessPool pool : key2PoolMap.values()) {
+      pool.close();
+    }
+  }
+
+  /**
+   * Creates the timer.
+   *
+   * @return the timer
+   */
+  private static ScheduledThreadPoolExecutor createTimer() {
+    ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(
+        1, new DaemonThreadFactory("CliWrapper4J process pool timer"));
+    timer.setRemoveOnCancelPolicy(true);
+    return timer;
+  }
+
+  /**
+   * The pool of processes of a command line and its environment.
+   */
+  private final class ProcessPool {
+
+    /** The command line. */
+    private final List<String> commandLine;
+    /** The idle processes, the most recently used first. */
+    private final Deque<PooledProcess> idleProcesses = new ArrayDeque<>();
+    /** The number of live processes, busy or idle. */
+    private int processCount;
+
+    /**
+     * Instantiates a new process pool.
+     *
+     * @param key
+     *          the key of the command line and its environment
+     */
+    private ProcessPool(ExecutionKey key) {
+      this.commandLine = key.getElements();
+    }
+
+    /**
+     * Borrows a process, starting it if needed and possible, or waiting for one otherwise.
+     *
+     * @param environment
+     *          the environment used to start a process
+     * @param deadline
+     *          the execution deadline, <code>null</code> if there is none
+     * @return the process
+     */
+    private PooledProcess borrow(IExecutionEnvironment environment, Deadline deadline) {
+      Duration timeout = borrowTimeout;
+      long deadlineNanos = timeout == null ? 0 : System.nanoTime() + timeout.toNanos();
+      while (true) {
+        PooledProcess idleProcess = pollOrReserve(timeout, deadlineNanos, deadline);
+        if (idleProcess == null) {
+          return start(environment);
+        } else if (isUsable(idleProcess, deadline)) {
+          return idleProcess;
+        } else {
+          discard(idleProcess);
+        }
+      }
+    }
+
+    /**
+     * Polls an idle process or, if there is none, reserves a slot for a new process when
+     * possible, or waits otherwise.
+     *
+     * @param timeout
+     *          the borrow timeout
+     * @param deadlineNanos
+     *          the borrow deadline
+     * @param deadline
+     *          the execution deadline, <code>null</code> if there is none
+     * @return the idle process, or <code>null</code> if a slot has been reserved
+     */
+    private synchronized PooledProcess pollOrReserve(
+        Duration timeout, long deadlineNanos, Deadline deadline) {
+      try {
+        while (true) {
+          if (closed) {
+            throw new CommandLineException("The pooled process executor is closed");
+          }
+          DeadlineUtils.checkNotExpired(commandLine, deadline);
+          PooledProcess idleProcess = idleProcesses.pollFirst();
+          if (idleProcess != null) {
+            return idleProcess;
+          } else if (processCount < maxProcesses) {
+            processCount++;
+            return null;
+          } else if (timeout == null && deadline == null) {
+            wait();
+          } else {
+            long remainingNanos = timeout == null
+                ? Long.MAX_VALUE
+                : deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+              throw new CommandLineException(
+                  "Timed out after '" + timeout + "' waiting for a '" + commandLine + "' process");
+            }
+            if (deadline != null) {
+              remainingNanos = Math.min(
+                  remainingNanos, deadline.getRemaining(TimeUnit.NANOSECONDS));
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+          }
+        }
+      } catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+        throw new CommandLineException(interruptedException);
+      }
+    }
+
+    /**
+     * Starts a process in a reserved slot.
+     *
+     * @param environment
+     *          the environment
+     * @return the process
+     */
+    @SuppressWarnings("squid:S4721")
+    private PooledProcess start(IExecutionEnvironment environment) {
+      try {
+        ProcessBuilder processBuilder = new ProcessBuilder(commandLine);
+        environment.configure(processBuilder);
+        Process process = processBuilder.start();
+        startedProcessCount.incrementAndGet();
+        return new PooledProcess(process, environment.getEncoding(), drainingExecutor);
+      } catch (IOException | RuntimeException exception) {
+        synchronized (this) {
+          processCount--;
+          notifyAll();
+        }
+        throw exception instanceof CommandLineException
+            ? (CommandLineException) exception
+            : new CommandLineException(exception);
+      }
+    }
+
+    /**
+     * Checks whether an idle process can be used, running the health check if needed.
+     *
+     * @param pooledProcess
+     *          the pooled process
+     * @param deadline
+     *          the execution deadline, which also bounds the health check
+     * @return true, if usable
+     */
+    private boolean isUsable(PooledProcess pooledProcess, Deadline deadline) {
+      if (!pooledProcess.process.isAlive()) {
+        return false;
+      }
+      String request = healthCheckRequest;
+      if (request == null) {
+        return true;
+      }
+      long idleNanos = System.nanoTime() - pooledProcess.lastUseNanos;
+      if (idleNanos < healthCheckInterval.toNanos()) {
+        return true;
+      }
+      Runnable deadlineCheck =
+          DeadlineUtils.destroyOnExpiration(pooledProcess.process, commandLine, deadline);
+      try {
+        pooledProcess.send(request, requestFraming);
+        deadlineCheck.run();
+        pooledProcess.takeError();
+        return true;
+      } catch (IOException | RuntimeException exception) {
+        // A process destroyed by the deadline is discarded, then the deadline fails the borrow
+        return false;
+      }
+    }
+
+    /**
+     * Gives back a process after a successful request.
+     *
+     * @param pooledProcess
+     *          the pooled process
+     */
+    private void release(PooledProcess pooledProcess) {
+      int maxRequests = maxRequestsPerProcess;
+      boolean reusable = pooledProcess.process.isAlive()
+          && (maxRequests <= 0 || pooledProcess.requestCount < maxRequests);
+      synchronized (this) {
+        if (reusable && !closed) {
+          pooledProcess.lastUseNanos = System.nanoTime();
+          idleProcesses.addFirst(pooledProcess);
+          notifyAll();
+          return;
+        }
+      }
+      discard(pooledProcess);
+    }
+
+    /**
+     * Stops a process and frees its slot.
+     *
+     * @param pooledProcess
+     *          the pooled process
+     */
+    private void discard(PooledProcess pooledProcess) {
+      synchronized (this) {
+        processCount--;
+        notifyAll();
+      }
+      pooledProcess.destroy();
+    }
+
+    /**
+     * Stops the idle processes that have not been used since the given time.
+     *
+     * @param oldestUseNanos
+     *          the oldest allowed last use time, as given by {@link System#nanoTime()}
+     */
+    private void evictIdleProcesses(long oldestUseNanos) {
+      List<PooledProcess> evictedProcesses = new ArrayList<>();
+      synchronized (this) {
+        Iterator<PooledProcess> iterator = idleProcesses.descendingIterator();
+        while (iterator.hasNext()) {
+          PooledProcess idleProcess = iterator.next();
+          if (idleProcess.lastUseNanos - oldestUseNanos >= 0) {
+            break;
+          }
+          iterator.remove();
+          evictedProcesses.add(idleProcess);
+        }
+        processCount -= evictedProcesses.size();
+        notifyAll();
+      }
+      evictedProcesses.forEach(PooledProcess::destroy);
+    }
+
+    /**
+     * Stops the idle processes and wakes up the waiting executions.
+     */
+    private void close() {
+      List<PooledProcess> closedProcesses;
+      synchronized (this) {
+        closedProcesses = new ArrayList<>(idleProcesses);
+        idleProcesses.clear();
+        processCount -= closedProcesses.size();
+        notifyAll();
+      }
+      closedProcesses.forEach(PooledProcess::destroy);
+    }
+
+    /**
+     * Gets the process count.
+     *
+     * @return the process count
+     */
+    private synchronized int getProcessCount() {
+      return processCount;
+    }
+
+    /**
+     * Gets the idle process count.
+     *
+     * @return the idle process count
+     */
+    private synchronized int getIdleProcessCount() {
+      return idleProcesses.size();
+    }
+  }
+
+  /**
+   * A long-lived process, used by one execution at a time.
+   */
+  private static final class PooledProcess {
+
+    /** The size of the buffer used to read the error output. */
+    private static final int ERROR_BUFFER_SIZE = 1024;
+
+    /** The process. */
+    private final Process process;
+    /** The process input writer. */
+    private final BufferedWriter writer;
+    /** The process output reader. */
+    private final BufferedReader reader;
+    /** The error output written since the last request. */
+    private final StringBuilder error = new StringBuilder();
+
+    /** The number of handled requests. */
+    private int requestCount;
+    /** The last use time, as given by {@link System#nanoTime()}. */
+    private long lastUseNanos = System.nanoTime();
+
+    /**
+     * Instantiates a new pooled process.
+     *
+     * @param process
+     *          the process
+     * @param encoding
+     *          the encoding
+     * @param drainingExecutor
+     *          the executor that drains the error output
+     */
+    private PooledProcess(Process process, Charset encoding, Executor drainingExecutor) {
+      this.process = process;
+      this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), encoding));
+      this.reader = new BufferedReader(new InputStreamReader(process.getInputStream(), encoding));
+      Reader errorReader = new InputStreamReader(process.getErrorStream(), encoding);
+      drainingExecutor.execute(() -> drainError(errorReader));
+    }
+
+    /**
+     * Sends a request and reads its response.
+     *
+     * @param request
+     *          the request
+     * @param requestFraming
+     *          the request framing
+     * @return the response
+     * @throws IOException
+     *           if an I/O exception has occurred
+     */
+    private String send(String request, IRequestFraming requestFraming) throws IOException {
+      takeError();
+      requestFraming.writeRequest(request, writer);
+      writer.flush();
+      String response = requestFraming.readResponse(reader);
+      requestCount++;
+      return response;
+    }
+
+    /**
+     * Takes the error output written since the last call.
+     *
+     * @return the error output
+     */
+    private String takeError() {
+      synchronized (error) {
+        String errorOutput = error.toString();
+        error.setLength(0);
+        return errorOutput;
+      }
+    }
+
+    /**
+     * Reads the error output until the process ends.
+     *
+     * @param errorReader
+     *          the error reader
+     */
+    private void drainError(Reader errorReader) {
+      char[] buffer = new char[ERROR_BUFFER_SIZE];
+      try (Reader closedErrorReader = errorReader) {
+        int readCharacters;
+        while ((readCharacters = closedErrorReader.read(buffer)) != -1) {
+          synchronized (error) {
+            error.append(buffer, 0, readCharacters);
+          }
+        }
+      } catch (IOException ioException) {
+        // The process has been destroyed
+      }
+    }
+
+    /**
+     * Stops the process, closing its input first so that it can exit by itself.
+     */
+    private void destroy() {
+      try {
+        writer.close();
+      } catch (IOException ioException) {
+        // The process has already exited
+      }
+      process.destroy();
+    }
+  }
+}
\ No newline at end of file
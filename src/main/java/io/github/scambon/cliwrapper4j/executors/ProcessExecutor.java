@@ -17,34 +17,126 @@
 package io.github.scambon.cliwrapper4j.executors;
 
 import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Deadline;
 import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
 import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.events.ExecutionStage;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
+import io.github.scambon.cliwrapper4j.internal.executors.DeadlineUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.FirstByteInputStream;
+import io.github.scambon.cliwrapper4j.internal.executors.ProcessUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StandardInputUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils.IDecodingListener;
+import io.github.scambon.cliwrapper4j.metrics.ExecutionMetrics;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
- * A command line executor that uses the {@link Process} class.
+ * A command line executor that uses the {@link Process} class. The output and error streams are
+ * drained while the process runs, so that it never blocks on a full pipe.
+ * <p>
+ * When executed asynchronously, the completion is driven by <code>Process#onExit()</code> on Java
+ * 9+, so that no thread waits for the process itself. The output and the error are still read by
+ * two blocked threads of the draining executor per running execution, plus one waiting for the
+ * process on Java 8 and one copying a @{@link Stdin} stream: for many concurrent asynchronous
+ * executions, prefer a {@link MultiplexingProcessExecutor}, whose few I/O threads serve them all.
+ * </p>
+ * <p>
+ * The @{@link Stdin} standard input, if any, is copied to the process while its outputs are read.
+ * </p>
+ * <p>
+ * When the execution has a {@link Deadline}, the process tree is destroyed once it expires and the
+ * execution fails with a {@link io.github.scambon.cliwrapper4j.CommandLineTimeoutException}.
+ * </p>
+ * <p>
+ * When the execution has {@link ExecutionMetrics}, they are filled with the spawn latency, the
+ * wall time, the CPU time, the byte counts and the decode time. When it has an
+ * {@link ExecutionTrace}, the process start, first output byte and exit events are emitted.
+ * </p>
  */
 public final class ProcessExecutor implements IExecutor {
 
+  /** The executor that drains the error stream while the output stream is being read. */
+  private final Executor drainingExecutor;
+
+  /**
+   * Instantiates a new process executor that drains streams using a shared pool of daemon
+   * threads.
+   */
+  public ProcessExecutor() {
+    this(StreamDrainingUtils.getDefaultDrainingExecutor());
+  }
+
+  /**
+   * Instantiates a new process executor.
+   *
+   * @param drainingExecutor
+   *          the executor that drains the error stream while the output stream is being read
+   */
+  public ProcessExecutor(Executor drainingExecutor) {
+    this.drainingExecutor = drainingExecutor;
+  }
+
   @Override
   @SuppressWarnings("squid:S4721")
   public Result execute(
       List<String> elements, IExecutionEnvironment environment,
       Map<String, Object> extraParameterName2ValueMap) {
+    Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+    DeadlineUtils.checkNotExpired(elements, deadline);
+    ExecutionMetrics metrics = ExecutionMetrics.get(extraParameterName2ValueMap);
+    ExecutionTrace trace = ExecutionTrace.get(extraParameterName2ValueMap);
     try {
       ProcessBuilder processBuilder = new ProcessBuilder(elements);
       environment.configure(processBuilder);
+      StandardInputUtils.redirectInput(processBuilder, extraParameterName2ValueMap);
+      long startNanos = System.nanoTime();
       Process process = processBuilder.start();
-      int returnCode = process.waitFor();
+      long startedNanos = System.nanoTime();
+      if (metrics != null) {
+        metrics.setSpawnLatencyNanos(startedNanos - startNanos);
+      }
+      String executable = elements.get(0);
+      if (trace != null) {
+        trace.emit(ExecutionStage.PROCESS_START, executable, startNanos, startedNanos - startNanos);
+      }
+      InputStream outputStream = FirstByteInputStream.traceFirstByte(
+          process.getInputStream(), trace, executable, startedNanos);
+      CompletableFuture<Void> inputFuture = StandardInputUtils.feedInput(
+          process, extraParameterName2ValueMap, drainingExecutor);
       Charset encoding = environment.getEncoding();
-      String output = readInputStream(process.getInputStream(), encoding);
-      String error = readInputStream(process.getErrorStream(), encoding);
+      CompletableFuture<String> errorFuture = StreamDrainingUtils.drain(
+          process.getErrorStream(), encoding, drainingExecutor, getErrorListener(metrics));
+      IDecodingListener outputListener = getOutputListener(process, metrics);
+      String output;
+      int returnCode;
+      if (deadline == null) {
+        output = StreamDrainingUtils.readInputStream(outputStream, encoding, outputListener);
+        returnCode = process.waitFor();
+      } else {
+        // The output is drained elsewhere, so that a silent process does not outlive its deadline
+        CompletableFuture<String> outputFuture = StreamDrainingUtils.drain(
+            outputStream, encoding, drainingExecutor, outputListener);
+        returnCode = DeadlineUtils.waitFor(process, elements, deadline);
+        output = StreamDrainingUtils.join(outputFuture);
+      }
+      long wallTimeNanos = System.nanoTime() - startedNanos;
+      if (metrics != null) {
+        metrics.setWallTimeNanos(wallTimeNanos);
+      }
+      if (trace != null) {
+        trace.emit(ExecutionStage.PROCESS_EXIT, executable, startedNanos, wallTimeNanos);
+      }
+      String error = StreamDrainingUtils.join(errorFuture);
+      StreamDrainingUtils.join(inputFuture);
       return new Result(output, error, returnCode);
     } catch (InterruptedException interruptedException) {
       Thread.currentThread().interrupt();
@@ -54,38 +146,99 @@ public final class ProcessExecutor implements IExecutor {
     }
   }
 
+  @Override
+  @SuppressWarnings("squid:S4721")
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    try {
+      Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+      DeadlineUtils.checkNotExpired(elements, deadline);
+      ExecutionMetrics metrics = ExecutionMetrics.get(extraParameterName2ValueMap);
+      ExecutionTrace trace = ExecutionTrace.get(extraParameterName2ValueMap);
+      ProcessBuilder processBuilder = new ProcessBuilder(elements);
+      environment.configure(processBuilder);
+      StandardInputUtils.redirectInput(processBuilder, extraParameterName2ValueMap);
+      long startNanos = System.nanoTime();
+      Process process = processBuilder.start();
+      long startedNanos = System.nanoTime();
+      String executable = elements.get(0);
+      if (trace != null) {
+        trace.emit(ExecutionStage.PROCESS_START, executable, startNanos, startedNanos - startNanos);
+      }
+      CompletableFuture<Void> inputFuture = StandardInputUtils.feedInput(
+          process, extraParameterName2ValueMap, drainingExecutor);
+      Charset encoding = environment.getEncoding();
+      InputStream outputStream = FirstByteInputStream.traceFirstByte(
+          process.getInputStream(), trace, executable, startedNanos);
+      CompletableFuture<String> outputFuture = StreamDrainingUtils.drain(outputStream,
+          encoding, drainingExecutor, getOutputListener(process, metrics));
+      CompletableFuture<String> errorFuture = StreamDrainingUtils.drain(
+          process.getErrorStream(), encoding, drainingExecutor, getErrorListener(metrics));
+      CompletableFuture<Integer> exitFuture = ProcessUtils.onExit(process, drainingExecutor);
+      CompletableFuture<Integer> returnCodeFuture;
+      if (metrics == null && trace == null) {
+        returnCodeFuture = exitFuture;
+      } else {
+        if (metrics != null) {
+          metrics.setSpawnLatencyNanos(startedNanos - startNanos);
+        }
+        returnCodeFuture = exitFuture.whenComplete((returnCode, throwable) -> {
+          long wallTimeNanos = System.nanoTime() - startedNanos;
+          if (metrics != null) {
+            metrics.setWallTimeNanos(wallTimeNanos);
+          }
+          if (trace != null && throwable == null) {
+            trace.emit(ExecutionStage.PROCESS_EXIT, executable, startedNanos, wallTimeNanos);
+          }
+        });
+      }
+      CompletableFuture<Void> completionFuture =
+          CompletableFuture.allOf(outputFuture, errorFuture, returnCodeFuture, inputFuture);
+      return DeadlineUtils.withDeadline(completionFuture, process, elements, deadline)
+          .thenApplyAsync(
+              ignored -> new Result(
+                  outputFuture.join(), errorFuture.join(), returnCodeFuture.join()),
+              completionExecutor);
+    } catch (IOException ioException) {
+      CompletableFuture<Result> failedFuture = new CompletableFuture<>();
+      failedFuture.completeExceptionally(new CommandLineException(ioException));
+      return failedFuture;
+    } catch (CommandLineException commandLineException) {
+      CompletableFuture<Result> failedFuture = new CompletableFuture<>();
+      failedFuture.completeExceptionally(commandLineException);
+      return failedFuture;
+    }
+  }
+
   /**
-   * Reads the given input stream.
+   * Gets the listener that fills the metrics once the output has been decoded, which is also
+   * when the CPU time is sampled, as the process is about to exit but has not been reaped yet.
    *
-   * @param inputStream
-   *          the input stream
-   * @param charset
-   *          the charset
-   * @return the input stream content
-   * @throws IOException
-   *           if an I/O exception has occurred
+   * @param process
+   *          the process
+   * @param metrics
+   *          the metrics, may be <code>null</code>
+   * @return the output listener, or <code>null</code> if there are no metrics
    */
-  private String readInputStream(InputStream inputStream, Charset charset) throws IOException {
-    byte[] bytes = readAllBytes(inputStream);
-    return new String(bytes, charset);
+  private static IDecodingListener getOutputListener(Process process, ExecutionMetrics metrics) {
+    if (metrics == null) {
+      return null;
+    }
+    return (byteCount, decodingNanos) -> {
+      metrics.setCpuTimeNanos(ProcessUtils.getTotalCpuNanos(process));
+      metrics.setOutput(byteCount, decodingNanos);
+    };
   }
 
   /**
-   * Reads all bytes from the given input stream.
+   * Gets the listener that fills the metrics once the error has been decoded.
    *
-   * @param inputStream
-   *          the is
-   * @return the bytes
-   * @throws IOException
-   *           if an I/O exception has occurred
+   * @param metrics
+   *          the metrics, may be <code>null</code>
+   * @return the error listener, or <code>null</code> if there are no metrics
    */
-  private final byte[] readAllBytes(InputStream inputStream) throws IOException {
-    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-    int readBytes;
-    byte[] data = new byte[8 * 1024];
-    while ((readBytes = inputStream.read(data)) != -1) {
-      buffer.write(data, 0, readBytes);
-    }
-    return buffer.toByteArray();
+  private static IDecodingListener getErrorListener(ExecutionMetrics metrics) {
+    return metrics == null ? null : metrics::setError;
   }
 }
\ No newline at end of file
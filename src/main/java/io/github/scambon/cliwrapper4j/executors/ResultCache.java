@@ -0,0 +1,268 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.FileResult;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.StreamingResult;
+import io.github.scambon.cliwrapper4j.internal.executors.ExecutionKey;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * A size-bounded cache of execution results, used by {@link CachingExecutor}. Each result is kept
+ * for a time-to-live after its execution completes, and the least recently used results are
+ * evicted once the maximum size is reached.
+ * </p>
+ * <p>
+ * Concurrent identical executions are loaded once: the first one runs the command line while the
+ * other ones wait for its result. Failed executions are not cached, nor are the results that can
+ * only be read once, i.e. {@link StreamingResult} and {@link FileResult}: the callers that waited
+ * for such a result must not use it, but run their own execution.
+ * </p>
+ * <p>
+ * A cache is meant to be shared; the {@link #getDefault() default one} is used
+ * by @{@link io.github.scambon.cliwrapper4j.Cacheable} methods.
+ * </p>
+ */
+public final class ResultCache {
+
+  /** The maximum size of the default cache. */
+  private static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+  /** The maximum number of results. */
+  private final int maximumSize;
+  /** The cached results, in access order. */
+  private final Map<ExecutionKey, CachedResult> key2CachedResultMap;
+
+  /** The number of executions served from the cache or an identical running execution. */
+  private long hitCount;
+  /** The number of executions that ran the command line. */
+  private long missCount;
+  /** The number of results evicted to respect the maximum size. */
+  private long evictionCount;
+
+  /**
+   * Instantiates a new result cache with a default maximum size.
+   */
+  public ResultCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Instantiates a new result cache.
+   *
+   * @param maximumSize
+   *          the maximum number of results
+   */
+  public ResultCache(int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new CommandLineException(
+          "The maximum size must be positive but was '" + maximumSize + "'");
+    }
+    this.maximumSize = maximumSize;
+    this.key2CachedResultMap = new LinkedHashMap<ExecutionKey, CachedResult>(16, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ExecutionKey, CachedResult> eldest) {
+        boolean evict = size() > ResultCache.this.maximumSize;
+        if (evict) {
+          evictionCount++;
+        }
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * Gets the default cache, shared by @{@link io.github.scambon.cliwrapper4j.Cacheable} methods.
+   *
+   * @return the default cache
+   */
+  public static ResultCache getDefault() {
+    return DefaultHolder.DEFAULT;
+  }
+
+  /**
+   * Gets the result of an execution from the cache, or loads it.
+   *
+   * @param key
+   *          the execution key
+   * @param timeToLive
+   *          how long the loaded result is kept once its execution completes
+   * @param loader
+   *          the loader, called by the calling thread on a miss
+   * @return the future result, which the caller must not use unless it is
+   *         {@link #isReplayable(Result) replayable} or the caller has loaded it
+   */
+  CompletableFuture<Result> getOrLoad(
+      ExecutionKey key, Duration timeToLive, Supplier<CompletableFuture<Result>> loader) {
+    CachedResult cachedResult;
+    synchronized (this) {
+      CachedResult previousCachedResult = key2CachedResultMap.get(key);
+      if (previousCachedResult != null && !previousCachedResult.isExpired()) {
+        hitCount++;
+        return previousCachedResult.future;
+      }
+      missCount++;
+      cachedResult = new CachedResult();
+      key2CachedResultMap.put(key, cachedResult);
+    }
+    CompletableFuture<Result> loadedFuture;
+    try {
+      loadedFuture = loader.get();
+    } catch (RuntimeException runtimeException) {
+      loadedFuture = new CompletableFuture<>();
+      loadedFuture.completeExceptionally(runtimeException);
+    } catch (Error error) {
+      // The waiters must not wait forever for a load that will never complete
+      remove(key, cachedResult);
+      cachedResult.future.completeExceptionally(error);
+      throw error;
+    }
+    loadedFuture.whenComplete((result, throwable) -> {
+      if (throwable == null && isReplayable(result)) {
+        cachedResult.expirationNanos = System.nanoTime() + timeToLive.toNanos();
+        cachedResult.loaded = true;
+      } else {
+        remove(key, cachedResult);
+      }
+      if (throwable == null) {
+        cachedResult.future.complete(result);
+      } else {
+        cachedResult.future.completeExceptionally(throwable);
+      }
+    });
+    return cachedResult.future;
+  }
+
+  /**
+   * Removes all the results.
+   */
+  public synchronized void invalidateAll() {
+    key2CachedResultMap.clear();
+  }
+
+  /**
+   * Gets the maximum number of results.
+   *
+   * @return the maximum size
+   */
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Gets the number of results, including the ones being loaded and the expired ones not yet
+   * removed.
+   *
+   * @return the size
+   */
+  public synchronized int getSize() {
+    return key2CachedResultMap.size();
+  }
+
+  /**
+   * Gets the number of executions served from the cache or an identical running execution,
+   * including the ones that then ran their own execution as the result could only be read once.
+   *
+   * @return the hit count
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Gets the number of executions that ran the command line.
+   *
+   * @return the miss count
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Gets the number of results evicted to respect the maximum size.
+   *
+   * @return the eviction count
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Removes a cached result, if it is still the one cached for its key.
+   *
+   * @param key
+   *          the key
+   * @param cachedResult
+   *          the cached result
+   */
+  private synchronized void remove(ExecutionKey key, CachedResult cachedResult) {
+    key2CachedResultMap.remove(key, cachedResult);
+  }
+
+  /**
+   * Checks if a result can be served many times.
+   *
+   * @param result
+   *          the result
+   * @return true, if it can be cached
+   */
+  static boolean isReplayable(Result result) {
+    return !(result instanceof StreamingResult) && !(result instanceof FileResult);
+  }
+
+  /**
+   * A cached result.
+   */
+  private static final class CachedResult {
+
+    /** The future result. */
+    private final CompletableFuture<Result> future = new CompletableFuture<>();
+    /** The expiration time from {@link System#nanoTime()}, none while loading. */
+    private volatile long expirationNanos;
+    /** Whether the result is loaded. */
+    private volatile boolean loaded;
+
+    /**
+     * Checks if the result has expired.
+     *
+     * @return true, if expired
+     */
+    private boolean isExpired() {
+      return loaded && System.nanoTime() - expirationNanos >= 0;
+    }
+  }
+
+  /**
+   * The holder of the default cache, created on first use.
+   */
+  private static final class DefaultHolder {
+
+    /** The default cache. */
+    private static final ResultCache DEFAULT = new ResultCache();
+  }
+}
\ No newline at end of file
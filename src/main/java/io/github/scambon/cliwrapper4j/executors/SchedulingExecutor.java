@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Extra;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.executors.LaunchScheduler.Permit;
+import io.github.scambon.cliwrapper4j.internal.executors.DeadlineUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A command line executor that waits for a {@link LaunchScheduler} permit before delegating the
+ * actual execution, so that the number of concurrent command lines stays bounded. The permit is
+ * keyed on the executable, i.e. the first command line element, and is held until the delegate
+ * execution completes.
+ * </p>
+ * <p>
+ * The queue priority can be passed as an @{@link Extra} parameter named
+ * {@value #PRIORITY_EXTRA_PARAMETER_NAME}.
+ * </p>
+ * <p>
+ * When the execution has a {@link Deadline}, it also bounds the wait for the permit: once it
+ * expires, the execution leaves the queue and fails with a
+ * {@link io.github.scambon.cliwrapper4j.CommandLineTimeoutException}.
+ * </p>
+ * <p>
+ * As the @{@link io.github.scambon.cliwrapper4j.Executor} annotation requires a no-argument
+ * constructor, share a scheduler by subclassing this executor, e.g. with a static scheduler.
+ * </p>
+ */
+public class SchedulingExecutor extends AbstractDelegatingExecutor {
+
+  /** The name of the @{@link Extra} parameter that holds the queue priority. */
+  public static final String PRIORITY_EXTRA_PARAMETER_NAME = "priority";
+
+  /** The scheduler. */
+  private final LaunchScheduler scheduler;
+
+  /**
+   * Instantiates a new scheduling executor.
+   *
+   * @param delegate
+   *          the delegate
+   * @param scheduler
+   *          the scheduler, usually shared
+   */
+  public SchedulingExecutor(IExecutor delegate, LaunchScheduler scheduler) {
+    super(delegate);
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public Result execute(
+      List<String> elements, IExecutionEnvironment executionEnvironment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+    CompletableFuture<Permit> permitFuture =
+        acquire(elements, extraParameterName2ValueMap, deadline);
+    Permit permit;
+    try {
+      permit = StreamDrainingUtils.join(
+          DeadlineUtils.cancelOnExpiration(permitFuture, elements, deadline));
+    } catch (InterruptedException interruptedException) {
+      LaunchScheduler.cancel(permitFuture);
+      Thread.currentThread().interrupt();
+      throw new CommandLineException(interruptedException);
+    }
+    try {
+      return super.execute(elements, executionEnvironment, extraParameterName2ValueMap);
+    } finally {
+      permit.close();
+    }
+  }
+
+  @Override
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment executionEnvironment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+    CompletableFuture<Permit> permitFuture;
+    try {
+      permitFuture = acquire(elements, extraParameterName2ValueMap, deadline);
+    } catch (CommandLineException commandLineException) {
+      CompletableFuture<Result> failedFuture = new CompletableFuture<>();
+      failedFuture.completeExceptionally(commandLineException);
+      return failedFuture;
+    }
+    return DeadlineUtils.cancelOnExpiration(permitFuture, elements, deadline)
+        .thenComposeAsync(permit -> {
+          CompletableFuture<Result> resultFuture;
+          try {
+            resultFuture = super.executeAsync(
+                elements, executionEnvironment, extraParameterName2ValueMap, completionExecutor);
+          } catch (RuntimeException runtimeException) {
+            permit.close();
+            throw runtimeException;
+          }
+          return resultFuture.whenComplete((result, throwable) -> permit.close());
+        }, completionExecutor);
+  }
+
+  /**
+   * Gets the scheduler.
+   *
+   * @return the scheduler
+   */
+  public LaunchScheduler getScheduler() {
+    return scheduler;
+  }
+
+  /**
+   * Acquires a permit without blocking, unless the deadline of the execution has already expired.
+   *
+   * @param elements
+   *          the command line elements
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   * @param deadline
+   *          the deadline, may be <code>null</code>
+   * @return the future permit, which leaves the queue if cancelled
+   */
+  private CompletableFuture<Permit> acquire(
+      List<String> elements, Map<String, Object> extraParameterName2ValueMap,
+      Deadline deadline) {
+    DeadlineUtils.checkNotExpired(elements, deadline);
+    String executable = elements.get(0);
+    int priority = getPriority(extraParameterName2ValueMap);
+    return scheduler.acquireAsync(executable, priority);
+  }
+
+  /**
+   * Gets the queue priority from the extra parameters.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   * @return the priority, 0 by default
+   */
+  private static int getPriority(Map<String, Object> extraParameterName2ValueMap) {
+    if (extraParameterName2ValueMap == null) {
+      return 0;
+    }
+    Object priority = extraParameterName2ValueMap.get(PRIORITY_EXTRA_PARAMETER_NAME);
+    return priority instanceof Number ? ((Number) priority).intValue() : 0;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.StringJoiner;
+
+/**
+ * A request framing for interpreters whose responses have any number of lines. After each
+ * request, a sentinel request makes the process print a sentinel line, which marks the end of the
+ * response, e.g. <code>print("--end--")</code> for <code>python -i</code>.
+ */
+public final class SentinelRequestFraming implements IRequestFraming {
+
+  /** The sentinel request. */
+  private final String sentinelRequest;
+  /** The sentinel line, printed by the process in response to the sentinel request. */
+  private final String sentinelLine;
+
+  /**
+   * Instantiates a new sentinel request framing.
+   *
+   * @param sentinelRequest
+   *          the sentinel request, sent after each request
+   * @param sentinelLine
+   *          the sentinel line, printed by the process in response to the sentinel request
+   */
+  public SentinelRequestFraming(String sentinelRequest, String sentinelLine) {
+    this.sentinelRequest = sentinelRequest;
+    this.sentinelLine = sentinelLine;
+  }
+
+  @Override
+  public void writeRequest(String request, Writer writer) throws IOException {
+    writer.write(request);
+    writer.write('\n');
+    writer.write(sentinelRequest);
+    writer.write('\n');
+  }
+
+  @Override
+  public String readResponse(BufferedReader reader) throws IOException {
+    StringJoiner response = new StringJoiner("\n");
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.equals(sentinelLine)) {
+        return response.toString();
+      }
+      response.add(line);
+    }
+    throw new EOFException("The process output ended before the sentinel line");
+  }
+}
\ No newline at end of file
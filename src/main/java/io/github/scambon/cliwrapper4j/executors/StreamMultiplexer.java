@@ -0,0 +1,394 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils.DaemonThreadFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * A multiplexer that reads the outputs of many running processes with a few I/O threads, instead
+ * of blocking one or two threads per process until it exits.
+ * </p>
+ * <p>
+ * Process pipes cannot be registered with a {@link java.nio.channels.Selector}, so each I/O thread
+ * polls its processes: it reads what is {@link InputStream#available() available} on their
+ * streams and checks whether they have exited, then backs off up to a maximum polling interval
+ * when none of them made progress. This interval bounds the latency added to each execution.
+ * </p>
+ * <p>
+ * Unlike a {@link ProcessExecutor}, which reads the outputs until their end and therefore also
+ * waits for the descendants of the process that inherited them, a registration completes as soon
+ * as the process has exited and a poll finds nothing more to read: detecting the end of a pipe
+ * would take a read that blocks the I/O thread, and all its other processes, for as long as a
+ * descendant keeps it open. The output written by descendants once the process has exited, e.g.
+ * by the background jobs of a shell script, is therefore lost.
+ * </p>
+ */
+public final class StreamMultiplexer implements AutoCloseable {
+
+  /** The default maximum polling interval. */
+  public static final Duration DEFAULT_MAX_POLLING_INTERVAL = Duration.ofMillis(5);
+
+  /** The minimum polling interval, used after some progress. */
+  private static final long MIN_POLLING_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  /** The size of the buffer used to read streams. */
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  /** The I/O loops. */
+  private final IoLoop[] ioLoops;
+  /** The maximum polling interval, in nanoseconds. */
+  private final long maxPollingIntervalNanos;
+  /** The index of the next I/O loop to register a process on. */
+  private final AtomicInteger nextIoLoopIndex = new AtomicInteger();
+  /** The number of registered processes. */
+  private final AtomicInteger registeredProcessCount = new AtomicInteger();
+
+  /** Whether this multiplexer has been closed. */
+  private volatile boolean closed;
+
+  /**
+   * Instantiates a new stream multiplexer.
+   *
+   * @param ioThreadCount
+   *          the number of I/O threads
+   * @param maxPollingInterval
+   *          the maximum interval between two polls when processes make no progress
+   */
+  public StreamMultiplexer(int ioThreadCount, Duration maxPollingInterval) {
+    if (ioThreadCount <= 0) {
+      throw new CommandLineException(
+          "The number of I/O threads must be positive but was '" + ioThreadCount + "'");
+    }
+    this.maxPollingIntervalNanos = Math.max(
+        MIN_POLLING_INTERVAL_NANOS, maxPollingInterval.toNanos());
+    DaemonThreadFactory threadFactory = new DaemonThreadFactory("CliWrapper4J stream multiplexer");
+    this.ioLoops = new IoLoop[ioThreadCount];
+    for (int index = 0; index < ioThreadCount; index++) {
+      IoLoop ioLoop = new IoLoop();
+      ioLoops[index] = ioLoop;
+      ioLoop.thread = threadFactory.newThread(ioLoop);
+      ioLoop.thread.start();
+    }
+  }
+
+  /**
+   * Gets the default stream multiplexer, shared by the JVM, with a single I/O thread.
+   *
+   * @return the default stream multiplexer
+   */
+  public static StreamMultiplexer getDefault() {
+    return DefaultHolder.DEFAULT;
+  }
+
+  /**
+   * Reads the outputs of the given process until it exits.
+   *
+   * @param process
+   *          the process
+   * @param encoding
+   *          the encoding of its outputs
+   * @return the future result, completed by an I/O thread
+   */
+  public CompletableFuture<Result> register(Process process, Charset encoding) {
+    Registration registration = new Registration(process, encoding);
+    registeredProcessCount.incrementAndGet();
+    if (closed) {
+      registration.fail(new CommandLineException("The stream multiplexer is closed"));
+    } else {
+      int ioLoopIndex = Math.floorMod(nextIoLoopIndex.getAndIncrement(), ioLoops.length);
+      ioLoops[ioLoopIndex].register(registration);
+    }
+    return registration.future;
+  }
+
+  /**
+   * Gets the number of registered processes that have not exited yet.
+   *
+   * @return the registered process count
+   */
+  public int getRegisteredProcessCount() {
+    return registeredProcessCount.get();
+  }
+
+  /**
+   * Stops the I/O threads. The pending executions fail, but their processes are not destroyed.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (IoLoop ioLoop : ioLoops) {
+      LockSupport.unpark(ioLoop.thread);
+    }
+  }
+
+  /**
+   * The holder of the default stream multiplexer, so that its thread starts on first use.
+   */
+  private static final class DefaultHolder {
+
+    /** The default stream multiplexer. */
+    private static final StreamMultiplexer DEFAULT = new StreamMultiplexer(
+        1, DEFAULT_MAX_POLLING_INTERVAL);
+  }
+
+  /**
+   * An I/O thread loop, that polls its registered processes.
+   */
+  private final class IoLoop implements Runnable {
+
+    /** The registrations not yet seen by the loop. */
+    private final Queue<Registration> newRegistrations = new ConcurrentLinkedQueue<>();
+    /** The registrations polled by the loop, only accessed by its thread. */
+    private final List<Registration> registrations = new ArrayList<>();
+    /** The thread. */
+    private Thread thread;
+
+    /**
+     * Registers a process.
+     *
+     * @param registration
+     *          the registration
+     */
+    private void register(Registration registration) {
+      newRegistrations.add(registration);
+      LockSupport.unpark(thread);
+      if (closed) {
+        failNewRegistrations();
+      }
+    }
+
+    /**
+     * Fails the registrations not yet seen by the loop, once it has stopped. Each registration is
+     * polled from the queue by a single thread, so that it fails only once.
+     */
+    private void failNewRegistrations() {
+      Registration newRegistration;
+      while ((newRegistration = newRegistrations.poll()) != null) {
+        newRegistration.fail(new CommandLineException("The stream multiplexer is closed"));
+      }
+    }
+
+    @Override
+    public void run() {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long pollingIntervalNanos = MIN_POLLING_INTERVAL_NANOS;
+      while (!closed) {
+        Registration newRegistration;
+        while ((newRegistration = newRegistrations.poll()) != null) {
+          registrations.add(newRegistration);
+        }
+        if (registrations.isEmpty()) {
+          LockSupport.park(this);
+        } else if (poll(buffer)) {
+          pollingIntervalNanos = MIN_POLLING_INTERVAL_NANOS;
+        } else {
+          LockSupport.parkNanos(this, pollingIntervalNanos);
+          pollingIntervalNanos = Math.min(2 * pollingIntervalNanos, maxPollingIntervalNanos);
+        }
+      }
+      registrations.forEach(registration -> registration.fail(
+          new CommandLineException("The stream multiplexer is closed")));
+      registrations.clear();
+      failNewRegistrations();
+    }
+
+    /**
+     * Polls the registered processes once.
+     *
+     * @param buffer
+     *          the read buffer
+     * @return true, if some output has been read or some process has completed
+     */
+    private boolean poll(byte[] buffer) {
+      boolean progress = false;
+      Iterator<Registration> iterator = registrations.iterator();
+      while (iterator.hasNext()) {
+        Registration registration = iterator.next();
+        try {
+          if (registration.poll(buffer)) {
+            iterator.remove();
+            registration.complete();
+          }
+          progress |= registration.progress;
+        } catch (IOException | RuntimeException exception) {
+          iterator.remove();
+          registration.fail(exception);
+          progress = true;
+        }
+      }
+      return progress;
+    }
+  }
+
+  /**
+   * A registered process.
+   */
+  private final class Registration {
+
+    /** The process. */
+    private final Process process;
+    /** The encoding. */
+    private final Charset encoding;
+    /** The output stream of the process. */
+    private final InputStream outputStream;
+    /** The error stream of the process. */
+    private final InputStream errorStream;
+    /** The output read so far. */
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    /** The error read so far. */
+    private final ByteArrayOutputStream error = new ByteArrayOutputStream();
+    /** The future result. */
+    private final CompletableFuture<Result> future = new CompletableFuture<>();
+    /** Whether the last poll made progress. */
+    private boolean progress;
+
+    /**
+     * Instantiates a new registration.
+     *
+     * @param process
+     *          the process
+     * @param encoding
+     *          the encoding
+     */
+    private Registration(Process process, Charset encoding) {
+      this.process = process;
+      this.encoding = encoding;
+      this.outputStream = process.getInputStream();
+      this.errorStream = process.getErrorStream();
+    }
+
+    /**
+     * Reads the available output and checks whether the process has exited. The exit is checked
+     * first, so that a poll that reads nothing after the exit has read everything.
+     *
+     * @param buffer
+     *          the read buffer
+     * @return true, if the process has exited and its outputs have been fully read
+     * @throws IOException
+     *           if an I/O exception has occurred
+     */
+    private boolean poll(byte[] buffer) throws IOException {
+      boolean alive = process.isAlive();
+      boolean outputRead = read(outputStream, output, buffer);
+      boolean errorRead = read(errorStream, error, buffer);
+      progress = outputRead || errorRead;
+      return !alive && !progress;
+    }
+
+    /**
+     * Reads what is available on a stream without blocking.
+     *
+     * @param inputStream
+     *          the input stream
+     * @param content
+     *          the content read so far
+     * @param buffer
+     *          the read buffer
+     * @return true, if something has been read
+     * @throws IOException
+     *           if an I/O exception has occurred
+     */
+    private boolean read(InputStream inputStream, ByteArrayOutputStream content, byte[] buffer)
+        throws IOException {
+      int availableBytes = inputStream.available();
+      if (availableBytes <= 0) {
+        return false;
+      }
+      int readBytes = inputStream.read(buffer, 0, Math.min(availableBytes, buffer.length));
+      if (readBytes <= 0) {
+        return false;
+      }
+      content.write(buffer, 0, readBytes);
+      return true;
+    }
+
+    /**
+     * Completes the future result.
+     */
+    private void complete() {
+      progress = true;
+      closeStreams();
+      registeredProcessCount.decrementAndGet();
+      try {
+        future.complete(new Result(
+            output.toString(encoding.name()), error.toString(encoding.name()),
+            process.exitValue()));
+      } catch (IOException ioException) {
+        future.completeExceptionally(new CommandLineException(ioException));
+      }
+    }
+
+    /**
+     * Fails the future result.
+     *
+     * @param exception
+     *          the exception
+     */
+    private void fail(Exception exception) {
+      closeStreams();
+      registeredProcessCount.decrementAndGet();
+      future.completeExceptionally(exception instanceof CommandLineException
+          ? exception
+          : new CommandLineException(exception));
+    }
+
+    /**
+     * Closes the process streams, so that their descriptors are released right away.
+     */
+    private void closeStreams() {
+      closeQuietly(outputStream);
+      closeQuietly(errorStream);
+      try {
+        process.getOutputStream()
+            .close();
+      } catch (IOException ioException) {
+        // Already closed
+      }
+    }
+
+    /**
+     * Closes a stream, ignoring errors.
+     *
+     * @param inputStream
+     *          the input stream
+     */
+    private void closeQuietly(InputStream inputStream) {
+      try {
+        inputStream.close();
+      } catch (IOException ioException) {
+        // Already closed
+      }
+    }
+  }
+}
\ No newline at end of file
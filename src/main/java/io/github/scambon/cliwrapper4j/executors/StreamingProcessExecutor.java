@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.StreamingResult;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.internal.executors.DeadlineUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StandardInputUtils;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A command line executor that uses the {@link Process} class and returns as soon as the process
+ * is started. The output is then read incrementally through the returned {@link StreamingResult},
+ * e.g. from an @{@link io.github.scambon.cliwrapper4j.ExecuteNow} method returning
+ * <code>Stream&lt;String&gt;</code>.
+ * </p>
+ * <p>
+ * This is suitable for command lines with huge outputs, since the output is never fully loaded in
+ * memory. The return code is checked once the output has been fully consumed.
+ * </p>
+ * <p>
+ * The @{@link Stdin} standard input, if any, is copied to the process while its output is
+ * consumed; a failure to read it is reported with the error.
+ * </p>
+ * <p>
+ * When the execution has a {@link Deadline}, the process tree is destroyed once it expires, which
+ * ends the output, and consuming it fails with a
+ * {@link io.github.scambon.cliwrapper4j.CommandLineTimeoutException}.
+ * </p>
+ */
+public final class StreamingProcessExecutor implements IExecutor {
+
+  /** The executor that drains the error stream while the output stream is being consumed. */
+  private final Executor drainingExecutor;
+
+  /**
+   * Instantiates a new streaming process executor that drains the error stream using a shared
+   * pool of daemon threads.
+   */
+  public StreamingProcessExecutor() {
+    this(StreamDrainingUtils.getDefaultDrainingExecutor());
+  }
+
+  /**
+   * Instantiates a new streaming process executor.
+   *
+   * @param drainingExecutor
+   *          the executor that drains the error stream while the output stream is being consumed
+   */
+  public StreamingProcessExecutor(Executor drainingExecutor) {
+    this.drainingExecutor = drainingExecutor;
+  }
+
+  @Override
+  @SuppressWarnings("squid:S4721")
+  public Result execute(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    Deadline deadline = Deadline.get(extraParameterName2ValueMap);
+    DeadlineUtils.checkNotExpired(elements, deadline);
+    try {
+      ProcessBuilder processBuilder = new ProcessBuilder(elements);
+      environment.configure(processBuilder);
+      StandardInputUtils.redirectInput(processBuilder, extraParameterName2ValueMap);
+      Process process = processBuilder.start();
+      CompletableFuture<Void> inputFuture = StandardInputUtils.feedInput(
+          process, extraParameterName2ValueMap, drainingExecutor);
+      Charset encoding = environment.getEncoding();
+      CompletableFuture<String> errorFuture = StreamDrainingUtils.drain(
+          process.getErrorStream(), encoding, drainingExecutor)
+          .thenCombine(inputFuture, (error, ignored) -> error);
+      StreamingResult result = new StreamingResult(process, encoding, errorFuture);
+      if (deadline != null) {
+        Runnable deadlineCheck = DeadlineUtils.destroyOnExpiration(process, elements, deadline);
+        result.addCompletionCheck(completedResult -> deadlineCheck.run());
+      }
+      return result;
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+}
\ No newline at end of file
@@ -21,6 +21,8 @@ import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -64,4 +66,13 @@ public class TracingExecutor extends AbstractDelegatingExecutor {
     printer.accept(elements);
     return super.execute(elements, executionEnvironment, extraParameterName2ValueMap);
   }
+
+  @Override
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment executionEnvironment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    printer.accept(elements);
+    return super.executeAsync(
+        elements, executionEnvironment, extraParameterName2ValueMap, completionExecutor);
+  }
 }
\ No newline at end of file
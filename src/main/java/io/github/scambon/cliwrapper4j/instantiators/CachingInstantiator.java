@@ -16,37 +16,252 @@
 
 package io.github.scambon.cliwrapper4j.instantiators;
 
-import java.util.HashMap;
-import java.util.Map;
+import io.github.scambon.cliwrapper4j.CommandLineException;
+
+import java.util.function.Supplier;
 
 /**
- * An instantiator that caches the results created by a delegate.
+ * <p>
+ * An instantiator that caches the results created by a delegate. It is thread-safe: once a class
+ * has been created, getting its instance again takes no lock. What it keeps about a class is
+ * attached to the class itself, so that it does not prevent the class from being unloaded.
+ * </p>
+ * <p>
+ * By default, there is a single instance per class. Stateful executors, e.g. ones that are not
+ * thread-safe, can be given another {@link Scope}.
+ * </p>
+ * <p>
+ * Scopes only matter for executors, which are obtained for each execution. The other classes,
+ * such as converters, flatteners, aggregators and pre-processors, are obtained once, when a
+ * wrapper and its methods are set up, and then used by all their calls: they must be thread-safe
+ * whatever their scope.
+ * </p>
  */
 public class CachingInstantiator implements IInstantiator {
-  
+
   /** The delegate. */
   private final IInstantiator delegate;
-  /** The class 2 instance map. */
-  private final Map<Class<?>, Object> class2InstanceMap = new HashMap<>();
+  /** The scope of the classes without a specific one. */
+  private final Scope defaultScope;
+  /** The scope state of each class. */
+  private final ClassValue<ScopeState> scopeStates = new ClassValue<ScopeState>() {
+    @Override
+    protected ScopeState computeValue(Class<?> clazz) {
+      return new ScopeState(defaultScope);
+    }
+  };
+  /** Whether the delegate can create each class. */
+  private final ClassValue<Boolean> creatableClasses = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> clazz) {
+      return delegate.canCreate(clazz);
+    }
+  };
+  /** The instance supplier of each class, which applies its scope. */
+  private final ClassValue<Supplier<Object>> instanceSuppliers =
+      new ClassValue<Supplier<Object>>() {
+        @Override
+        protected Supplier<Object> computeValue(Class<?> clazz) {
+          return createInstanceSupplier(clazz);
+        }
+      };
 
   /**
-   * Instantiates a new caching instantiator.
+   * Instantiates a new caching instantiator, with a single instance per class.
    *
    * @param delegate
    *          the delegate
    */
   public CachingInstantiator(IInstantiator delegate) {
+    this(delegate, Scope.SINGLETON);
+  }
+
+  /**
+   * Instantiates a new caching instantiator.
+   *
+   * @param delegate
+   *          the delegate
+   * @param defaultScope
+   *          the scope of the classes without a specific one
+   */
+  public CachingInstantiator(IInstantiator delegate, Scope defaultScope) {
     this.delegate = delegate;
+    this.defaultScope = defaultScope;
+  }
+
+  /**
+   * Gets the default instantiator, shared by the factories created without one. It caches the
+   * instances created by a {@link ReflectiveInstantiator}, with a single instance per class.
+   *
+   * @return the default instantiator
+   */
+  public static CachingInstantiator getDefault() {
+    return DefaultHolder.DEFAULT;
+  }
+
+  /**
+   * Sets the scope of a class. It must be called before the class is first created, e.g. before
+   * creating the factories that use this instantiator.
+   *
+   * @param clazz
+   *          the class
+   * @param scope
+   *          the scope
+   * @throws CommandLineException
+   *           if the scope of the class has already been used
+   */
+  public void setScope(Class<?> clazz, Scope scope) {
+    ScopeState scopeState = scopeStates.get(clazz);
+    synchronized (scopeState) {
+      if (scopeState.frozen) {
+        throw new CommandLineException("Cannot set the scope of '" + clazz.getName()
+            + "', which has already been used with the scope '" + scopeState.scope + "'");
+      }
+      scopeState.scope = scope;
+    }
+  }
+
+  /**
+   * Gets the scope of a class.
+   *
+   * @param clazz
+   *          the class
+   * @return the scope
+   */
+  public Scope getScope(Class<?> clazz) {
+    return scopeStates.get(clazz).scope;
+  }
+
+  /**
+   * Gets the scope of a class in order to apply it, so that it can no longer be changed. It is
+   * meant for the code that applies the scope itself, e.g. to the executor of each execution.
+   *
+   * @param clazz
+   *          the class
+   * @return the scope
+   */
+  public Scope freezeScope(Class<?> clazz) {
+    ScopeState scopeState = scopeStates.get(clazz);
+    synchronized (scopeState) {
+      scopeState.frozen = true;
+      return scopeState.scope;
+    }
   }
 
   @Override
   public boolean canCreate(Class<?> clazz) {
-    return class2InstanceMap.containsKey(clazz) || delegate.canCreate(clazz);
+    return creatableClasses.get(clazz);
   }
 
   @Override
   @SuppressWarnings("unchecked")
   public <T> T create(Class<T> clazz) {
-    return (T) class2InstanceMap.computeIfAbsent(clazz, delegate::create);
+    return (T) instanceSuppliers.get(clazz)
+        .get();
+  }
+
+  /**
+   * Creates the supplier that applies the scope of a class.
+   *
+   * @param clazz
+   *          the class
+   * @return the instance supplier
+   */
+  private Supplier<Object> createInstanceSupplier(Class<?> clazz) {
+    switch (freezeScope(clazz)) {
+      case PER_THREAD:
+        return ThreadLocal.<Object> withInitial(() -> delegate.create(clazz))::get;
+      case PER_EXECUTION:
+        return () -> delegate.create(clazz);
+      case SINGLETON:
+      default:
+        return new SingletonSupplier(delegate, clazz);
+    }
+  }
+
+  /**
+   * The scope of the instances of a class.
+   */
+  public enum Scope {
+
+    /** A single instance, shared by all threads, which must therefore be thread-safe. */
+    SINGLETON,
+    /** An instance per thread. */
+    PER_THREAD,
+    /** A new instance each time one is needed, i.e. for each execution for executors. */
+    PER_EXECUTION
+  }
+
+  /**
+   * The holder of the default instantiator, created on first use.
+   */
+  private static final class DefaultHolder {
+
+    /** The default instantiator. */
+    private static final CachingInstantiator DEFAULT =
+        new CachingInstantiator(new ReflectiveInstantiator());
+  }
+
+  /**
+   * The scope of a class, and whether it can still be changed.
+   */
+  private static final class ScopeState {
+
+    /** The scope. */
+    private volatile Scope scope;
+    /** Whether the scope has been used, so that it can no longer be changed. */
+    private boolean frozen;
+
+    /**
+     * Instantiates a new scope state.
+     *
+     * @param scope
+     *          the scope
+     */
+    private ScopeState(Scope scope) {
+      this.scope = scope;
+    }
+  }
+
+  /**
+   * A supplier that creates its instance once, the first time it is needed.
+   */
+  private static final class SingletonSupplier implements Supplier<Object> {
+
+    /** The delegate. */
+    private final IInstantiator delegate;
+    /** The class. */
+    private final Class<?> clazz;
+    /** The instance, <code>null</code> until created. */
+    private volatile Object instance;
+
+    /**
+     * Instantiates a new singleton supplier.
+     *
+     * @param delegate
+     *          the delegate
+     * @param clazz
+     *          the class
+     */
+    private SingletonSupplier(IInstantiator delegate, Class<?> clazz) {
+      this.delegate = delegate;
+      this.clazz = clazz;
+    }
+
+    @Override
+    public Object get() {
+      Object result = instance;
+      if (result == null) {
+        // Only the first creation locks, so that concurrent callers share a single instance
+        synchronized (this) {
+          result = instance;
+          if (result == null) {
+            result = delegate.create(clazz);
+            instance = result;
+          }
+        }
+      }
+      return result;
+    }
   }
 }
\ No newline at end of file
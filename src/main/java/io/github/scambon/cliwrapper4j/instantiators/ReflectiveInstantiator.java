@@ -18,31 +18,77 @@ package io.github.scambon.cliwrapper4j.instantiators;
 
 import io.github.scambon.cliwrapper4j.CommandLineException;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.util.Optional;
 
 /**
- * An instantiator that creates instances using public, no-arg constructors.
+ * An instantiator that creates instances using public, no-arg constructors. Each constructor is
+ * looked up once and turned into a method handle, which is then invoked without reflective
+ * lookups.
  */
 public class ReflectiveInstantiator implements IInstantiator {
 
+  /** The lookup, which only needs to access public members. */
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+  /** The type of the constructor handles. */
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+  /** The constructor handle of each class, empty if it has no public no-arg constructor. */
+  private static final ClassValue<Optional<MethodHandle>> CONSTRUCTOR_HANDLES =
+      new ClassValue<Optional<MethodHandle>>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> clazz) {
+          return findConstructorHandle(clazz);
+        }
+      };
+
   @Override
   public boolean canCreate(Class<?> clazz) {
-    try {
-      clazz.getConstructor();
-      // If no exception was thrown, then it is OK
-      return true;
-    } catch (ReflectiveOperationException roe) {
-      return false;
-    }
+    return CONSTRUCTOR_HANDLES.get(clazz)
+        .isPresent();
   }
 
   @Override
+  @SuppressWarnings({"unchecked", "squid:S1181"})
   public <T> T create(Class<T> clazz) {
+    MethodHandle constructorHandle = CONSTRUCTOR_HANDLES.get(clazz)
+        .orElseThrow(() -> new CommandLineException(
+            new NoSuchMethodException(clazz.getName() + ".<init>()")));
+    try {
+      return (T) (Object) constructorHandle.invokeExact();
+    } catch (CommandLineException commandLineException) {
+      throw commandLineException;
+    } catch (Throwable throwable) {
+      throw new CommandLineException(throwable);
+    }
+  }
+
+  /**
+   * Finds the public no-arg constructor of a class and turns it into a method handle.
+   *
+   * @param clazz
+   *          the class
+   * @return the constructor handle, of type <code>()Object</code>, empty if there is no such
+   *         constructor
+   */
+  private static Optional<MethodHandle> findConstructorHandle(Class<?> clazz) {
+    Constructor<?> constructor;
     try {
-      Constructor<T> constructor = clazz.getConstructor();
-      return constructor.newInstance();
+      constructor = clazz.getConstructor();
     } catch (ReflectiveOperationException roe) {
-      throw new CommandLineException(roe);
+      return Optional.empty();
+    }
+    MethodHandle constructorHandle;
+    try {
+      constructorHandle = LOOKUP.unreflectConstructor(constructor);
+    } catch (IllegalAccessException illegalAccessException) {
+      // E.g. a public constructor of a non-public class: it fails on creation, as with reflection
+      MethodHandle thrower = MethodHandles.throwException(Object.class, CommandLineException.class)
+          .bindTo(new CommandLineException(illegalAccessException));
+      return Optional.of(thrower);
     }
+    return Optional.of(constructorHandle.asType(CONSTRUCTOR_TYPE));
   }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal;
+
+import static java.util.Arrays.asList;
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toList;
+
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.instantiators.CachingInstantiator;
+import io.github.scambon.cliwrapper4j.instantiators.IInstantiator;
+import io.github.scambon.cliwrapper4j.internal.bytecode.ExecutableClassGenerator;
+import io.github.scambon.cliwrapper4j.internal.handlers.IMethodHandler;
+import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
+import io.github.scambon.cliwrapper4j.preprocessors.ICommandLinePreProcessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * The compiled form of an {@link IExecutable} sub-interface: its validated method handlers, its
+ * executable and its pre-processors. It is built once and shared by the factories of the
+ * interface that use the same instantiator, so that creating a wrapper only allocates its own
+ * state.
+ * </p>
+ * <p>
+ * The definitions built with the {@link CachingInstantiator#getDefault() default instantiator}
+ * are cached per interface. The ones built with another instantiator are not, as their handlers
+ * depend on it. A cached definition is attached to its interface, and does not reference it
+ * other than through its methods, so that it is unloaded with it.
+ * </p>
+ */
+public final class ExecutableDefinition {
+
+  /** The definitions built with the default instantiator. */
+  private static final ClassValue<ExecutableDefinition> DEFAULT_DEFINITIONS =
+      new ClassValue<ExecutableDefinition>() {
+        @Override
+        protected ExecutableDefinition computeValue(Class<?> executableInterface) {
+          return new ExecutableDefinition(
+              executableInterface.asSubclass(IExecutable.class), CachingInstantiator.getDefault());
+        }
+      };
+
+  /** The instantiator. */
+  private final IInstantiator instantiator;
+  /** The method 2 handler map. */
+  private final Map<Method, IMethodHandler> method2HandlerMap;
+  /** The executable, from the @{@link Executable} annotation. */
+  private final List<String> executable;
+  /** The pre-processors, from the @{@link Executable} annotation. */
+  private final List<ICommandLinePreProcessor> preProcessors;
+  /** Whether the wrappers are immutable. */
+  private final boolean immutable;
+  /** The generated class, <code>null</code> until first needed. */
+  private volatile GeneratedClass generatedClass;
+
+  /**
+   * Instantiates a new executable definition, validating the interface.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @param instantiator
+   *          the instantiator
+   */
+  private ExecutableDefinition(
+      Class<? extends IExecutable> executableInterface, IInstantiator instantiator) {
+    this.instantiator = instantiator;
+    this.method2HandlerMap = Collections.unmodifiableMap(
+        ExecutableHandler.createHandlers(executableInterface, instantiator));
+    Executable executableAnnotation = executableInterface.getAnnotation(Executable.class);
+    this.executable = Collections.unmodifiableList(asList(executableAnnotation.value()));
+    this.preProcessors = Collections.unmodifiableList(stream(executableAnnotation.preProcessors())
+        .map(instantiator::createIfPossibleOrThrow)
+        .collect(toList()));
+    this.immutable = executableAnnotation.immutable();
+  }
+
+  /**
+   * Gets the definition of an interface, which is only built on first use with the default
+   * instantiator.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @param instantiator
+   *          the instantiator
+   * @return the executable definition
+   */
+  public static ExecutableDefinition get(
+      Class<? extends IExecutable> executableInterface, IInstantiator instantiator) {
+    if (instantiator == CachingInstantiator.getDefault()) {
+      return DEFAULT_DEFINITIONS.get(executableInterface);
+    }
+    return new ExecutableDefinition(executableInterface, instantiator);
+  }
+
+  /**
+   * Gets the instantiator.
+   *
+   * @return the instantiator
+   */
+  public IInstantiator getInstantiator() {
+    return instantiator;
+  }
+
+  /**
+   * Gets the method 2 handler map.
+   *
+   * @return the unmodifiable method 2 handler map
+   */
+  public Map<Method, IMethodHandler> getMethod2HandlerMap() {
+    return method2HandlerMap;
+  }
+
+  /**
+   * Checks whether the wrappers are immutable.
+   *
+   * @return true, if immutable
+   */
+  public boolean isImmutable() {
+    return immutable;
+  }
+
+  /**
+   * Creates the executable node of a new wrapper.
+   *
+   * @param executionEnvironment
+   *          the execution environment
+   * @param wrapperCreator
+   *          the function that creates a wrapper for a forked node, or <code>null</code> for
+   *          mutable wrappers
+   * @return the executable node
+   */
+  public ExecutableNode createNode(
+      IExecutionEnvironment executionEnvironment,
+      Function<ExecutableNode, Object> wrapperCreator) {
+    return new ExecutableNode(executable, preProcessors, executionEnvironment, wrapperCreator);
+  }
+
+  /**
+   * Gets the class generated at runtime for the interface, generating it on first call.
+   *
+   * @param executableInterface
+   *          the executable interface of this definition
+   * @return the generated class
+   * @see ExecutableClassGenerator
+   */
+  public GeneratedClass getGeneratedClass(Class<? extends IExecutable> executableInterface) {
+    GeneratedClass result = generatedClass;
+    if (result == null) {
+      synchronized (this) {
+        result = generatedClass;
+        if (result == null) {
+          List<IMethodHandler> handlerList = new ArrayList<>();
+          Optional<MethodHandle> constructor = ExecutableClassGenerator.generate(
+              executableInterface, method2HandlerMap, handlerList);
+          result = new GeneratedClass(constructor.orElse(null),
+              handlerList.toArray(new IMethodHandler[handlerList.size()]));
+          generatedClass = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * A class generated at runtime for an interface, with the handlers its constructor expects.
+   */
+  public static final class GeneratedClass {
+
+    /** The constructor, or <code>null</code> if the class cannot be defined. */
+    private final MethodHandle constructor;
+    /** The handlers, in the order expected by the generated class. */
+    private final IMethodHandler[] handlers;
+
+    /**
+     * Instantiates a new generated class.
+     *
+     * @param constructor
+     *          the constructor, or <code>null</code> if the class cannot be defined
+     * @param handlers
+     *          the handlers, in the order expected by the generated class
+     */
+    private GeneratedClass(MethodHandle constructor, IMethodHandler[] handlers) {
+      this.constructor = constructor;
+      this.handlers = handlers;
+    }
+
+    /**
+     * Gets the constructor.
+     *
+     * @return the constructor, of type <code>(IMethodHandler[], ExecutableNode)Object</code>, or
+     *         <code>null</code> if the class cannot be defined
+     */
+    public MethodHandle getConstructor() {
+      return constructor;
+    }
+
+    /**
+     * Gets the handlers, in the order expected by the generated class. The array is shared and
+     * must not be modified.
+     *
+     * @return the handlers
+     */
+    public IMethodHandler[] getHandlers() {
+      return handlers;
+    }
+  }
+}
\ No newline at end of file
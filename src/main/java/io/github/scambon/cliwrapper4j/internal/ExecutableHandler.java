@@ -26,10 +26,13 @@ import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
 import io.github.scambon.cliwrapper4j.instantiators.IInstantiator;
 import io.github.scambon.cliwrapper4j.internal.check.Diagnostic;
 import io.github.scambon.cliwrapper4j.internal.check.ExecutableSubInterfaceChecker;
+import io.github.scambon.cliwrapper4j.internal.handlers.ExecuteAsyncMethodHandler;
 import io.github.scambon.cliwrapper4j.internal.handlers.ExecuteLaterSwitchMethodHandler;
 import io.github.scambon.cliwrapper4j.internal.handlers.ExecuteMethodHandler;
 import io.github.scambon.cliwrapper4j.internal.handlers.ExecuteNowSwitchMethodHandler;
 import io.github.scambon.cliwrapper4j.internal.handlers.IMethodHandler;
+import io.github.scambon.cliwrapper4j.internal.handlers.PipeToMethodHandler;
+import io.github.scambon.cliwrapper4j.internal.handlers.PrepareMethodHandler;
 import io.github.scambon.cliwrapper4j.internal.handlers.SwitchMethodHandler;
 import io.github.scambon.cliwrapper4j.internal.handlers.UnhandledMethodHandler;
 import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
@@ -52,10 +55,19 @@ public final class ExecutableHandler<W extends IExecutable>
 
   /** The execute method. */
   public static final Method EXECUTE_METHOD;
+  /** The execute async method. */
+  public static final Method EXECUTE_ASYNC_METHOD;
+  /** The prepare method. */
+  public static final Method PREPARE_METHOD;
+  /** The pipe to method. */
+  public static final Method PIPE_TO_METHOD;
 
   static {
     try {
       EXECUTE_METHOD = IExecutable.class.getMethod("execute");
+      EXECUTE_ASYNC_METHOD = IExecutable.class.getMethod("executeAsync");
+      PREPARE_METHOD = IExecutable.class.getMethod("prepare");
+      PIPE_TO_METHOD = IExecutable.class.getMethod("pipeTo", IExecutable.class);
     } catch (NoSuchMethodException | SecurityException exception) {
       throw new CommandLineException(exception);
     }
@@ -90,6 +102,21 @@ public final class ExecutableHandler<W extends IExecutable>
         executionEnvironment);
   }
 
+  /**
+   * Instantiates a new command line invocation handler for an existing executable node, e.g. a
+   * forked one.
+   *
+   * @param method2HandlerMap
+   *          the method 2 handler map
+   * @param executableNode
+   *          the executable node
+   */
+  public ExecutableHandler(
+      Map<Method, IMethodHandler> method2HandlerMap, ExecutableNode executableNode) {
+    this.method2HandlerMap = method2HandlerMap;
+    this.executableNode = executableNode;
+  }
+
   /**
    * Creates the handlers.
    *
@@ -108,6 +135,9 @@ public final class ExecutableHandler<W extends IExecutable>
     diagnostic.check();
     Map<Method, IMethodHandler> method2HandlerMap = new HashMap<>();
     method2HandlerMap.put(EXECUTE_METHOD, new ExecuteMethodHandler());
+    method2HandlerMap.put(EXECUTE_ASYNC_METHOD, new ExecuteAsyncMethodHandler());
+    method2HandlerMap.put(PREPARE_METHOD, new PrepareMethodHandler());
+    method2HandlerMap.put(PIPE_TO_METHOD, new PipeToMethodHandler());
     for (Method method : commandLineWrapperInterface.getDeclaredMethods()) {
       // Some methods are ignored:
       // - Synthetic methods, e.g. JaCoCo's methods
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.bytecode;
+
+import java.util.Arrays;
+
+/**
+ * A growable byte array that writes big-endian values, as the class file format requires.
+ */
+final class ByteVector {
+
+  /** The bytes. */
+  private byte[] bytes = new byte[64];
+  /** The number of written bytes. */
+  private int length;
+
+  /**
+   * Writes an unsigned byte.
+   *
+   * @param value
+   *          the value
+   * @return this byte vector
+   */
+  ByteVector putByte(int value) {
+    ensureCapacity(1);
+    bytes[length++] = (byte) value;
+    return this;
+  }
+
+  /**
+   * Writes an unsigned short.
+   *
+   * @param value
+   *          the value
+   * @return this byte vector
+   */
+  ByteVector putShort(int value) {
+    return putByte(value >>> 8).putByte(value);
+  }
+
+  /**
+   * Writes an int.
+   *
+   * @param value
+   *          the value
+   * @return this byte vector
+   */
+  ByteVector putInt(int value) {
+    return putShort(value >>> 16).putShort(value);
+  }
+
+  /**
+   * Writes bytes.
+   *
+   * @param byteVector
+   *          the byte vector to copy
+   * @return this byte vector
+   */
+  ByteVector putBytes(ByteVector byteVector) {
+    ensureCapacity(byteVector.length);
+    System.arraycopy(byteVector.bytes, 0, bytes, length, byteVector.length);
+    length += byteVector.length;
+    return this;
+  }
+
+  /**
+   * Writes a string in the modified UTF-8 format of class files, prefixed by its length.
+   *
+   * @param string
+   *          the string
+   * @return this byte vector
+   */
+  ByteVector putUtf8(String string) {
+    ByteVector encoded = new ByteVector();
+    for (int index = 0; index < string.length(); index++) {
+      char character = string.charAt(index);
+      if (character >= 0x01 && character <= 0x7F) {
+        encoded.putByte(character);
+      } else if (character <= 0x7FF) {
+        encoded.putByte(0xC0 | (character >> 6))
+            .putByte(0x80 | (character & 0x3F));
+      } else {
+        encoded.putByte(0xE0 | (character >> 12))
+            .putByte(0x80 | ((character >> 6) & 0x3F))
+            .putByte(0x80 | (character & 0x3F));
+      }
+    }
+    return putShort(encoded.length).putBytes(encoded);
+  }
+
+  /**
+   * Gets the number of written bytes.
+   *
+   * @return the length
+   */
+  int getLength() {
+    return length;
+  }
+
+  /**
+   * Gets a copy of the written bytes.
+   *
+   * @return the bytes
+   */
+  byte[] toByteArray() {
+    return Arrays.copyOf(bytes, length);
+  }
+
+  /**
+   * Ensures there is enough room for the given number of additional bytes.
+   *
+   * @param additionalLength
+   *          the additional length
+   */
+  private void ensureCapacity(int additionalLength) {
+    if (length + additionalLength > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additionalLength));
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.bytecode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A minimal class file writer, which only supports what the generated executables need: a
+ * constant pool, fields, and methods whose code has no branch.
+ * </p>
+ * <p>
+ * As the code has no branch, Java 8 class files can be written without stack map frames.
+ * </p>
+ */
+final class ClassFileWriter {
+
+  /** The class file magic number. */
+  private static final int MAGIC = 0xCAFEBABE;
+  /** The Java 8 class file major version. */
+  private static final int JAVA_8_MAJOR_VERSION = 52;
+
+  /** The Utf8 constant tag. */
+  private static final int CONSTANT_UTF8 = 1;
+  /** The Integer constant tag. */
+  private static final int CONSTANT_INTEGER = 3;
+  /** The Class constant tag. */
+  private static final int CONSTANT_CLASS = 7;
+  /** The String constant tag. */
+  private static final int CONSTANT_STRING = 8;
+  /** The Fieldref constant tag. */
+  private static final int CONSTANT_FIELDREF = 9;
+  /** The Methodref constant tag. */
+  private static final int CONSTANT_METHODREF = 10;
+  /** The InterfaceMethodref constant tag. */
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  /** The NameAndType constant tag. */
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  /** The constant pool. */
+  private final ByteVector constantPool = new ByteVector();
+  /** The constant key to constant pool index map. */
+  private final Map<String, Integer> constantKey2IndexMap = new HashMap<>();
+  /** The next constant pool index. */
+  private int nextConstantIndex = 1;
+  /** The fields. */
+  private final ByteVector fields = new ByteVector();
+  /** The field count. */
+  private int fieldCount;
+  /** The methods. */
+  private final ByteVector methods = new ByteVector();
+  /** The method count. */
+  private int methodCount;
+  /** The class access flags. */
+  private final int access;
+  /** The this class constant index. */
+  private final int thisClass;
+  /** The super class constant index. */
+  private final int superClass;
+  /** The interface constant indexes. */
+  private final int[] interfaces;
+
+  /**
+   * Instantiates a new class file writer.
+   *
+   * @param access
+   *          the class access flags
+   * @param internalName
+   *          the internal name of the class
+   * @param superInternalName
+   *          the internal name of the super class
+   * @param interfaceInternalNames
+   *          the internal names of the implemented interfaces
+   */
+  ClassFileWriter(
+      int access, String internalName, String superInternalName,
+      String... interfaceInternalNames) {
+    this.access = access;
+    this.thisClass = classConstant(internalName);
+    this.superClass = classConstant(superInternalName);
+    this.interfaces = new int[interfaceInternalNames.length];
+    for (int index = 0; index < interfaceInternalNames.length; index++) {
+      interfaces[index] = classConstant(interfaceInternalNames[index]);
+    }
+  }
+
+  /**
+   * Gets or adds a Utf8 constant.
+   *
+   * @param value
+   *          the value
+   * @return the constant index
+   */
+  int utf8Constant(String value) {
+    String key = CONSTANT_UTF8 + ":" + value;
+    Integer index = constantKey2IndexMap.get(key);
+    if (index == null) {
+      constantPool.putByte(CONSTANT_UTF8)
+          .putUtf8(value);
+      index = addConstant(key);
+    }
+    return index;
+  }
+
+  /**
+   * Gets or adds an Integer constant.
+   *
+   * @param value
+   *          the value
+   * @return the constant index
+   */
+  int integerConstant(int value) {
+    String key = CONSTANT_INTEGER + ":" + value;
+    Integer index = constantKey2IndexMap.get(key);
+    if (index == null) {
+      constantPool.putByte(CONSTANT_INTEGER)
+          .putInt(value);
+      index = addConstant(key);
+    }
+    return index;
+  }
+
+  /**
+   * Gets or adds a Class constant.
+   *
+   * @param internalName
+   *          the internal name, or the descriptor for arrays
+   * @return the constant index
+   */
+  int classConstant(String internalName) {
+    return addReference(CONSTANT_CLASS, utf8Constant(internalName));
+  }
+
+  /**
+   * Gets or adds a String constant.
+   *
+   * @param value
+   *          the value
+   * @return the constant index
+   */
+  int stringConstant(String value) {
+    return addReference(CONSTANT_STRING, utf8Constant(value));
+  }
+
+  /**
+   * Gets or adds a Fieldref constant.
+   *
+   * @param owner
+   *          the internal name of the owner class
+   * @param name
+   *          the field name
+   * @param descriptor
+   *          the field descriptor
+   * @return the constant index
+   */
+  int fieldConstant(String owner, String name, String descriptor) {
+    return addMemberReference(CONSTANT_FIELDREF, owner, name, descriptor);
+  }
+
+  /**
+   * Gets or adds a Methodref constant.
+   *
+   * @param owner
+   *          the internal name of the owner class
+   * @param name
+   *          the method name
+   * @param descriptor
+   *          the method descriptor
+   * @return the constant index
+   */
+  int methodConstant(String owner, String name, String descriptor) {
+    return addMemberReference(CONSTANT_METHODREF, owner, name, descriptor);
+  }
+
+  /**
+   * Gets or adds an InterfaceMethodref constant.
+   *
+   * @param owner
+   *          the internal name of the owner interface
+   * @param name
+   *          the method name
+   * @param descriptor
+   *          the method descriptor
+   * @return the constant index
+   */
+  int interfaceMethodConstant(String owner, String name, String descriptor) {
+    return addMemberReference(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor);
+  }
+
+  /**
+   * Adds a field.
+   *
+   * @param fieldAccess
+   *          the field access flags
+   * @param name
+   *          the field name
+   * @param descriptor
+   *          the field descriptor
+   */
+  void addField(int fieldAccess, String name, String descriptor) {
+    fields.putShort(fieldAccess)
+        .putShort(utf8Constant(name))
+        .putShort(utf8Constant(descriptor))
+        .putShort(0);
+    fieldCount++;
+  }
+
+  /**
+   * Adds a method.
+   *
+   * @param methodAccess
+   *          the method access flags
+   * @param name
+   *          the method name
+   * @param descriptor
+   *          the method descriptor
+   * @param code
+   *          the method code
+   */
+  void addMethod(int methodAccess, String name, String descriptor, CodeBuilder code) {
+    ByteVector codeBytes = code.getBytes();
+    methods.putShort(methodAccess)
+        .putShort(utf8Constant(name))
+        .putShort(utf8Constant(descriptor))
+        // The Code attribute
+        .putShort(1)
+        .putShort(utf8Constant("Code"))
+        .putInt(12 + codeBytes.getLength())
+        .putShort(code.getMaxStack())
+        .putShort(code.getMaxLocals())
+        .putInt(codeBytes.getLength())
+        .putBytes(codeBytes)
+        // No exception table and no attribute
+        .putShort(0)
+        .putShort(0);
+    methodCount++;
+  }
+
+  /**
+   * Gets the class file bytes.
+   *
+   * @return the bytes
+   */
+  byte[] toByteArray() {
+    ByteVector classFile = new ByteVector();
+    classFile.putInt(MAGIC)
+        .putShort(0)
+        .putShort(JAVA_8_MAJOR_VERSION)
+        .putShort(nextConstantIndex)
+        .putBytes(constantPool)
+        .putShort(access)
+        .putShort(thisClass)
+        .putShort(superClass)
+        .putShort(interfaces.length);
+    for (int anInterface : interfaces) {
+      classFile.putShort(anInterface);
+    }
+    classFile.putShort(fieldCount)
+        .putBytes(fields)
+        .putShort(methodCount)
+        .putBytes(methods)
+        // No attribute
+        .putShort(0);
+    return classFile.toByteArray();
+  }
+
+  /**
+   * Gets or adds a constant that refers to another constant.
+   *
+   * @param tag
+   *          the tag
+   * @param referencedIndex
+   *          the referenced constant index
+   * @return the constant index
+   */
+  private int addReference(int tag, int referencedIndex) {
+    String key = tag + ":" + referencedIndex;
+    Integer index = constantKey2IndexMap.get(key);
+    if (index == null) {
+      constantPool.putByte(tag)
+          .putShort(referencedIndex);
+      index = addConstant(key);
+    }
+    return index;
+  }
+
+  /**
+   * Gets or adds a member reference constant.
+   *
+   * @param tag
+   *          the tag
+   * @param owner
+   *          the internal name of the owner
+   * @param name
+   *          the member name
+   * @param descriptor
+   *          the member descriptor
+   * @return the constant index
+   */
+  private int addMemberReference(int tag, String owner, String name, String descriptor) {
+    int ownerIndex = classConstant(owner);
+    int nameIndex = utf8Constant(name);
+    int descriptorIndex = utf8Constant(descriptor);
+    String nameAndTypeKey = CONSTANT_NAME_AND_TYPE + ":" + nameIndex + ":" + descriptorIndex;
+    Integer nameAndTypeIndex = constantKey2IndexMap.get(nameAndTypeKey);
+    if (nameAndTypeIndex == null) {
+      constantPool.putByte(CONSTANT_NAME_AND_TYPE)
+          .putShort(nameIndex)
+          .putShort(descriptorIndex);
+      nameAndTypeIndex = addConstant(nameAndTypeKey);
+    }
+    String key = tag + ":" + ownerIndex + ":" + nameAndTypeIndex;
+    Integer index = constantKey2IndexMap.get(key);
+    if (index == null) {
+      constantPool.putByte(tag)
+          .putShort(ownerIndex)
+          .putShort(nameAndTypeIndex);
+      index = addConstant(key);
+    }
+    return index;
+  }
+
+  /**
+   * Registers the constant that was just written.
+   *
+   * @param key
+   *          the constant key
+   * @return the constant index
+   */
+  private int addConstant(String key) {
+    int index = nextConstantIndex++;
+    constantKey2IndexMap.put(key, index);
+    return index;
+  }
+}
\ No newline at end of file
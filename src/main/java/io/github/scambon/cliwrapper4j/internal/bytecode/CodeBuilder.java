@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.bytecode;
+
+/**
+ * A builder for the code of a method without branches. The maximum stack size is given by the
+ * caller, since the generated code shapes are known in advance.
+ */
+final class CodeBuilder {
+
+  /** The iconst_0 opcode. */
+  static final int ICONST_0 = 0x03;
+  /** The bipush opcode. */
+  static final int BIPUSH = 0x10;
+  /** The sipush opcode. */
+  static final int SIPUSH = 0x11;
+  /** The ldc_w opcode. */
+  static final int LDC_W = 0x13;
+  /** The iload opcode. */
+  static final int ILOAD = 0x15;
+  /** The lload opcode. */
+  static final int LLOAD = 0x16;
+  /** The fload opcode. */
+  static final int FLOAD = 0x17;
+  /** The dload opcode. */
+  static final int DLOAD = 0x18;
+  /** The aload opcode. */
+  static final int ALOAD = 0x19;
+  /** The aaload opcode. */
+  static final int AALOAD = 0x32;
+  /** The aastore opcode. */
+  static final int AASTORE = 0x53;
+  /** The pop opcode. */
+  static final int POP = 0x57;
+  /** The dup opcode. */
+  static final int DUP = 0x59;
+  /** The ireturn opcode. */
+  static final int IRETURN = 0xAC;
+  /** The lreturn opcode. */
+  static final int LRETURN = 0xAD;
+  /** The freturn opcode. */
+  static final int FRETURN = 0xAE;
+  /** The dreturn opcode. */
+  static final int DRETURN = 0xAF;
+  /** The areturn opcode. */
+  static final int ARETURN = 0xB0;
+  /** The return opcode. */
+  static final int RETURN = 0xB1;
+  /** The getfield opcode. */
+  static final int GETFIELD = 0xB4;
+  /** The putfield opcode. */
+  static final int PUTFIELD = 0xB5;
+  /** The invokevirtual opcode. */
+  static final int INVOKEVIRTUAL = 0xB6;
+  /** The invokespecial opcode. */
+  static final int INVOKESPECIAL = 0xB7;
+  /** The invokestatic opcode. */
+  static final int INVOKESTATIC = 0xB8;
+  /** The invokeinterface opcode. */
+  static final int INVOKEINTERFACE = 0xB9;
+  /** The new opcode. */
+  static final int NEW = 0xBB;
+  /** The anewarray opcode. */
+  static final int ANEWARRAY = 0xBD;
+  /** The athrow opcode. */
+  static final int ATHROW = 0xBF;
+  /** The checkcast opcode. */
+  static final int CHECKCAST = 0xC0;
+
+  /** The code bytes. */
+  private final ByteVector bytes = new ByteVector();
+  /** The maximum stack size. */
+  private final int maxStack;
+  /** The number of local variable slots. */
+  private final int maxLocals;
+
+  /**
+   * Instantiates a new code builder.
+   *
+   * @param maxStack
+   *          the maximum stack size
+   * @param maxLocals
+   *          the number of local variable slots, including <code>this</code>
+   */
+  CodeBuilder(int maxStack, int maxLocals) {
+    this.maxStack = maxStack;
+    this.maxLocals = maxLocals;
+  }
+
+  /**
+   * Adds an instruction without operand.
+   *
+   * @param opcode
+   *          the opcode
+   * @return this code builder
+   */
+  CodeBuilder op(int opcode) {
+    bytes.putByte(opcode);
+    return this;
+  }
+
+  /**
+   * Adds an instruction with a constant pool index operand.
+   *
+   * @param opcode
+   *          the opcode
+   * @param constantIndex
+   *          the constant index
+   * @return this code builder
+   */
+  CodeBuilder op(int opcode, int constantIndex) {
+    bytes.putByte(opcode)
+        .putShort(constantIndex);
+    return this;
+  }
+
+  /**
+   * Adds an invokeinterface instruction.
+   *
+   * @param constantIndex
+   *          the InterfaceMethodref constant index
+   * @param argumentSlots
+   *          the number of argument slots, including the receiver
+   * @return this code builder
+   */
+  CodeBuilder invokeInterface(int constantIndex, int argumentSlots) {
+    bytes.putByte(INVOKEINTERFACE)
+        .putShort(constantIndex)
+        .putByte(argumentSlots)
+        .putByte(0);
+    return this;
+  }
+
+  /**
+   * Adds a local variable load instruction.
+   *
+   * @param opcode
+   *          the load opcode
+   * @param slot
+   *          the local variable slot
+   * @return this code builder
+   */
+  CodeBuilder load(int opcode, int slot) {
+    bytes.putByte(opcode)
+        .putByte(slot);
+    return this;
+  }
+
+  /**
+   * Adds the instructions that push an int.
+   *
+   * @param classFileWriter
+   *          the class file writer, for large values
+   * @param value
+   *          the value
+   * @return this code builder
+   */
+  CodeBuilder pushInt(ClassFileWriter classFileWriter, int value) {
+    if (value >= -1 && value <= 5) {
+      bytes.putByte(ICONST_0 + value);
+    } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+      bytes.putByte(BIPUSH)
+          .putByte(value);
+    } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+      bytes.putByte(SIPUSH)
+          .putShort(value);
+    } else {
+      op(LDC_W, classFileWriter.integerConstant(value));
+    }
+    return this;
+  }
+
+  /**
+   * Gets the code bytes.
+   *
+   * @return the bytes
+   */
+  ByteVector getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Gets the maximum stack size.
+   *
+   * @return the maximum stack size
+   */
+  int getMaxStack() {
+    return maxStack;
+  }
+
+  /**
+   * Gets the number of local variable slots.
+   *
+   * @return the number of local variable slots
+   */
+  int getMaxLocals() {
+    return maxLocals;
+  }
+}
\ No newline at end of file
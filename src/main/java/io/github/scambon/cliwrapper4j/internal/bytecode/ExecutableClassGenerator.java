@@ -0,0 +1,649 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.bytecode;
+
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.AALOAD;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.AASTORE;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.ALOAD;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.ANEWARRAY;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.ARETURN;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.ATHROW;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.CHECKCAST;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.DLOAD;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.DRETURN;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.DUP;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.FLOAD;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.FRETURN;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.GETFIELD;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.ILOAD;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.INVOKESPECIAL;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.INVOKESTATIC;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.INVOKEVIRTUAL;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.IRETURN;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.LDC_W;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.LLOAD;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.LRETURN;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.NEW;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.POP;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.PUTFIELD;
+import static io.github.scambon.cliwrapper4j.internal.bytecode.CodeBuilder.RETURN;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.internal.ExecutableHandler;
+import io.github.scambon.cliwrapper4j.internal.handlers.IMethodHandler;
+import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>
+ * A generator that defines, at runtime, a class implementing an {@link IExecutable} interface.
+ * Each generated method directly calls its pre-built {@link IMethodHandler}, which avoids the
+ * proxy dispatch and the method to handler map lookup of {@link ExecutableHandler}.
+ * </p>
+ * <p>
+ * On Java 15+, the class is a hidden class defined in the interface package, so that
+ * package-private interfaces are supported. Before, it is defined by a dedicated class loader,
+ * which only works for public interfaces. When the class cannot be defined, no constructor is
+ * returned and callers are expected to fall back to proxies.
+ * </p>
+ */
+public final class ExecutableClassGenerator {
+
+  /** The suffix of the generated class names. */
+  private static final String GENERATED_CLASS_SUFFIX = "$$Generated";
+  /** The name of the handlers field. */
+  private static final String HANDLERS_FIELD = "handlers";
+  /** The name of the executable node field. */
+  private static final String EXECUTABLE_NODE_FIELD = "executableNode";
+  /** The maximum stack size of a handler call. */
+  private static final int HANDLER_CALL_MAX_STACK = 7;
+
+  /** The public access flag. */
+  private static final int ACC_PUBLIC = 0x0001;
+  /** The private access flag. */
+  private static final int ACC_PRIVATE = 0x0002;
+  /** The final access flag. */
+  private static final int ACC_FINAL = 0x0010;
+  /** The super access flag. */
+  private static final int ACC_SUPER = 0x0020;
+
+  /** The Java 9+ MethodHandles#privateLookupIn method, or <code>null</code> if not available. */
+  private static final Method PRIVATE_LOOKUP_IN_METHOD;
+  /** The Java 15+ Lookup#defineHiddenClass method, or <code>null</code> if not available. */
+  private static final Method DEFINE_HIDDEN_CLASS_METHOD;
+  /** The empty array of hidden class options. */
+  private static final Object NO_HIDDEN_CLASS_OPTIONS;
+
+  /** The primitive type to wrapper type map. */
+  private static final Map<Class<?>, Class<?>> PRIMITIVE_2_WRAPPER_MAP = new HashMap<>();
+
+  static {
+    PRIMITIVE_2_WRAPPER_MAP.put(boolean.class, Boolean.class);
+    PRIMITIVE_2_WRAPPER_MAP.put(byte.class, Byte.class);
+    PRIMITIVE_2_WRAPPER_MAP.put(char.class, Character.class);
+    PRIMITIVE_2_WRAPPER_MAP.put(short.class, Short.class);
+    PRIMITIVE_2_WRAPPER_MAP.put(int.class, Integer.class);
+    PRIMITIVE_2_WRAPPER_MAP.put(long.class, Long.class);
+    PRIMITIVE_2_WRAPPER_MAP.put(float.class, Float.class);
+    PRIMITIVE_2_WRAPPER_MAP.put(double.class, Double.class);
+
+    Method privateLookupInMethod;
+    Method defineHiddenClassMethod;
+    Object noHiddenClassOptions;
+    try {
+      privateLookupInMethod = MethodHandles.class.getMethod(
+          "privateLookupIn", Class.class, Lookup.class);
+      Class<?> classOptionClass =
+          Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+      noHiddenClassOptions = Array.newInstance(classOptionClass, 0);
+      defineHiddenClassMethod = Lookup.class.getMethod(
+          "defineHiddenClass", byte[].class, boolean.class, noHiddenClassOptions.getClass());
+    } catch (ReflectiveOperationException reflectiveOperationException) {
+      // Before Java 15
+      privateLookupInMethod = null;
+      defineHiddenClassMethod = null;
+      noHiddenClassOptions = null;
+    }
+    PRIVATE_LOOKUP_IN_METHOD = privateLookupInMethod;
+    DEFINE_HIDDEN_CLASS_METHOD = defineHiddenClassMethod;
+    NO_HIDDEN_CLASS_OPTIONS = noHiddenClassOptions;
+  }
+
+  /**
+   * Instantiates a new executable class generator.
+   */
+  private ExecutableClassGenerator() {
+    // NOP
+  }
+
+  /**
+   * Generates and defines a class implementing the given interface.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @param method2HandlerMap
+   *          the method to handler map
+   * @param handlers
+   *          the list to fill with the handlers, in the order expected by the generated class
+   * @return the constructor, of type <code>(IMethodHandler[], ExecutableNode)Object</code>, or
+   *         empty if the class cannot be defined
+   */
+  public static Optional<MethodHandle> generate(
+      Class<?> executableInterface, Map<Method, IMethodHandler> method2HandlerMap,
+      List<IMethodHandler> handlers) {
+    if (!areLibraryClassesVisible(executableInterface)) {
+      return Optional.empty();
+    }
+    String className = executableInterface.getName() + GENERATED_CLASS_SUFFIX;
+    try {
+      byte[] classBytes = createClassBytes(
+          executableInterface, className, method2HandlerMap, handlers);
+      Optional<MethodHandle> constructor = defineClass(executableInterface, className, classBytes);
+      if (!constructor.isPresent()) {
+        handlers.clear();
+      }
+      return constructor;
+    } catch (ReflectiveOperationException | LinkageError | RuntimeException exception) {
+      // Anything that prevents the class definition makes the caller fall back to proxies
+      handlers.clear();
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Creates the class file bytes.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @param className
+   *          the generated class name
+   * @param method2HandlerMap
+   *          the method to handler map
+   * @param handlers
+   *          the list to fill with the handlers
+   * @return the class bytes
+   */
+  private static byte[] createClassBytes(
+      Class<?> executableInterface, String className,
+      Map<Method, IMethodHandler> method2HandlerMap, List<IMethodHandler> handlers) {
+    String internalName = getInternalName(className);
+    ClassFileWriter writer = new ClassFileWriter(
+        ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalName, getInternalName(Object.class),
+        getInternalName(executableInterface));
+    writer.addField(ACC_PRIVATE | ACC_FINAL, HANDLERS_FIELD,
+        getDescriptor(IMethodHandler[].class));
+    writer.addField(ACC_PRIVATE | ACC_FINAL, EXECUTABLE_NODE_FIELD,
+        getDescriptor(ExecutableNode.class));
+    addConstructor(writer, internalName);
+    for (Method method : getImplementedMethods(executableInterface, method2HandlerMap)) {
+      CodeBuilder code;
+      if (ExecutableHandler.EXECUTE_METHOD.equals(method)
+          || ExecutableHandler.EXECUTE_ASYNC_METHOD.equals(method)) {
+        code = createExecuteCode(writer, internalName, method);
+      } else if (method2HandlerMap.containsKey(method)) {
+        int handlerIndex = handlers.size();
+        handlers.add(method2HandlerMap.get(method));
+        code = createHandlerCallCode(writer, internalName, method, handlerIndex);
+      } else {
+        code = createUnhandledCode(writer, method);
+      }
+      writer.addMethod(ACC_PUBLIC, method.getName(), getMethodDescriptor(method), code);
+    }
+    return writer.toByteArray();
+  }
+
+  /**
+   * Gets the methods to implement, i.e. all the instance methods not implemented by
+   * {@link Object}. Like proxies, the generated class also overrides default methods, so that
+   * they go through their handlers.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @param method2HandlerMap
+   *          the method to handler map, whose methods take precedence for a given signature
+   * @return the methods
+   */
+  private static Iterable<Method> getImplementedMethods(
+      Class<?> executableInterface, Map<Method, IMethodHandler> method2HandlerMap) {
+    Map<String, Method> signature2MethodMap = new LinkedHashMap<>();
+    for (Method method : executableInterface.getMethods()) {
+      if (!Modifier.isStatic(method.getModifiers()) && !isObjectMethod(method)) {
+        String signature = method.getName() + getMethodDescriptor(method);
+        Method previousMethod = signature2MethodMap.get(signature);
+        if (previousMethod == null || !method2HandlerMap.containsKey(previousMethod)) {
+          signature2MethodMap.put(signature, method);
+        }
+      }
+    }
+    return signature2MethodMap.values();
+  }
+
+  /**
+   * Adds the constructor that stores the handlers and the executable node.
+   *
+   * @param writer
+   *          the class file writer
+   * @param internalName
+   *          the generated class internal name
+   */
+  private static void addConstructor(ClassFileWriter writer, String internalName) {
+    CodeBuilder code = new CodeBuilder(2, 3)
+        .load(ALOAD, 0)
+        .op(INVOKESPECIAL, writer.methodConstant(getInternalName(Object.class), "<init>", "()V"))
+        .load(ALOAD, 0)
+        .load(ALOAD, 1)
+        .op(PUTFIELD, getHandlersField(writer, internalName))
+        .load(ALOAD, 0)
+        .load(ALOAD, 2)
+        .op(PUTFIELD, getExecutableNodeField(writer, internalName))
+        .op(RETURN);
+    String descriptor = "(" + getDescriptor(IMethodHandler[].class)
+        + getDescriptor(ExecutableNode.class) + ")V";
+    writer.addMethod(ACC_PUBLIC, "<init>", descriptor, code);
+  }
+
+  /**
+   * Creates the code of the {@link IExecutable} methods, which directly call the executable node.
+   *
+   * @param writer
+   *          the class file writer
+   * @param internalName
+   *          the generated class internal name
+   * @param method
+   *          the method
+   * @return the code
+   */
+  private static CodeBuilder createExecuteCode(
+      ClassFileWriter writer, String internalName, Method method) {
+    String nodeMethodDescriptor = "()" + getDescriptor(method.getReturnType());
+    return new CodeBuilder(1, 1)
+        .load(ALOAD, 0)
+        .op(GETFIELD, getExecutableNodeField(writer, internalName))
+        .op(INVOKEVIRTUAL, writer.methodConstant(
+            getInternalName(ExecutableNode.class), method.getName(), nodeMethodDescriptor))
+        .op(ARETURN);
+  }
+
+  /**
+   * Creates the code of a handled method, which calls
+   * <code>handlers[handlerIndex].handle(this, arguments, executableNode)</code>.
+   *
+   * @param writer
+   *          the class file writer
+   * @param internalName
+   *          the generated class internal name
+   * @param method
+   *          the method
+   * @param handlerIndex
+   *          the handler index
+   * @return the code
+   */
+  private static CodeBuilder createHandlerCallCode(
+      ClassFileWriter writer, String internalName, Method method, int handlerIndex) {
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    int maxLocals = 1;
+    for (Class<?> parameterType : parameterTypes) {
+      maxLocals += getSlotCount(parameterType);
+    }
+    CodeBuilder code = new CodeBuilder(HANDLER_CALL_MAX_STACK, maxLocals)
+        .load(ALOAD, 0)
+        .op(GETFIELD, getHandlersField(writer, internalName))
+        .pushInt(writer, handlerIndex)
+        .op(AALOAD)
+        .load(ALOAD, 0)
+        .pushInt(writer, parameterTypes.length)
+        .op(ANEWARRAY, writer.classConstant(getInternalName(Object.class)));
+    int slot = 1;
+    for (int index = 0; index < parameterTypes.length; index++) {
+      Class<?> parameterType = parameterTypes[index];
+      code.op(DUP)
+          .pushInt(writer, index)
+          .load(getLoadOpcode(parameterType), slot);
+      if (parameterType.isPrimitive()) {
+        Class<?> wrapperType = PRIMITIVE_2_WRAPPER_MAP.get(parameterType);
+        code.op(INVOKESTATIC, writer.methodConstant(getInternalName(wrapperType), "valueOf",
+            "(" + getDescriptor(parameterType) + ")" + getDescriptor(wrapperType)));
+      }
+      code.op(AASTORE);
+      slot += getSlotCount(parameterType);
+    }
+    String handleDescriptor = "(" + getDescriptor(Object.class) + getDescriptor(Object[].class)
+        + getDescriptor(ExecutableNode.class) + ")" + getDescriptor(Object.class);
+    code.load(ALOAD, 0)
+        .op(GETFIELD, getExecutableNodeField(writer, internalName))
+        .invokeInterface(writer.interfaceMethodConstant(
+            getInternalName(IMethodHandler.class), "handle", handleDescriptor), 4);
+    addReturn(writer, code, method.getReturnType());
+    return code;
+  }
+
+  /**
+   * Adds the instructions that convert the handler result and return it.
+   *
+   * @param writer
+   *          the class file writer
+   * @param code
+   *          the code
+   * @param returnType
+   *          the method return type
+   */
+  private static void addReturn(ClassFileWriter writer, CodeBuilder code, Class<?> returnType) {
+    if (void.class.equals(returnType)) {
+      code.op(POP)
+          .op(RETURN);
+    } else if (returnType.isPrimitive()) {
+      Class<?> wrapperType = PRIMITIVE_2_WRAPPER_MAP.get(returnType);
+      String wrapperInternalName = getInternalName(wrapperType);
+      code.op(CHECKCAST, writer.classConstant(wrapperInternalName))
+          .op(INVOKEVIRTUAL, writer.methodConstant(wrapperInternalName,
+              returnType.getName() + "Value", "()" + getDescriptor(returnType)))
+          .op(getReturnOpcode(returnType));
+    } else {
+      if (!Object.class.equals(returnType)) {
+        code.op(CHECKCAST, writer.classConstant(getInternalName(returnType)));
+      }
+      code.op(ARETURN);
+    }
+  }
+
+  /**
+   * Creates the code of a method that is not handled, which throws as proxies do.
+   *
+   * @param writer
+   *          the class file writer
+   * @param method
+   *          the method
+   * @return the code
+   */
+  private static CodeBuilder createUnhandledCode(ClassFileWriter writer, Method method) {
+    int maxLocals = 1;
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      maxLocals += getSlotCount(parameterType);
+    }
+    String exceptionInternalName = getInternalName(CommandLineException.class);
+    return new CodeBuilder(3, maxLocals)
+        .op(NEW, writer.classConstant(exceptionInternalName))
+        .op(DUP)
+        .op(LDC_W, writer.stringConstant("Unhandled method '" + method + "'"))
+        .op(INVOKESPECIAL, writer.methodConstant(
+            exceptionInternalName, "<init>", "(" + getDescriptor(String.class) + ")V"))
+        .op(ATHROW);
+  }
+
+  /**
+   * Defines the generated class.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @param className
+   *          the generated class name
+   * @param classBytes
+   *          the class bytes
+   * @return the constructor, or empty if the class cannot be defined
+   * @throws ReflectiveOperationException
+   *           if the constructor cannot be found
+   */
+  private static Optional<MethodHandle> defineClass(
+      Class<?> executableInterface, String className, byte[] classBytes)
+      throws ReflectiveOperationException {
+    MethodType constructorType = MethodType.methodType(
+        void.class, IMethodHandler[].class, ExecutableNode.class);
+    MethodType genericConstructorType = constructorType.changeReturnType(Object.class);
+    if (DEFINE_HIDDEN_CLASS_METHOD != null) {
+      try {
+        Lookup interfaceLookup = (Lookup) PRIVATE_LOOKUP_IN_METHOD.invoke(
+            null, executableInterface, MethodHandles.lookup());
+        Lookup hiddenClassLookup = (Lookup) DEFINE_HIDDEN_CLASS_METHOD.invoke(
+            interfaceLookup, classBytes, true, NO_HIDDEN_CLASS_OPTIONS);
+        MethodHandle constructor = hiddenClassLookup.findConstructor(
+            hiddenClassLookup.lookupClass(), constructorType);
+        return Optional.of(constructor.asType(genericConstructorType));
+      } catch (ReflectiveOperationException reflectiveOperationException) {
+        // Try with a class loader below, e.g. if the interface module is not open
+      }
+    }
+    if (!Modifier.isPublic(executableInterface.getModifiers())) {
+      return Optional.empty();
+    }
+    GeneratedClassLoader classLoader = new GeneratedClassLoader(
+        executableInterface.getClassLoader());
+    Class<?> generatedClass = classLoader.define(className, classBytes);
+    MethodHandle constructor = MethodHandles.publicLookup()
+        .findConstructor(generatedClass, constructorType);
+    return Optional.of(constructor.asType(genericConstructorType));
+  }
+
+  /**
+   * Checks whether the library classes used by the generated code are the ones the interface
+   * class loader sees.
+   *
+   * @param executableInterface
+   *          the executable interface
+   * @return true, if the generated class can link against the library
+   */
+  private static boolean areLibraryClassesVisible(Class<?> executableInterface) {
+    ClassLoader classLoader = executableInterface.getClassLoader();
+    try {
+      return Class.forName(IMethodHandler.class.getName(), false, classLoader)
+          .equals(IMethodHandler.class)
+          && Class.forName(ExecutableNode.class.getName(), false, classLoader)
+              .equals(ExecutableNode.class);
+    } catch (ClassNotFoundException classNotFoundException) {
+      return false;
+    }
+  }
+
+  /**
+   * Checks whether a method is a public {@link Object} method.
+   *
+   * @param method
+   *          the method
+   * @return true, if {@link Object} already implements it
+   */
+  private static boolean isObjectMethod(Method method) {
+    try {
+      Object.class.getMethod(method.getName(), method.getParameterTypes());
+      return true;
+    } catch (NoSuchMethodException noSuchMethodException) {
+      return false;
+    }
+  }
+
+  /**
+   * Gets the handlers field reference.
+   *
+   * @param writer
+   *          the class file writer
+   * @param internalName
+   *          the generated class internal name
+   * @return the constant index
+   */
+  private static int getHandlersField(ClassFileWriter writer, String internalName) {
+    return writer.fieldConstant(
+        internalName, HANDLERS_FIELD, getDescriptor(IMethodHandler[].class));
+  }
+
+  /**
+   * Gets the executable node field reference.
+   *
+   * @param writer
+   *          the class file writer
+   * @param internalName
+   *          the generated class internal name
+   * @return the constant index
+   */
+  private static int getExecutableNodeField(ClassFileWriter writer, String internalName) {
+    return writer.fieldConstant(
+        internalName, EXECUTABLE_NODE_FIELD, getDescriptor(ExecutableNode.class));
+  }
+
+  /**
+   * Gets the internal name of a class, i.e. its binary name with slashes, or its descriptor for
+   * arrays.
+   *
+   * @param clazz
+   *          the class
+   * @return the internal name
+   */
+  private static String getInternalName(Class<?> clazz) {
+    return getInternalName(clazz.getName());
+  }
+
+  /**
+   * Gets the internal name of a class name.
+   *
+   * @param className
+   *          the class name
+   * @return the internal name
+   */
+  private static String getInternalName(String className) {
+    return className.replace('.', '/');
+  }
+
+  /**
+   * Gets the descriptor of a type.
+   *
+   * @param type
+   *          the type
+   * @return the descriptor
+   */
+  private static String getDescriptor(Class<?> type) {
+    if (type.isArray()) {
+      return getInternalName(type);
+    } else if (type.isPrimitive()) {
+      if (void.class.equals(type)) {
+        return "V";
+      } else if (boolean.class.equals(type)) {
+        return "Z";
+      } else if (long.class.equals(type)) {
+        return "J";
+      } else {
+        return Character.toString(Character.toUpperCase(type.getName().charAt(0)));
+      }
+    } else {
+      return "L" + getInternalName(type) + ";";
+    }
+  }
+
+  /**
+   * Gets the descriptor of a method.
+   *
+   * @param method
+   *          the method
+   * @return the descriptor
+   */
+  private static String getMethodDescriptor(Method method) {
+    StringBuilder descriptor = new StringBuilder("(");
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      descriptor.append(getDescriptor(parameterType));
+    }
+    return descriptor.append(')')
+        .append(getDescriptor(method.getReturnType()))
+        .toString();
+  }
+
+  /**
+   * Gets the number of local variable slots of a type.
+   *
+   * @param type
+   *          the type
+   * @return 2 for long and double, 1 otherwise
+   */
+  private static int getSlotCount(Class<?> type) {
+    return long.class.equals(type) || double.class.equals(type) ? 2 : 1;
+  }
+
+  /**
+   * Gets the load opcode of a type.
+   *
+   * @param type
+   *          the type
+   * @return the load opcode
+   */
+  private static int getLoadOpcode(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return ALOAD;
+    } else if (long.class.equals(type)) {
+      return LLOAD;
+    } else if (float.class.equals(type)) {
+      return FLOAD;
+    } else if (double.class.equals(type)) {
+      return DLOAD;
+    } else {
+      return ILOAD;
+    }
+  }
+
+  /**
+   * Gets the return opcode of a primitive type.
+   *
+   * @param type
+   *          the primitive type
+   * @return the return opcode
+   */
+  private static int getReturnOpcode(Class<?> type) {
+    if (long.class.equals(type)) {
+      return LRETURN;
+    } else if (float.class.equals(type)) {
+      return FRETURN;
+    } else if (double.class.equals(type)) {
+      return DRETURN;
+    } else {
+      return IRETURN;
+    }
+  }
+
+  /** A class loader that defines a single generated class. */
+  private static final class GeneratedClassLoader extends ClassLoader {
+
+    /**
+     * Instantiates a new generated class loader.
+     *
+     * @param parent
+     *          the parent class loader, i.e. the interface one
+     */
+    private GeneratedClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    /**
+     * Defines the generated class.
+     *
+     * @param className
+     *          the class name
+     * @param classBytes
+     *          the class bytes
+     * @return the class
+     */
+    private Class<?> define(String className, byte[] classBytes) {
+      return defineClass(className, classBytes, 0, classBytes.length);
+    }
+  }
+}
\ No newline at end of file
@@ -22,8 +22,11 @@ import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.toList;
 
 import io.github.scambon.cliwrapper4j.Aggregator;
+import io.github.scambon.cliwrapper4j.Cacheable;
+import io.github.scambon.cliwrapper4j.Coalesced;
 import io.github.scambon.cliwrapper4j.CommandLineException;
 import io.github.scambon.cliwrapper4j.Converter;
+import io.github.scambon.cliwrapper4j.Deadline;
 import io.github.scambon.cliwrapper4j.Executable;
 import io.github.scambon.cliwrapper4j.ExecuteLater;
 import io.github.scambon.cliwrapper4j.ExecuteNow;
@@ -33,23 +36,31 @@ import io.github.scambon.cliwrapper4j.Flattener;
 import io.github.scambon.cliwrapper4j.IExecutable;
 import io.github.scambon.cliwrapper4j.Result;
 import io.github.scambon.cliwrapper4j.ReturnCode;
+import io.github.scambon.cliwrapper4j.Stdin;
 import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.Timeout;
 import io.github.scambon.cliwrapper4j.aggregators.IAggregator;
 import io.github.scambon.cliwrapper4j.converters.IConverter;
 import io.github.scambon.cliwrapper4j.converters.ResultConverter;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
 import io.github.scambon.cliwrapper4j.executors.IExecutor;
 import io.github.scambon.cliwrapper4j.flatteners.IFlattener;
 import io.github.scambon.cliwrapper4j.instantiators.IInstantiator;
 import io.github.scambon.cliwrapper4j.instantiators.ReflectiveInstantiator;
 import io.github.scambon.cliwrapper4j.internal.ExecutableHandler;
 import io.github.scambon.cliwrapper4j.internal.utils.AnnotationUtils;
+import io.github.scambon.cliwrapper4j.internal.utils.ReturnTypeUtils;
+import io.github.scambon.cliwrapper4j.metrics.ExecutionMetrics;
 import io.github.scambon.cliwrapper4j.preprocessors.ICommandLinePreProcessor;
 
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -68,11 +79,20 @@ public final class ExecutableSubInterfaceChecker {
       Aggregator.class,
       ExecuteNow.class,
       ExecuteLater.class,
-      ReturnCode.class);
+      ReturnCode.class,
+      Cacheable.class,
+      Coalesced.class,
+      Timeout.class);
   /** The annotations for parameters. */
   private static final List<Class<? extends Annotation>> PARAMETER_ANNOTATIONS = Arrays.asList(
       Converter.class,
-      Extra.class);
+      Extra.class,
+      Stdin.class);
+  /** The types of @{@link Stdin} parameters. */
+  private static final List<Class<?>> STDIN_TYPES = Arrays.asList(
+      Path.class,
+      InputStream.class,
+      ReadableByteChannel.class);
 
   /** The instantiator. */
   private final IInstantiator instantiator;
@@ -153,7 +173,9 @@ public final class ExecutableSubInterfaceChecker {
    */
   private void checkMethod(Method method, Diagnostic diagnostic) {
     // No need to check the execute method or synthetic methods
-    if (ExecutableHandler.EXECUTE_METHOD.equals(method) || method.isSynthetic()) {
+    if (ExecutableHandler.EXECUTE_METHOD.equals(method)
+        || ExecutableHandler.EXECUTE_ASYNC_METHOD.equals(method)
+        || method.isSynthetic()) {
       return;
     }
 
@@ -201,6 +223,12 @@ public final class ExecutableSubInterfaceChecker {
         method, diagnostic, Executor.class, ExecuteNow.class, ExecuteLater.class);
     checkAnnotationDependency(
         method, diagnostic, ReturnCode.class, ExecuteNow.class, ExecuteLater.class);
+    checkAnnotationDependency(
+        method, diagnostic, Cacheable.class, ExecuteNow.class, ExecuteLater.class);
+    checkAnnotationDependency(
+        method, diagnostic, Coalesced.class, ExecuteNow.class, ExecuteLater.class);
+    checkAnnotationDependency(
+        method, diagnostic, Timeout.class, ExecuteNow.class, ExecuteLater.class);
   }
 
   /**
@@ -349,9 +377,18 @@ public final class ExecutableSubInterfaceChecker {
             switchMethod, parameter, converterAnnotation, diagnostic);
       }
 
+      // Check @Stdin parameter
+      boolean isStdin = parameter.isAnnotationPresent(Stdin.class);
+      if (isStdin) {
+        checkSwitchMethodStdinParameter(switchMethod, parameter, diagnostic);
+      }
+
       // Check @Extra parameter
       if (extraAnnotation != null) {
-        String extraParameterName = extraAnnotation.value();
+        checkReservedExtraParameterName(switchMethod, parameter, extraAnnotation, diagnostic);
+      }
+      if (extraAnnotation != null || isStdin) {
+        String extraParameterName = isStdin ? Stdin.EXTRA_PARAMETER_NAME : extraAnnotation.value();
         if (extraParameterNames.contains(extraParameterName)) {
           diagnostic.addIssue(switchMethod,
               "Multiple parameters should not have the same @Extra name '"
@@ -362,6 +399,67 @@ public final class ExecutableSubInterfaceChecker {
     }
   }
 
+  /**
+   * Checks that an @{@link Extra} parameter does not use the name of a parameter added to each
+   * execution: the {@link ExecutionTrace} and the {@link ExecutionMetrics} cannot be set, and the
+   * {@link Deadline} must have its type.
+   *
+   * @param switchMethod
+   *          the switch method
+   * @param parameter
+   *          the parameter
+   * @param extraAnnotation
+   *          the extra annotation
+   * @param diagnostic
+   *          the diagnostic
+   */
+  private static void checkReservedExtraParameterName(
+      Method switchMethod, Parameter parameter, Extra extraAnnotation, Diagnostic diagnostic) {
+    String extraParameterName = extraAnnotation.value();
+    if (ExecutionTrace.EXTRA_PARAMETER_NAME.equals(extraParameterName)
+        || ExecutionMetrics.EXTRA_PARAMETER_NAME.equals(extraParameterName)) {
+      diagnostic.addIssue(switchMethod,
+          "The @Extra name '" + extraParameterName + "' is reserved");
+    } else if (Deadline.EXTRA_PARAMETER_NAME.equals(extraParameterName)
+        && !Deadline.class.isAssignableFrom(parameter.getType())) {
+      diagnostic.addIssue(switchMethod,
+          "The @Extra parameter '" + parameter + "' should be a Deadline");
+    }
+  }
+
+  /**
+   * Checks a switch method @{@link Stdin} parameter.
+   *
+   * @param switchMethod
+   *          the switch method
+   * @param parameter
+   *          the parameter
+   * @param diagnostic
+   *          the diagnostic
+   */
+  private static void checkSwitchMethodStdinParameter(
+      Method switchMethod, Parameter parameter, Diagnostic diagnostic) {
+    if (parameter.isAnnotationPresent(Converter.class)
+        || parameter.isAnnotationPresent(Extra.class)) {
+      diagnostic.addIssue(switchMethod,
+          "Parameters cannot be annotated with both @Stdin and @Converter or @Extra");
+    }
+    // Only the extra parameters of the executing method reach the executor
+    if (!switchMethod.isAnnotationPresent(ExecuteNow.class)
+        && !switchMethod.isAnnotationPresent(ExecuteLater.class)) {
+      diagnostic.addIssue(switchMethod,
+          "The @Stdin parameter '" + parameter
+              + "' is only supported by @ExecuteNow and @ExecuteLater methods");
+    }
+    Class<?> parameterType = parameter.getType();
+    if (STDIN_TYPES.stream()
+        .noneMatch(stdinType -> stdinType.isAssignableFrom(parameterType))) {
+      diagnostic.addIssue(switchMethod,
+          "The @Stdin parameter '" + parameter
+              + "' should be a Path, an InputStream or a ReadableByteChannel");
+    }
+  }
+
   /**
    * Checks a switch method parameter converter.
    *
@@ -428,6 +526,20 @@ public final class ExecutableSubInterfaceChecker {
     if (executorAnnotation != null) {
       checkExecutorAnnotation(executeMethod, diagnostic);
     }
+
+    // If @Cacheable
+    Cacheable cacheableAnnotation = executeMethod.getAnnotation(Cacheable.class);
+    if (cacheableAnnotation != null && cacheableAnnotation.ttl() <= 0) {
+      diagnostic.addIssue(executeMethod,
+          "The @Cacheable ttl must be positive but was '" + cacheableAnnotation.ttl() + "'");
+    }
+
+    // If @Timeout
+    Timeout timeoutAnnotation = executeMethod.getAnnotation(Timeout.class);
+    if (timeoutAnnotation != null && timeoutAnnotation.value() <= 0) {
+      diagnostic.addIssue(executeMethod,
+          "The @Timeout value must be positive but was '" + timeoutAnnotation.value() + "'");
+    }
   }
 
   /**
@@ -443,7 +555,7 @@ public final class ExecutableSubInterfaceChecker {
     try {
       IConverter resultConverter = getOrDefaultClass(
           executeNowMethod, Converter.class, Converter::value, instantiator, ResultConverter::new);
-      Class<?> returnType = executeNowMethod.getReturnType();
+      Class<?> returnType = ReturnTypeUtils.getOutType(executeNowMethod);
       boolean canConvert = resultConverter.canConvert(Result.class, returnType);
       if (!canConvert) {
         diagnostic.addIssue(executeNowMethod,
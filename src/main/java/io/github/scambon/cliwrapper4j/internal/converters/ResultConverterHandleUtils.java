@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.converters;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.converters.ConstructorResultConverter;
+import io.github.scambon.cliwrapper4j.converters.FactoryMethodResultConverter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * A utility class used by {@link ConstructorResultConverter} and
+ * {@link FactoryMethodResultConverter} to turn the constructors and factory methods they find into
+ * method handles, which are resolved once and then invoked without reflective lookups.
+ */
+public final class ResultConverterHandleUtils {
+
+  /** The lookup, which only needs to access public members. */
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+  /**
+   * The constructor.
+   */
+  private ResultConverterHandleUtils() {
+    // Utility class
+  }
+
+  /**
+   * Gets a handle that calls the given constructor with an array of arguments.
+   *
+   * @param constructor
+   *          the constructor
+   * @return the handle, of type <code>(Object[])Object</code>
+   */
+  public static MethodHandle toSpreadingHandle(Constructor<?> constructor) {
+    try {
+      return toSpreadingHandle(LOOKUP.unreflectConstructor(constructor));
+    } catch (IllegalAccessException illegalAccessException) {
+      return toThrowingHandle(illegalAccessException);
+    }
+  }
+
+  /**
+   * Gets a handle that calls the given static method with an array of arguments.
+   *
+   * @param method
+   *          the static method
+   * @return the handle, of type <code>(Object[])Object</code>
+   */
+  public static MethodHandle toSpreadingHandle(Method method) {
+    try {
+      return toSpreadingHandle(LOOKUP.unreflect(method));
+    } catch (IllegalAccessException illegalAccessException) {
+      return toThrowingHandle(illegalAccessException);
+    }
+  }
+
+  /**
+   * Invokes a handle obtained from this class.
+   *
+   * @param spreadingHandle
+   *          the spreading handle
+   * @param arguments
+   *          the arguments
+   * @return the created object
+   */
+  @SuppressWarnings("squid:S1181")
+  public static Object invoke(MethodHandle spreadingHandle, Object[] arguments) {
+    try {
+      return (Object) spreadingHandle.invokeExact(arguments);
+    } catch (CommandLineException commandLineException) {
+      throw commandLineException;
+    } catch (Throwable throwable) {
+      throw new CommandLineException(throwable);
+    }
+  }
+
+  /**
+   * Adapts a handle so that it takes its arguments as an array and returns an object.
+   *
+   * @param handle
+   *          the handle
+   * @return the spreading handle
+   */
+  private static MethodHandle toSpreadingHandle(MethodHandle handle) {
+    int parameterCount = handle.type()
+        .parameterCount();
+    return handle.asType(MethodType.genericMethodType(parameterCount))
+        .asSpreader(Object[].class, parameterCount);
+  }
+
+  /**
+   * Gets a handle that throws the given access error when invoked, so that inaccessible targets
+   * fail on conversion as they would with reflection.
+   *
+   * @param illegalAccessException
+   *          the illegal access exception
+   * @return the throwing handle, of type <code>(Object[])Object</code>
+   */
+  private static MethodHandle toThrowingHandle(IllegalAccessException illegalAccessException) {
+    MethodHandle thrower = MethodHandles.throwException(Object.class, CommandLineException.class)
+        .bindTo(new CommandLineException(illegalAccessException));
+    return MethodHandles.dropArguments(thrower, 0, Object[].class);
+  }
+}
\ No newline at end of file
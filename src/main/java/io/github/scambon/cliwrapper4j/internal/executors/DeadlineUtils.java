@@ -0,0 +1,241 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineTimeoutException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.internal.executors.StreamDrainingUtils.DaemonThreadFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A helper class that enforces the {@link Deadline} of process executions. Once a deadline
+ * expires, the process tree is asked to terminate, then forcibly destroyed after a grace period.
+ */
+public final class DeadlineUtils {
+
+  /** The time given to processes to terminate by themselves before they are killed. */
+  private static final Duration GRACE_PERIOD = Duration.ofSeconds(1);
+  /** The timer shared by all asynchronous executions and forcible destructions. */
+  private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+  /**
+   * Instantiates a new deadline utils.
+   */
+  private DeadlineUtils() {
+    // Utility class
+  }
+
+  /**
+   * Checks that the deadline has not expired yet, e.g. while waiting for a launch permit, so that
+   * no process is started in vain.
+   *
+   * @param elements
+   *          the command line elements
+   * @param deadline
+   *          the deadline, may be <code>null</code>
+   */
+  public static void checkNotExpired(List<String> elements, Deadline deadline) {
+    if (deadline != null && deadline.isExpired()) {
+      throw new CommandLineTimeoutException(elements, deadline.getTimeout());
+    }
+  }
+
+  /**
+   * Waits for a process to exit, at most until the deadline. If it expires, the process tree is
+   * destroyed and waited for.
+   *
+   * @param process
+   *          the process
+   * @param elements
+   *          the command line elements
+   * @param deadline
+   *          the deadline, <code>null</code> to wait forever
+   * @return the process return code
+   * @throws InterruptedException
+   *           if the current thread was interrupted while waiting
+   * @throws CommandLineTimeoutException
+   *           if the deadline expired
+   */
+  public static int waitFor(Process process, List<String> elements, Deadline deadline)
+      throws InterruptedException {
+    if (deadline == null) {
+      return process.waitFor();
+    }
+    long remainingNanos = deadline.getRemaining(TimeUnit.NANOSECONDS);
+    if (process.waitFor(remainingNanos, TimeUnit.NANOSECONDS)) {
+      return process.exitValue();
+    }
+    ProcessUtils.destroyTreeGracefully(process, GRACE_PERIOD, TIMER);
+    process.waitFor();
+    throw new CommandLineTimeoutException(elements, deadline.getTimeout());
+  }
+
+  /**
+   * Bounds an asynchronous process execution by a deadline. If it expires first, the process tree
+   * is destroyed, which ends the execution, and the returned future fails with a
+   * {@link CommandLineTimeoutException}. No thread waits for the deadline.
+   *
+   * @param <T>
+   *          the future value type
+   * @param future
+   *          the future that completes once the process and its outputs are done
+   * @param process
+   *          the process
+   * @param elements
+   *          the command line elements
+   * @param deadline
+   *          the deadline, may be <code>null</code>
+   * @return the bounded future, or the given one if there is no deadline
+   */
+  public static <T> CompletableFuture<T> withDeadline(
+      CompletableFuture<T> future, Process process, List<String> elements, Deadline deadline) {
+    if (deadline == null) {
+      return future;
+    }
+    AtomicBoolean timedOut = new AtomicBoolean();
+    ScheduledFuture<?> expirationTask = TIMER.schedule(() -> {
+      if (!future.isDone()) {
+        timedOut.set(true);
+        ProcessUtils.destroyTreeGracefully(process, GRACE_PERIOD, TIMER);
+      }
+    }, deadline.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    return future.handle((value, throwable) -> {
+      expirationTask.cancel(false);
+      if (timedOut.get()) {
+        throw new CommandLineTimeoutException(elements, deadline.getTimeout());
+      } else if (throwable instanceof CompletionException) {
+        throw (CompletionException) throwable;
+      } else if (throwable != null) {
+        throw new CompletionException(throwable);
+      }
+      return value;
+    });
+  }
+
+  /**
+   * Destroys a process tree once a deadline expires, for the executions whose outputs are read by
+   * the caller, e.g. while streaming them. No thread waits for the deadline.
+   *
+   * @param process
+   *          the process
+   * @param elements
+   *          the command line elements
+   * @param deadline
+   *          the deadline, may be <code>null</code>
+   * @return the check to run once the process has exited, which cancels the destruction and
+   *         throws a {@link CommandLineTimeoutException} if it has already happened
+   */
+  public static Runnable destroyOnExpiration(
+      Process process, List<String> elements, Deadline deadline) {
+    return destroyOnExpiration(Collections.singletonList(process), elements, deadline);
+  }
+
+  /**
+   * Destroys the trees of several processes, such as the stages of a pipeline, once a deadline
+   * expires. No thread waits for the deadline.
+   *
+   * @param processes
+   *          the processes
+   * @param elements
+   *          the command line elements to report
+   * @param deadline
+   *          the deadline, may be <code>null</code>
+   * @return the check to run once the processes have exited, which cancels the destruction and
+   *         throws a {@link CommandLineTimeoutException} if it has already happened
+   */
+  public static Runnable destroyOnExpiration(
+      List<Process> processes, List<String> elements, Deadline deadline) {
+    if (deadline == null) {
+      return () -> {
+        // No deadline
+      };
+    }
+    AtomicBoolean settled = new AtomicBoolean();
+    ScheduledFuture<?> expirationTask = TIMER.schedule(() -> {
+      if (settled.compareAndSet(false, true)) {
+        for (Process process : processes) {
+          ProcessUtils.destroyTreeGracefully(process, GRACE_PERIOD, TIMER);
+        }
+      }
+    }, deadline.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    return () -> {
+      expirationTask.cancel(false);
+      if (!settled.compareAndSet(false, true)) {
+        throw new CommandLineTimeoutException(elements, deadline.getTimeout());
+      }
+    };
+  }
+
+  /**
+   * Bounds the wait for a future, e.g. for a launch permit, by a deadline. If it expires first,
+   * the future is cancelled and the returned future fails with a
+   * {@link CommandLineTimeoutException}. No thread waits for the deadline.
+   *
+   * @param <T>
+   *          the future value type
+   * @param future
+   *          the future, which must support cancellation
+   * @param elements
+   *          the command line elements
+   * @param deadline
+   *          the deadline, may be <code>null</code>
+   * @return the bounded future, or the given one if there is no deadline
+   */
+  public static <T> CompletableFuture<T> cancelOnExpiration(
+      CompletableFuture<T> future, List<String> elements, Deadline deadline) {
+    if (deadline == null) {
+      return future;
+    }
+    AtomicBoolean timedOut = new AtomicBoolean();
+    ScheduledFuture<?> expirationTask = TIMER.schedule(() -> {
+      timedOut.set(true);
+      future.cancel(false);
+    }, deadline.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    return future.handle((value, throwable) -> {
+      expirationTask.cancel(false);
+      if (timedOut.get() && future.isCancelled()) {
+        throw new CommandLineTimeoutException(elements, deadline.getTimeout());
+      } else if (throwable instanceof CompletionException) {
+        throw (CompletionException) throwable;
+      } else if (throwable != null) {
+        throw new CompletionException(throwable);
+      }
+      return value;
+    });
+  }
+
+  /**
+   * Creates the timer.
+   *
+   * @return the timer
+   */
+  private static ScheduledThreadPoolExecutor createTimer() {
+    ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(
+        1, new DaemonThreadFactory("CliWrapper4J deadline timer"));
+    timer.setRemoveOnCancelPolicy(true);
+    return timer;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.executors;
+
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
+import io.github.scambon.cliwrapper4j.metrics.ExecutionMetrics;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A key that identifies an execution by everything that may change its result: the command line
+ * elements, the working directory, the environment variables, the encoding and the extra
+ * parameters, except the {@link Deadline}, the {@link ExecutionMetrics} and the
+ * {@link ExecutionTrace}, which are specific to each execution. It is a snapshot, so later changes
+ * to the environment do not alter it.
+ */
+public final class ExecutionKey {
+
+  /** The command line elements. */
+  private final List<String> elements;
+  /** The working directory, <code>null</code> for the current one. */
+  private final Path path;
+  /** The environment variables. */
+  private final Map<String, String> environmentVariables;
+  /** The encoding. */
+  private final Charset encoding;
+  /** The extra parameter name 2 value map. */
+  private final Map<String, Object> extraParameterName2ValueMap;
+  /** The hash code. */
+  private final int hashCode;
+
+  /**
+   * Instantiates a new execution key.
+   *
+   * @param elements
+   *          the command line elements
+   * @param environment
+   *          the environment
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map, may be <code>null</code>
+   */
+  public ExecutionKey(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    this.elements = new ArrayList<>(elements);
+    this.path = environment.getPath()
+        .orElse(null);
+    this.environmentVariables = new HashMap<>(environment.getEnvironmentVariables());
+    this.encoding = environment.getEncoding();
+    this.extraParameterName2ValueMap =
+        copyWithoutExecutionSpecifics(extraParameterName2ValueMap);
+    this.hashCode = Objects.hash(
+        this.elements, path, environmentVariables, encoding, this.extraParameterName2ValueMap);
+  }
+
+  /**
+   * Gets the command line elements.
+   *
+   * @return the command line elements
+   */
+  public List<String> getElements() {
+    return Collections.unmodifiableList(elements);
+  }
+
+  /**
+   * Copies the extra parameters, without the deadline, the execution metrics and the execution
+   * trace.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map, may be <code>null</code>
+   * @return the copy
+   */
+  private static Map<String, Object> copyWithoutExecutionSpecifics(
+      Map<String, Object> extraParameterName2ValueMap) {
+    if (extraParameterName2ValueMap == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, Object> copy = new HashMap<>(extraParameterName2ValueMap);
+    copy.remove(Deadline.EXTRA_PARAMETER_NAME);
+    copy.remove(ExecutionMetrics.EXTRA_PARAMETER_NAME);
+    copy.remove(ExecutionTrace.EXTRA_PARAMETER_NAME);
+    return copy;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof ExecutionKey)) {
+      return false;
+    }
+    ExecutionKey other = (ExecutionKey) object;
+    return hashCode == other.hashCode
+        && elements.equals(other.elements)
+        && Objects.equals(path, other.path)
+        && environmentVariables.equals(other.environmentVariables)
+        && Objects.equals(encoding, other.encoding)
+        && extraParameterName2ValueMap.equals(other.extraParameterName2ValueMap);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "ExecutionKey [elements=" + elements + ", path=" + path + "]";
+  }
+}
\ No newline at end of file
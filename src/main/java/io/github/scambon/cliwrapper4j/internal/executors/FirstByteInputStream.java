@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.executors;
+
+import io.github.scambon.cliwrapper4j.events.ExecutionStage;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that runs a callback when the first byte is read, e.g. to emit the first byte
+ * event of a process output.
+ */
+public final class FirstByteInputStream extends FilterInputStream {
+
+  /** The callback, <code>null</code> once run. */
+  private Runnable onFirstByte;
+
+  /**
+   * Instantiates a new first byte input stream.
+   *
+   * @param in
+   *          the input stream
+   * @param onFirstByte
+   *          the callback, run by the reading thread
+   */
+  public FirstByteInputStream(InputStream in, Runnable onFirstByte) {
+    super(in);
+    this.onFirstByte = onFirstByte;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int value = super.read();
+    if (value >= 0) {
+      notifyFirstByte();
+    }
+    return value;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    int readCount = super.read(bytes, offset, length);
+    if (readCount > 0) {
+      notifyFirstByte();
+    }
+    return readCount;
+  }
+
+  /**
+   * Gets an input stream that emits the first byte event of a process output, if traced.
+   *
+   * @param in
+   *          the process output
+   * @param trace
+   *          the execution trace, may be <code>null</code>
+   * @param executable
+   *          the executable, i.e. the event name
+   * @param startedNanos
+   *          the time the process started at, as given by {@link System#nanoTime()}
+   * @return the input stream, which is the given one if not traced
+   */
+  public static InputStream traceFirstByte(
+      InputStream in, ExecutionTrace trace, String executable, long startedNanos) {
+    if (trace == null) {
+      return in;
+    }
+    return new FirstByteInputStream(
+        in, () -> trace.emitSince(ExecutionStage.FIRST_BYTE, executable, startedNanos));
+  }
+
+  /**
+   * Runs the callback if it has not run yet.
+   */
+  private void notifyFirstByte() {
+    Runnable callback = onFirstByte;
+    if (callback != null) {
+      onFirstByte = null;
+      callback.run();
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A helper class that gives access to process features across JDK versions.
+ */
+public final class ProcessUtils {
+
+  /** The Java 9 <code>Process#onExit()</code> method, or <code>null</code> on Java 8. */
+  private static final MethodHandle ON_EXIT_METHOD = findVirtualOrNull(
+      "onExit", MethodType.methodType(CompletableFuture.class));
+  /** The Java 9 <code>ProcessBuilder#startPipeline(List)</code> method, or <code>null</code>. */
+  private static final MethodHandle START_PIPELINE_METHOD = findStartPipelineOrNull();
+  /** The Java 9 <code>Process#descendants()</code> method, or <code>null</code> on Java 8. */
+  private static final MethodHandle DESCENDANTS_METHOD = findVirtualOrNull(
+      "descendants", MethodType.methodType(Stream.class));
+  /** The Java 9 <code>ProcessHandle#destroy()</code> method, or <code>null</code> on Java 8. */
+  private static final MethodHandle DESTROY_HANDLE_METHOD = findDestroyHandleOrNull("destroy");
+  /** The Java 9 <code>ProcessHandle#destroyForcibly()</code> method, or <code>null</code>. */
+  private static final MethodHandle DESTROY_FORCIBLY_HANDLE_METHOD =
+      findDestroyHandleOrNull("destroyForcibly");
+  /** The Java 9 <code>Process#info().totalCpuDuration()</code> method, or <code>null</code>. */
+  private static final MethodHandle TOTAL_CPU_DURATION_METHOD = findTotalCpuDurationOrNull();
+  /** The size of the buffer used to copy data between processes. */
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  /**
+   * Instantiates a new process utils.
+   */
+  private ProcessUtils() {
+    // Utility class
+  }
+
+  /**
+   * Gets a future that completes with the process return code once it has exited. On Java 9+,
+   * this relies on <code>Process#onExit()</code>, so no thread is blocked waiting for the process;
+   * on Java 8, a thread from the fallback executor waits for it.
+   *
+   * @param process
+   *          the process
+   * @param fallbackExecutor
+   *          the executor that waits for the process when <code>Process#onExit()</code> is not
+   *          available
+   * @return the future return code
+   */
+  @SuppressWarnings("unchecked")
+  public static CompletableFuture<Integer> onExit(Process process, Executor fallbackExecutor) {
+    if (ON_EXIT_METHOD != null) {
+      try {
+        CompletableFuture<Process> exitFuture =
+            (CompletableFuture<Process>) ON_EXIT_METHOD.invoke(process);
+        return exitFuture.thenApply(Process::exitValue);
+      } catch (Throwable throwable) {
+        throw new CommandLineException(throwable);
+      }
+    }
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return process.waitFor();
+      } catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+        throw new CommandLineException(interruptedException);
+      }
+    }, fallbackExecutor);
+  }
+
+  /**
+   * Destroys a process and, on Java 9+, its descendants, e.g. the commands started by a shell,
+   * which would otherwise keep running and holding the process outputs.
+   *
+   * @param process
+   *          the process
+   */
+  public static void destroyTree(Process process) {
+    destroyAll(getDescendants(process), DESTROY_HANDLE_METHOD);
+    process.destroy();
+  }
+
+  /**
+   * Asks a process and, on Java 9+, its descendants to terminate, e.g. with <code>SIGTERM</code>,
+   * then forcibly destroys them, e.g. with <code>SIGKILL</code>, once the grace period has
+   * elapsed. The descendants are listed before the process is destroyed, so that those that
+   * outlive it are destroyed as well.
+   *
+   * @param process
+   *          the process
+   * @param gracePeriod
+   *          the time given to the processes to terminate by themselves
+   * @param timer
+   *          the timer that runs the forcible destruction
+   */
+  public static void destroyTreeGracefully(
+      Process process, Duration gracePeriod, ScheduledExecutorService timer) {
+    List<Object> descendants = getDescendants(process);
+    destroyAll(descendants, DESTROY_HANDLE_METHOD);
+    process.destroy();
+    timer.schedule(() -> {
+      destroyAll(descendants, DESTROY_FORCIBLY_HANDLE_METHOD);
+      process.destroyForcibly();
+    }, gracePeriod.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the descendants of a process.
+   *
+   * @param process
+   *          the process
+   * @return the <code>ProcessHandle</code> of the descendants, empty on Java 8
+   */
+  @SuppressWarnings("unchecked")
+  private static List<Object> getDescendants(Process process) {
+    if (DESCENDANTS_METHOD == null) {
+      return Collections.emptyList();
+    }
+    List<Object> descendants = new ArrayList<>();
+    try {
+      Stream<Object> descendantStream = (Stream<Object>) DESCENDANTS_METHOD.invoke(process);
+      Iterator<Object> descendantIterator = descendantStream.iterator();
+      while (descendantIterator.hasNext()) {
+        descendants.add(descendantIterator.next());
+      }
+    } catch (Throwable throwable) {
+      throw new CommandLineException(throwable);
+    }
+    return descendants;
+  }
+
+  /**
+   * Destroys processes given as <code>ProcessHandle</code>.
+   *
+   * @param processHandles
+   *          the process handles
+   * @param destroyHandleMethod
+   *          the destroying method handle, of type <code>(Object)void</code>
+   */
+  @SuppressWarnings("squid:S1181")
+  private static void destroyAll(List<Object> processHandles, MethodHandle destroyHandleMethod) {
+    if (destroyHandleMethod == null) {
+      return;
+    }
+    try {
+      for (Object processHandle : processHandles) {
+        destroyHandleMethod.invokeExact(processHandle);
+      }
+    } catch (Throwable throwable) {
+      throw new CommandLineException(throwable);
+    }
+  }
+
+  /**
+   * Gets the CPU time used by a process so far. It is only available on Java 9+, and only while
+   * the process is running or has not been reaped yet.
+   *
+   * @param process
+   *          the process
+   * @return the CPU time, in nanoseconds, or <code>-1</code> if not available
+   */
+  @SuppressWarnings({"unchecked", "squid:S1181"})
+  public static long getTotalCpuNanos(Process process) {
+    if (TOTAL_CPU_DURATION_METHOD == null) {
+      return -1;
+    }
+    try {
+      Optional<Duration> cpuDuration =
+          (Optional<Duration>) TOTAL_CPU_DURATION_METHOD.invokeExact(process);
+      return cpuDuration.map(Duration::toNanos)
+          .orElse(-1L);
+    } catch (Throwable throwable) {
+      return -1;
+    }
+  }
+
+  /**
+   * Starts processes, each one reading the output of the previous one. On Java 9+, this relies on
+   * <code>ProcessBuilder#startPipeline(List)</code>, so that they are connected by operating
+   * system pipes; on Java 8, threads from the pumping executor copy the data between them.
+   *
+   * @param processBuilders
+   *          the process builders, in pipeline order
+   * @param pumpingExecutor
+   *          the executor that copies the data when <code>startPipeline</code> is not available
+   * @return the processes, in pipeline order
+   * @throws IOException
+   *           if an I/O exception has occurred
+   */
+  @SuppressWarnings({"unchecked", "squid:S4721"})
+  public static List<Process> startPipeline(
+      List<ProcessBuilder> processBuilders, Executor pumpingExecutor) throws IOException {
+    if (START_PIPELINE_METHOD != null) {
+      try {
+        return (List<Process>) START_PIPELINE_METHOD.invoke(processBuilders);
+      } catch (IOException | RuntimeException exception) {
+        throw exception;
+      } catch (Throwable throwable) {
+        throw new CommandLineException(throwable);
+      }
+    }
+    return startPumpedPipeline(processBuilders, pumpingExecutor);
+  }
+
+  /**
+   * Starts processes, each one reading the output of the previous one as copied by threads from
+   * the pumping executor.
+   *
+   * @param processBuilders
+   *          the process builders, in pipeline order
+   * @param pumpingExecutor
+   *          the executor that copies the data between processes
+   * @return the processes, in pipeline order
+   * @throws IOException
+   *           if an I/O exception has occurred
+   */
+  @SuppressWarnings("squid:S4721")
+  static List<Process> startPumpedPipeline(
+      List<ProcessBuilder> processBuilders, Executor pumpingExecutor) throws IOException {
+    List<Process> processes = new ArrayList<>(processBuilders.size());
+    try {
+      for (ProcessBuilder processBuilder : processBuilders) {
+        processes.add(processBuilder.start());
+      }
+    } catch (IOException | RuntimeException exception) {
+      processes.forEach(Process::destroy);
+      throw exception;
+    }
+    for (int index = 1; index < processes.size(); index++) {
+      InputStream previousOutput = processes.get(index - 1)
+          .getInputStream();
+      OutputStream nextInput = processes.get(index)
+          .getOutputStream();
+      pumpingExecutor.execute(() -> pump(previousOutput, nextInput));
+    }
+    return processes;
+  }
+
+  /**
+   * Copies a process output into the input of another one, until the first one ends or the
+   * second one stops reading.
+   *
+   * @param inputStream
+   *          the output of the first process
+   * @param outputStream
+   *          the input of the second process
+   */
+  private static void pump(InputStream inputStream, OutputStream outputStream) {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream closedInputStream = inputStream;
+        OutputStream closedOutputStream = outputStream) {
+      int readBytes;
+      while ((readBytes = closedInputStream.read(buffer)) != -1) {
+        closedOutputStream.write(buffer, 0, readBytes);
+      }
+    } catch (IOException ioException) {
+      // The next process exited early, as with a broken pipe
+    }
+  }
+
+  /**
+   * Finds the <code>ProcessBuilder#startPipeline(List)</code> method.
+   *
+   * @return the method handle, or <code>null</code> if not available
+   */
+  private static MethodHandle findStartPipelineOrNull() {
+    try {
+      return MethodHandles.publicLookup()
+          .findStatic(ProcessBuilder.class, "startPipeline",
+              MethodType.methodType(List.class, List.class));
+    } catch (NoSuchMethodException | IllegalAccessException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Finds a <code>ProcessHandle</code> destroying method.
+   *
+   * @param name
+   *          the method name, <code>destroy</code> or <code>destroyForcibly</code>
+   * @return the method handle, of type <code>(Object)void</code>, or <code>null</code> if not
+   *         available
+   */
+  private static MethodHandle findDestroyHandleOrNull(String name) {
+    try {
+      Class<?> processHandleClass = Class.forName("java.lang.ProcessHandle");
+      return MethodHandles.publicLookup()
+          .findVirtual(processHandleClass, name, MethodType.methodType(boolean.class))
+          .asType(MethodType.methodType(void.class, Object.class));
+    } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Finds the <code>Process#info().totalCpuDuration()</code> method chain.
+   *
+   * @return the method handle, of type <code>(Process)Optional</code>, or <code>null</code> if
+   *         not available
+   */
+  private static MethodHandle findTotalCpuDurationOrNull() {
+    try {
+      Class<?> infoClass = Class.forName("java.lang.ProcessHandle$Info");
+      MethodHandle infoMethod = MethodHandles.publicLookup()
+          .findVirtual(Process.class, "info", MethodType.methodType(infoClass));
+      MethodHandle totalCpuDurationMethod = MethodHandles.publicLookup()
+          .findVirtual(infoClass, "totalCpuDuration", MethodType.methodType(Optional.class));
+      return MethodHandles.filterReturnValue(infoMethod, totalCpuDurationMethod);
+    } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Finds a public {@link Process} method that may not exist in the running JDK.
+   *
+   * @param name
+   *          the method name
+   * @param methodType
+   *          the method type
+   * @return the method handle, or <code>null</code> if not available
+   */
+  static MethodHandle findVirtualOrNull(String name, MethodType methodType) {
+    try {
+      return MethodHandles.publicLookup()
+          .findVirtual(Process.class, name, methodType);
+    } catch (NoSuchMethodException | IllegalAccessException exception) {
+      return null;
+    }
+  }
+}
\ No newline at end of file
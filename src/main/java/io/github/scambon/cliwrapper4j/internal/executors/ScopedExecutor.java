@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.scambon.cliwrapper4j.internal.executors;
+
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.executors.IExecutor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * An executor that gets its delegate at each execution, so that the decorations around it, such
+ * as coalescing and caching, are shared by all the executions while the delegate keeps the scope
+ * it has been given by its instantiator.
+ */
+public final class ScopedExecutor implements IExecutor {
+
+  /** The delegate supplier, which applies the scope of the delegate. */
+  private final Supplier<IExecutor> delegateSupplier;
+
+  /**
+   * Instantiates a new scoped executor.
+   *
+   * @param delegateSupplier
+   *          the delegate supplier, which applies the scope of the delegate
+   */
+  public ScopedExecutor(Supplier<IExecutor> delegateSupplier) {
+    this.delegateSupplier = delegateSupplier;
+  }
+
+  @Override
+  public Result execute(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap) {
+    return delegateSupplier.get()
+        .execute(elements, environment, extraParameterName2ValueMap);
+  }
+
+  @Override
+  public CompletableFuture<Result> executeAsync(
+      List<String> elements, IExecutionEnvironment environment,
+      Map<String, Object> extraParameterName2ValueMap, Executor completionExecutor) {
+    return delegateSupplier.get()
+        .executeAsync(elements, environment, extraParameterName2ValueMap, completionExecutor);
+  }
+}
\ No newline at end of file
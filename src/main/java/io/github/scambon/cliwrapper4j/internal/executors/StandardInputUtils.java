@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Stdin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A helper class that gives processes the standard input passed with @{@link Stdin}.
+ */
+public final class StandardInputUtils {
+
+  /** The size of the buffer used to copy the standard input. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Instantiates a new standard input utils.
+   */
+  private StandardInputUtils() {
+    // Utility class
+  }
+
+  /**
+   * Configures the process builder before starting the process: a {@link Path} standard input is
+   * redirected from the file, so that the process reads it directly.
+   *
+   * @param processBuilder
+   *          the process builder
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   */
+  public static void redirectInput(
+      ProcessBuilder processBuilder, Map<String, Object> extraParameterName2ValueMap) {
+    Object standardInput = getStandardInput(extraParameterName2ValueMap);
+    if (standardInput instanceof Path) {
+      processBuilder.redirectInput(Redirect.from(((Path) standardInput).toFile()));
+    } else if (standardInput != null
+        && !(standardInput instanceof InputStream)
+        && !(standardInput instanceof ReadableByteChannel)) {
+      throw new CommandLineException(
+          "Unsupported @Stdin value of type '" + standardInput.getClass()
+              .getName() + "'");
+    }
+  }
+
+  /**
+   * Starts copying an {@link InputStream} or {@link ReadableByteChannel} standard input to the
+   * process in the background, closing the process input once done. If the process exits before
+   * reading all of it, the copy stops as with a broken pipe.
+   *
+   * @param process
+   *          the process
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   * @param feedingExecutor
+   *          the executor that copies the standard input
+   * @return the future that completes once copied, or fails if the standard input could not be
+   *         read
+   */
+  public static CompletableFuture<Void> feedInput(
+      Process process, Map<String, Object> extraParameterName2ValueMap,
+      Executor feedingExecutor) {
+    Object standardInput = getStandardInput(extraParameterName2ValueMap);
+    if (standardInput instanceof InputStream) {
+      InputStream inputStream = (InputStream) standardInput;
+      return CompletableFuture.runAsync(
+          () -> copy(inputStream::read, process.getOutputStream()), feedingExecutor);
+    } else if (standardInput instanceof ReadableByteChannel) {
+      ReadableByteChannel channel = (ReadableByteChannel) standardInput;
+      return CompletableFuture.runAsync(
+          () -> copy(buffer -> read(channel, buffer), process.getOutputStream()),
+          feedingExecutor);
+    } else {
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  /**
+   * Gets the standard input from the extra parameters.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   * @return the standard input, or <code>null</code> if none
+   */
+  private static Object getStandardInput(Map<String, Object> extraParameterName2ValueMap) {
+    return extraParameterName2ValueMap == null
+        ? null
+        : extraParameterName2ValueMap.get(Stdin.EXTRA_PARAMETER_NAME);
+  }
+
+  /**
+   * Copies a source into the process input, then closes the latter.
+   *
+   * @param source
+   *          the source
+   * @param processInput
+   *          the process input
+   */
+  private static void copy(ISource source, OutputStream processInput) {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (OutputStream closedProcessInput = processInput) {
+      int readBytes;
+      while ((readBytes = readSource(source, buffer)) != -1) {
+        closedProcessInput.write(buffer, 0, readBytes);
+      }
+    } catch (IOException ioException) {
+      // The process exited early, as with a broken pipe
+    }
+  }
+
+  /**
+   * Reads the source, failing with a {@link CommandLineException} so that read errors are not
+   * mistaken for a broken pipe.
+   *
+   * @param source
+   *          the source
+   * @param buffer
+   *          the buffer
+   * @return the number of bytes read, or -1 at the end
+   */
+  private static int readSource(ISource source, byte[] buffer) {
+    try {
+      return source.read(buffer);
+    } catch (IOException ioException) {
+      throw new CommandLineException(ioException);
+    }
+  }
+
+  /**
+   * Reads a channel into a buffer.
+   *
+   * @param channel
+   *          the channel
+   * @param buffer
+   *          the buffer
+   * @return the number of bytes read, or -1 at the end
+   * @throws IOException
+   *           if an I/O exception has occurred
+   */
+  private static int read(ReadableByteChannel channel, byte[] buffer) throws IOException {
+    return channel.read(ByteBuffer.wrap(buffer));
+  }
+
+  /**
+   * A source of bytes.
+   */
+  @FunctionalInterface
+  private interface ISource {
+
+    /**
+     * Reads bytes into the buffer.
+     *
+     * @param buffer
+     *          the buffer
+     * @return the number of bytes read, or -1 at the end
+     * @throws IOException
+     *           if an I/O exception has occurred
+     */
+    int read(byte[] buffer) throws IOException;
+  }
+}
\ No newline at end of file
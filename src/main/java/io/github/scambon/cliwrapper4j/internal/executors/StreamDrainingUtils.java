@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.executors;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A helper class that reads process streams while the process is running, so that the process
+ * never blocks on a full pipe.
+ */
+public final class StreamDrainingUtils {
+
+  /** The size of the buffer used to read streams. */
+  private static final int BUFFER_SIZE = 8 * 1024;
+  /** The shared pool of daemon threads used to drain streams. */
+  private static final ExecutorService DRAINING_POOL = Executors.newCachedThreadPool(
+      new DaemonThreadFactory("CliWrapper4J stream drainer"));
+
+  /**
+   * Instantiates a new stream draining utils.
+   */
+  private StreamDrainingUtils() {
+    // Utility class
+  }
+
+  /**
+   * Gets the default executor used to drain streams: a shared pool of daemon threads.
+   *
+   * @return the default draining executor
+   */
+  public static Executor getDefaultDrainingExecutor() {
+    return DRAINING_POOL;
+  }
+
+  /**
+   * Starts reading the given input stream in the background.
+   *
+   * @param inputStream
+   *          the input stream
+   * @param charset
+   *          the charset
+   * @param drainingExecutor
+   *          the executor that reads the stream
+   * @return the future stream content
+   */
+  public static CompletableFuture<String> drain(
+      InputStream inputStream, Charset charset, Executor drainingExecutor) {
+    return drain(inputStream, charset, drainingExecutor, null);
+  }
+
+  /**
+   * Starts reading the given input stream in the background.
+   *
+   * @param inputStream
+   *          the input stream
+   * @param charset
+   *          the charset
+   * @param drainingExecutor
+   *          the executor that reads the stream
+   * @param decodingListener
+   *          the listener notified once the stream content is decoded, may be <code>null</code>
+   * @return the future stream content
+   */
+  public static CompletableFuture<String> drain(
+      InputStream inputStream, Charset charset, Executor drainingExecutor,
+      IDecodingListener decodingListener) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return readInputStream(inputStream, charset, decodingListener);
+      } catch (IOException ioException) {
+        throw new CommandLineException(ioException);
+      }
+    }, drainingExecutor);
+  }
+
+  /**
+   * Waits for a drained stream content.
+   *
+   * @param <T>
+   *          the content type
+   * @param future
+   *          the future content
+   * @return the content
+   * @throws InterruptedException
+   *           if the current thread was interrupted while waiting
+   */
+  public static <T> T join(CompletableFuture<T> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException executionException) {
+      throw unwrap(executionException.getCause());
+    }
+  }
+
+  /**
+   * Unwraps a throwable raised by an asynchronous computation into a command line exception.
+   *
+   * @param throwable
+   *          the throwable
+   * @return the command line exception, to be thrown
+   */
+  public static CommandLineException unwrap(Throwable throwable) {
+    Throwable cause = throwable;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof CommandLineException) {
+      return (CommandLineException) cause;
+    }
+    return new CommandLineException(cause);
+  }
+
+  /**
+   * Reads the given input stream.
+   *
+   * @param inputStream
+   *          the input stream
+   * @param charset
+   *          the charset
+   * @return the input stream content
+   * @throws IOException
+   *           if an I/O exception has occurred
+   */
+  public static String readInputStream(InputStream inputStream, Charset charset)
+      throws IOException {
+    return readInputStream(inputStream, charset, null);
+  }
+
+  /**
+   * Reads the given input stream.
+   *
+   * @param inputStream
+   *          the input stream
+   * @param charset
+   *          the charset
+   * @param decodingListener
+   *          the listener notified once the stream content is decoded, may be <code>null</code>
+   * @return the input stream content
+   * @throws IOException
+   *           if an I/O exception has occurred
+   */
+  public static String readInputStream(
+      InputStream inputStream, Charset charset, IDecodingListener decodingListener)
+      throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    int readBytes;
+    byte[] data = new byte[BUFFER_SIZE];
+    try (InputStream closedInputStream = inputStream) {
+      while ((readBytes = closedInputStream.read(data)) != -1) {
+        buffer.write(data, 0, readBytes);
+      }
+    }
+    if (decodingListener == null) {
+      return buffer.toString(charset.name());
+    }
+    long decodingStartNanos = System.nanoTime();
+    String content = buffer.toString(charset.name());
+    decodingListener.onDecoded(buffer.size(), System.nanoTime() - decodingStartNanos);
+    return content;
+  }
+
+  /**
+   * A listener notified once a stream content has been read and decoded, e.g. to collect
+   * metrics.
+   */
+  @FunctionalInterface
+  public interface IDecodingListener {
+
+    /**
+     * Called once the stream content has been decoded.
+     *
+     * @param byteCount
+     *          the number of bytes read
+     * @param decodingNanos
+     *          the time taken to decode them, in nanoseconds
+     */
+    void onDecoded(long byteCount, long decodingNanos);
+  }
+
+  /**
+   * A thread factory that creates named daemon threads.
+   */
+  public static final class DaemonThreadFactory implements ThreadFactory {
+
+    /** The thread name prefix. */
+    private final String namePrefix;
+    /** The thread counter. */
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    /**
+     * Instantiates a new daemon thread factory.
+     *
+     * @param namePrefix
+     *          the thread name prefix
+     */
+    public DaemonThreadFactory(String namePrefix) {
+      this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, namePrefix + " " + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
\ No newline at end of file
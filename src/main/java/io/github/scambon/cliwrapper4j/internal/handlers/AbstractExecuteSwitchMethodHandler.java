@@ -21,10 +21,10 @@ import io.github.scambon.cliwrapper4j.ExecuteNow;
 import io.github.scambon.cliwrapper4j.Switch;
 import io.github.scambon.cliwrapper4j.instantiators.IInstantiator;
 import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
+import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode.ExecutionContext;
 
 import java.lang.reflect.Method;
 import java.util.Map;
-import java.util.function.BiConsumer;
 
 /**
  * A base method handler that works for @{@link Switch} methods that also have
@@ -35,8 +35,8 @@ public class AbstractExecuteSwitchMethodHandler
     extends
       SwitchMethodHandler {
 
-  /** A consumer that configures the executable node for the handled command. */
-  private final BiConsumer<ExecutableNode, Map<String, Object>> executableNodeConfigurator;
+  /** The execution context of the method, computed once. */
+  private final ExecutionContext executionContext;
 
   /**
    * Instantiates a new command with parameters method handler.
@@ -47,21 +47,20 @@ public class AbstractExecuteSwitchMethodHandler
    *          the switch
    * @param instantiator
    *          the instantiator
-   * @param executableNodeConfigurator
-   *          the executable node configurator
+   * @param outType
+   *          the out type of the execution
    */
   public AbstractExecuteSwitchMethodHandler(Method method, Switch zwitch,
-      IInstantiator instantiator,
-      BiConsumer<ExecutableNode, Map<String, Object>> executableNodeConfigurator) {
+      IInstantiator instantiator, Class<?> outType) {
     super(method, zwitch, instantiator);
-    this.executableNodeConfigurator = executableNodeConfigurator;
+    this.executionContext = ExecutableNode.createExecutionContext(method, outType, instantiator);
   }
 
   @Override
-  public Object handle(Object proxy, Object[] arguments, ExecutableNode executableNode) {
-    super.handle(proxy, arguments, executableNode);
+  protected Object handleSwitch(Object proxy, Object[] arguments, ExecutableNode executableNode) {
+    super.handleSwitch(proxy, arguments, executableNode);
     Map<String, Object> extraParameterName2ValueMap = createExtraParameterName2ValueMap(arguments);
-    executableNodeConfigurator.accept(executableNode, extraParameterName2ValueMap);
+    executableNode.setExecutionContext(executionContext, extraParameterName2ValueMap);
     return proxy;
   }
 }
\ No newline at end of file
@@ -39,8 +39,6 @@ public class ExecuteLaterSwitchMethodHandler extends AbstractExecuteSwitchMethod
    */
   public ExecuteLaterSwitchMethodHandler(
       Method method, Switch zwitch, ExecuteLater executeLater, IInstantiator instantiator) {
-    super(method, zwitch, instantiator,
-        (executableNode, extraParameterName2ValueMap) -> executableNode.setExecuteLaterContext(
-            method, executeLater, extraParameterName2ValueMap));
+    super(method, zwitch, instantiator, executeLater.value());
   }
 }
\ No newline at end of file
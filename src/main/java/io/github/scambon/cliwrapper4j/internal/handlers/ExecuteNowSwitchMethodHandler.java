@@ -20,6 +20,7 @@ import io.github.scambon.cliwrapper4j.ExecuteNow;
 import io.github.scambon.cliwrapper4j.Switch;
 import io.github.scambon.cliwrapper4j.instantiators.IInstantiator;
 import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
+import io.github.scambon.cliwrapper4j.internal.utils.ReturnTypeUtils;
 
 import java.lang.reflect.Method;
 
@@ -30,6 +31,9 @@ public class ExecuteNowSwitchMethodHandler
     extends
       AbstractExecuteSwitchMethodHandler {
 
+  /** Whether the method returns a future result. */
+  private final boolean async;
+
   /**
    * Instantiates a new executable command with parameters method handler.
    *
@@ -44,14 +48,16 @@ public class ExecuteNowSwitchMethodHandler
    */
   public ExecuteNowSwitchMethodHandler(
       Method method, Switch zwitch, ExecuteNow executeNow, IInstantiator instantiator) {
-    super(method, zwitch, instantiator,
-        (executableNode, extraParameterName2ValueMap) -> executableNode.setExecuteNowContext(method,
-            extraParameterName2ValueMap));
+    super(method, zwitch, instantiator, ReturnTypeUtils.getOutType(method));
+    this.async = ReturnTypeUtils.isAsync(method);
   }
 
   @Override
-  public Object handle(Object proxy, Object[] arguments, ExecutableNode executableNode) {
-    super.handle(proxy, arguments, executableNode);
+  protected Object handleSwitch(Object proxy, Object[] arguments, ExecutableNode executableNode) {
+    super.handleSwitch(proxy, arguments, executableNode);
+    if (async) {
+      return executableNode.executeAsync();
+    }
     return executableNode.execute();
   }
 }
\ No newline at end of file
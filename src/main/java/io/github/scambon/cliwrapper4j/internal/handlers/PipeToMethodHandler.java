@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.handlers;
+
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.Pipeline;
+import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode;
+
+/**
+ * A method handler that pipes the command line into another one.
+ */
+public class PipeToMethodHandler implements IMethodHandler {
+  @Override
+  public Object handle(Object proxy, Object[] arguments, ExecutableNode executableNode) {
+    return new Pipeline<>(executableNode.prepare())
+        .pipeTo((IExecutable) arguments[0]);
+  }
+}
\ No newline at end of file
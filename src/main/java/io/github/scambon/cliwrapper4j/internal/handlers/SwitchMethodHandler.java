@@ -23,6 +23,7 @@ import io.github.scambon.cliwrapper4j.Aggregator;
 import io.github.scambon.cliwrapper4j.Converter;
 import io.github.scambon.cliwrapper4j.Extra;
 import io.github.scambon.cliwrapper4j.Flattener;
+import io.github.scambon.cliwrapper4j.Stdin;
 import io.github.scambon.cliwrapper4j.Switch;
 import io.github.scambon.cliwrapper4j.aggregators.IAggregator;
 import io.github.scambon.cliwrapper4j.aggregators.SymbolAggregator;
@@ -81,7 +82,9 @@ public class SwitchMethodHandler implements IMethodHandler {
     for (int parameterIndex = 0; parameterIndex < parameters.length; parameterIndex++) {
       Parameter parameter = parameters[parameterIndex];
       Extra extraAnnotation = parameter.getAnnotation(Extra.class);
-      if (extraAnnotation == null) {
+      if (parameter.isAnnotationPresent(Stdin.class)) {
+        extraParameterName2IndexMap.put(parameterIndex, Stdin.EXTRA_PARAMETER_NAME);
+      } else if (extraAnnotation == null) {
         IConverter<?, String> converter = (IConverter<?, String>) getOrDefaultClass(
             parameter,
             Converter.class, Converter::value, instantiator,
@@ -95,11 +98,37 @@ public class SwitchMethodHandler implements IMethodHandler {
   }
 
   @Override
-  public Object handle(Object proxy, Object[] arguments, ExecutableNode executableNode) {
+  public final Object handle(Object proxy, Object[] arguments, ExecutableNode executableNode) {
+    if (executableNode.isImmutable()) {
+      // The switch applies to a new node and wrapper, so that the called one is unchanged
+      ExecutableNode forkedExecutableNode = executableNode.fork();
+      Object forkedProxy = forkedExecutableNode.createWrapper();
+      return handleSwitch(forkedProxy, arguments, forkedExecutableNode);
+    }
+    return handleSwitch(proxy, arguments, executableNode);
+  }
+
+  /**
+   * Handles the method call on the given node, which is owned by the calling thread.
+   *
+   * @param proxy
+   *          the wrapper of the executable node
+   * @param arguments
+   *          the arguments
+   * @param executableNode
+   *          the executable node
+   * @return the method result
+   */
+  protected Object handleSwitch(Object proxy, Object[] arguments, ExecutableNode executableNode) {
+    boolean isTraced = executableNode.isTraced();
+    long startNanos = isTraced ? System.nanoTime() : 0;
     SwitchNode zwitchNode = switchNodeSupplier.get();
     fillParameters(zwitchNode, arguments);
-    executableNode.addSwitchNodes(zwitchNode);
     fillExtraParameters(zwitchNode, arguments);
+    if (isTraced) {
+      zwitchNode.setHandlingTime(startNanos, System.nanoTime() - startNanos);
+    }
+    executableNode.addSwitchNodes(zwitchNode);
     return proxy;
   }
 
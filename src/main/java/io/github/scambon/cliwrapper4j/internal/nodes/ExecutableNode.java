@@ -22,31 +22,59 @@ import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.toList;
 
+import io.github.scambon.cliwrapper4j.Cacheable;
+import io.github.scambon.cliwrapper4j.Coalesced;
 import io.github.scambon.cliwrapper4j.CommandLineException;
 import io.github.scambon.cliwrapper4j.Converter;
-import io.github.scambon.cliwrapper4j.ExecuteLater;
+import io.github.scambon.cliwrapper4j.Deadline;
 import io.github.scambon.cliwrapper4j.Executor;
+import io.github.scambon.cliwrapper4j.FileResult;
 import io.github.scambon.cliwrapper4j.IExecutable;
 import io.github.scambon.cliwrapper4j.Result;
 import io.github.scambon.cliwrapper4j.ReturnCode;
+import io.github.scambon.cliwrapper4j.StreamingResult;
+import io.github.scambon.cliwrapper4j.Timeout;
 import io.github.scambon.cliwrapper4j.converters.IConverter;
 import io.github.scambon.cliwrapper4j.converters.ResultConverter;
 import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.events.ExecutionStage;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
+import io.github.scambon.cliwrapper4j.events.IExecutionListener;
 import io.github.scambon.cliwrapper4j.executors.IExecutor;
 import io.github.scambon.cliwrapper4j.executors.ProcessExecutor;
+import io.github.scambon.cliwrapper4j.executors.ResultCache;
+import io.github.scambon.cliwrapper4j.instantiators.CachingInstantiator;
+import io.github.scambon.cliwrapper4j.instantiators.CachingInstantiator.Scope;
 import io.github.scambon.cliwrapper4j.instantiators.IInstantiator;
+import io.github.scambon.cliwrapper4j.internal.executors.ScopedExecutor;
+import io.github.scambon.cliwrapper4j.metrics.ExecutionMetrics;
+import io.github.scambon.cliwrapper4j.metrics.IMetricsRegistry;
 import io.github.scambon.cliwrapper4j.preprocessors.ICommandLinePreProcessor;
 
 import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
+ * <p>
  * A command line node that works for @{@link IExecutable}.
+ * </p>
+ * <p>
+ * By default, it is mutable: switch methods add their switches to it. When it has a wrapper
+ * creator, it is immutable once created: switch methods apply to a {@link #fork()} that shares
+ * the previous switches, so that a wrapper can be used as a prototype by many threads.
+ * </p>
  */
 public final class ExecutableNode implements ICommandLineNode {
 
@@ -54,23 +82,15 @@ public final class ExecutableNode implements ICommandLineNode {
   private final List<String> executable;
   /** The pre-processors. */
   private final List<ICommandLinePreProcessor> preProcessors;
-  /** The instantiator. */
-  private final IInstantiator instantiator;
   /** The execution environment. */
   private final IExecutionEnvironment executionEnvironment;
-  /** The command and options. */
-  private final List<SwitchNode> switchNodes = new ArrayList<>();
+  /** The wrapper creator, only set for immutable nodes. */
+  private final Function<ExecutableNode, Object> wrapperCreator;
 
-  /** The executor. */
-  private IExecutor executor;
-  /** The expected return codes. */
-  private List<Integer> expectedReturnCodes;
-  /** The result converter. */
-  private IConverter<Result, ?> resultConverter;
-  /** The out type. */
-  private Class<?> outType;
-  /** The extra parameter name 2 value map. */
-  private Map<String, Object> extraParameterName2ValueMap;
+  /** The command and options. */
+  private volatile SwitchNodeList switchNodes = SwitchNodeList.EMPTY;
+  /** The execution context, set by the last executing method. */
+  private volatile ExecutionContext executionContext;
 
   /**
    * Instantiates a new executable node.
@@ -87,12 +107,114 @@ public final class ExecutableNode implements ICommandLineNode {
   public ExecutableNode(
       String[] executable, Class<? extends ICommandLinePreProcessor>[] preProcessorClasses,
       IInstantiator instantiator, IExecutionEnvironment executionEnvironment) {
-    this.executable = asList(executable);
-    this.instantiator = instantiator;
+    this(executable, preProcessorClasses, instantiator, executionEnvironment, null);
+  }
+
+  /**
+   * Instantiates a new executable node.
+   *
+   * @param executable
+   *          the executable
+   * @param preProcessorClasses
+   *          the pre-processor classes
+   * @param instantiator
+   *          the instantiator
+   * @param executionEnvironment
+   *          the execution environment
+   * @param wrapperCreator
+   *          the function that creates a wrapper for a forked node, or <code>null</code> for a
+   *          mutable node
+   */
+  public ExecutableNode(
+      String[] executable, Class<? extends ICommandLinePreProcessor>[] preProcessorClasses,
+      IInstantiator instantiator, IExecutionEnvironment executionEnvironment,
+      Function<ExecutableNode, Object> wrapperCreator) {
+    this(asList(executable),
+        stream(preProcessorClasses)
+          .map(instantiator::createIfPossibleOrThrow)
+          .collect(toList()),
+        executionEnvironment, wrapperCreator);
+  }
+
+  /**
+   * Instantiates a new executable node from an executable and pre-processors that are already
+   * resolved, e.g. shared by all the nodes of a factory.
+   *
+   * @param executable
+   *          the executable
+   * @param preProcessors
+   *          the pre-processors
+   * @param executionEnvironment
+   *          the execution environment
+   * @param wrapperCreator
+   *          the function that creates a wrapper for a forked node, or <code>null</code> for a
+   *          mutable node
+   */
+  public ExecutableNode(
+      List<String> executable, List<ICommandLinePreProcessor> preProcessors,
+      IExecutionEnvironment executionEnvironment,
+      Function<ExecutableNode, Object> wrapperCreator) {
+    this.executable = executable;
+    this.preProcessors = preProcessors;
     this.executionEnvironment = executionEnvironment;
-    this.preProcessors = stream(preProcessorClasses)
-      .map(instantiator::createIfPossibleOrThrow)
-      .collect(toList());
+    this.wrapperCreator = wrapperCreator;
+  }
+
+  /**
+   * Instantiates a fork of the given executable node.
+   *
+   * @param executableNode
+   *          the executable node to fork
+   */
+  private ExecutableNode(ExecutableNode executableNode) {
+    this.executable = executableNode.executable;
+    this.preProcessors = executableNode.preProcessors;
+    this.executionEnvironment = executableNode.executionEnvironment;
+    this.wrapperCreator = executableNode.wrapperCreator;
+    this.switchNodes = executableNode.switchNodes;
+    this.executionContext = executableNode.executionContext;
+  }
+
+  /**
+   * Checks whether this node is immutable, i.e. whether switch methods apply to a fork.
+   *
+   * @return true, if immutable
+   */
+  public boolean isImmutable() {
+    return wrapperCreator != null;
+  }
+
+  /**
+   * Checks whether the executions of this node are traced, i.e. whether its execution environment
+   * has an execution listener.
+   *
+   * @return true, if traced
+   */
+  public boolean isTraced() {
+    return executionEnvironment.getExecutionListener()
+        .isPresent();
+  }
+
+  /**
+   * Forks this node: the new node shares the switches and the execution context of this one,
+   * which is not affected by later changes of the new node.
+   *
+   * @return the forked node
+   */
+  public ExecutableNode fork() {
+    return new ExecutableNode(this);
+  }
+
+  /**
+   * Creates a wrapper around this node. This is only supported by immutable nodes.
+   *
+   * @return the wrapper
+   */
+  public Object createWrapper() {
+    if (wrapperCreator == null) {
+      throw new CommandLineException("Cannot create a wrapper for a mutable node");
+    }
+    return wrapperCreator.apply(this);
   }
 
   /**
@@ -102,61 +224,119 @@ public final class ExecutableNode implements ICommandLineNode {
    *          the switch
    */
   public void addSwitchNodes(SwitchNode zwitch) {
-    switchNodes.add(zwitch);
+    switchNodes = switchNodes.append(zwitch);
+  }
+
+  /**
+   * Sets the execution context of the executing method that is being called.
+   *
+   * @param methodContext
+   *          the execution context of the method, from
+   *          {@link #createExecutionContext(Method, Class, IInstantiator)}
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map of the call
+   */
+  public void setExecutionContext(
+      ExecutionContext methodContext, Map<String, Object> extraParameterName2ValueMap) {
+    this.executionContext = methodContext.withExtraParameters(extraParameterName2ValueMap);
   }
 
   /**
-   * Sets the execute now context.
+   * Creates the execution context of an executing method, from its annotations. It is meant to be
+   * created once per method, then completed by
+   * {@link #setExecutionContext(ExecutionContext, Map)} at each call.
    *
    * @param method
    *          the method
-   * @param extraParameterName2ValueMap
-   *          the extra parameter name 2 value map
+   * @param outType
+   *          the out type
+   * @param instantiator
+   *          the instantiator
+   * @return the execution context of the method
    */
-  public void setExecuteNowContext(
-      Method method, Map<String, Object> extraParameterName2ValueMap) {
-    this.outType = method.getReturnType();
-    setExecutionContext(method, extraParameterName2ValueMap);
+  @SuppressWarnings("unchecked")
+  public static ExecutionContext createExecutionContext(
+      Method method, Class<?> outType, IInstantiator instantiator) {
+    Supplier<IExecutor> executorSupplier = createExecutorSupplier(method, instantiator);
+    int[] expectedReturnCodeArray = getOrDefault(
+        method, ReturnCode.class, ReturnCode::value, () -> new int[]{0});
+    List<Integer> expectedReturnCodes = Arrays.stream(expectedReturnCodeArray)
+        .boxed()
+        .collect(toList());
+    IConverter<Result, ?> resultConverter = (IConverter<Result, ?>) getOrDefaultClass(
+        method, Converter.class, Converter::value, instantiator, ResultConverter::new);
+    Timeout timeoutAnnotation = method.getAnnotation(Timeout.class);
+    Duration timeout = timeoutAnnotation == null
+        ? null
+        : Duration.ofNanos(timeoutAnnotation.unit()
+            .toNanos(timeoutAnnotation.value()));
+    String methodName = method.getDeclaringClass()
+        .getSimpleName() + "." + method.getName();
+    return new ExecutionContext(executorSupplier, null, expectedReturnCodes,
+        resultConverter, outType, null, timeout, methodName);
   }
 
   /**
-   * Sets the execute later context.
+   * Creates the supplier of the executor of a method, decorated according to its annotations.
+   * The decorations are created once, so that all the calls of the method share them, e.g. to
+   * coalesce with each other; only the executor they decorate is created again when its class has
+   * a {@link CachingInstantiator#freezeScope(Class) scope} other than
+   * {@link Scope#SINGLETON singleton}.
    *
    * @param method
    *          the method
-   * @param executeLater
-   *          the execute later
-   * @param extraParameterName2ValueMap
-   *          the extra parameter name 2 value map
+   * @param instantiator
+   *          the instantiator
+   * @return the executor supplier
    */
-  public void setExecuteLaterContext(
-      Method method, ExecuteLater executeLater,
-      Map<String, Object> extraParameterName2ValueMap) {
-    this.outType = executeLater.value();
-    setExecutionContext(method, extraParameterName2ValueMap);
+  private static Supplier<IExecutor> createExecutorSupplier(
+      Method method, IInstantiator instantiator) {
+    Supplier<IExecutor> executorSupplier = createScopedExecutorSupplier(method, instantiator);
+    boolean isCoalesced = method.isAnnotationPresent(Coalesced.class);
+    Cacheable cacheable = method.getAnnotation(Cacheable.class);
+    if (!isCoalesced && cacheable == null) {
+      return executorSupplier;
+    }
+    IExecutor executor = new ScopedExecutor(executorSupplier);
+    if (isCoalesced) {
+      executor = executor.coalesced();
+    }
+    if (cacheable != null) {
+      Duration timeToLive = Duration.ofNanos(cacheable.unit()
+          .toNanos(cacheable.ttl()));
+      executor = executor.cached(ResultCache.getDefault(), timeToLive);
+    }
+    IExecutor decoratedExecutor = executor;
+    return () -> decoratedExecutor;
   }
 
   /**
-   * Sets the execution context.
+   * Creates the supplier of the undecorated executor of a method, which applies the scope of its
+   * class. The executor is created once when it is a {@link Scope#SINGLETON singleton}; otherwise,
+   * the instantiator creates the executor of each execution.
    *
    * @param method
    *          the method
-   * @param extraParameterName2ValueMap
-   *          the extra parameter name 2 value map
+   * @param instantiator
+   *          the instantiator
+   * @return the executor supplier
    */
-  @SuppressWarnings("unchecked")
-  private void setExecutionContext(
-      Method method, Map<String, Object> extraParameterName2ValueMap) {
-    this.extraParameterName2ValueMap = extraParameterName2ValueMap;
-    this.executor = getOrDefaultClass(
-        method, Executor.class, Executor::value, instantiator, ProcessExecutor::new);
-    int[] expectedReturnCodeArray = getOrDefault(
-        method, ReturnCode.class, ReturnCode::value, () -> new int[]{0});
-    this.expectedReturnCodes = Arrays.stream(expectedReturnCodeArray)
-        .boxed()
-        .collect(toList());
-    this.resultConverter = (IConverter<Result, ?>) getOrDefaultClass(
-        method, Converter.class, Converter::value, instantiator, ResultConverter::new);
+  private static Supplier<IExecutor> createScopedExecutorSupplier(
+      Method method, IInstantiator instantiator) {
+    Executor executorAnnotation = method.getAnnotation(Executor.class);
+    if (executorAnnotation == null) {
+      IExecutor executor = new ProcessExecutor();
+      return () -> executor;
+    }
+    Class<? extends IExecutor> executorClass = executorAnnotation.value();
+    Scope scope = instantiator instanceof CachingInstantiator
+        ? ((CachingInstantiator) instantiator).freezeScope(executorClass)
+        : Scope.SINGLETON;
+    if (scope != Scope.SINGLETON) {
+      return () -> instantiator.createIfPossibleOrThrow(executorClass);
+    }
+    IExecutor executor = instantiator.createIfPossibleOrThrow(executorClass);
+    return () -> executor;
   }
 
   /**
@@ -165,18 +345,68 @@ public final class ExecutableNode implements ICommandLineNode {
    * @return the result
    */
   public Object execute() {
-    List<String> commandLineElements = flatten();
-    commandLineElements = runPreProcessing(commandLineElements);
-    Result result = executionEnvironment.run(
-        executor, commandLineElements, extraParameterName2ValueMap);
-    return runPostProcessing(result);
+    ExecutionContext context = executionContext;
+    ExecutionTrace trace = startTrace(executionEnvironment);
+    List<String> commandLineElements = flatten(trace);
+    commandLineElements = runPreProcessing(
+        commandLineElements, preProcessors, executionEnvironment, trace);
+    return runExecution(commandLineElements, executionEnvironment, context, trace);
+  }
+
+  /**
+   * Executes the command without blocking the calling thread. The command line is computed
+   * immediately, so that this node can be reused right away; the post-processing runs once the
+   * execution completes.
+   *
+   * @return the future result
+   */
+  public CompletableFuture<Object> executeAsync() {
+    ExecutionContext context = executionContext;
+    ExecutionTrace trace = startTrace(executionEnvironment);
+    List<String> commandLineElements = flatten(trace);
+    commandLineElements = runPreProcessing(
+        commandLineElements, preProcessors, executionEnvironment, trace);
+    return runExecutionAsync(commandLineElements, executionEnvironment, context, trace);
+  }
+
+  /**
+   * Prepares the command line defined so far, so that it can be executed many times. The
+   * parameters without value are the slots, bound in order at each execution.
+   *
+   * @return the prepared executable node
+   */
+  public PreparedExecutableNode prepare() {
+    if (executionContext == null) {
+      throw new CommandLineException(
+          "Cannot prepare a command line before calling an @ExecuteLater method");
+    }
+    SwitchNode[] switchNodeArray = switchNodes.toArray();
+    int executableSize = executable.size();
+    int elementCount = executableSize + switchNodeArray.length;
+    String[] elements = new String[elementCount];
+    PreparedSwitchNode[] preparedSwitchNodes = new PreparedSwitchNode[elementCount];
+    executable.toArray(elements);
+    int slotCount = 0;
+    for (int index = executableSize; index < elementCount; index++) {
+      SwitchNode switchNode = switchNodeArray[index - executableSize];
+      int switchSlotCount = switchNode.getSlotCount();
+      if (switchSlotCount == 0) {
+        elements[index] = switchNode.flatten()
+            .get(0);
+      } else {
+        preparedSwitchNodes[index] = switchNode.prepare(slotCount);
+        slotCount += switchSlotCount;
+      }
+    }
+    return new PreparedExecutableNode(elements, preparedSwitchNodes, slotCount,
+        preProcessors, executionEnvironment, executionContext);
   }
 
   @Override
   public List<String> flatten() {
     List<String> elements = new ArrayList<>();
     elements.addAll(executable);
-    List<String> children = switchNodes.stream()
+    List<String> children = Arrays.stream(switchNodes.toArray())
         .map(ICommandLineNode::flatten)
         .flatMap(Collection::stream)
         .collect(Collectors.toList());
@@ -184,46 +414,429 @@ public final class ExecutableNode implements ICommandLineNode {
     return elements;
   }
 
+  /**
+   * Flattens this node, emitting the switch events and the flatten event if traced.
+   *
+   * @param trace
+   *          the execution trace, <code>null</code> if not traced
+   * @return the command line elements
+   */
+  private List<String> flatten(ExecutionTrace trace) {
+    if (trace == null) {
+      return flatten();
+    }
+    for (SwitchNode switchNode : switchNodes.toArray()) {
+      switchNode.emitHandlingEvent(trace);
+    }
+    long startNanos = System.nanoTime();
+    List<String> elements = flatten();
+    trace.emitSince(ExecutionStage.FLATTEN, executable.get(0), startNanos);
+    return elements;
+  }
+
+  /**
+   * Starts the trace of an execution, if the execution environment has an execution listener.
+   *
+   * @param executionEnvironment
+   *          the execution environment
+   * @return the execution trace, or <code>null</code> if nobody listens
+   */
+  static ExecutionTrace startTrace(IExecutionEnvironment executionEnvironment) {
+    IExecutionListener listener = executionEnvironment.getExecutionListener()
+        .orElse(null);
+    return listener == null ? null : ExecutionTrace.start(listener);
+  }
+
   /**
    * Runs the pre-processors.
    *
    * @param rawCommandLineElements
    *          the raw command line elements
+   * @param preProcessors
+   *          the pre-processors
+   * @param executionEnvironment
+   *          the execution environment
+   * @return the processed command line elements
+   */
+  static List<String> runPreProcessing(
+      List<String> rawCommandLineElements, List<ICommandLinePreProcessor> preProcessors,
+      IExecutionEnvironment executionEnvironment) {
+    return runPreProcessing(rawCommandLineElements, preProcessors, executionEnvironment, null);
+  }
+
+  /**
+   * Runs the pre-processors, emitting an event per pre-processor if traced.
+   *
+   * @param rawCommandLineElements
+   *          the raw command line elements
+   * @param preProcessors
+   *          the pre-processors
+   * @param executionEnvironment
+   *          the execution environment
+   * @param trace
+   *          the execution trace, <code>null</code> if not traced
    * @return the processed command line elements
    */
-  private List<String> runPreProcessing(List<String> rawCommandLineElements) {
+  static List<String> runPreProcessing(
+      List<String> rawCommandLineElements, List<ICommandLinePreProcessor> preProcessors,
+      IExecutionEnvironment executionEnvironment, ExecutionTrace trace) {
     List<String> commandLineElements = rawCommandLineElements;
     for (ICommandLinePreProcessor preProcessor : preProcessors) {
+      long startNanos = trace == null ? 0 : System.nanoTime();
       commandLineElements = preProcessor.process(commandLineElements, executionEnvironment);
+      if (trace != null) {
+        String preProcessorName = preProcessor.getClass()
+            .getSimpleName();
+        trace.emitSince(ExecutionStage.PRE_PROCESS, preProcessorName, startNanos);
+      }
     }
     return commandLineElements;
   }
 
+  /**
+   * Runs the execution and the post-processing, collecting the metrics if the environment has a
+   * metrics registry.
+   *
+   * @param commandLineElements
+   *          the pre-processed command line elements
+   * @param executionEnvironment
+   *          the execution environment
+   * @param context
+   *          the execution context
+   * @param trace
+   *          the execution trace, <code>null</code> if not traced
+   * @return the converted result
+   */
+  static Object runExecution(List<String> commandLineElements,
+      IExecutionEnvironment executionEnvironment, ExecutionContext context,
+      ExecutionTrace trace) {
+    IMetricsRegistry metricsRegistry = executionEnvironment.getMetricsRegistry()
+        .orElse(null);
+    ExecutionMetrics metrics = metricsRegistry == null ? null : new ExecutionMetrics();
+    Result result;
+    try {
+      result = executionEnvironment.run(context.executor, commandLineElements,
+          context.getExtraParameterName2ValueMap(executionEnvironment, metrics, trace));
+    } catch (RuntimeException runtimeException) {
+      if (metrics != null) {
+        metricsRegistry.record(context.methodName, metrics);
+      }
+      throw runtimeException;
+    }
+    return runPostProcessing(result, context, metricsRegistry, metrics, trace);
+  }
+
+  /**
+   * Runs the execution without blocking the calling thread, then the post-processing, collecting
+   * the metrics if the environment has a metrics registry.
+   *
+   * @param commandLineElements
+   *          the pre-processed command line elements
+   * @param executionEnvironment
+   *          the execution environment
+   * @param context
+   *          the execution context
+   * @param trace
+   *          the execution trace, <code>null</code> if not traced
+   * @return the future converted result
+   */
+  static CompletableFuture<Object> runExecutionAsync(List<String> commandLineElements,
+      IExecutionEnvironment executionEnvironment, ExecutionContext context,
+      ExecutionTrace trace) {
+    IMetricsRegistry metricsRegistry = executionEnvironment.getMetricsRegistry()
+        .orElse(null);
+    ExecutionMetrics metrics = metricsRegistry == null ? null : new ExecutionMetrics();
+    CompletableFuture<Result> resultFuture = executionEnvironment.runAsync(context.executor,
+        commandLineElements,
+        context.getExtraParameterName2ValueMap(executionEnvironment, metrics, trace));
+    if (metrics != null) {
+      resultFuture = resultFuture.whenComplete((result, throwable) -> {
+        if (throwable != null) {
+          metricsRegistry.record(context.methodName, metrics);
+        }
+      });
+    }
+    return resultFuture.thenApply(
+        result -> runPostProcessing(result, context, metricsRegistry, metrics, trace));
+  }
+
+  /**
+   * Runs the post-processing, records the metrics if any and emits the post-processing event if
+   * traced. The return code is part of the metrics even if it is not an expected one.
+   *
+   * @param result
+   *          the execution result
+   * @param context
+   *          the execution context
+   * @param metricsRegistry
+   *          the metrics registry, may be <code>null</code>
+   * @param metrics
+   *          the metrics, <code>null</code> if metrics are disabled
+   * @param trace
+   *          the execution trace, <code>null</code> if not traced
+   * @return the converted result
+   */
+  private static Object runPostProcessing(Result result, ExecutionContext context,
+      IMetricsRegistry metricsRegistry, ExecutionMetrics metrics, ExecutionTrace trace) {
+    if (metrics == null && trace == null) {
+      return runPostProcessing(result, context);
+    }
+    boolean isStreaming = result instanceof StreamingResult;
+    if (metrics != null) {
+      if (isStreaming) {
+        // The return code is only known once the output has been consumed
+        ((StreamingResult) result).addCompletionCheck(completedResult -> {
+          metrics.setReturnCode(completedResult.getReturnCode());
+          metricsRegistry.record(context.methodName, metrics);
+        });
+      } else {
+        metrics.setReturnCode(result.getReturnCode());
+      }
+    }
+    long conversionStartNanos = System.nanoTime();
+    try {
+      return runPostProcessing(result, context);
+    } finally {
+      long conversionTimeNanos = System.nanoTime() - conversionStartNanos;
+      if (metrics != null) {
+        metrics.setConversionTimeNanos(conversionTimeNanos);
+        if (!isStreaming) {
+          metricsRegistry.record(context.methodName, metrics);
+        }
+      }
+      if (trace != null) {
+        trace.emit(ExecutionStage.POST_PROCESS, context.methodName, conversionStartNanos,
+            conversionTimeNanos);
+      }
+    }
+  }
+
   /**
    * Runs the post-processing.
    *
    * @param result
    *          the execution result
+   * @param context
+   *          the execution context
    * @return the converted result
    */
   @SuppressWarnings({"rawtypes", "unchecked"})
-  private Object runPostProcessing(Result result) {
-    validateIfNeeded(result);
-    return resultConverter.convert(result, (Class) outType, extraParameterName2ValueMap);
+  static Object runPostProcessing(Result result, ExecutionContext context) {
+    if (result instanceof StreamingResult) {
+      // The return code is only known once the output has been consumed
+      StreamingResult streamingResult = (StreamingResult) result;
+      streamingResult.addCompletionCheck(context::validateIfNeeded);
+      Object convertedResult = context.resultConverter.convert(
+          result, (Class) context.outType, context.extraParameterName2ValueMap);
+      if (convertedResult != streamingResult) {
+        // Nobody will consume the output, e.g. for void methods: complete the process now
+        streamingResult.discardOutputIfNotRequested();
+      }
+      return convertedResult;
+    }
+    if (result instanceof FileResult) {
+      return runFileResultPostProcessing((FileResult) result, context);
+    }
+    context.validateIfNeeded(result);
+    return context.resultConverter.convert(
+        result, (Class) context.outType, context.extraParameterName2ValueMap);
   }
 
   /**
-   * Validates the return code if needed.
+   * Runs the post-processing of a file result, then deletes its temporary files unless the
+   * converted result still needs them: the file result itself is closed by the caller, the
+   * temporary output returned as a {@link Path} is owned by the caller and the lines of a
+   * {@link Stream} delete them once closed.
    *
-   * @param result
-   *          the result
-   */
-  private void validateIfNeeded(Result result) {
-    if (!expectedReturnCodes.isEmpty()) {
-      int returnCode = result.getReturnCode();
-      if (!expectedReturnCodes.contains(returnCode)) {
-        throw new CommandLineException("Finished with code '" + returnCode
-            + "' but expected it in '" + expectedReturnCodes + "'");
+   * @param fileResult
+   *          the file result
+   * @param context
+   *          the execution context
+   * @return the converted result
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static Object runFileResultPostProcessing(
+      FileResult fileResult, ExecutionContext context) {
+    Object convertedResult;
+    try {
+      context.validateIfNeeded(fileResult);
+      convertedResult = context.resultConverter.convert(
+          fileResult, (Class) context.outType, context.extraParameterName2ValueMap);
+    } catch (RuntimeException runtimeException) {
+      fileResult.close();
+      throw runtimeException;
+    }
+    if (convertedResult == fileResult) {
+      return convertedResult;
+    } else if (convertedResult instanceof Stream) {
+      return ((Stream<?>) convertedResult).onClose(fileResult::close);
+    } else if (fileResult.getOutputPath()
+        .equals(convertedResult)) {
+      fileResult.closeKeepingOutput();
+    } else {
+      fileResult.close();
+    }
+    return convertedResult;
+  }
+
+  /**
+   * The context of an execution, as set by the executing method. It is immutable, so that an
+   * asynchronous execution is not affected by later calls on the same node. The context of a
+   * method is computed once, and the context of each call only adds its executor and its extra
+   * parameters.
+   */
+  public static final class ExecutionContext {
+
+    /** The executor supplier. */
+    private final Supplier<IExecutor> executorSupplier;
+    /** The executor, <code>null</code> in the context of a method. */
+    private final IExecutor executor;
+    /** The expected return codes. */
+    private final List<Integer> expectedReturnCodes;
+    /** The result converter. */
+    private final IConverter<Result, ?> resultConverter;
+    /** The out type. */
+    private final Class<?> outType;
+    /** The extra parameter name 2 value map. */
+    private final Map<String, Object> extraParameterName2ValueMap;
+    /** The timeout, <code>null</code> to use the one of the environment. */
+    private final Duration timeout;
+    /** The name of the executing method, for the metrics and the events. */
+    private final String methodName;
+
+    /**
+     * Instantiates a new execution context.
+     *
+     * @param executorSupplier
+     *          the executor supplier
+     * @param executor
+     *          the executor, <code>null</code> in the context of a method
+     * @param expectedReturnCodes
+     *          the expected return codes
+     * @param resultConverter
+     *          the result converter
+     * @param outType
+     *          the out type
+     * @param extraParameterName2ValueMap
+     *          the extra parameter name 2 value map
+     * @param timeout
+     *          the timeout, <code>null</code> to use the one of the environment
+     * @param methodName
+     *          the name of the executing method, for the metrics and the events
+     */
+    private ExecutionContext(
+        Supplier<IExecutor> executorSupplier, IExecutor executor,
+        List<Integer> expectedReturnCodes, IConverter<Result, ?> resultConverter,
+        Class<?> outType, Map<String, Object> extraParameterName2ValueMap, Duration timeout,
+        String methodName) {
+      this.executorSupplier = executorSupplier;
+      this.executor = executor;
+      this.expectedReturnCodes = expectedReturnCodes;
+      this.resultConverter = resultConverter;
+      this.outType = outType;
+      this.extraParameterName2ValueMap = extraParameterName2ValueMap;
+      this.timeout = timeout;
+      this.methodName = methodName;
+    }
+
+    /**
+     * Creates the context of a call of the method of this context.
+     *
+     * @param callExtraParameterName2ValueMap
+     *          the extra parameter name 2 value map of the call
+     * @return the execution context of the call
+     */
+    private ExecutionContext withExtraParameters(
+        Map<String, Object> callExtraParameterName2ValueMap) {
+      return new ExecutionContext(executorSupplier, executorSupplier.get(), expectedReturnCodes,
+          resultConverter, outType, callExtraParameterName2ValueMap, timeout, methodName);
+    }
+
+    /**
+     * Gets the extra parameter name 2 value map of an execution that starts now. If it has a
+     * timeout, its {@link Deadline} is added, unless an explicit deadline expires first; so are
+     * its metrics and its trace, if any. Otherwise, the map is returned as is, without copy.
+     *
+     * @param environment
+     *          the execution environment, which provides the default timeout
+     * @param metrics
+     *          the execution metrics, <code>null</code> if metrics are disabled
+     * @param trace
+     *          the execution trace, <code>null</code> if not traced
+     * @return the extra parameter name 2 value map
+     */
+    private Map<String, Object> getExtraParameterName2ValueMap(
+        IExecutionEnvironment environment, ExecutionMetrics metrics, ExecutionTrace trace) {
+      Deadline deadline = getDeadline(environment);
+      if (deadline == null && metrics == null && trace == null) {
+        return extraParameterName2ValueMap;
+      }
+      Map<String, Object> executionExtraParameterName2ValueMap =
+          extraParameterName2ValueMap == null
+              ? new HashMap<>()
+              : new HashMap<>(extraParameterName2ValueMap);
+      if (deadline != null) {
+        executionExtraParameterName2ValueMap.put(Deadline.EXTRA_PARAMETER_NAME, deadline);
+      }
+      if (metrics != null) {
+        executionExtraParameterName2ValueMap.put(ExecutionMetrics.EXTRA_PARAMETER_NAME, metrics);
+      }
+      if (trace != null) {
+        executionExtraParameterName2ValueMap.put(ExecutionTrace.EXTRA_PARAMETER_NAME, trace);
+      }
+      return executionExtraParameterName2ValueMap;
+    }
+
+    /**
+     * Gets the deadline that applies to an execution that starts now, whether it comes from the
+     * timeout or from an explicit deadline, e.g. for the executions that do not use an executor.
+     *
+     * @param environment
+     *          the execution environment, which provides the default timeout
+     * @return the deadline, or <code>null</code> if there is none
+     */
+    Deadline getEffectiveDeadline(IExecutionEnvironment environment) {
+      Deadline deadline = getDeadline(environment);
+      return deadline == null ? Deadline.get(extraParameterName2ValueMap) : deadline;
+    }
+
+    /**
+     * Gets the deadline of an execution that starts now.
+     *
+     * @param environment
+     *          the execution environment, which provides the default timeout
+     * @return the deadline, or <code>null</code> if there is no timeout or if an explicit
+     *         deadline expires first
+     */
+    private Deadline getDeadline(IExecutionEnvironment environment) {
+      Duration effectiveTimeout = timeout == null
+          ? environment.getTimeout()
+              .orElse(null)
+          : timeout;
+      if (effectiveTimeout == null) {
+        return null;
+      }
+      Deadline deadline = Deadline.after(effectiveTimeout);
+      Deadline explicitDeadline = Deadline.get(extraParameterName2ValueMap);
+      if (explicitDeadline != null && explicitDeadline.isBefore(deadline)) {
+        return null;
+      }
+      return deadline;
+    }
+
+    /**
+     * Validates the return code if needed.
+     *
+     * @param result
+     *          the result
+     */
+    private void validateIfNeeded(Result result) {
+      if (!expectedReturnCodes.isEmpty()) {
+        int returnCode = result.getReturnCode();
+        if (!expectedReturnCodes.contains(returnCode)) {
+          throw new CommandLineException("Finished with code '" + returnCode
+              + "' but expected it in '" + expectedReturnCodes + "'");
+        }
       }
     }
   }
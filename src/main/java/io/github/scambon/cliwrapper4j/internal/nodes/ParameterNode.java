@@ -58,6 +58,24 @@ public final class ParameterNode<I> implements ICommandLineNode {
     return Collections.singletonList(convertedValue);
   }
 
+  /**
+   * Checks whether this parameter is a slot of a prepared command, i.e. it has no value yet.
+   *
+   * @return true, if the value is bound at each execution
+   */
+  boolean isSlot() {
+    return value == null;
+  }
+
+  /**
+   * Gets the converter.
+   *
+   * @return the converter
+   */
+  IConverter<I, String> getConverter() {
+    return converter;
+  }
+
   /**
    * Sets the extra parameter name to value map.
    * 
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.nodes;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.events.ExecutionStage;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
+import io.github.scambon.cliwrapper4j.internal.nodes.ExecutableNode.ExecutionContext;
+import io.github.scambon.cliwrapper4j.preprocessors.ICommandLinePreProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ * The frozen form of an {@link ExecutableNode}, used by prepared commands. The executable, the
+ * switches without slots, the pre-processors and the execution context are computed once; each
+ * execution only converts the slot values and runs the pre-processors.
+ * </p>
+ * <p>
+ * As it is immutable, it can be executed concurrently.
+ * </p>
+ */
+public final class PreparedExecutableNode {
+
+  /** The command line elements, with <code>null</code> for the elements with slots. */
+  private final String[] elements;
+  /** The prepared switch nodes, aligned with the elements and only set for those with slots. */
+  private final PreparedSwitchNode[] preparedSwitchNodes;
+  /** The slot count. */
+  private final int slotCount;
+  /** The pre-processors. */
+  private final List<ICommandLinePreProcessor> preProcessors;
+  /** The execution environment. */
+  private final IExecutionEnvironment executionEnvironment;
+  /** The execution context. */
+  private final ExecutionContext executionContext;
+
+  /**
+   * Instantiates a new prepared executable node.
+   *
+   * @param elements
+   *          the command line elements, with <code>null</code> for the elements with slots
+   * @param preparedSwitchNodes
+   *          the prepared switch nodes, aligned with the elements
+   * @param slotCount
+   *          the slot count
+   * @param preProcessors
+   *          the pre-processors
+   * @param executionEnvironment
+   *          the execution environment
+   * @param executionContext
+   *          the execution context
+   */
+  PreparedExecutableNode(
+      String[] elements, PreparedSwitchNode[] preparedSwitchNodes, int slotCount,
+      List<ICommandLinePreProcessor> preProcessors, IExecutionEnvironment executionEnvironment,
+      ExecutionContext executionContext) {
+    this.elements = elements;
+    this.preparedSwitchNodes = preparedSwitchNodes;
+    this.slotCount = slotCount;
+    this.preProcessors = preProcessors;
+    this.executionEnvironment = executionEnvironment;
+    this.executionContext = executionContext;
+  }
+
+  /**
+   * Gets the slot count, i.e. the number of arguments expected at each execution.
+   *
+   * @return the slot count
+   */
+  public int getSlotCount() {
+    return slotCount;
+  }
+
+  /**
+   * Gets the execution environment.
+   *
+   * @return the execution environment
+   */
+  public IExecutionEnvironment getExecutionEnvironment() {
+    return executionEnvironment;
+  }
+
+  /**
+   * Gets the pre-processed command line, when there is no slot to bind, e.g. to run it as a
+   * pipeline stage.
+   *
+   * @return the command line elements
+   */
+  public List<String> toCommandLine() {
+    return ExecutableNode.runPreProcessing(bind(null), preProcessors, executionEnvironment);
+  }
+
+  /**
+   * Gets the deadline of an execution that starts now without the executor of this node, e.g. as
+   * the last pipeline stage.
+   *
+   * @return the deadline, or <code>null</code> if there is no timeout
+   */
+  public Deadline startDeadline() {
+    return executionContext.getEffectiveDeadline(executionEnvironment);
+  }
+
+  /**
+   * Validates and converts a result obtained without the executor of this node, e.g. as the last
+   * pipeline stage.
+   *
+   * @param result
+   *          the result
+   * @return the converted result
+   */
+  public Object postProcess(Result result) {
+    return ExecutableNode.runPostProcessing(result, executionContext);
+  }
+
+  /**
+   * Binds the arguments and executes the command and the post-processing.
+   *
+   * @param arguments
+   *          the slot values
+   * @return the result
+   */
+  public Object execute(Object[] arguments) {
+    ExecutionTrace trace = ExecutableNode.startTrace(executionEnvironment);
+    List<String> commandLineElements = bind(arguments, trace);
+    commandLineElements = ExecutableNode.runPreProcessing(
+        commandLineElements, preProcessors, executionEnvironment, trace);
+    return ExecutableNode.runExecution(
+        commandLineElements, executionEnvironment, executionContext, trace);
+  }
+
+  /**
+   * Binds the arguments and executes the command without blocking the calling thread.
+   *
+   * @param arguments
+   *          the slot values
+   * @return the future result
+   */
+  public CompletableFuture<Object> executeAsync(Object[] arguments) {
+    ExecutionTrace trace = ExecutableNode.startTrace(executionEnvironment);
+    List<String> commandLineElements = bind(arguments, trace);
+    commandLineElements = ExecutableNode.runPreProcessing(
+        commandLineElements, preProcessors, executionEnvironment, trace);
+    return ExecutableNode.runExecutionAsync(
+        commandLineElements, executionEnvironment, executionContext, trace);
+  }
+
+  /**
+   * Binds the arguments into the command line, emitting the flatten event if traced.
+   *
+   * @param arguments
+   *          the slot values
+   * @param trace
+   *          the execution trace, <code>null</code> if not traced
+   * @return the command line elements
+   */
+  private List<String> bind(Object[] arguments, ExecutionTrace trace) {
+    if (trace == null) {
+      return bind(arguments);
+    }
+    long startNanos = System.nanoTime();
+    List<String> commandLineElements = bind(arguments);
+    trace.emitSince(ExecutionStage.FLATTEN, elements[0], startNanos);
+    return commandLineElements;
+  }
+
+  /**
+   * Binds the arguments into the command line.
+   *
+   * @param arguments
+   *          the slot values
+   * @return the command line elements
+   */
+  private List<String> bind(Object[] arguments) {
+    int argumentCount = arguments == null ? 0 : arguments.length;
+    if (argumentCount != slotCount) {
+      throw new CommandLineException(
+          "Expected '" + slotCount + "' arguments but got '" + argumentCount + "'");
+    }
+    List<String> commandLineElements = new ArrayList<>(elements.length);
+    for (int index = 0; index < elements.length; index++) {
+      PreparedSwitchNode preparedSwitchNode = preparedSwitchNodes[index];
+      if (preparedSwitchNode == null) {
+        commandLineElements.add(elements[index]);
+      } else {
+        commandLineElements.add(preparedSwitchNode.bind(arguments));
+      }
+    }
+    return commandLineElements;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.nodes;
+
+import io.github.scambon.cliwrapper4j.aggregators.IAggregator;
+import io.github.scambon.cliwrapper4j.converters.IConverter;
+import io.github.scambon.cliwrapper4j.flatteners.IFlattener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The frozen form of a {@link SwitchNode} that has slots: only the slot values are converted at
+ * each execution, and the flattener and the aggregator run on the already converted values.
+ */
+final class PreparedSwitchNode {
+
+  /** The switch. */
+  private final String zwitch;
+  /** The aggregator. */
+  private final IAggregator aggregator;
+  /** The aggregator parameter. */
+  private final String aggregatorParameter;
+  /** The flattener. */
+  private final IFlattener flattener;
+  /** The flattener parameter. */
+  private final String flattenerParameter;
+  /** The converted parameters, with <code>null</code> for slots. */
+  private final String[] convertedParameters;
+  /** The slot converters, with <code>null</code> for converted parameters. */
+  private final IConverter<?, ?>[] slotConverters;
+  /** The index of the first slot in the prepared command arguments. */
+  private final int firstSlotIndex;
+  /** The extra parameter name 2 value map. */
+  private final Map<String, Object> extraParameterName2ValueMap;
+
+  /**
+   * Instantiates a new prepared switch node.
+   *
+   * @param zwitch
+   *          the switch
+   * @param aggregator
+   *          the aggregator
+   * @param aggregatorParameter
+   *          the aggregator parameter
+   * @param flattener
+   *          the flattener
+   * @param flattenerParameter
+   *          the flattener parameter
+   * @param convertedParameters
+   *          the converted parameters, with <code>null</code> for slots
+   * @param slotConverters
+   *          the slot converters, with <code>null</code> for converted parameters
+   * @param firstSlotIndex
+   *          the index of the first slot in the prepared command arguments
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map
+   */
+  PreparedSwitchNode(
+      String zwitch,
+      IAggregator aggregator, String aggregatorParameter,
+      IFlattener flattener, String flattenerParameter,
+      String[] convertedParameters, IConverter<?, ?>[] slotConverters, int firstSlotIndex,
+      Map<String, Object> extraParameterName2ValueMap) {
+    this.zwitch = zwitch;
+    this.aggregator = aggregator;
+    this.aggregatorParameter = aggregatorParameter;
+    this.flattener = flattener;
+    this.flattenerParameter = flattenerParameter;
+    this.convertedParameters = convertedParameters;
+    this.slotConverters = slotConverters;
+    this.firstSlotIndex = firstSlotIndex;
+    this.extraParameterName2ValueMap = extraParameterName2ValueMap;
+  }
+
+  /**
+   * Binds the slot values and flattens this node.
+   *
+   * @param arguments
+   *          the prepared command arguments
+   * @return the command line element
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  String bind(Object[] arguments) {
+    List<String> parameters = new ArrayList<>(convertedParameters.length);
+    int slotIndex = firstSlotIndex;
+    for (int index = 0; index < convertedParameters.length; index++) {
+      IConverter slotConverter = slotConverters[index];
+      if (slotConverter == null) {
+        parameters.add(convertedParameters[index]);
+      } else {
+        Object value = arguments[slotIndex++];
+        parameters.add((String) slotConverter.convert(
+            value, String.class, extraParameterName2ValueMap));
+      }
+    }
+    String flattenedParameters = flattener.flatten(
+        parameters, flattenerParameter, extraParameterName2ValueMap);
+    return aggregator.aggregate(
+        zwitch, flattenedParameters, aggregatorParameter, extraParameterName2ValueMap);
+  }
+}
\ No newline at end of file
@@ -18,6 +18,9 @@ package io.github.scambon.cliwrapper4j.internal.nodes;
 
 import io.github.scambon.cliwrapper4j.Switch;
 import io.github.scambon.cliwrapper4j.aggregators.IAggregator;
+import io.github.scambon.cliwrapper4j.converters.IConverter;
+import io.github.scambon.cliwrapper4j.events.ExecutionStage;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
 import io.github.scambon.cliwrapper4j.flatteners.IFlattener;
 
 import java.util.ArrayList;
@@ -33,6 +36,7 @@ import java.util.stream.Collectors;
  */
 public final class SwitchNode implements ICommandLineNode {
 
+  /** The switch. */
   private final String zwitch;
   /** The aggregator. */
   private final IAggregator aggregator;
@@ -46,6 +50,10 @@ public final class SwitchNode implements ICommandLineNode {
   private final List<ParameterNode<?>> parameters = new ArrayList<>();
   /** The extra parameter name 2 value map. */
   private final Map<String, Object> extraParameterName2ValueMap = new TreeMap<>();
+  /** The time the switch method started handling this node, only set when traced. */
+  private long handlingStartNanos;
+  /** The time taken by the switch method to handle this node, -1 if not traced. */
+  private long handlingDurationNanos = -1;
 
   /**
    * Instantiates a new command or option with parameters node.
@@ -93,6 +101,74 @@ public final class SwitchNode implements ICommandLineNode {
     extraParameterName2ValueMap.putAll(extraParameterName2ValueMap2);
   }
 
+  /**
+   * Sets the time taken by the switch method to handle this node, so that it can be emitted when
+   * the execution starts. It must be called before the node is added to an executable node.
+   *
+   * @param handlingStartNanos
+   *          the handling start time, as given by {@link System#nanoTime()}
+   * @param handlingDurationNanos
+   *          the handling duration, in nanoseconds
+   */
+  public void setHandlingTime(long handlingStartNanos, long handlingDurationNanos) {
+    this.handlingStartNanos = handlingStartNanos;
+    this.handlingDurationNanos = handlingDurationNanos;
+  }
+
+  /**
+   * Emits the switch event of this node, if its handling was timed.
+   *
+   * @param trace
+   *          the execution trace
+   */
+  void emitHandlingEvent(ExecutionTrace trace) {
+    if (handlingDurationNanos >= 0) {
+      trace.emit(ExecutionStage.SWITCH, zwitch, handlingStartNanos, handlingDurationNanos);
+    }
+  }
+
+  /**
+   * Gets the number of slots, i.e. of parameters without value, that a prepared command binds at
+   * each execution.
+   *
+   * @return the slot count
+   */
+  int getSlotCount() {
+    int slotCount = 0;
+    for (ParameterNode<?> parameter : parameters) {
+      if (parameter.isSlot()) {
+        slotCount++;
+      }
+    }
+    return slotCount;
+  }
+
+  /**
+   * Prepares this node: the parameters with a value are converted once and for all, while the
+   * slots keep their converter.
+   *
+   * @param firstSlotIndex
+   *          the index of the first slot of this node in the prepared command arguments
+   * @return the prepared switch node
+   */
+  PreparedSwitchNode prepare(int firstSlotIndex) {
+    int parameterCount = parameters.size();
+    String[] convertedParameters = new String[parameterCount];
+    IConverter<?, ?>[] slotConverters = new IConverter<?, ?>[parameterCount];
+    for (int index = 0; index < parameterCount; index++) {
+      ParameterNode<?> parameter = parameters.get(index);
+      if (parameter.isSlot()) {
+        slotConverters[index] = parameter.getConverter();
+      } else {
+        convertedParameters[index] = parameter.flatten()
+            .get(0);
+      }
+    }
+    return new PreparedSwitchNode(zwitch, aggregator, aggregatorParameter,
+        flattener, flattenerParameter, convertedParameters, slotConverters, firstSlotIndex,
+        extraParameterName2ValueMap);
+  }
+
   @Override
   public List<String> flatten() {
     List<String> convertedParameters = parameters.stream()
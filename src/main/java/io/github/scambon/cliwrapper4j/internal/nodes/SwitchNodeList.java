@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.nodes;
+
+/**
+ * An immutable list of switch nodes, where appending shares the existing nodes instead of copying
+ * them. This lets an executable node fork in constant time.
+ */
+final class SwitchNodeList {
+
+  /** The empty list. */
+  static final SwitchNodeList EMPTY = new SwitchNodeList(null, null, 0);
+
+  /** The last switch node. */
+  private final SwitchNode last;
+  /** The list without the last switch node. */
+  private final SwitchNodeList previous;
+  /** The size. */
+  private final int size;
+
+  /**
+   * Instantiates a new switch node list.
+   *
+   * @param last
+   *          the last switch node
+   * @param previous
+   *          the list without the last switch node
+   * @param size
+   *          the size
+   */
+  private SwitchNodeList(SwitchNode last, SwitchNodeList previous, int size) {
+    this.last = last;
+    this.previous = previous;
+    this.size = size;
+  }
+
+  /**
+   * Creates a list with the given switch node appended.
+   *
+   * @param switchNode
+   *          the switch node
+   * @return the new list
+   */
+  SwitchNodeList append(SwitchNode switchNode) {
+    return new SwitchNodeList(switchNode, this, size + 1);
+  }
+
+  /**
+   * Gets the size.
+   *
+   * @return the size
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets the switch nodes, in insertion order.
+   *
+   * @return the switch nodes
+   */
+  SwitchNode[] toArray() {
+    SwitchNode[] switchNodes = new SwitchNode[size];
+    SwitchNodeList list = this;
+    for (int index = size - 1; index >= 0; index--) {
+      switchNodes[index] = list.last;
+      list = list.previous;
+    }
+    return switchNodes;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.utils;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Extra;
+
+import java.util.Map;
+
+/** A helper class that facilitates getting typed @{@link Extra} parameters. */
+public final class ExtraParameterUtils {
+
+  /**
+   * Instantiates a new extra parameter utils.
+   */
+  private ExtraParameterUtils() {
+    // NOP
+  }
+
+  /**
+   * Gets an extra parameter that must have a given type.
+   *
+   * @param <T>
+   *          the parameter type
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map, may be <code>null</code>
+   * @param extraParameterName
+   *          the extra parameter name
+   * @param type
+   *          the parameter type
+   * @return the parameter, or <code>null</code> if there is none
+   */
+  public static <T> T get(
+      Map<String, Object> extraParameterName2ValueMap, String extraParameterName, Class<T> type) {
+    if (extraParameterName2ValueMap == null) {
+      return null;
+    }
+    Object value = extraParameterName2ValueMap.get(extraParameterName);
+    if (value == null || type.isInstance(value)) {
+      return type.cast(value);
+    }
+    String typeName = value.getClass()
+        .getName();
+    throw new CommandLineException("The @Extra parameter '" + extraParameterName
+        + "' should be a '" + type.getName() + "' but was a '" + typeName + "'");
+  }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.utils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/** A helper class that facilitates some operations on method return types. */
+public final class ReturnTypeUtils {
+
+  /**
+   * Instantiates a new return type utils.
+   */
+  private ReturnTypeUtils() {
+    // NOP
+  }
+
+  /**
+   * Checks whether the given method returns a future result, i.e. a {@link CompletableFuture} or
+   * a {@link CompletionStage}.
+   *
+   * @param method
+   *          the method
+   * @return true, if the method is executed asynchronously
+   */
+  public static boolean isAsync(Method method) {
+    Class<?> returnType = method.getReturnType();
+    return CompletableFuture.class.equals(returnType)
+        || CompletionStage.class.equals(returnType);
+  }
+
+  /**
+   * Gets the type the execution result is converted to: the method return type or, for an
+   * asynchronous method, the future type argument.
+   *
+   * @param method
+   *          the method
+   * @return the output type
+   */
+  public static Class<?> getOutType(Method method) {
+    if (!isAsync(method)) {
+      return method.getReturnType();
+    }
+    Type genericReturnType = method.getGenericReturnType();
+    if (genericReturnType instanceof ParameterizedType) {
+      Type typeArgument = ((ParameterizedType) genericReturnType).getActualTypeArguments()[0];
+      return getRawClass(typeArgument);
+    }
+    return Object.class;
+  }
+
+  /**
+   * Gets the raw class of a type.
+   *
+   * @param type
+   *          the type
+   * @return the raw class, or {@link Object} for type variables and wildcards
+   */
+  private static Class<?> getRawClass(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    } else if (type instanceof ParameterizedType) {
+      return getRawClass(((ParameterizedType) type).getRawType());
+    } else {
+      return Object.class;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of the metrics of an executing method, as registered by the
+ * {@link JmxMetricsRegistry}. Times are in milliseconds.
+ */
+public interface CommandLineMetricsMXBean {
+
+  /**
+   * Gets the execution count, including failed executions.
+   *
+   * @return the execution count
+   */
+  long getExecutionCount();
+
+  /**
+   * Gets the mean time taken to start the processes.
+   *
+   * @return the mean spawn latency, in milliseconds
+   */
+  double getMeanSpawnLatencyMillis();
+
+  /**
+   * Gets the maximum time taken to start a process.
+   *
+   * @return the maximum spawn latency, in milliseconds
+   */
+  double getMaxSpawnLatencyMillis();
+
+  /**
+   * Gets the mean time from the process starts to their exits.
+   *
+   * @return the mean wall time, in milliseconds
+   */
+  double getMeanWallTimeMillis();
+
+  /**
+   * Gets the maximum time from a process start to its exit.
+   *
+   * @return the maximum wall time, in milliseconds
+   */
+  double getMaxWallTimeMillis();
+
+  /**
+   * Gets the mean CPU time used by the processes, when known.
+   *
+   * @return the mean CPU time, in milliseconds
+   */
+  double getMeanCpuTimeMillis();
+
+  /**
+   * Gets the total output byte count.
+   *
+   * @return the total output bytes
+   */
+  long getTotalOutputBytes();
+
+  /**
+   * Gets the total error byte count.
+   *
+   * @return the total error bytes
+   */
+  long getTotalErrorBytes();
+
+  /**
+   * Gets the mean time taken to decode the outputs.
+   *
+   * @return the mean decode time, in milliseconds
+   */
+  double getMeanDecodeTimeMillis();
+
+  /**
+   * Gets the mean time taken to validate and convert the results.
+   *
+   * @return the mean conversion time, in milliseconds
+   */
+  double getMeanConversionTimeMillis();
+
+  /**
+   * Gets the return code histogram.
+   *
+   * @return the return code 2 count map
+   */
+  Map<Integer, Long> getReturnCodeCounts();
+}
\ No newline at end of file
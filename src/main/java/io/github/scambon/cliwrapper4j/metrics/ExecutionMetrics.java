@@ -0,0 +1,242 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.metrics;
+
+import io.github.scambon.cliwrapper4j.Extra;
+import io.github.scambon.cliwrapper4j.internal.utils.ExtraParameterUtils;
+
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * <p>
+ * The metrics of one execution, filled by the executor and the post-processing, then passed to
+ * the {@link IMetricsRegistry}. It is only created when the execution environment has a metrics
+ * registry, so that executions without one allocate nothing for metrics.
+ * </p>
+ * <p>
+ * It is passed to the executors as the @{@link Extra} parameter named
+ * {@value #EXTRA_PARAMETER_NAME}. Executors fill what they know, the other metrics stay
+ * {@value #UNKNOWN}.
+ * </p>
+ */
+public final class ExecutionMetrics {
+
+  /** The name of the @{@link Extra} parameter that holds the execution metrics. */
+  public static final String EXTRA_PARAMETER_NAME = "metrics";
+  /** The value of the metrics that are not known. */
+  public static final long UNKNOWN = -1;
+
+  /** The time taken to start the process, in nanoseconds. */
+  private volatile long spawnLatencyNanos = UNKNOWN;
+  /** The time from the process start to its exit, in nanoseconds. */
+  private volatile long wallTimeNanos = UNKNOWN;
+  /** The CPU time used by the process, in nanoseconds. */
+  private volatile long cpuTimeNanos = UNKNOWN;
+  /** The output byte count. */
+  private volatile long outputBytes = UNKNOWN;
+  /** The time taken to decode the output, in nanoseconds. */
+  private volatile long outputDecodeTimeNanos = UNKNOWN;
+  /** The error byte count. */
+  private volatile long errorBytes = UNKNOWN;
+  /** The time taken to decode the error, in nanoseconds. */
+  private volatile long errorDecodeTimeNanos = UNKNOWN;
+  /** The time taken to validate and convert the result, in nanoseconds. */
+  private volatile long conversionTimeNanos = UNKNOWN;
+  /** The return code, <code>null</code> if not known. */
+  private volatile Integer returnCode;
+
+  /**
+   * Gets the execution metrics from the extra parameters.
+   *
+   * @param extraParameterName2ValueMap
+   *          the extra parameter name 2 value map, may be <code>null</code>
+   * @return the execution metrics, or <code>null</code> if metrics are disabled
+   */
+  public static ExecutionMetrics get(Map<String, Object> extraParameterName2ValueMap) {
+    return ExtraParameterUtils.get(
+        extraParameterName2ValueMap, EXTRA_PARAMETER_NAME, ExecutionMetrics.class);
+  }
+
+  /**
+   * Gets the time taken to start the process, i.e. for <code>ProcessBuilder#start()</code> to
+   * return.
+   *
+   * @return the spawn latency, in nanoseconds
+   */
+  public long getSpawnLatencyNanos() {
+    return spawnLatencyNanos;
+  }
+
+  /**
+   * Sets the time taken to start the process.
+   *
+   * @param spawnLatencyNanos
+   *          the spawn latency, in nanoseconds
+   */
+  public void setSpawnLatencyNanos(long spawnLatencyNanos) {
+    this.spawnLatencyNanos = spawnLatencyNanos;
+  }
+
+  /**
+   * Gets the time from the process start to its exit.
+   *
+   * @return the wall time, in nanoseconds
+   */
+  public long getWallTimeNanos() {
+    return wallTimeNanos;
+  }
+
+  /**
+   * Sets the time from the process start to its exit.
+   *
+   * @param wallTimeNanos
+   *          the wall time, in nanoseconds
+   */
+  public void setWallTimeNanos(long wallTimeNanos) {
+    this.wallTimeNanos = wallTimeNanos;
+  }
+
+  /**
+   * Gets the CPU time used by the process. It is sampled when the process closes its output, so
+   * it is only known on Java 9+ and if the process has not been reaped yet.
+   *
+   * @return the CPU time, in nanoseconds
+   */
+  public long getCpuTimeNanos() {
+    return cpuTimeNanos;
+  }
+
+  /**
+   * Sets the CPU time used by the process.
+   *
+   * @param cpuTimeNanos
+   *          the CPU time, in nanoseconds
+   */
+  public void setCpuTimeNanos(long cpuTimeNanos) {
+    this.cpuTimeNanos = cpuTimeNanos;
+  }
+
+  /**
+   * Gets the output byte count.
+   *
+   * @return the output byte count
+   */
+  public long getOutputBytes() {
+    return outputBytes;
+  }
+
+  /**
+   * Gets the error byte count.
+   *
+   * @return the error byte count
+   */
+  public long getErrorBytes() {
+    return errorBytes;
+  }
+
+  /**
+   * Sets the output byte count and the time taken to decode it.
+   *
+   * @param outputBytes
+   *          the output byte count
+   * @param outputDecodeTimeNanos
+   *          the decode time, in nanoseconds
+   */
+  public void setOutput(long outputBytes, long outputDecodeTimeNanos) {
+    this.outputBytes = outputBytes;
+    this.outputDecodeTimeNanos = outputDecodeTimeNanos;
+  }
+
+  /**
+   * Sets the error byte count and the time taken to decode it.
+   *
+   * @param errorBytes
+   *          the error byte count
+   * @param errorDecodeTimeNanos
+   *          the decode time, in nanoseconds
+   */
+  public void setError(long errorBytes, long errorDecodeTimeNanos) {
+    this.errorBytes = errorBytes;
+    this.errorDecodeTimeNanos = errorDecodeTimeNanos;
+  }
+
+  /**
+   * Gets the time taken to decode the output and the error into strings.
+   *
+   * @return the decode time, in nanoseconds
+   */
+  public long getDecodeTimeNanos() {
+    long output = outputDecodeTimeNanos;
+    long error = errorDecodeTimeNanos;
+    if (output == UNKNOWN) {
+      return error;
+    } else if (error == UNKNOWN) {
+      return output;
+    }
+    return output + error;
+  }
+
+  /**
+   * Gets the time taken to validate the return code and convert the result.
+   *
+   * @return the conversion time, in nanoseconds
+   */
+  public long getConversionTimeNanos() {
+    return conversionTimeNanos;
+  }
+
+  /**
+   * Sets the time taken to validate the return code and convert the result.
+   *
+   * @param conversionTimeNanos
+   *          the conversion time, in nanoseconds
+   */
+  public void setConversionTimeNanos(long conversionTimeNanos) {
+    this.conversionTimeNanos = conversionTimeNanos;
+  }
+
+  /**
+   * Gets the return code.
+   *
+   * @return the return code, empty if not known, e.g. if the execution failed
+   */
+  public OptionalInt getReturnCode() {
+    Integer currentReturnCode = returnCode;
+    return currentReturnCode == null
+        ? OptionalInt.empty()
+        : OptionalInt.of(currentReturnCode);
+  }
+
+  /**
+   * Sets the return code.
+   *
+   * @param returnCode
+   *          the return code
+   */
+  public void setReturnCode(int returnCode) {
+    this.returnCode = returnCode;
+  }
+
+  @Override
+  public String toString() {
+    return "ExecutionMetrics [spawnLatencyNanos=" + spawnLatencyNanos + ", wallTimeNanos="
+        + wallTimeNanos + ", cpuTimeNanos=" + cpuTimeNanos + ", outputBytes=" + outputBytes
+        + ", errorBytes=" + errorBytes + ", decodeTimeNanos=" + getDecodeTimeNanos()
+        + ", conversionTimeNanos=" + conversionTimeNanos + ", returnCode=" + returnCode + "]";
+  }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.metrics;
+
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+
+/**
+ * <p>
+ * A registry that receives the metrics of every execution run in an
+ * {@link IExecutionEnvironment#getMetricsRegistry() execution environment that has one}.
+ * </p>
+ * <p>
+ * Implementations must be thread-safe, as concurrent executions record concurrently, and should
+ * be fast, as they are called by the executing thread.
+ * </p>
+ *
+ * @see InMemoryMetricsRegistry
+ * @see JmxMetricsRegistry
+ */
+public interface IMetricsRegistry {
+
+  /**
+   * Records the metrics of a completed, or failed, execution.
+   *
+   * @param name
+   *          the name of the executing method, as <code>Interface.method</code>
+   * @param metrics
+   *          the execution metrics
+   */
+  void record(String name, ExecutionMetrics metrics);
+}
\ No newline at end of file
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics registry that aggregates the execution metrics in memory, per executing method,
+ * without any dependency. The aggregates can be read at any time, e.g. to be exported.
+ */
+public final class InMemoryMetricsRegistry implements IMetricsRegistry {
+
+  /** The name 2 statistics map. */
+  private final ConcurrentMap<String, Statistics> name2StatisticsMap = new ConcurrentHashMap<>();
+
+  @Override
+  public void record(String name, ExecutionMetrics metrics) {
+    getOrCreateStatistics(name).add(metrics);
+  }
+
+  /**
+   * Gets the statistics of an executing method.
+   *
+   * @param name
+   *          the name of the executing method, as <code>Interface.method</code>
+   * @return the statistics, or <code>null</code> if it has not been executed yet
+   */
+  public Statistics getStatistics(String name) {
+    return name2StatisticsMap.get(name);
+  }
+
+  /**
+   * Gets the statistics of all the executed methods.
+   *
+   * @return the name 2 statistics map, sorted by name
+   */
+  public Map<String, Statistics> getAllStatistics() {
+    return Collections.unmodifiableMap(new TreeMap<>(name2StatisticsMap));
+  }
+
+  /**
+   * Forgets all the statistics.
+   */
+  public void clear() {
+    name2StatisticsMap.clear();
+  }
+
+  /**
+   * Gets the statistics of an executing method, creating them if needed.
+   *
+   * @param name
+   *          the name of the executing method
+   * @return the statistics
+   */
+  Statistics getOrCreateStatistics(String name) {
+    Statistics statistics = name2StatisticsMap.get(name);
+    if (statistics == null) {
+      statistics = name2StatisticsMap.computeIfAbsent(name, ignored -> new Statistics());
+    }
+    return statistics;
+  }
+
+  /**
+   * The aggregated metrics of an executing method.
+   */
+  public static final class Statistics {
+
+    /** The execution count. */
+    private final LongAdder executionCount = new LongAdder();
+    /** The spawn latency, in nanoseconds. */
+    private final Summary spawnLatency = new Summary();
+    /** The wall time, in nanoseconds. */
+    private final Summary wallTime = new Summary();
+    /** The CPU time, in nanoseconds. */
+    private final Summary cpuTime = new Summary();
+    /** The output bytes. */
+    private final Summary outputBytes = new Summary();
+    /** The error bytes. */
+    private final Summary errorBytes = new Summary();
+    /** The decode time, in nanoseconds. */
+    private final Summary decodeTime = new Summary();
+    /** The conversion time, in nanoseconds. */
+    private final Summary conversionTime = new Summary();
+    /** The return code 2 count map. */
+    private final ConcurrentMap<Integer, LongAdder> returnCode2CountMap =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates new statistics.
+     */
+    private Statistics() {
+      // Created by the registry
+    }
+
+    /**
+     * Adds the metrics of an execution.
+     *
+     * @param metrics
+     *          the metrics
+     */
+    private void add(ExecutionMetrics metrics) {
+      executionCount.increment();
+      spawnLatency.add(metrics.getSpawnLatencyNanos());
+      wallTime.add(metrics.getWallTimeNanos());
+      cpuTime.add(metrics.getCpuTimeNanos());
+      outputBytes.add(metrics.getOutputBytes());
+      errorBytes.add(metrics.getErrorBytes());
+      decodeTime.add(metrics.getDecodeTimeNanos());
+      conversionTime.add(metrics.getConversionTimeNanos());
+      OptionalInt returnCode = metrics.getReturnCode();
+      if (returnCode.isPresent()) {
+        returnCode2CountMap.computeIfAbsent(returnCode.getAsInt(), ignored -> new LongAdder())
+            .increment();
+      }
+    }
+
+    /**
+     * Gets the execution count, including failed executions.
+     *
+     * @return the execution count
+     */
+    public long getExecutionCount() {
+      return executionCount.sum();
+    }
+
+    /**
+     * Gets the time taken to start the processes.
+     *
+     * @return the spawn latency summary, in nanoseconds
+     */
+    public Summary getSpawnLatency() {
+      return spawnLatency;
+    }
+
+    /**
+     * Gets the time from the process starts to their exits.
+     *
+     * @return the wall time summary, in nanoseconds
+     */
+    public Summary getWallTime() {
+      return wallTime;
+    }
+
+    /**
+     * Gets the CPU time used by the processes.
+     *
+     * @return the CPU time summary, in nanoseconds
+     */
+    public Summary getCpuTime() {
+      return cpuTime;
+    }
+
+    /**
+     * Gets the output byte counts.
+     *
+     * @return the output byte summary
+     */
+    public Summary getOutputBytes() {
+      return outputBytes;
+    }
+
+    /**
+     * Gets the error byte counts.
+     *
+     * @return the error byte summary
+     */
+    public Summary getErrorBytes() {
+      return errorBytes;
+    }
+
+    /**
+     * Gets the time taken to decode the outputs.
+     *
+     * @return the decode time summary, in nanoseconds
+     */
+    public Summary getDecodeTime() {
+      return decodeTime;
+    }
+
+    /**
+     * Gets the time taken to validate and convert the results.
+     *
+     * @return the conversion time summary, in nanoseconds
+     */
+    public Summary getConversionTime() {
+      return conversionTime;
+    }
+
+    /**
+     * Gets the return code histogram.
+     *
+     * @return the return code 2 count map, sorted by return code
+     */
+    public Map<Integer, Long> getReturnCodeCounts() {
+      Map<Integer, Long> returnCodeCounts = new TreeMap<>();
+      returnCode2CountMap.forEach((returnCode, count) -> returnCodeCounts.put(returnCode,
+          count.sum()));
+      return returnCodeCounts;
+    }
+
+    @Override
+    public String toString() {
+      return "Statistics [executionCount=" + getExecutionCount() + ", spawnLatency="
+          + spawnLatency + ", wallTime=" + wallTime + ", cpuTime=" + cpuTime
+          + ", outputBytes=" + outputBytes + ", errorBytes=" + errorBytes + ", decodeTime="
+          + decodeTime + ", conversionTime=" + conversionTime + ", returnCodeCounts="
+          + getReturnCodeCounts() + "]";
+    }
+  }
+
+  /**
+   * The summary of the known values of a metric.
+   */
+  public static final class Summary {
+
+    /** The count. */
+    private final LongAdder count = new LongAdder();
+    /** The total. */
+    private final LongAdder total = new LongAdder();
+    /** The maximum. */
+    private final LongAccumulator maximum = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Instantiates a new summary.
+     */
+    private Summary() {
+      // Created by the statistics
+    }
+
+    /**
+     * Adds a value, unless it is {@link ExecutionMetrics#UNKNOWN unknown}.
+     *
+     * @param value
+     *          the value
+     */
+    private void add(long value) {
+      if (value != ExecutionMetrics.UNKNOWN) {
+        count.increment();
+        total.add(value);
+        maximum.accumulate(value);
+      }
+    }
+
+    /**
+     * Gets the number of known values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * Gets the total of the known values.
+     *
+     * @return the total
+     */
+    public long getTotal() {
+      return total.sum();
+    }
+
+    /**
+     * Gets the maximum of the known values.
+     *
+     * @return the maximum, 0 if none
+     */
+    public long getMaximum() {
+      return maximum.get();
+    }
+
+    /**
+     * Gets the mean of the known values.
+     *
+     * @return the mean, 0 if none
+     */
+    public double getMean() {
+      long currentCount = count.sum();
+      return currentCount == 0 ? 0 : (double) total.sum() / currentCount;
+    }
+
+    @Override
+    public String toString() {
+      return "Summary [count=" + getCount() + ", mean=" + getMean() + ", maximum="
+          + getMaximum() + "]";
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.metrics;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.metrics.InMemoryMetricsRegistry.Statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A metrics registry that aggregates the execution metrics in memory, as the
+ * {@link InMemoryMetricsRegistry}, and exposes them as one {@link CommandLineMetricsMXBean} per
+ * executing method, named <code>io.github.scambon.cliwrapper4j:type=CommandLineMetrics,
+ * name=Interface.method</code> by default.
+ */
+public final class JmxMetricsRegistry implements IMetricsRegistry {
+
+  /** The default object name domain. */
+  public static final String DEFAULT_DOMAIN = "io.github.scambon.cliwrapper4j";
+
+  /** The number of nanoseconds per millisecond. */
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /** The in-memory registry. */
+  private final InMemoryMetricsRegistry inMemoryRegistry = new InMemoryMetricsRegistry();
+  /** The name 2 object name map, for the registered beans. */
+  private final ConcurrentMap<String, ObjectName> name2ObjectNameMap = new ConcurrentHashMap<>();
+  /** The MBean server. */
+  private final MBeanServer mbeanServer;
+  /** The object name domain. */
+  private final String domain;
+
+  /**
+   * Instantiates a new JMX metrics registry that uses the platform MBean server and the default
+   * domain.
+   */
+  public JmxMetricsRegistry() {
+    this(ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+  }
+
+  /**
+   * Instantiates a new JMX metrics registry.
+   *
+   * @param mbeanServer
+   *          the MBean server
+   * @param domain
+   *          the object name domain, e.g. to tell several registries apart
+   */
+  public JmxMetricsRegistry(MBeanServer mbeanServer, String domain) {
+    this.mbeanServer = mbeanServer;
+    this.domain = domain;
+  }
+
+  @Override
+  public void record(String name, ExecutionMetrics metrics) {
+    inMemoryRegistry.record(name, metrics);
+    if (!name2ObjectNameMap.containsKey(name)) {
+      name2ObjectNameMap.computeIfAbsent(name, this::register);
+    }
+  }
+
+  /**
+   * Gets the in-memory registry that holds the aggregated metrics.
+   *
+   * @return the in-memory registry
+   */
+  public InMemoryMetricsRegistry getInMemoryRegistry() {
+    return inMemoryRegistry;
+  }
+
+  /**
+   * Gets the name of the bean of an executing method.
+   *
+   * @param name
+   *          the name of the executing method, as <code>Interface.method</code>
+   * @return the object name, or <code>null</code> if it has not been executed yet
+   */
+  public ObjectName getObjectName(String name) {
+    return name2ObjectNameMap.get(name);
+  }
+
+  /**
+   * Unregisters all the beans.
+   */
+  public void unregisterAll() {
+    for (ObjectName objectName : name2ObjectNameMap.values()) {
+      try {
+        mbeanServer.unregisterMBean(objectName);
+      } catch (JMException jmException) {
+        // Already unregistered
+      }
+    }
+    name2ObjectNameMap.clear();
+  }
+
+  /**
+   * Registers the bean of an executing method.
+   *
+   * @param name
+   *          the name of the executing method
+   * @return the object name
+   */
+  private ObjectName register(String name) {
+    try {
+      ObjectName objectName = new ObjectName(
+          domain + ":type=CommandLineMetrics,name=" + ObjectName.quote(name));
+      Statistics statistics = inMemoryRegistry.getOrCreateStatistics(name);
+      mbeanServer.registerMBean(new StatisticsBean(statistics), objectName);
+      return objectName;
+    } catch (JMException jmException) {
+      throw new CommandLineException(
+          "Cannot register the metrics of '" + name + "'", jmException);
+    }
+  }
+
+  /**
+   * Converts nanoseconds to milliseconds.
+   *
+   * @param nanos
+   *          the nanoseconds
+   * @return the milliseconds
+   */
+  private static double toMillis(double nanos) {
+    return nanos / NANOS_PER_MILLI;
+  }
+
+  /**
+   * The bean that exposes the statistics of an executing method.
+   */
+  private static final class StatisticsBean implements CommandLineMetricsMXBean {
+
+    /** The statistics. */
+    private final Statistics statistics;
+
+    /**
+     * Instantiates a new statistics bean.
+     *
+     * @param statistics
+     *          the statistics
+     */
+    private StatisticsBean(Statistics statistics) {
+      this.statistics = statistics;
+    }
+
+    @Override
+    public long getExecutionCount() {
+      return statistics.getExecutionCount();
+    }
+
+    @Override
+    public double getMeanSpawnLatencyMillis() {
+      return toMillis(statistics.getSpawnLatency()
+          .getMean());
+    }
+
+    @Override
+    public double getMaxSpawnLatencyMillis() {
+      return toMillis(statistics.getSpawnLatency()
+          .getMaximum());
+    }
+
+    @Override
+    public double getMeanWallTimeMillis() {
+      return toMillis(statistics.getWallTime()
+          .getMean());
+    }
+
+    @Override
+    public double getMaxWallTimeMillis() {
+      return toMillis(statistics.getWallTime()
+          .getMaximum());
+    }
+
+    @Override
+    public double getMeanCpuTimeMillis() {
+      return toMillis(statistics.getCpuTime()
+          .getMean());
+    }
+
+    @Override
+    public long getTotalOutputBytes() {
+      return statistics.getOutputBytes()
+          .getTotal();
+    }
+
+    @Override
+    public long getTotalErrorBytes() {
+      return statistics.getErrorBytes()
+          .getTotal();
+    }
+
+    @Override
+    public double getMeanDecodeTimeMillis() {
+      return toMillis(statistics.getDecodeTime()
+          .getMean());
+    }
+
+    @Override
+    public double getMeanConversionTimeMillis() {
+      return toMillis(statistics.getConversionTime()
+          .getMean());
+    }
+
+    @Override
+    public Map<Integer, Long> getReturnCodeCounts() {
+      return statistics.getReturnCodeCounts();
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.example.IGitCommandLine;
+import io.github.scambon.cliwrapper4j.example.IImmutableGitCommandLine;
+import io.github.scambon.cliwrapper4j.example.IJavaCommandLine;
+import io.github.scambon.cliwrapper4j.example.IUnhandledMethodsCommandLine;
+import io.github.scambon.cliwrapper4j.example.Version;
+import io.github.scambon.cliwrapper4j.executors.MockExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.executors.MockExecutionHelper;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+public class BytecodeExecutableFactoryTest {
+
+  @Test
+  public void testGeneratedClass() {
+    BytecodeExecutableFactory<IJavaCommandLine> factory =
+        new BytecodeExecutableFactory<>(IJavaCommandLine.class);
+    assertTrue(factory.isGenerated());
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment(
+        "java", "-version");
+    IJavaCommandLine java = factory.create(environment);
+    assertFalse(Proxy.isProxyClass(java.getClass()));
+    Version version = java.version();
+    assertNotNull(version);
+    environment.checkElements("java", "-version");
+  }
+
+  @Test
+  public void testExecuteMethods() throws InterruptedException, ExecutionException {
+    IExecutableFactory<IGitCommandLine> factory =
+        new BytecodeExecutableFactory<>(IGitCommandLine.class);
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment("git");
+    int returnCode = factory.create(environment)
+        .commit()
+        .message("Some message")
+        .files(Paths.get("whatever.txt"))
+        .execute();
+    assertEquals(0, returnCode);
+    environment.checkElements("git", "commit", "-m \"Some message\"", "whatever.txt");
+    CompletableFuture<Integer> asyncReturnCode = factory.create(environment)
+        .commit()
+        .executeAsync();
+    assertEquals(0, asyncReturnCode.get());
+    PreparedCommand<Integer> commit = factory.create(environment)
+        .commit()
+        .message(null)
+        .prepare();
+    assertEquals(0, (int) commit.execute("Prepared message"));
+    environment.checkElements("git", "commit", "-m \"Prepared message\"");
+  }
+
+  @Test
+  public void testDefaultMethods() {
+    IExecutableFactory<IUnhandledMethodsCommandLine> factory =
+        new BytecodeExecutableFactory<>(IUnhandledMethodsCommandLine.class);
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment("java");
+    IUnhandledMethodsCommandLine unhandled = factory.create(environment);
+    assertEquals(42, unhandled.get42());
+    // As with proxies, the default method failure is wrapped
+    assertThrows(CommandLineException.class, () -> unhandled.throwException());
+  }
+
+  @Test
+  public void testImmutableWrappers() {
+    BytecodeExecutableFactory<IImmutableGitCommandLine> factory =
+        new BytecodeExecutableFactory<>(IImmutableGitCommandLine.class);
+    assertTrue(factory.isGenerated());
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment("git");
+    IImmutableGitCommandLine commit = factory.create(environment)
+        .commit();
+    IImmutableGitCommandLine message = commit.message("Some message");
+    assertNotSame(commit, message);
+    assertEquals(0, (int) message.execute());
+    environment.checkElements("git", "commit", "-m \"Some message\"");
+    assertEquals(0, (int) commit.execute());
+    environment.checkElements("git", "commit");
+  }
+
+  @Test
+  public void testPrimitiveParameters() {
+    IExecutableFactory<IPrimitivesCommandLine> factory =
+        new BytecodeExecutableFactory<>(IPrimitivesCommandLine.class);
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment("git");
+    int returnCode = factory.create(environment)
+        .values(3L, 0.5, true, 'c')
+        .run();
+    assertEquals(0, returnCode);
+    environment.checkElements("git", "-v 3 0.5 true c", "run");
+  }
+
+  @Executable("git")
+  interface IPrimitivesCommandLine extends IExecutable {
+
+    @Switch("-v")
+    IPrimitivesCommandLine values(long number, double ratio, boolean flag, char letter);
+
+    @Switch("run")
+    @ExecuteNow
+    int run();
+  }
+}
\ No newline at end of file
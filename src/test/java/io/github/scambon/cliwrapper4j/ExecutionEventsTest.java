@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.github.scambon.cliwrapper4j.converters.StringConverter;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.events.ExecutionEvent;
+import io.github.scambon.cliwrapper4j.events.ExecutionStage;
+import io.github.scambon.cliwrapper4j.events.ExecutionTrace;
+import io.github.scambon.cliwrapper4j.executors.IExecutor;
+import io.github.scambon.cliwrapper4j.preprocessors.EnvironmentVariablesPreProcessor;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+public class ExecutionEventsTest {
+
+  @Executable(value = {"sh", "-c"}, preProcessors = EnvironmentVariablesPreProcessor.class)
+  public interface IShCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    String run(@Converter(StringConverter.class) String script);
+
+    @Switch("")
+    @ExecuteLater(String.class)
+    IShCommandLine runLater(@Converter(StringConverter.class) String script);
+  }
+
+  @Executable("whatever")
+  public interface IRecordingCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(TraceRecordingExecutor.class)
+    String run(String argument, @Extra("key") String value);
+  }
+
+  private static final IExecutableFactory<IShCommandLine> SH_FACTORY =
+      new ReflectiveExecutableFactory<>(IShCommandLine.class);
+  private static final IExecutableFactory<IRecordingCommandLine> RECORDING_FACTORY =
+      new ReflectiveExecutableFactory<>(IRecordingCommandLine.class);
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteNow() {
+    List<ExecutionEvent> events = new CopyOnWriteArrayList<>();
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setExecutionListener(events::add);
+    SH_FACTORY.create(environment)
+        .run("echo hello");
+    List<ExecutionStage> expectedStages = asList(
+        ExecutionStage.SWITCH, ExecutionStage.FLATTEN, ExecutionStage.PRE_PROCESS,
+        ExecutionStage.PROCESS_START, ExecutionStage.FIRST_BYTE, ExecutionStage.PROCESS_EXIT,
+        ExecutionStage.POST_PROCESS);
+    assertEquals(expectedStages, events.stream()
+        .map(ExecutionEvent::getStage)
+        .collect(Collectors.toList()));
+    assertEquals(1, events.stream()
+        .mapToLong(ExecutionEvent::getCorrelationId)
+        .distinct()
+        .count());
+    assertEquals("sh", events.get(1)
+        .getName());
+    assertEquals("EnvironmentVariablesPreProcessor", events.get(2)
+        .getName());
+    assertEquals("IShCommandLine.run", events.get(6)
+        .getName());
+
+    long firstCorrelationId = events.get(0)
+        .getCorrelationId();
+    events.clear();
+    SH_FACTORY.create(environment)
+        .run("echo again");
+    assertNotEquals(firstCorrelationId, events.get(0)
+        .getCorrelationId());
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteAsync() throws InterruptedException, ExecutionException {
+    List<ExecutionEvent> events = new CopyOnWriteArrayList<>();
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setExecutionListener(events::add);
+    assertEquals("hello", SH_FACTORY.create(environment)
+        .runLater("echo hello")
+        .<String> executeAsync()
+        .get()
+        .trim());
+    Set<ExecutionStage> stages = events.stream()
+        .map(ExecutionEvent::getStage)
+        .collect(Collectors.toSet());
+    assertEquals(EnumSet.allOf(ExecutionStage.class), stages);
+    assertEquals(ExecutionStage.POST_PROCESS, events.get(events.size() - 1)
+        .getStage());
+  }
+
+  @Test
+  public void testExtras() {
+    RECORDING_FACTORY.create(new DefaultExecutionEnvironment())
+        .run("whatever", "value");
+    Map<String, Object> extras = TraceRecordingExecutor.lastExtraParameterName2ValueMap;
+    assertEquals(Collections.singletonMap("key", "value"), extras);
+    assertNull(ExecutionTrace.get(extras));
+
+    List<ExecutionEvent> events = new CopyOnWriteArrayList<>();
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setExecutionListener(events::add);
+    RECORDING_FACTORY.create(environment)
+        .run("whatever", "value");
+    ExecutionTrace trace = ExecutionTrace.get(
+        TraceRecordingExecutor.lastExtraParameterName2ValueMap);
+    assertEquals(events.get(0)
+        .getCorrelationId(), trace.getCorrelationId());
+  }
+
+  public static final class TraceRecordingExecutor implements IExecutor {
+
+    private static volatile Map<String, Object> lastExtraParameterName2ValueMap;
+
+    @Override
+    public Result execute(List<String> elements, IExecutionEnvironment environment,
+        Map<String, Object> extraParameterName2ValueMap) {
+      lastExtraParameterName2ValueMap = extraParameterName2ValueMap;
+      return new Result("", "", 0);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+public class FileResultTest {
+
+  @Test
+  public void testDecodeOutputInSegments() throws IOException {
+    StringBuilder builder = new StringBuilder();
+    for (int index = 0; index < 10_000; index++) {
+      builder.append("line ")
+          .append(index)
+          .append(" é€😀\n");
+    }
+    String output = builder.toString();
+    try (FileResult result = createFileResult(output)) {
+      CharSequence sequence = result.decodeOutput(7);
+      assertEquals(output.length(), sequence.length());
+      assertEquals(output, sequence.toString());
+      assertEquals(output.charAt(12_345), sequence.charAt(12_345));
+      assertEquals(output.substring(1_000, 2_000), sequence.subSequence(1_000, 2_000)
+          .toString());
+      assertEquals(output.substring(1_010, 1_020), sequence.subSequence(1_000, 2_000)
+          .subSequence(10, 20)
+          .toString());
+      assertThrows(IndexOutOfBoundsException.class, () -> sequence.charAt(output.length()));
+    }
+  }
+
+  @Test
+  public void testDecodeEmptyOutput() throws IOException {
+    try (FileResult result = createFileResult("")) {
+      assertEquals("", result.getOutputSequence()
+          .toString());
+    }
+  }
+
+  private static FileResult createFileResult(String output) throws IOException {
+    Path outputPath = Files.createTempFile("cliwrapper4j-test", ".out");
+    Files.write(outputPath, output.getBytes(StandardCharsets.UTF_8));
+    return new FileResult(outputPath, outputPath, StandardCharsets.UTF_8, 0,
+        singletonList(outputPath));
+  }
+}
\ No newline at end of file
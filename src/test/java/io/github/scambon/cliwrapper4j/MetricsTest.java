@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.converters.StringConverter;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.executors.IExecutor;
+import io.github.scambon.cliwrapper4j.metrics.ExecutionMetrics;
+import io.github.scambon.cliwrapper4j.metrics.InMemoryMetricsRegistry;
+import io.github.scambon.cliwrapper4j.metrics.InMemoryMetricsRegistry.Statistics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+public class MetricsTest {
+
+  @Executable({"sh", "-c"})
+  public interface IShCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @ReturnCode({0, 3})
+    String run(@Converter(StringConverter.class) String script);
+
+    @Switch("")
+    @ExecuteLater(String.class)
+    IShCommandLine runLater(@Converter(StringConverter.class) String script);
+  }
+
+  @Executable("whatever")
+  public interface IRecordingCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(ExtraRecordingExecutor.class)
+    String run(String argument, @Extra("key") String value);
+  }
+
+  private static final IExecutableFactory<IShCommandLine> SH_FACTORY =
+      new ReflectiveExecutableFactory<>(IShCommandLine.class);
+  private static final IExecutableFactory<IRecordingCommandLine> RECORDING_FACTORY =
+      new ReflectiveExecutableFactory<>(IRecordingCommandLine.class);
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteNow() {
+    InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setMetricsRegistry(registry);
+    SH_FACTORY.create(environment)
+        .run("echo hello");
+    SH_FACTORY.create(environment)
+        .run("echo failure >&2; exit 3");
+    assertThrows(CommandLineException.class, () -> SH_FACTORY.create(environment)
+        .run("exit 5"));
+    Statistics statistics = registry.getStatistics("IShCommandLine.run");
+    assertEquals(3, statistics.getExecutionCount());
+    assertEquals(3, statistics.getSpawnLatency()
+        .getCount());
+    assertEquals(3, statistics.getWallTime()
+        .getCount());
+    assertEquals(6, statistics.getOutputBytes()
+        .getTotal());
+    assertEquals(8, statistics.getErrorBytes()
+        .getTotal());
+    assertEquals(3, statistics.getConversionTime()
+        .getCount());
+    Map<Integer, Long> expectedReturnCodeCounts = new HashMap<>();
+    expectedReturnCodeCounts.put(0, 1L);
+    expectedReturnCodeCounts.put(3, 1L);
+    expectedReturnCodeCounts.put(5, 1L);
+    assertEquals(expectedReturnCodeCounts, statistics.getReturnCodeCounts());
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteAsync() throws InterruptedException, ExecutionException {
+    InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setMetricsRegistry(registry);
+    assertEquals("hello", SH_FACTORY.create(environment)
+        .runLater("echo hello")
+        .<String> executeAsync()
+        .get()
+        .trim());
+    Statistics statistics = registry.getStatistics("IShCommandLine.runLater");
+    assertEquals(1, statistics.getExecutionCount());
+    assertEquals(1, statistics.getWallTime()
+        .getCount());
+    assertEquals(Collections.singletonMap(0, 1L), statistics.getReturnCodeCounts());
+  }
+
+  @Test
+  public void testDisabledMetricsKeepExtras() {
+    RECORDING_FACTORY.create(new DefaultExecutionEnvironment())
+        .run("whatever", "value");
+    Map<String, Object> extras = ExtraRecordingExecutor.lastExtraParameterName2ValueMap;
+    assertNull(extras.get(ExecutionMetrics.EXTRA_PARAMETER_NAME));
+    assertEquals(Collections.singletonMap("key", "value"), extras);
+
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setMetricsRegistry(new InMemoryMetricsRegistry());
+    RECORDING_FACTORY.create(environment)
+        .run("whatever", "value");
+    extras = ExtraRecordingExecutor.lastExtraParameterName2ValueMap;
+    assertTrue(extras.get(ExecutionMetrics.EXTRA_PARAMETER_NAME) instanceof ExecutionMetrics);
+    assertSame("value", extras.get("key"));
+  }
+
+  public static final class ExtraRecordingExecutor implements IExecutor {
+
+    private static volatile Map<String, Object> lastExtraParameterName2ValueMap;
+
+    @Override
+    public Result execute(List<String> elements, IExecutionEnvironment environment,
+        Map<String, Object> extraParameterName2ValueMap) {
+      lastExtraParameterName2ValueMap = extraParameterName2ValueMap;
+      return new Result("", "", 0);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.example.ILinuxShellCommandLine;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class PipelineTest {
+
+  private static final IExecutableFactory<ILinuxShellCommandLine> FACTORY =
+      new ReflectiveExecutableFactory<>(ILinuxShellCommandLine.class);
+
+  @Test
+  public void testPipeline() throws InterruptedException, ExecutionException {
+    Pipeline<String> pipeline = shell("seq 1 100000")
+        .pipeTo(shell("grep 7"))
+        .pipeTo(shell("wc -l"));
+    assertEquals(3, pipeline.getStageCount());
+    assertEquals("40951", pipeline.execute()
+        .trim());
+    assertEquals("40951", pipeline.executeAsync()
+        .get()
+        .trim());
+  }
+
+  @Test
+  public void testLastCommandLineExitingEarly() {
+    Pipeline<String> pipeline = shell("seq 1 10000000")
+        .pipeTo(shell("grep 7"))
+        .pipeTo(shell("head -n 3"));
+    assertEquals("7\n17\n27\n", pipeline.execute());
+  }
+
+  @Test
+  public void testPipelineResult() {
+    ILinuxShellCommandLine last = FACTORY.create(new DefaultExecutionEnvironment())
+        .runForResult()
+        .script("cat; echo last >&2; exit 2");
+    Pipeline<Result> pipeline = shell("echo hello; echo first >&2; exit 1")
+        .pipeTo(last);
+    PipelineResult result = (PipelineResult) pipeline.execute();
+    assertEquals("hello\n", result.getOutput());
+    assertEquals("first\nlast\n", result.getError());
+    assertEquals(2, result.getReturnCode());
+    assertEquals(asList(1, 2), result.getReturnCodes());
+  }
+
+  @Test
+  public void testReturnCodeValidation() {
+    Pipeline<String> pipeline = shell("echo hello")
+        .pipeTo(shell("cat; exit 3"));
+    assertThrows(CommandLineException.class, pipeline::execute);
+  }
+
+  @Test
+  public void testTimeout() {
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setTimeout(Duration.ofMillis(200));
+    ILinuxShellCommandLine last = FACTORY.create(environment)
+        .run()
+        .script("cat");
+    Pipeline<String> pipeline = shell("sleep 30")
+        .pipeTo(last);
+    assertThrows(CommandLineTimeoutException.class, pipeline::execute);
+  }
+
+  private static ILinuxShellCommandLine shell(String script) {
+    return FACTORY.create(new DefaultExecutionEnvironment())
+        .run()
+        .script(script);
+  }
+}
\ No newline at end of file
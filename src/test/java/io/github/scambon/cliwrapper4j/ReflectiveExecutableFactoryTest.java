@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
 import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
 import io.github.scambon.cliwrapper4j.example.IGitCommandLine;
+import io.github.scambon.cliwrapper4j.example.IImmutableGitCommandLine;
 import io.github.scambon.cliwrapper4j.example.IJavaCommandLine;
 import io.github.scambon.cliwrapper4j.example.ILinuxInterractiveHelloCommandLine;
 import io.github.scambon.cliwrapper4j.example.ILinuxSystemVariableCommandLine;
@@ -48,6 +49,10 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -217,6 +222,120 @@ public class ReflectiveExecutableFactoryTest {
     environment.checkElements("git", "commit", "-m \"Some message\"", "whatever.txt");
   }
 
+  @Test
+  public void testExecuteAsyncMethod() throws InterruptedException, ExecutionException {
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment("git");
+    IGitCommandLine git = gitFactory.create(environment);
+    CompletableFuture<Integer> returnCode = git.commit()
+        .message("Some message")
+        .files(Paths.get("whatever.txt"))
+        .executeAsync();
+    assertEquals(0, returnCode.get());
+    environment.checkElements("git", "commit", "-m \"Some message\"", "whatever.txt");
+  }
+
+  @Test
+  public void testPreparedCommand() throws InterruptedException, ExecutionException {
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment("git");
+    IGitCommandLine git = gitFactory.create(environment);
+    PreparedCommand<Integer> commit = git.commit()
+        .message(null)
+        .files((Path[]) null)
+        .prepare();
+    assertEquals(2, commit.getSlotCount());
+    int returnCode = commit.execute("Some message", new Path[]{Paths.get("whatever.txt")});
+    assertEquals(0, returnCode);
+    environment.checkElements("git", "commit", "-m \"Some message\"", "whatever.txt");
+    CompletableFuture<Integer> asyncReturnCode = commit.executeAsync(
+        "Other", new Path[]{Paths.get("a.txt"), Paths.get("b.txt")});
+    assertEquals(0, asyncReturnCode.get());
+    environment.checkElements("git", "commit", "-m Other", "a.txt b.txt");
+    assertThrows(CommandLineException.class, () -> commit.execute("Missing files"));
+  }
+
+  @Test
+  public void testPreparedCommandWithoutExecutingMethod() {
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment("git");
+    IGitCommandLine git = gitFactory.create(environment);
+    assertThrows(CommandLineException.class, () -> git.message("Some message")
+        .prepare());
+  }
+
+  @Test
+  public void testImmutableWrappers() {
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment("git");
+    IExecutableFactory<IImmutableGitCommandLine> factory =
+        new ReflectiveExecutableFactory<>(IImmutableGitCommandLine.class);
+    IImmutableGitCommandLine commit = factory.create(environment)
+        .commit();
+    IImmutableGitCommandLine first = commit.message("First");
+    IImmutableGitCommandLine second = commit.message("Second");
+    assertEquals(0, (int) first.execute());
+    environment.checkElements("git", "commit", "-m First");
+    assertEquals(0, (int) second.execute());
+    environment.checkElements("git", "commit", "-m Second");
+    assertEquals(0, (int) commit.execute());
+    environment.checkElements("git", "commit");
+    // Executing twice does not add the switches again
+    assertEquals(0, (int) first.execute());
+    environment.checkElements("git", "commit", "-m First");
+  }
+
+  @Test
+  public void testImmutableWrappersSharedByThreads() throws InterruptedException {
+    Queue<List<String>> elementsQueue = new ConcurrentLinkedQueue<>();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment() {
+      @Override
+      public Result run(IExecutor executor, List<String> cliElements,
+          Map<String, Object> extraParameterName2ValueMap) {
+        elementsQueue.add(cliElements);
+        return new Result("", "", 0);
+      }
+    };
+    IImmutableGitCommandLine commit = new ReflectiveExecutableFactory<>(
+        IImmutableGitCommandLine.class)
+            .create(environment)
+            .commit();
+    int threadCount = 8;
+    Thread[] threads = new Thread[threadCount];
+    for (int index = 0; index < threadCount; index++) {
+      String message = "message" + index;
+      threads[index] = new Thread(() -> commit.message(message)
+          .execute());
+      threads[index].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(threadCount, elementsQueue.size());
+    for (List<String> elements : elementsQueue) {
+      assertEquals(3, elements.size());
+      assertThat(elements.get(2), containsString("-m message"));
+    }
+  }
+
+  @Test
+  public void testAsyncCommandWithConversion() throws InterruptedException, ExecutionException {
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment(
+        "java", "-version");
+    IJavaCommandLine java = javaFactory.create(environment);
+    Version version = java.versionAsync()
+        .get();
+    assertNotNull(version);
+    environment.checkElements("java", "-version");
+  }
+
+  @Test
+  public void testFailedAsyncCommand() {
+    MockExecutionEnvironment environment = MockExecutionHelper.createExecutionEnvironment(
+        "java", "-version", "failed");
+    IJavaCommandLine java = javaFactory.create(environment);
+    CompletableFuture<Version> version = java.versionAsync();
+    ExecutionException executionException = assertThrows(
+        ExecutionException.class, () -> version.get());
+    assertTrue(executionException.getCause() instanceof CommandLineException);
+  }
+
   @Test
   public void testExecutableWithActualProcessExecutor() {
     IJavaCommandLine java = javaFactory.create();
@@ -224,6 +343,15 @@ public class ReflectiveExecutableFactoryTest {
     assertNotNull(version);
   }
 
+  @Test
+  public void testAsyncExecutableWithActualProcessExecutor()
+      throws InterruptedException, ExecutionException {
+    IJavaCommandLine java = javaFactory.create();
+    Version version = java.versionAsync()
+        .get();
+    assertNotNull(version);
+  }
+
   @Test
   public void testInteractiveProcessExecutor() {
     Path path = Paths.get("src/test/resources/io/github/scambon/cliwrapper4j/examples");
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class StdinTest {
+
+  private static final long LARGE_INPUT_SIZE = 256L * 1024 * 1024;
+
+  @Executable("wc")
+  public interface IWcCommandLine extends IExecutable {
+
+    @Switch("-c")
+    @ExecuteNow
+    String countBytes(@Stdin Path input);
+
+    @Switch("-c")
+    @ExecuteNow
+    String countBytes(@Stdin InputStream input);
+
+    @Switch("-c")
+    @ExecuteNow
+    String countBytes(@Stdin ReadableByteChannel input);
+
+    @Switch("-c")
+    @ExecuteLater(String.class)
+    IWcCommandLine countBytesLater(@Stdin InputStream input);
+  }
+
+  private static final IExecutableFactory<IWcCommandLine> FACTORY =
+      new ReflectiveExecutableFactory<>(IWcCommandLine.class);
+
+  @Test
+  public void testPath() throws IOException {
+    Path input = Files.createTempFile("stdin", ".txt");
+    try {
+      Files.write(input, "Hello world\n".getBytes(StandardCharsets.UTF_8));
+      assertEquals("12", createWc().countBytes(input)
+          .trim());
+    } finally {
+      Files.delete(input);
+    }
+  }
+
+  @Test
+  public void testLargeInputStream() {
+    assertEquals(Long.toString(LARGE_INPUT_SIZE), createWc()
+        .countBytes(new ZeroInputStream(LARGE_INPUT_SIZE))
+        .trim());
+  }
+
+  @Test
+  public void testChannel() {
+    ReadableByteChannel channel = Channels.newChannel(
+        new ByteArrayInputStream(new byte[100_000]));
+    assertEquals("100000", createWc().countBytes(channel)
+        .trim());
+  }
+
+  @Test
+  public void testExecuteAsync() throws InterruptedException, ExecutionException {
+    IWcCommandLine wc = createWc()
+        .countBytesLater(new ZeroInputStream(LARGE_INPUT_SIZE));
+    assertEquals(Long.toString(LARGE_INPUT_SIZE), wc.<String> executeAsync()
+        .get()
+        .trim());
+  }
+
+  @Test
+  public void testInputFailure() {
+    InputStream failingInputStream = new InputStream() {
+
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Cannot read");
+      }
+    };
+    assertThrows(CommandLineException.class, () -> createWc().countBytes(failingInputStream));
+  }
+
+  private static IWcCommandLine createWc() {
+    return FACTORY.create(new DefaultExecutionEnvironment());
+  }
+
+  private static final class ZeroInputStream extends InputStream {
+
+    private long remaining;
+
+    private ZeroInputStream(long size) {
+      this.remaining = size;
+    }
+
+    @Override
+    public int read() {
+      if (remaining == 0) {
+        return -1;
+      }
+      remaining--;
+      return 0;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+      if (remaining == 0) {
+        return -1;
+      }
+      int readBytes = (int) Math.min(length, remaining);
+      remaining -= readBytes;
+      return readBytes;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class TimeoutTest {
+
+  @Executable("sleep")
+  public interface ISleepCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Timeout(value = 200, unit = TimeUnit.MILLISECONDS)
+    String sleepWithTimeout(String seconds);
+
+    @Switch("")
+    @ExecuteNow
+    String sleep(String seconds);
+
+    @Switch("")
+    @ExecuteLater(String.class)
+    @Timeout(value = 200, unit = TimeUnit.MILLISECONDS)
+    ISleepCommandLine sleepLater(String seconds);
+
+    @Switch("")
+    @ExecuteNow
+    @Timeout(30)
+    String sleepBefore(String seconds, @Extra(Deadline.EXTRA_PARAMETER_NAME) Deadline deadline);
+  }
+
+  private static final IExecutableFactory<ISleepCommandLine> FACTORY =
+      new ReflectiveExecutableFactory<>(ISleepCommandLine.class);
+
+  @Test
+  public void testTimeoutAnnotation() {
+    long start = System.nanoTime();
+    CommandLineTimeoutException timeoutException = assertThrows(
+        CommandLineTimeoutException.class, () -> createSleep(new DefaultExecutionEnvironment())
+            .sleepWithTimeout("30"));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    assertEquals(Duration.ofMillis(200), timeoutException.getTimeout());
+  }
+
+  @Test
+  public void testEnvironmentTimeout() {
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setTimeout(Duration.ofMillis(300));
+    CommandLineTimeoutException timeoutException = assertThrows(
+        CommandLineTimeoutException.class, () -> createSleep(environment).sleep("30"));
+    assertEquals(Duration.ofMillis(300), timeoutException.getTimeout());
+    assertEquals("", createSleep(environment).sleep("0"));
+  }
+
+  @Test
+  public void testNonPositiveEnvironmentTimeout() {
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    assertThrows(CommandLineException.class, () -> environment.setTimeout(Duration.ZERO));
+  }
+
+  @Test
+  public void testTimeoutAnnotationOverridesEnvironmentTimeout() {
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setTimeout(Duration.ofMinutes(1));
+    CommandLineTimeoutException timeoutException = assertThrows(
+        CommandLineTimeoutException.class, () -> createSleep(environment)
+            .sleepWithTimeout("30"));
+    assertEquals(Duration.ofMillis(200), timeoutException.getTimeout());
+  }
+
+  @Test
+  public void testExecuteAsync() {
+    ISleepCommandLine sleep = createSleep(new DefaultExecutionEnvironment())
+        .sleepLater("30");
+    ExecutionException executionException = assertThrows(ExecutionException.class,
+        () -> sleep.executeAsync()
+            .get());
+    assertTrue(executionException.getCause() instanceof CommandLineTimeoutException);
+  }
+
+  @Test
+  public void testExplicitDeadlineBeforeTimeout() {
+    Deadline deadline = Deadline.after(Duration.ofMillis(200));
+    CommandLineTimeoutException timeoutException = assertThrows(
+        CommandLineTimeoutException.class, () -> createSleep(new DefaultExecutionEnvironment())
+            .sleepBefore("30", deadline));
+    assertEquals(Duration.ofMillis(200), timeoutException.getTimeout());
+  }
+
+  @Test
+  public void testNonPositiveDeadline() {
+    assertThrows(CommandLineException.class, () -> Deadline.after(Duration.ofMillis(-1)));
+  }
+
+  private static ISleepCommandLine createSleep(DefaultExecutionEnvironment environment) {
+    return FACTORY.create(environment);
+  }
+}
\ No newline at end of file
@@ -20,6 +20,8 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import io.github.scambon.cliwrapper4j.Aggregator;
+import io.github.scambon.cliwrapper4j.Cacheable;
+import io.github.scambon.cliwrapper4j.Coalesced;
 import io.github.scambon.cliwrapper4j.CommandLineException;
 import io.github.scambon.cliwrapper4j.Converter;
 import io.github.scambon.cliwrapper4j.Executable;
@@ -29,9 +31,13 @@ import io.github.scambon.cliwrapper4j.Executor;
 import io.github.scambon.cliwrapper4j.Extra;
 import io.github.scambon.cliwrapper4j.Flattener;
 import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.Pipeline;
+import io.github.scambon.cliwrapper4j.PreparedCommand;
 import io.github.scambon.cliwrapper4j.Result;
 import io.github.scambon.cliwrapper4j.ReturnCode;
+import io.github.scambon.cliwrapper4j.Stdin;
 import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.Timeout;
 import io.github.scambon.cliwrapper4j.aggregators.IAggregator;
 import io.github.scambon.cliwrapper4j.converters.FilesWithSpaceSeparatorParameterConverter;
 import io.github.scambon.cliwrapper4j.converters.ResultConverter;
@@ -44,11 +50,14 @@ import io.github.scambon.cliwrapper4j.internal.check.Diagnostic;
 import io.github.scambon.cliwrapper4j.internal.check.ExecutableSubInterfaceChecker;
 import io.github.scambon.cliwrapper4j.internal.check.Issue;
 
+import java.io.InputStream;
 import java.lang.reflect.AnnotatedElement;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 
 import org.junit.jupiter.api.Test;
@@ -101,6 +110,21 @@ public class ExecutableSubInterfaceCheckerTest {
     public <O> O execute() {
       throw new UnsupportedOperationException();
     }
+
+    @Override
+    public <O> CompletableFuture<O> executeAsync() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <O> PreparedCommand<O> prepare() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <O> Pipeline<O> pipeTo(IExecutable next) {
+      throw new UnsupportedOperationException();
+    }
   }
 
   @Test
@@ -189,6 +213,161 @@ public class ExecutableSubInterfaceCheckerTest {
         annotatedElementAndDescriptionContains("whatever", "Multiple parameters"));
   }
 
+  @Executable("!")
+  public interface StdinAndExtraOnCommandMethod extends IExecutable {
+    @Switch("!")
+    @ExecuteNow
+    int whatever(@Stdin @Extra("extra") InputStream whatever);
+  }
+
+  @Test
+  public void testFailOnCreatingStdinAndExtraOnCommandMethod() {
+    List<Issue> issues = getIssues(StdinAndExtraOnCommandMethod.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "@Stdin and @Converter or @Extra"));
+  }
+
+  @Executable("!")
+  public interface StdinWithUnsupportedTypeOnCommandMethod extends IExecutable {
+    @Switch("!")
+    @ExecuteNow
+    int whatever(@Stdin String whatever);
+  }
+
+  @Test
+  public void testFailOnCreatingStdinWithUnsupportedTypeOnCommandMethod() {
+    List<Issue> issues = getIssues(StdinWithUnsupportedTypeOnCommandMethod.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "should be a Path"));
+  }
+
+  @Executable("!")
+  public interface StdinAndExtraWithSameNameOnCommandMethod extends IExecutable {
+    @Switch("!")
+    @ExecuteNow
+    int whatever(@Stdin Path whatever1, @Extra(Stdin.EXTRA_PARAMETER_NAME) String whatever2);
+  }
+
+  @Test
+  public void testFailOnCreatingStdinAndExtraWithSameNameOnCommandMethod() {
+    List<Issue> issues = getIssues(StdinAndExtraWithSameNameOnCommandMethod.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "Multiple parameters"));
+  }
+
+  @Executable("!")
+  public interface StdinOnNonExecutingMethod extends IExecutable {
+    @Switch("!")
+    StdinOnNonExecutingMethod whatever(@Stdin Path whatever);
+  }
+
+  @Test
+  public void testFailOnCreatingStdinOnNonExecutingMethod() {
+    List<Issue> issues = getIssues(StdinOnNonExecutingMethod.class);
+    assertOneIssueMatches(issues, annotatedElementAndDescriptionContains(
+        "whatever", "only supported by @ExecuteNow and @ExecuteLater methods"));
+  }
+
+  @Executable("!")
+  public interface ReservedExtraName extends IExecutable {
+    @Switch("!")
+    @ExecuteNow
+    int whatever(@Extra("trace") boolean whatever);
+  }
+
+  @Test
+  public void testFailOnCreatingReservedExtraName() {
+    List<Issue> issues = getIssues(ReservedExtraName.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "'trace' is reserved"));
+  }
+
+  @Executable("!")
+  public interface DeadlineExtraWithUnsupportedType extends IExecutable {
+    @Switch("!")
+    @ExecuteNow
+    int whatever(@Extra("deadline") long whatever);
+  }
+
+  @Test
+  public void testFailOnCreatingDeadlineExtraWithUnsupportedType() {
+    List<Issue> issues = getIssues(DeadlineExtraWithUnsupportedType.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "should be a Deadline"));
+  }
+
+  @Executable("!")
+  public interface CacheableWithoutExecuteMethod extends IExecutable {
+    @Switch("!")
+    @Cacheable(ttl = 1)
+    CacheableWithoutExecuteMethod whatever();
+  }
+
+  @Test
+  public void testFailOnCreatingCacheableWithoutExecuteMethod() {
+    List<Issue> issues = getIssues(CacheableWithoutExecuteMethod.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "@Cacheable"));
+  }
+
+  @Executable("!")
+  public interface CoalescedWithoutExecuteMethod extends IExecutable {
+    @Switch("!")
+    @Coalesced
+    CoalescedWithoutExecuteMethod whatever();
+  }
+
+  @Test
+  public void testFailOnCreatingCoalescedWithoutExecuteMethod() {
+    List<Issue> issues = getIssues(CoalescedWithoutExecuteMethod.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "@Coalesced"));
+  }
+
+  @Executable("!")
+  public interface CacheableWithNonPositiveTtlMethod extends IExecutable {
+    @Switch("!")
+    @ExecuteNow
+    @Cacheable(ttl = 0)
+    int whatever();
+  }
+
+  @Test
+  public void testFailOnCreatingCacheableWithNonPositiveTtlMethod() {
+    List<Issue> issues = getIssues(CacheableWithNonPositiveTtlMethod.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "ttl must be positive"));
+  }
+
+  @Executable("!")
+  public interface TimeoutWithoutExecuteMethod extends IExecutable {
+    @Switch("!")
+    @Timeout(1)
+    TimeoutWithoutExecuteMethod whatever();
+  }
+
+  @Test
+  public void testFailOnCreatingTimeoutWithoutExecuteMethod() {
+    List<Issue> issues = getIssues(TimeoutWithoutExecuteMethod.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "@Timeout"));
+  }
+
+  @Executable("!")
+  public interface TimeoutWithNonPositiveValueMethod extends IExecutable {
+    @Switch("!")
+    @ExecuteNow
+    @Timeout(-1)
+    int whatever();
+  }
+
+  @Test
+  public void testFailOnCreatingTimeoutWithNonPositiveValueMethod() {
+    List<Issue> issues = getIssues(TimeoutWithNonPositiveValueMethod.class);
+    assertOneIssueMatches(issues,
+        annotatedElementAndDescriptionContains("whatever", "value must be positive"));
+  }
+
   @Executable("!")
   public interface ParameterConversionFailureMethod extends IExecutable {
     @Switch("!")
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.scambon.cliwrapper4j.converters;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Result;
+
+import org.junit.jupiter.api.Test;
+
+public class AbstractRegexResultConverterTest {
+
+  private static final IConverter<String, String> IDENTITY =
+      new LambdaConverter<>(String.class, String.class, text -> text);
+
+  @Test
+  public void testSourceText() {
+    AbstractRegexResultConverter<String> converter =
+        new AbstractRegexResultConverter<String>(IDENTITY, "version (\\d+)") {
+          @Override
+          protected String extractSourceText(Result result) {
+            return result.getError();
+          }
+        };
+    Result result = new Result("version 1", "version 2", 0);
+    assertEquals("2", converter.convert(result, String.class, emptyMap()));
+  }
+
+  @Test
+  public void testSourceSequenceIsNotTurnedIntoString() {
+    CharSequence sequence = new UnprintableSequence("version 3");
+    AbstractRegexResultConverter<String> converter =
+        new AbstractRegexResultConverter<String>(IDENTITY, "version (\\d+)") {
+          @Override
+          protected CharSequence extractSourceSequence(Result result) {
+            return sequence;
+          }
+        };
+    Result result = new Result("version 1", "", 0);
+    assertEquals("3", converter.convert(result, String.class, emptyMap()));
+  }
+
+  @Test
+  public void testNoMatch() {
+    AbstractRegexResultConverter<String> converter =
+        new AbstractRegexResultConverter<String>(IDENTITY, "version (\\d+)") {
+          // Nothing
+        };
+    Result result = new Result("unknown", "", 0);
+    assertThrows(CommandLineException.class,
+        () -> converter.convert(result, String.class, emptyMap()));
+  }
+
+  private static final class UnprintableSequence implements CharSequence {
+
+    private final String text;
+
+    private UnprintableSequence(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public int length() {
+      return text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      return text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.converters;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CompositeConverterTest {
+
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void testDelegateIsResolvedOnce() {
+    CountingConverter stringConverter = new CountingConverter(String.class, "string");
+    CountingConverter integerConverter = new CountingConverter(Integer.class, 1);
+    CompositeConverter converter = new CompositeConverter(stringConverter, integerConverter);
+    for (int index = 0; index < 3; index++) {
+      assertEquals(1, converter.convert("in", Integer.class, emptyMap()));
+    }
+    assertEquals(1, stringConverter.canConvertCalls);
+    assertEquals(1, integerConverter.canConvertCalls);
+    assertEquals(0, stringConverter.convertCalls);
+    assertEquals(3, integerConverter.convertCalls);
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void testMissingDelegateIsCached() {
+    CountingConverter stringConverter = new CountingConverter(String.class, "string");
+    CompositeConverter converter = new CompositeConverter(stringConverter);
+    assertFalse(converter.canConvert(String.class, Long.class));
+    assertThrows(CommandLineException.class,
+        () -> converter.convert("in", Long.class, emptyMap()));
+    assertEquals(1, stringConverter.canConvertCalls);
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void testDelegatesAreResolvedPerClassPair() {
+    CountingConverter stringConverter = new CountingConverter(String.class, "string");
+    CompositeConverter converter = new CompositeConverter(stringConverter);
+    assertTrue(converter.canConvert(Object.class, String.class));
+    assertEquals("string", converter.convert("in", String.class, emptyMap()));
+    assertEquals("string", converter.convert(1, String.class, emptyMap()));
+    // Object, String and Integer input classes
+    assertEquals(3, stringConverter.canConvertCalls);
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void testNullConversionResult() {
+    CountingConverter nullConverter = new CountingConverter(String.class, null);
+    CompositeConverter converter = new CompositeConverter(nullConverter);
+    assertNull(converter.convert("in", String.class, emptyMap()));
+  }
+
+  private static final class CountingConverter implements IConverter<Object, Object> {
+
+    private final Class<?> supportedOutClass;
+    private final Object convertedValue;
+    private int canConvertCalls;
+    private int convertCalls;
+
+    private CountingConverter(Class<?> supportedOutClass, Object convertedValue) {
+      this.supportedOutClass = supportedOutClass;
+      this.convertedValue = convertedValue;
+    }
+
+    @Override
+    public boolean canConvert(Class<Object> inClass, Class<Object> outClass) {
+      canConvertCalls++;
+      return supportedOutClass.equals(outClass);
+    }
+
+    @Override
+    public Object convert(
+        Object in, Class<Object> outClass, Map<String, Object> extraParameterName2ValueMap) {
+      convertCalls++;
+      return convertedValue;
+    }
+  }
+}
\ No newline at end of file
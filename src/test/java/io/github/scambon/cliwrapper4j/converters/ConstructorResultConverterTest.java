@@ -72,4 +72,33 @@ public class ConstructorResultConverterTest {
     assertThrows(CommandLineException.class,
         () -> converter.convert(result, (Class) Constructible1Arg.class, emptyMap()));
   }
+
+  public static class ThrowingConstructible {
+    public ThrowingConstructible() {
+      throw new IllegalStateException("Cannot construct");
+    }
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void testThrowingConstructor() {
+    ConstructorResultConverter converter = new ConstructorResultConverter();
+    assertTrue(converter.canConvert(Result.class, (Class) ThrowingConstructible.class));
+    CommandLineException exception = assertThrows(CommandLineException.class,
+        () -> converter.convert(result, (Class) ThrowingConstructible.class, emptyMap()));
+    assertTrue(exception.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void testRepeatedConversions() {
+    ConstructorResultConverter converter = new ConstructorResultConverter(
+        new Class<?>[] {String.class}, result -> new Object[] {result.getOutput()});
+    for (int index = 0; index < 3; index++) {
+      Result indexedResult = new Result("output" + index, "", 0);
+      Constructible1Arg convertedResult = (Constructible1Arg) converter.convert(
+          indexedResult, (Class) Constructible1Arg.class, emptyMap());
+      assertEquals("output" + index, convertedResult.output);
+    }
+  }
 }
\ No newline at end of file
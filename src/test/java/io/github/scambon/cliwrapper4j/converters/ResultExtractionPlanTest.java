@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.converters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Result;
+
+import org.junit.jupiter.api.Test;
+
+public class ResultExtractionPlanTest {
+
+  private final Result result = new Result("output", "error", 1);
+
+  @Test
+  public void testApply() {
+    ResultExtractionPlan plan = ResultExtractionPlan.of(
+        String.class, int.class, String.class, Result.class, Void.class);
+    assertTrue(plan.isSupported());
+    Object[] values = plan.apply(result);
+    assertArrayEquals(new Object[] {"output", 1, "error", result, null}, values);
+  }
+
+  @Test
+  public void testSharedPlan() {
+    ResultExtractionPlan plan = ResultExtractionPlan.of(String.class, Integer.class);
+    assertSame(plan, ResultExtractionPlan.of(String.class, Integer.class));
+  }
+
+  @Test
+  public void testUnsupportedType() {
+    ResultExtractionPlan plan = ResultExtractionPlan.of(String.class, Double.class);
+    assertFalse(plan.isSupported());
+    assertThrows(CommandLineException.class, () -> plan.apply(result));
+  }
+}
\ No newline at end of file
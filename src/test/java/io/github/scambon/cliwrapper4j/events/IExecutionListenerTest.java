@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.events;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class IExecutionListenerTest {
+
+  @Test
+  public void testAndThen() {
+    List<String> calls = new ArrayList<>();
+    IExecutionListener first = event -> calls.add("first " + event.getName());
+    IExecutionListener second = event -> calls.add("second " + event.getName());
+    ExecutionTrace trace = ExecutionTrace.start(first.andThen(second));
+    trace.emit(ExecutionStage.FLATTEN, "java", 0, 1);
+    assertEquals(asList("first java", "second java"), calls);
+  }
+
+  @Test
+  public void testCorrelationIds() {
+    List<ExecutionEvent> events = new ArrayList<>();
+    ExecutionTrace firstTrace = ExecutionTrace.start(events::add);
+    ExecutionTrace secondTrace = ExecutionTrace.start(events::add);
+    firstTrace.emitSince(ExecutionStage.POST_PROCESS, "first", System.nanoTime());
+    secondTrace.emitSince(ExecutionStage.POST_PROCESS, "second", System.nanoTime());
+    assertEquals(firstTrace.getCorrelationId(), events.get(0)
+        .getCorrelationId());
+    assertEquals(secondTrace.getCorrelationId(), events.get(1)
+        .getCorrelationId());
+    assertNotEquals(firstTrace.getCorrelationId(), secondTrace.getCorrelationId());
+  }
+}
\ No newline at end of file
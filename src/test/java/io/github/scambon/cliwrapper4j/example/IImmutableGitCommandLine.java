@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.example;
+
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.ExecuteLater;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.Switch;
+
+@Executable(value = "git", immutable = true)
+public interface IImmutableGitCommandLine extends IExecutable {
+
+  @Switch("commit")
+  @ExecuteLater(int.class)
+  public IImmutableGitCommandLine commit();
+
+  @Switch("-m")
+  public IImmutableGitCommandLine message(String message);
+}
\ No newline at end of file
@@ -29,6 +29,7 @@ import io.github.scambon.cliwrapper4j.converters.FilesWithPathSeparatorParameter
 
 import java.io.File;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 @Executable("java")
 public interface IJavaCommandLine extends IExecutable {
@@ -76,6 +77,11 @@ public interface IJavaCommandLine extends IExecutable {
   @ReturnCode(1)
   @Converter(VersionResultConverter.class)
   Version versionWithCustomReturnCodeCheck();
+
+  @Switch("-version")
+  @ExecuteNow
+  @Converter(VersionResultConverter.class)
+  CompletableFuture<Version> versionAsync();
   
   @Switch("-version")
   @ExecuteNow
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.CommandLineTimeoutException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class AbstractInteractiveProcessExecutorTest {
+
+  private static final List<String> GREETER = asList(
+      "sh", "-c", "echo 'Name?'; read name; echo \"Hello $name\"; echo done >&2");
+
+  @Test
+  public void testDedicatedThreads() {
+    Result result = new GreeterExecutor(null)
+        .execute(GREETER, new DefaultExecutionEnvironment(), null);
+    assertTrue(result.getOutput()
+        .contains("Hello Llama"));
+    assertEquals("done\n", result.getError());
+  }
+
+  @Test
+  public void testBoundedExecutor() {
+    ExecutorService interactorExecutor = InteractorExecutors.newBoundedExecutor(2);
+    try {
+      for (int index = 0; index < 3; index++) {
+        Result result = new GreeterExecutor(interactorExecutor)
+            .execute(GREETER, new DefaultExecutionEnvironment(), null);
+        assertTrue(result.getOutput()
+            .contains("Hello Llama"));
+      }
+    } finally {
+      interactorExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void testVirtualThreads() {
+    assumeTrue(InteractorExecutors.isVirtualThreadSupported());
+    ExecutorService interactorExecutor = InteractorExecutors.newVirtualThreadExecutor();
+    try {
+      Result result = new GreeterExecutor(interactorExecutor)
+          .execute(GREETER, new DefaultExecutionEnvironment(), null);
+      assertTrue(result.getOutput()
+          .contains("Hello Llama"));
+    } finally {
+      interactorExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void testInteractorExceptionWithDedicatedThreads() {
+    testInteractorException(null);
+  }
+
+  @Test
+  public void testInteractorExceptionWithExecutor() {
+    ExecutorService interactorExecutor = InteractorExecutors.newBoundedExecutor(2);
+    try {
+      testInteractorException(interactorExecutor);
+    } finally {
+      interactorExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void testTimeout() {
+    List<String> slowGreeter = asList("sh", "-c", "echo 'Name?'; read name; sleep 30");
+    Map<String, Object> extras = Collections.singletonMap(
+        Deadline.EXTRA_PARAMETER_NAME, Deadline.after(Duration.ofMillis(200)));
+    GreeterExecutor executor = new GreeterExecutor(null);
+    assertThrows(CommandLineTimeoutException.class,
+        () -> executor.execute(slowGreeter, new DefaultExecutionEnvironment(), extras));
+    assertTrue(executor.output.toString()
+        .contains("Name?"));
+  }
+
+  private static void testInteractorException(Executor interactorExecutor) {
+    IExecutor executor = new FailingExecutor(interactorExecutor);
+    CommandLineException exception = assertThrows(CommandLineException.class,
+        () -> executor.execute(GREETER, new DefaultExecutionEnvironment(), null));
+    assertEquals("Unexpected prompt", exception.getMessage());
+  }
+
+  private static final class GreeterExecutor extends AbstractInteractiveProcessExecutor {
+
+    private final StringBuffer output = new StringBuffer();
+    private final StringBuffer error = new StringBuffer();
+
+    private GreeterExecutor(Executor interactorExecutor) {
+      super(interactorExecutor);
+    }
+
+    @Override
+    protected void onStandard(String outputChunk, PrintWriter writer,
+        Map<String, Object> extraParameterName2ValueMap) {
+      output.append(outputChunk);
+      if (outputChunk.contains("Name?")) {
+        writer.println("Llama");
+      }
+    }
+
+    @Override
+    protected void onError(String errorChunk, PrintWriter outputStream,
+        Map<String, Object> extraParameterName2ValueMap) {
+      error.append(errorChunk);
+    }
+
+    @Override
+    protected Result getResult(int returnCode, Map<String, Object> extraParameterName2ValueMap) {
+      return new Result(output.toString(), error.toString(), returnCode);
+    }
+  }
+
+  private static final class FailingExecutor extends AbstractInteractiveProcessExecutor {
+
+    private FailingExecutor(Executor interactorExecutor) {
+      super(interactorExecutor);
+    }
+
+    @Override
+    protected void onStandard(String outputChunk, PrintWriter writer,
+        Map<String, Object> extraParameterName2ValueMap) {
+      throw new CommandLineException("Unexpected prompt");
+    }
+
+    @Override
+    protected Result getResult(int returnCode, Map<String, Object> extraParameterName2ValueMap) {
+      return new Result("", "", returnCode);
+    }
+  }
+}
\ No newline at end of file
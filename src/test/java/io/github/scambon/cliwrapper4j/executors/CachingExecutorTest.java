@@ -0,0 +1,310 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.scambon.cliwrapper4j.Cacheable;
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.ExecuteNow;
+import io.github.scambon.cliwrapper4j.Executor;
+import io.github.scambon.cliwrapper4j.FileResult;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.ReflectiveExecutableFactory;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class CachingExecutorTest {
+
+  @Executable("counter")
+  public interface ICounterCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(StaticCountingExecutor.class)
+    @Cacheable(ttl = 1, unit = TimeUnit.MINUTES)
+    String count(String key);
+  }
+
+  @Test
+  public void testHitAndMiss() {
+    CountingExecutor delegate = new CountingExecutor();
+    ResultCache cache = new ResultCache();
+    IExecutor executor = delegate.cached(cache, Duration.ofMinutes(1));
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    assertEquals("1", executor.execute(asList("a"), environment, null)
+        .getOutput());
+    assertEquals("1", executor.execute(asList("a"), environment, null)
+        .getOutput());
+    environment.setEnvironmentVariable("VARIABLE", "value");
+    assertEquals("2", executor.execute(asList("a"), environment, null)
+        .getOutput());
+    assertEquals("3", executor.execute(asList("b"), environment, null)
+        .getOutput());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(3, cache.getSize());
+  }
+
+  @Test
+  public void testTimeToLive() throws InterruptedException {
+    CountingExecutor delegate = new CountingExecutor();
+    IExecutor executor = delegate.cached(new ResultCache(), Duration.ofMillis(50));
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    executor.execute(asList("a"), environment, null);
+    executor.execute(asList("a"), environment, null);
+    assertEquals(1, delegate.count.get());
+    Thread.sleep(100);
+    executor.execute(asList("a"), environment, null);
+    assertEquals(2, delegate.count.get());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() {
+    CountingExecutor delegate = new CountingExecutor();
+    ResultCache cache = new ResultCache(2);
+    IExecutor executor = delegate.cached(cache, Duration.ofMinutes(1));
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    executor.execute(asList("a"), environment, null);
+    executor.execute(asList("b"), environment, null);
+    executor.execute(asList("a"), environment, null);
+    executor.execute(asList("c"), environment, null);
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(2, cache.getSize());
+    executor.execute(asList("a"), environment, null);
+    assertEquals(3, delegate.count.get());
+    executor.execute(asList("b"), environment, null);
+    assertEquals(4, delegate.count.get());
+  }
+
+  @Test
+  public void testSingleFlight() throws InterruptedException, ExecutionException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger count = new AtomicInteger();
+    IExecutor delegate = (elements, environment, extraParameterName2ValueMap) -> {
+      count.incrementAndGet();
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      return new Result("shared", "", 0);
+    };
+    ResultCache cache = new ResultCache();
+    IExecutor executor = delegate.cached(cache, Duration.ofMinutes(1));
+    ExecutorService threadPool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Result>> futures = new ArrayList<>();
+      for (int index = 0; index < 8; index++) {
+        futures.add(threadPool.submit(() -> executor.execute(
+            asList("a"), new DefaultExecutionEnvironment(), null)));
+      }
+      started.await();
+      while (cache.getHitCount() + cache.getMissCount() < 8) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+      for (Future<Result> future : futures) {
+        assertEquals("shared", future.get()
+            .getOutput());
+      }
+    } finally {
+      threadPool.shutdown();
+    }
+    assertEquals(1, count.get());
+    assertEquals(7, cache.getHitCount());
+  }
+
+  @Test
+  public void testSingleUseResultNotShared() throws InterruptedException, ExecutionException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger count = new AtomicInteger();
+    IExecutor delegate = (elements, environment, extraParameterName2ValueMap) -> {
+      count.incrementAndGet();
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      return new FileResult(Paths.get("output"), Paths.get("error"), StandardCharsets.UTF_8, 0,
+          emptyList());
+    };
+    ResultCache cache = new ResultCache();
+    IExecutor executor = delegate.cached(cache, Duration.ofMinutes(1));
+    ExecutorService threadPool = Executors.newFixedThreadPool(2);
+    try {
+      Future<Result> first = threadPool.submit(() -> executor.execute(
+          asList("a"), new DefaultExecutionEnvironment(), null));
+      started.await();
+      Future<Result> second = threadPool.submit(() -> executor.execute(
+          asList("a"), new DefaultExecutionEnvironment(), null));
+      CompletableFuture<Result> third = executor.executeAsync(
+          asList("a"), new DefaultExecutionEnvironment(), null, ForkJoinPool.commonPool());
+      while (cache.getHitCount() < 2) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+      Set<Result> results = Collections.newSetFromMap(new IdentityHashMap<>());
+      results.add(first.get());
+      results.add(second.get());
+      results.add(third.get());
+      assertEquals(3, results.size());
+    } finally {
+      threadPool.shutdown();
+    }
+    assertEquals(3, count.get());
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void testFailureNotCached() {
+    AtomicInteger count = new AtomicInteger();
+    IExecutor delegate = (elements, environment, extraParameterName2ValueMap) -> {
+      if (count.incrementAndGet() == 1) {
+        throw new CommandLineException("Failure");
+      }
+      return new Result("", "", 0);
+    };
+    ResultCache cache = new ResultCache();
+    IExecutor executor = delegate.cached(cache, Duration.ofMinutes(1));
+    assertThrows(CommandLineException.class,
+        () -> executor.execute(asList("a"), new DefaultExecutionEnvironment(), null));
+    assertEquals(0, cache.getSize());
+    executor.execute(asList("a"), new DefaultExecutionEnvironment(), null);
+    assertEquals(2, count.get());
+  }
+
+  @Test
+  public void testErrorNotCached() {
+    AtomicInteger count = new AtomicInteger();
+    IExecutor delegate = (elements, environment, extraParameterName2ValueMap) -> {
+      if (count.incrementAndGet() == 1) {
+        throw new AssertionError("Failure");
+      }
+      return new Result("", "", 0);
+    };
+    ResultCache cache = new ResultCache();
+    IExecutor executor = delegate.cached(cache, Duration.ofMinutes(1));
+    assertThrows(AssertionError.class,
+        () -> executor.execute(asList("a"), new DefaultExecutionEnvironment(), null));
+    assertEquals(0, cache.getSize());
+    executor.execute(asList("a"), new DefaultExecutionEnvironment(), null);
+    assertEquals(2, count.get());
+  }
+
+  @Test
+  public void testStdinNotCached() {
+    CountingExecutor delegate = new CountingExecutor();
+    ResultCache cache = new ResultCache();
+    IExecutor executor = delegate.cached(cache, Duration.ofMinutes(1));
+    for (int index = 0; index < 2; index++) {
+      executor.execute(asList("a"), new DefaultExecutionEnvironment(),
+          singletonMap(Stdin.EXTRA_PARAMETER_NAME, new ByteArrayInputStream(new byte[0])));
+    }
+    assertEquals(2, delegate.count.get());
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void testExecuteAsync() throws InterruptedException, ExecutionException {
+    CountingExecutor delegate = new CountingExecutor();
+    IExecutor executor = delegate.cached(new ResultCache(), Duration.ofMinutes(1));
+    for (int index = 0; index < 2; index++) {
+      Result result = executor.executeAsync(asList("a"), new DefaultExecutionEnvironment(), null,
+          ForkJoinPool.commonPool())
+          .get();
+      assertEquals("1", result.getOutput());
+    }
+  }
+
+  @Test
+  public void testNonPositiveTimeToLive() {
+    assertThrows(CommandLineException.class,
+        () -> new CountingExecutor().cached(new ResultCache(), Duration.ZERO));
+  }
+
+  @Test
+  public void testCacheableMethod() {
+    ReflectiveExecutableFactory<ICounterCommandLine> factory =
+        new ReflectiveExecutableFactory<>(ICounterCommandLine.class);
+    String key = UUID.randomUUID()
+        .toString();
+    String first = factory.create()
+        .count(key);
+    assertEquals(first, factory.create()
+        .count(key));
+    assertEquals(first, factory.create()
+        .count(key));
+  }
+
+  private static class CountingExecutor implements IExecutor {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Result execute(List<String> elements,
+        IExecutionEnvironment environment, Map<String, Object> extraParameterName2ValueMap) {
+      return new Result(Integer.toString(count.incrementAndGet()), "", 0);
+    }
+  }
+
+  public static final class StaticCountingExecutor implements IExecutor {
+
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    @Override
+    public Result execute(List<String> elements,
+        IExecutionEnvironment environment, Map<String, Object> extraParameterName2ValueMap) {
+      return new Result(Integer.toString(COUNT.incrementAndGet()), "", 0);
+    }
+  }
+}
\ No newline at end of file
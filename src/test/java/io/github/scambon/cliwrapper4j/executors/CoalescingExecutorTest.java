@@ -0,0 +1,244 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.Coalesced;
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.ExecuteNow;
+import io.github.scambon.cliwrapper4j.Executor;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.ReflectiveExecutableFactory;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+public class CoalescingExecutorTest {
+
+  @Executable("echo")
+  public interface IEchoCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Coalesced
+    String echo(String text);
+  }
+
+  @Test
+  public void testBurstRunsOnce() throws InterruptedException, ExecutionException {
+    BlockingExecutor delegate = new BlockingExecutor();
+    CoalescingExecutor executor = new CoalescingExecutor(delegate);
+    ExecutorService threadPool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Result>> futures = new ArrayList<>();
+      futures.add(threadPool.submit(() -> executor.execute(
+          asList("burst"), new DefaultExecutionEnvironment(), null)));
+      delegate.started.await();
+      for (int index = 1; index < 8; index++) {
+        futures.add(threadPool.submit(() -> executor.execute(
+            asList("burst"), new DefaultExecutionEnvironment(), null)));
+      }
+      Thread.sleep(50);
+      delegate.release.countDown();
+      for (Future<Result> future : futures) {
+        assertEquals("1", future.get()
+            .getOutput());
+      }
+    } finally {
+      threadPool.shutdown();
+    }
+    assertEquals(1, delegate.count.get());
+    assertEquals(0, executor.getRunningExecutionCount());
+  }
+
+  @Test
+  public void testInstancesAreNotCoalesced() throws InterruptedException, ExecutionException {
+    BlockingExecutor delegate = new BlockingExecutor();
+    CompletableFuture<Result> first = delegate.coalesced()
+        .executeAsync(asList("instance"), new DefaultExecutionEnvironment(), null,
+            ForkJoinPool.commonPool());
+    CompletableFuture<Result> second = delegate.coalesced()
+        .executeAsync(asList("instance"), new DefaultExecutionEnvironment(), null,
+            ForkJoinPool.commonPool());
+    delegate.release.countDown();
+    first.get();
+    second.get();
+    assertEquals(2, delegate.count.get());
+  }
+
+  @Test
+  public void testSequentialExecutionsAreNotCached() {
+    BlockingExecutor delegate = new BlockingExecutor();
+    delegate.release.countDown();
+    IExecutor executor = delegate.coalesced();
+    executor.execute(asList("sequential"), new DefaultExecutionEnvironment(), null);
+    executor.execute(asList("sequential"), new DefaultExecutionEnvironment(), null);
+    assertEquals(2, delegate.count.get());
+  }
+
+  @Test
+  public void testDifferentEnvironmentsAreNotCoalesced()
+      throws InterruptedException, ExecutionException {
+    BlockingExecutor delegate = new BlockingExecutor();
+    IExecutor executor = delegate.coalesced();
+    DefaultExecutionEnvironment otherEnvironment = new DefaultExecutionEnvironment();
+    otherEnvironment.setEnvironmentVariable("VARIABLE", "value");
+    CompletableFuture<Result> first = executor.executeAsync(asList("environment"),
+        new DefaultExecutionEnvironment(), null, ForkJoinPool.commonPool());
+    CompletableFuture<Result> second = executor.executeAsync(asList("environment"),
+        otherEnvironment, null, ForkJoinPool.commonPool());
+    delegate.release.countDown();
+    first.get();
+    second.get();
+    assertEquals(2, delegate.count.get());
+  }
+
+  @Test
+  public void testFailureIsShared() throws InterruptedException, ExecutionException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger count = new AtomicInteger();
+    IExecutor delegate = (elements, environment, extraParameterName2ValueMap) -> {
+      count.incrementAndGet();
+      started.countDown();
+      await(release);
+      throw new CommandLineException("Failure");
+    };
+    IExecutor executor = delegate.coalesced();
+    ExecutorService threadPool = Executors.newFixedThreadPool(2);
+    try {
+      Future<Result> first = threadPool.submit(() -> executor.execute(
+          asList("failure"), new DefaultExecutionEnvironment(), null));
+      started.await();
+      Future<Result> second = threadPool.submit(() -> executor.execute(
+          asList("failure"), new DefaultExecutionEnvironment(), null));
+      Thread.sleep(50);
+      release.countDown();
+      ExecutionException firstException = assertThrows(ExecutionException.class, first::get);
+      assertTrue(firstException.getCause() instanceof CommandLineException);
+      ExecutionException secondException = assertThrows(ExecutionException.class, second::get);
+      assertTrue(secondException.getCause() instanceof CommandLineException);
+    } finally {
+      threadPool.shutdown();
+    }
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  public void testErrorIsShared() throws InterruptedException, ExecutionException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    IExecutor delegate = (elements, environment, extraParameterName2ValueMap) -> {
+      started.countDown();
+      await(release);
+      throw new AssertionError("Failure");
+    };
+    IExecutor executor = delegate.coalesced();
+    ExecutorService threadPool = Executors.newFixedThreadPool(2);
+    try {
+      Future<Result> first = threadPool.submit(() -> executor.execute(
+          asList("error"), new DefaultExecutionEnvironment(), null));
+      started.await();
+      Future<Result> second = threadPool.submit(() -> executor.execute(
+          asList("error"), new DefaultExecutionEnvironment(), null));
+      Thread.sleep(50);
+      release.countDown();
+      ExecutionException firstException = assertThrows(ExecutionException.class, first::get);
+      assertTrue(firstException.getCause() instanceof AssertionError);
+      ExecutionException secondException = assertThrows(ExecutionException.class,
+          () -> second.get(10, TimeUnit.SECONDS));
+      assertTrue(secondException.getCause() instanceof CommandLineException);
+    } finally {
+      threadPool.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecuteAsync() throws InterruptedException, ExecutionException {
+    BlockingExecutor delegate = new BlockingExecutor();
+    IExecutor executor = delegate.coalesced();
+    List<CompletableFuture<Result>> futures = new ArrayList<>();
+    futures.add(executor.executeAsync(asList("async"), new DefaultExecutionEnvironment(), null,
+        ForkJoinPool.commonPool()));
+    delegate.started.await();
+    for (int index = 1; index < 4; index++) {
+      futures.add(executor.executeAsync(asList("async"), new DefaultExecutionEnvironment(), null,
+          ForkJoinPool.commonPool()));
+    }
+    delegate.release.countDown();
+    for (CompletableFuture<Result> future : futures) {
+      assertEquals("1", future.get()
+          .getOutput());
+    }
+    assertEquals(1, delegate.count.get());
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testCoalescedMethod() {
+    IEchoCommandLine echo = new ReflectiveExecutableFactory<>(IEchoCommandLine.class).create();
+    assertEquals("text", echo.echo("text")
+        .trim());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static final class BlockingExecutor implements IExecutor {
+
+    private final AtomicInteger count = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public Result execute(List<String> elements,
+        IExecutionEnvironment environment, Map<String, Object> extraParameterName2ValueMap) {
+      String output = Integer.toString(count.incrementAndGet());
+      started.countDown();
+      await(release);
+      return new Result(output, "", 0);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.CommandLineTimeoutException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.ExecuteNow;
+import io.github.scambon.cliwrapper4j.Executor;
+import io.github.scambon.cliwrapper4j.FileResult;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.ReflectiveExecutableFactory;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.ReturnCode;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.converters.ResultConverter;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class FileRedirectingProcessExecutorTest {
+
+  private static final List<String> SEQ = asList("sh", "-c", "seq 1 100000; echo err >&2");
+
+  @Executable("echo")
+  public interface IEchoCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(TemporaryDirectoryExecutor.class)
+    String echo(String text);
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(TemporaryDirectoryExecutor.class)
+    Path echoToFile(String text);
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(TemporaryDirectoryExecutor.class)
+    @ReturnCode(1)
+    String echoWithUnexpectedReturnCode(String text);
+  }
+
+  @Test
+  public void testFileResult() {
+    Result result = new FileRedirectingProcessExecutor().execute(
+        SEQ, new DefaultExecutionEnvironment(), null);
+    try (FileResult fileResult = (FileResult) result) {
+      assertEquals(0, fileResult.getReturnCode());
+      assertEquals("err\n", fileResult.getError());
+      MappedByteBuffer mappedOutput = fileResult.mapOutput();
+      assertEquals('1', mappedOutput.get(0));
+      try (Stream<String> lines = fileResult.getOutputLines()) {
+        assertEquals(100000, lines.count());
+      }
+      Matcher matcher = Pattern.compile("\\n(9999\\d)\\n")
+          .matcher(fileResult.getOutputSequence());
+      assertTrue(matcher.find());
+      assertEquals("99990", matcher.group(1));
+      assertTrue(Files.exists(fileResult.getOutputPath()));
+    }
+    assertFalse(Files.exists(((FileResult) result).getOutputPath()));
+    assertFalse(Files.exists(((FileResult) result).getErrorPath()));
+  }
+
+  @Test
+  public void testStdinFile() throws IOException {
+    Path input = Files.createTempFile("stdin", ".txt");
+    try {
+      Files.write(input, "b\na\n".getBytes(StandardCharsets.UTF_8));
+      try (FileResult result = (FileResult) new FileRedirectingProcessExecutor().execute(
+          asList("sort"), new DefaultExecutionEnvironment(),
+          singletonMap(Stdin.EXTRA_PARAMETER_NAME, input))) {
+        assertEquals("a\nb\n", result.getOutput());
+      }
+    } finally {
+      Files.delete(input);
+    }
+  }
+
+  @Test
+  public void testSingleByteEncoding() {
+    DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    environment.setEncoding(StandardCharsets.ISO_8859_1);
+    try (FileResult result = (FileResult) new FileRedirectingProcessExecutor().execute(
+        SEQ, environment, null)) {
+      CharSequence output = result.getOutputSequence();
+      assertEquals("1\n2\n", output.subSequence(0, 4)
+          .toString());
+      assertEquals(result.getOutput()
+          .length(), output.length());
+    }
+  }
+
+  @Test
+  public void testOutputFile() throws IOException, InterruptedException, ExecutionException {
+    Path outputFile = Files.createTempFile("cliwrapper4j-test", ".out");
+    try {
+      Result result = new FileRedirectingProcessExecutor().executeAsync(
+          asList("echo", "hello"), new DefaultExecutionEnvironment(),
+          singletonMap(FileRedirectingProcessExecutor.OUTPUT_FILE_EXTRA_PARAMETER_NAME,
+              outputFile),
+          ForkJoinPool.commonPool())
+          .get();
+      try (FileResult fileResult = (FileResult) result) {
+        assertEquals(outputFile, convertToPath(result));
+      }
+      assertEquals("hello\n", new String(Files.readAllBytes(outputFile)));
+    } finally {
+      Files.delete(outputFile);
+    }
+  }
+
+  @Test
+  public void testTimeoutDeletesTemporaryFiles() throws IOException {
+    Path temporaryDirectory = Files.createTempDirectory("cliwrapper4j-test");
+    try {
+      IExecutor executor = new FileRedirectingProcessExecutor(temporaryDirectory);
+      ExecutionException executionException = assertThrows(ExecutionException.class,
+          () -> executor.executeAsync(asList("sleep", "30"), new DefaultExecutionEnvironment(),
+              singletonMap(Deadline.EXTRA_PARAMETER_NAME, Deadline.after(Duration.ofMillis(200))),
+              ForkJoinPool.commonPool())
+              .get());
+      assertTrue(executionException.getCause() instanceof CommandLineTimeoutException);
+      try (Stream<Path> temporaryFiles = Files.list(temporaryDirectory)) {
+        assertEquals(0, temporaryFiles.count());
+      }
+    } finally {
+      Files.delete(temporaryDirectory);
+    }
+  }
+
+  @Test
+  public void testConvertedResultDeletesTemporaryFiles() throws IOException {
+    ReflectiveExecutableFactory<IEchoCommandLine> factory =
+        new ReflectiveExecutableFactory<>(IEchoCommandLine.class);
+    assertEquals("hello", factory.create()
+        .echo("hello")
+        .trim());
+    assertEquals(0, countTemporaryFiles());
+    assertThrows(CommandLineException.class, () -> factory.create()
+        .echoWithUnexpectedReturnCode("hello"));
+    assertEquals(0, countTemporaryFiles());
+    Path output = factory.create()
+        .echoToFile("hello");
+    try {
+      assertEquals("hello", new String(Files.readAllBytes(output))
+          .trim());
+      assertEquals(1, countTemporaryFiles());
+    } finally {
+      Files.delete(output);
+    }
+  }
+
+  @Test
+  public void testNotAFileResult() {
+    Result result = new Result("", "", 0);
+    assertThrows(CommandLineException.class, () -> convertToPath(result));
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static Object convertToPath(Result result) {
+    return new ResultConverter().convert(result, (Class) Path.class, null);
+  }
+
+  private static long countTemporaryFiles() throws IOException {
+    try (Stream<Path> temporaryFiles = Files.list(TemporaryDirectoryExecutor.DIRECTORY)) {
+      return temporaryFiles.count();
+    }
+  }
+
+  public static final class TemporaryDirectoryExecutor extends FileRedirectingProcessExecutor {
+
+    private static final Path DIRECTORY = createDirectory();
+
+    public TemporaryDirectoryExecutor() {
+      super(DIRECTORY);
+    }
+
+    private static Path createDirectory() {
+      try {
+        Path directory = Files.createTempDirectory("cliwrapper4j-test");
+        directory.toFile()
+            .deleteOnExit();
+        return directory;
+      } catch (IOException ioException) {
+        throw new CommandLineException(ioException);
+      }
+    }
+  }
+}
\ No newline at end of file
@@ -28,6 +28,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class MockExecutionEnvironment extends DefaultExecutionEnvironment {
 
@@ -55,6 +56,14 @@ public class MockExecutionEnvironment extends DefaultExecutionEnvironment {
     return result;
   }
 
+  @Override
+  public CompletableFuture<Result> runAsync(
+      IExecutor executor, List<String> elements,
+      Map<String, Object> extraParameterName2ValueMap) {
+    return CompletableFuture.supplyAsync(
+        () -> run(executor, elements, extraParameterName2ValueMap), getAsyncExecutor());
+  }
+
   public void checkExecutor(Class<? extends IExecutor> expectedExecutorClazz) {
     assertTrue(expectedExecutorClazz.isInstance(actualExecutor));
   }
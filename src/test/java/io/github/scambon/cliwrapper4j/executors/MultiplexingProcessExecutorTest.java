@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.CommandLineTimeoutException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class MultiplexingProcessExecutorTest {
+
+  @Test
+  public void testExecute() {
+    Result result = new MultiplexingProcessExecutor().execute(
+        asList("sh", "-c", "echo out; echo err >&2; exit 3"), new DefaultExecutionEnvironment(),
+        null);
+    assertEquals("out\n", result.getOutput());
+    assertEquals("err\n", result.getError());
+    assertEquals(3, result.getReturnCode());
+  }
+
+  @Test
+  public void testDeadline() {
+    Deadline deadline = Deadline.after(Duration.ofMillis(200));
+    assertThrows(CommandLineTimeoutException.class,
+        () -> new MultiplexingProcessExecutor().execute(
+            asList("sleep", "30"), new DefaultExecutionEnvironment(),
+            singletonMap(Deadline.EXTRA_PARAMETER_NAME, deadline)));
+  }
+
+  @Test
+  public void testLargeOutput() {
+    Result result = new MultiplexingProcessExecutor().execute(
+        asList("seq", "1", "100000"), new DefaultExecutionEnvironment(), null);
+    String[] lines = result.getOutput()
+        .split("\n");
+    assertEquals(100000, lines.length);
+    assertEquals("100000", lines[lines.length - 1]);
+  }
+
+  @Test
+  public void testStdin() {
+    ByteArrayInputStream input = new ByteArrayInputStream(
+        "b\na\n".getBytes(StandardCharsets.UTF_8));
+    Result result = new MultiplexingProcessExecutor().execute(
+        asList("sort"), new DefaultExecutionEnvironment(),
+        singletonMap(Stdin.EXTRA_PARAMETER_NAME, input));
+    assertEquals("a\nb\n", result.getOutput());
+  }
+
+  @Test
+  public void testConcurrentExecutions() throws InterruptedException, ExecutionException {
+    try (StreamMultiplexer streamMultiplexer = new StreamMultiplexer(2, Duration.ofMillis(1))) {
+      IExecutor executor = new MultiplexingProcessExecutor(streamMultiplexer);
+      List<CompletableFuture<Result>> futures = new ArrayList<>();
+      for (int index = 0; index < 100; index++) {
+        futures.add(executor.executeAsync(
+            asList("sh", "-c", "echo " + index + "; exit " + (index % 7)),
+            new DefaultExecutionEnvironment(), null, ForkJoinPool.commonPool()));
+      }
+      for (int index = 0; index < futures.size(); index++) {
+        Result result = futures.get(index)
+            .get();
+        assertEquals(index + "\n", result.getOutput());
+        assertEquals(index % 7, result.getReturnCode());
+      }
+      assertEquals(0, streamMultiplexer.getRegisteredProcessCount());
+    }
+  }
+
+  @Test
+  public void testUnknownExecutable() {
+    IExecutor executor = new MultiplexingProcessExecutor();
+    assertThrows(CommandLineException.class, () -> executor.execute(
+        asList("there-is-no-such-executable"), new DefaultExecutionEnvironment(), null));
+  }
+
+  @Test
+  public void testClosed() {
+    StreamMultiplexer streamMultiplexer = new StreamMultiplexer(1, Duration.ofMillis(1));
+    streamMultiplexer.close();
+    IExecutor executor = new MultiplexingProcessExecutor(streamMultiplexer);
+    assertThrows(CommandLineException.class, () -> executor.execute(
+        asList("echo"), new DefaultExecutionEnvironment(), null));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.CommandLineTimeoutException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class PooledProcessExecutorTest {
+
+  private static final List<String> CAT = asList("cat");
+  private static final List<String> SILENT =
+      asList("sh", "-c", "while read line; do sleep 30; done");
+
+  @Test
+  public void testProcessReuse() {
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 2)) {
+      for (int index = 0; index < 5; index++) {
+        Result result = executor.execute(
+            CAT, new DefaultExecutionEnvironment(), request("hello " + index));
+        assertEquals("hello " + index, result.getOutput());
+        assertEquals(0, result.getReturnCode());
+      }
+      assertEquals(1, executor.getStartedProcessCount());
+      assertEquals(1, executor.getIdleProcessCount());
+    }
+  }
+
+  @Test
+  public void testPoolPerEnvironment() {
+    List<String> commandLine = asList("sh", "-c", "while read line; do echo \"$NAME $line\"; done");
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 2)) {
+      for (String name : asList("a", "b", "a")) {
+        DefaultExecutionEnvironment environment = new DefaultExecutionEnvironment();
+        environment.setEnvironmentVariable("NAME", name);
+        Result result = executor.execute(commandLine, environment, request("hello"));
+        assertEquals(name + " hello", result.getOutput());
+      }
+      assertEquals(2, executor.getStartedProcessCount());
+    }
+  }
+
+  @Test
+  public void testMaxProcesses() throws InterruptedException, ExecutionException {
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 2)) {
+      ExecutorService threadPool = Executors.newFixedThreadPool(6);
+      try {
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int index = 0; index < 24; index++) {
+          String request = "request " + index;
+          futures.add(threadPool.submit(
+              () -> executor.execute(CAT, new DefaultExecutionEnvironment(), request(request))));
+        }
+        for (int index = 0; index < futures.size(); index++) {
+          assertEquals("request " + index, futures.get(index)
+              .get()
+              .getOutput());
+        }
+      } finally {
+        threadPool.shutdown();
+        threadPool.awaitTermination(1, TimeUnit.SECONDS);
+      }
+      assertEquals(2, executor.getProcessCount());
+    }
+  }
+
+  @Test
+  public void testMaxRequestsPerProcess() {
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 1)) {
+      executor.setMaxRequestsPerProcess(2);
+      for (int index = 0; index < 5; index++) {
+        executor.execute(CAT, new DefaultExecutionEnvironment(), request("hello"));
+      }
+      assertEquals(3, executor.getStartedProcessCount());
+    }
+  }
+
+  @Test
+  public void testIdleEviction() throws InterruptedException {
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 1)) {
+      executor.setIdleTimeout(Duration.ofMillis(20));
+      executor.execute(CAT, new DefaultExecutionEnvironment(), request("hello"));
+      Thread.sleep(50);
+      executor.evictIdleProcesses();
+      assertEquals(0, executor.getProcessCount());
+      executor.execute(CAT, new DefaultExecutionEnvironment(), request("hello"));
+      assertEquals(2, executor.getStartedProcessCount());
+    }
+  }
+
+  @Test
+  public void testHealthCheck() {
+    List<String> commandLine = asList("sh", "-c", "read line; echo \"$line\"");
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 1)) {
+      executor.setHealthCheck("ping", Duration.ZERO);
+      Result result = executor.execute(
+          commandLine, new DefaultExecutionEnvironment(), request("hello"));
+      assertEquals("hello", result.getOutput());
+      result = executor.execute(commandLine, new DefaultExecutionEnvironment(), request("hello"));
+      assertEquals("hello", result.getOutput());
+      assertEquals(2, executor.getStartedProcessCount());
+    }
+  }
+
+  @Test
+  public void testSentinelFraming() {
+    List<String> commandLine = asList("sh", "-c", "while read line; do eval \"$line\"; done");
+    IRequestFraming framing = new SentinelRequestFraming("echo END", "END");
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(framing, 1)) {
+      Result result = executor.execute(
+          commandLine, new DefaultExecutionEnvironment(), request("echo a; echo b; echo c >&2"));
+      assertEquals("a\nb", result.getOutput());
+      result = executor.execute(
+          commandLine, new DefaultExecutionEnvironment(), request("echo d"));
+      assertEquals("d", result.getOutput());
+      assertEquals(1, executor.getStartedProcessCount());
+    }
+  }
+
+  @Test
+  public void testExitedProcess() {
+    List<String> commandLine = asList("sh", "-c", "read line; exit 1");
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 1)) {
+      assertThrows(CommandLineException.class, () -> executor.execute(
+          commandLine, new DefaultExecutionEnvironment(), request("hello")));
+      assertEquals(0, executor.getProcessCount());
+    }
+  }
+
+  @Test
+  public void testDeadline() {
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 1)) {
+      assertThrows(CommandLineTimeoutException.class, () -> executor.execute(
+          SILENT, new DefaultExecutionEnvironment(), request("hello", Duration.ofMillis(200))));
+      assertEquals(0, executor.getProcessCount());
+    }
+  }
+
+  @Test
+  public void testDeadlineWhileWaitingForProcess() throws InterruptedException {
+    try (PooledProcessExecutor executor = new PooledProcessExecutor(new LineRequestFraming(), 1)) {
+      ExecutorService threadPool = Executors.newSingleThreadExecutor();
+      try {
+        Future<Result> busyFuture = threadPool.submit(() -> executor.execute(
+            SILENT, new DefaultExecutionEnvironment(), request("busy", Duration.ofSeconds(2))));
+        while (executor.getProcessCount() == 0) {
+          Thread.sleep(10);
+        }
+        assertThrows(CommandLineTimeoutException.class, () -> executor.execute(
+            SILENT, new DefaultExecutionEnvironment(), request("hello", Duration.ofMillis(100))));
+        ExecutionException executionException =
+            assertThrows(ExecutionException.class, busyFuture::get);
+        assertTrue(executionException.getCause() instanceof CommandLineTimeoutException);
+      } finally {
+        threadPool.shutdown();
+      }
+    }
+  }
+
+  @Test
+  public void testMissingRequest() {
+    try (PooledProcessExecutor executor = new PooledProcessExecutor()) {
+      assertThrows(CommandLineException.class,
+          () -> executor.execute(CAT, new DefaultExecutionEnvironment(), null));
+    }
+  }
+
+  @Test
+  public void testClosed() {
+    PooledProcessExecutor executor = new PooledProcessExecutor();
+    executor.execute(CAT, new DefaultExecutionEnvironment(), request("hello"));
+    executor.close();
+    assertEquals(0, executor.getProcessCount());
+    assertThrows(CommandLineException.class,
+        () -> executor.execute(CAT, new DefaultExecutionEnvironment(), request("hello")));
+  }
+
+  private static Map<String, Object> request(String request) {
+    return singletonMap(PooledProcessExecutor.REQUEST_EXTRA_PARAMETER_NAME, request);
+  }
+
+  private static Map<String, Object> request(String request, Duration timeout) {
+    Map<String, Object> extraParameterName2ValueMap = new HashMap<>(request(request));
+    extraParameterName2ValueMap.put(Deadline.EXTRA_PARAMETER_NAME, Deadline.after(timeout));
+    return extraParameterName2ValueMap;
+  }
+}
\ No newline at end of file
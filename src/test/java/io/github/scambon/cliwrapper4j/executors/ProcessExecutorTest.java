@@ -21,11 +21,20 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.CommandLineTimeoutException;
+import io.github.scambon.cliwrapper4j.Deadline;
 import io.github.scambon.cliwrapper4j.Result;
 import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
 import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledOnOs;
@@ -56,6 +65,39 @@ public class ProcessExecutorTest {
         .isEmpty());
   }
 
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteCommandWithOutputsLargerThanPipeBuffer() {
+    int size = 1024 * 1024;
+    String script = "head -c " + size + " /dev/zero | tr '\\0' 'e' >&2; "
+        + "head -c " + size + " /dev/zero | tr '\\0' 'o'";
+    ProcessExecutor processExecutor = new ProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    Result result = processExecutor.execute(
+        Arrays.asList("sh", "-c", script), environment, null);
+    assertEquals(0, result.getReturnCode());
+    assertEquals(size, result.getOutput()
+        .length());
+    assertEquals(size, result.getError()
+        .length());
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteAsyncCommand() throws InterruptedException, ExecutionException {
+    ProcessExecutor processExecutor = new ProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    Result result = processExecutor.executeAsync(
+        Arrays.asList("sh", "-c", "echo whatever; echo failure >&2; exit 2"), environment, null,
+        ForkJoinPool.commonPool())
+        .get();
+    assertEquals(2, result.getReturnCode());
+    assertEquals("whatever", result.getOutput()
+        .trim());
+    assertEquals("failure", result.getError()
+        .trim());
+  }
+
   @Test
   public void testExecuteBrokenCommand() {
     ProcessExecutor processExecutor = new ProcessExecutor();
@@ -63,4 +105,96 @@ public class ProcessExecutorTest {
     assertThrows(CommandLineException.class,
         () -> processExecutor.execute(Arrays.asList("broken_command"), environment, null));
   }
+
+  @Test
+  public void testExecuteAsyncBrokenCommand() {
+    ProcessExecutor processExecutor = new ProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    ExecutionException executionException = assertThrows(ExecutionException.class,
+        () -> processExecutor.executeAsync(
+            Arrays.asList("broken_command"), environment, null, ForkJoinPool.commonPool())
+            .get());
+    assertTrue(executionException.getCause() instanceof CommandLineException);
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteWithinDeadline() {
+    ProcessExecutor processExecutor = new ProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    Result result = processExecutor.execute(Arrays.asList("echo", "whatever"), environment,
+        createDeadlineExtras(Duration.ofSeconds(30)));
+    assertEquals(0, result.getReturnCode());
+    assertEquals("whatever", result.getOutput()
+        .trim());
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteSilentCommandTimingOut() {
+    ProcessExecutor processExecutor = new ProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    List<String> elements = Arrays.asList("sh", "-c", "sleep 30; echo late");
+    long start = System.nanoTime();
+    CommandLineTimeoutException timeoutException = assertThrows(
+        CommandLineTimeoutException.class, () -> processExecutor.execute(
+            elements, environment, createDeadlineExtras(Duration.ofMillis(200))));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    assertEquals(elements, timeoutException.getElements());
+    assertEquals(Duration.ofMillis(200), timeoutException.getTimeout());
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteCommandIgnoringTermination() {
+    ProcessExecutor processExecutor = new ProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    String script = "trap '' TERM; while true; do sleep 0.1; done";
+    long start = System.nanoTime();
+    assertThrows(CommandLineTimeoutException.class,
+        () -> processExecutor.execute(Arrays.asList("sh", "-c", script), environment,
+            createDeadlineExtras(Duration.ofMillis(200))));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  public void testExecuteAsyncCommandTimingOut() {
+    ProcessExecutor processExecutor = new ProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    long start = System.nanoTime();
+    ExecutionException executionException = assertThrows(ExecutionException.class,
+        () -> processExecutor.executeAsync(Arrays.asList("sh", "-c", "sleep 30"), environment,
+            createDeadlineExtras(Duration.ofMillis(200)), ForkJoinPool.commonPool())
+            .get());
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    assertTrue(executionException.getCause() instanceof CommandLineTimeoutException);
+  }
+
+  @Test
+  public void testExecuteWithExpiredDeadline() throws InterruptedException {
+    ProcessExecutor processExecutor = new ProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    Map<String, Object> extras = createDeadlineExtras(Duration.ofMillis(1));
+    Thread.sleep(10);
+    assertThrows(CommandLineTimeoutException.class,
+        () -> processExecutor.execute(Arrays.asList("broken_command"), environment, extras));
+  }
+
+  @Test
+  public void testDefaultExecuteAsyncDoesNotBlockCompletionExecutor()
+      throws InterruptedException, ExecutionException {
+    IExecutor executor = (elements, environment, extras) -> new Result(
+        Thread.currentThread()
+            .getName(), "", 0);
+    Result result = executor.executeAsync(Arrays.asList("whatever"),
+        new DefaultExecutionEnvironment(), null, ForkJoinPool.commonPool())
+        .get();
+    assertTrue(result.getOutput()
+        .startsWith("CliWrapper4J stream drainer"));
+  }
+
+  private static Map<String, Object> createDeadlineExtras(Duration timeout) {
+    return Collections.singletonMap(Deadline.EXTRA_PARAMETER_NAME, Deadline.after(timeout));
+  }
 }
\ No newline at end of file
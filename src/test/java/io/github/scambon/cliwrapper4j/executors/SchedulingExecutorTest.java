@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.CommandLineTimeoutException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.executors.LaunchScheduler.Permit;
+import io.github.scambon.cliwrapper4j.executors.LaunchScheduler.QueueOrder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class SchedulingExecutorTest {
+
+  @Test
+  public void testGlobalLimit() throws InterruptedException, ExecutionException {
+    LaunchScheduler scheduler = new LaunchScheduler(2, QueueOrder.FIFO);
+    ConcurrencyTrackingExecutor delegate = new ConcurrencyTrackingExecutor();
+    IExecutor executor = delegate.scheduled(scheduler);
+    runConcurrently(executor, 8, "a", "b");
+    assertTrue(delegate.maxConcurrency.get() <= 2);
+    assertEquals(8, scheduler.getStartedCount());
+    assertEquals(0, scheduler.getRunningCount());
+    assertEquals(0, scheduler.getQueueDepth());
+  }
+
+  @Test
+  public void testExecutableLimit() throws InterruptedException, ExecutionException {
+    LaunchScheduler scheduler = new LaunchScheduler(4, QueueOrder.FIFO);
+    scheduler.setExecutableLimit("a", 1);
+    ConcurrencyTrackingExecutor delegate = new ConcurrencyTrackingExecutor();
+    IExecutor executor = delegate.scheduled(scheduler);
+    runConcurrently(executor, 8, "a");
+    assertEquals(1, delegate.maxConcurrency.get());
+  }
+
+  @Test
+  public void testQueueTimeout() {
+    LaunchScheduler scheduler = new LaunchScheduler(1, QueueOrder.FIFO);
+    scheduler.setQueueTimeout(Duration.ofMillis(50));
+    IExecutor executor = new SchedulingExecutor(
+        (elements, environment, extra) -> new Result("", "", 0), scheduler);
+    try (Permit permit = scheduler.acquire("a", 0)) {
+      assertThrows(CommandLineException.class,
+          () -> executor.execute(asList("a"), new DefaultExecutionEnvironment(), null));
+    }
+    assertEquals(1, scheduler.getTimedOutCount());
+    assertEquals(0, scheduler.getQueueDepth());
+  }
+
+  @Test
+  public void testDeadline() {
+    LaunchScheduler scheduler = new LaunchScheduler(1, QueueOrder.FIFO);
+    IExecutor executor = new SchedulingExecutor(
+        (elements, environment, extra) -> new Result("", "", 0), scheduler);
+    Map<String, Object> extraParameterName2ValueMap = Collections.singletonMap(
+        Deadline.EXTRA_PARAMETER_NAME, Deadline.after(Duration.ofMillis(50)));
+    try (Permit permit = scheduler.acquire("a", 0)) {
+      assertThrows(CommandLineTimeoutException.class, () -> executor.execute(
+          asList("a"), new DefaultExecutionEnvironment(), extraParameterName2ValueMap));
+      ExecutionException executionException = assertThrows(ExecutionException.class,
+          () -> executor.executeAsync(asList("a"), new DefaultExecutionEnvironment(),
+              extraParameterName2ValueMap, ForkJoinPool.commonPool())
+              .get());
+      assertTrue(executionException.getCause() instanceof CommandLineTimeoutException);
+    }
+    assertEquals(0, scheduler.getQueueDepth());
+    assertEquals(0, scheduler.getRunningCount());
+  }
+
+  @Test
+  public void testCancelReleasesGrantedPermit() {
+    LaunchScheduler scheduler = new LaunchScheduler(1, QueueOrder.FIFO);
+    CompletableFuture<Permit> grantedPermit = scheduler.acquireAsync("a", 0);
+    CompletableFuture<Permit> queuedPermit = scheduler.acquireAsync("a", 0);
+    LaunchScheduler.cancel(queuedPermit);
+    assertEquals(0, scheduler.getQueueDepth());
+    LaunchScheduler.cancel(grantedPermit);
+    assertEquals(0, scheduler.getRunningCount());
+  }
+
+  @Test
+  public void testPriorityOrder() throws InterruptedException, ExecutionException {
+    LaunchScheduler scheduler = new LaunchScheduler(1, QueueOrder.PRIORITY);
+    Permit permit = scheduler.acquire("a", 0);
+    CompletableFuture<Permit> lowPriorityPermit = scheduler.acquireAsync("a", 1);
+    CompletableFuture<Permit> highPriorityPermit = scheduler.acquireAsync("a", 5);
+    assertEquals(2, scheduler.getQueueDepth());
+    permit.close();
+    assertTrue(highPriorityPermit.isDone());
+    assertFalse(lowPriorityPermit.isDone());
+    highPriorityPermit.get()
+        .close();
+    assertTrue(lowPriorityPermit.isDone());
+    lowPriorityPermit.get()
+        .close();
+    assertEquals(0, scheduler.getRunningCount());
+  }
+
+  @Test
+  public void testExecuteAsync() throws InterruptedException, ExecutionException {
+    LaunchScheduler scheduler = new LaunchScheduler(1, QueueOrder.FIFO);
+    IExecutor executor = MockExecutionHelper.createExecutor("java", "-version")
+        .scheduled(scheduler);
+    Result result = executor.executeAsync(asList("java", "-version"),
+        new DefaultExecutionEnvironment(), null, ForkJoinPool.commonPool())
+        .get();
+    assertEquals(0, result.getReturnCode());
+    assertEquals(1, scheduler.getStartedCount());
+    assertEquals(0, scheduler.getRunningCount());
+  }
+
+  private static void runConcurrently(IExecutor executor, int count, String... executables)
+      throws InterruptedException, ExecutionException {
+    ExecutorService threadPool = Executors.newFixedThreadPool(count);
+    try {
+      List<Future<Result>> futures = new ArrayList<>();
+      for (int index = 0; index < count; index++) {
+        String executable = executables[index % executables.length];
+        futures.add(threadPool.submit(() -> executor.execute(
+            asList(executable), new DefaultExecutionEnvironment(), null)));
+      }
+      for (Future<Result> future : futures) {
+        future.get();
+      }
+    } finally {
+      threadPool.shutdown();
+      threadPool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+  }
+
+  private static final class ConcurrencyTrackingExecutor implements IExecutor {
+
+    private final AtomicInteger concurrency = new AtomicInteger();
+    private final AtomicInteger maxConcurrency = new AtomicInteger();
+
+    @Override
+    public Result execute(List<String> elements,
+        IExecutionEnvironment environment, Map<String, Object> extraParameterName2ValueMap) {
+      int currentConcurrency = concurrency.incrementAndGet();
+      maxConcurrency.accumulateAndGet(currentConcurrency, Math::max);
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+      } finally {
+        concurrency.decrementAndGet();
+      }
+      return new Result("", "", 0);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.CommandLineTimeoutException;
+import io.github.scambon.cliwrapper4j.Deadline;
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.ExecuteNow;
+import io.github.scambon.cliwrapper4j.Executor;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.ReflectiveExecutableFactory;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Stdin;
+import io.github.scambon.cliwrapper4j.StreamingResult;
+import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class StreamingProcessExecutorTest {
+
+  @Executable("seq")
+  public interface ISeqCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(StreamingProcessExecutor.class)
+    Stream<String> count(int last);
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(StreamingProcessExecutor.class)
+    int countReturnCode(int last);
+  }
+
+  @Executable({"sh", "-c", "echo line; exit 3"})
+  public interface IFailingCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(StreamingProcessExecutor.class)
+    Stream<String> run();
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(StreamingProcessExecutor.class)
+    void runVoid();
+  }
+
+  @Test
+  public void testStreamOutputLines() {
+    StreamingProcessExecutor executor = new StreamingProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    Result result = executor.execute(Arrays.asList("seq", "1", "100000"), environment, null);
+    assertTrue(result instanceof StreamingResult);
+    try (Stream<String> lines = result.getOutputLines()) {
+      assertEquals(100_000L, lines.count());
+    }
+    assertEquals(0, result.getReturnCode());
+    assertTrue(result.getError()
+        .isEmpty());
+  }
+
+  @Test
+  public void testDeadline() {
+    StreamingProcessExecutor executor = new StreamingProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    Deadline deadline = Deadline.after(Duration.ofMillis(200));
+    Result result = executor.execute(Arrays.asList("sh", "-c", "echo line; sleep 30"),
+        environment, Collections.singletonMap(Deadline.EXTRA_PARAMETER_NAME, deadline));
+    try (Stream<String> lines = result.getOutputLines()) {
+      Iterator<String> iterator = lines.iterator();
+      assertEquals("line", iterator.next());
+      assertThrows(CommandLineTimeoutException.class, iterator::hasNext);
+    }
+  }
+
+  @Test
+  public void testOutputCanOnlyBeConsumedOnce() {
+    StreamingProcessExecutor executor = new StreamingProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    Result result = executor.execute(Arrays.asList("seq", "1", "3"), environment, null);
+    assertEquals("1\n2\n3\n", result.getOutput());
+    assertThrows(CommandLineException.class, () -> result.getOutputLines());
+  }
+
+  @Test
+  public void testStdin() {
+    StreamingProcessExecutor executor = new StreamingProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    ByteArrayInputStream input = new ByteArrayInputStream(
+        "b\na\n".getBytes(StandardCharsets.UTF_8));
+    Result result = executor.execute(Arrays.asList("sort"), environment,
+        Collections.singletonMap(Stdin.EXTRA_PARAMETER_NAME, input));
+    assertEquals("a\nb\n", result.getOutput());
+    assertEquals(0, result.getReturnCode());
+  }
+
+  @Test
+  public void testStreamFromExecuteNowMethod() {
+    ISeqCommandLine seq = new ReflectiveExecutableFactory<>(ISeqCommandLine.class).create();
+    try (Stream<String> lines = seq.count(5)) {
+      assertEquals(15, lines.mapToInt(Integer::parseInt)
+          .sum());
+    }
+  }
+
+  @Test
+  public void testReturnCodeDiscardsLargeOutput() {
+    ISeqCommandLine seq = new ReflectiveExecutableFactory<>(ISeqCommandLine.class).create();
+    assertEquals(0, seq.countReturnCode(1_000_000));
+  }
+
+  @Test
+  public void testReturnCodeCheckedForVoidMethod() {
+    IFailingCommandLine failing = new ReflectiveExecutableFactory<>(IFailingCommandLine.class)
+        .create();
+    CommandLineException exception = assertThrows(
+        CommandLineException.class, () -> failing.runVoid());
+    assertThat(exception.getMessage(), containsString("'3'"));
+  }
+
+  @Test
+  public void testReturnCodeWhileStreaming() {
+    StreamingProcessExecutor executor = new StreamingProcessExecutor();
+    IExecutionEnvironment environment = new DefaultExecutionEnvironment();
+    Result result = executor.execute(Arrays.asList("seq", "1", "100000"), environment, null);
+    try (Stream<String> lines = result.getOutputLines()) {
+      lines.iterator()
+          .next();
+      assertThrows(CommandLineException.class, () -> result.getReturnCode());
+    }
+  }
+
+  @Test
+  public void testReturnCodeCheckedAtEndOfStream() {
+    IFailingCommandLine failing = new ReflectiveExecutableFactory<>(IFailingCommandLine.class)
+        .create();
+    try (Stream<String> lines = failing.run()) {
+      Iterator<String> iterator = lines.iterator();
+      assertEquals("line", iterator.next());
+      CommandLineException exception = assertThrows(
+          CommandLineException.class, () -> iterator.hasNext());
+      assertThat(exception.getMessage(), containsString("'3'"));
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.instantiators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+import io.github.scambon.cliwrapper4j.instantiators.CachingInstantiator.Scope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class CachingInstantiatorTest {
+
+  @Test
+  public void testSingletonUnderContention() throws InterruptedException, ExecutionException {
+    CountingInstantiator delegate = new CountingInstantiator();
+    CachingInstantiator instantiator = new CachingInstantiator(delegate);
+    List<Object> instances = createConcurrently(instantiator, 8);
+    for (Object instance : instances) {
+      assertSame(instances.get(0), instance);
+    }
+    assertEquals(1, delegate.creationCount.get());
+  }
+
+  @Test
+  public void testPerThreadScope() throws InterruptedException, ExecutionException {
+    CountingInstantiator delegate = new CountingInstantiator();
+    CachingInstantiator instantiator = new CachingInstantiator(delegate);
+    instantiator.setScope(StringBuilder.class, Scope.PER_THREAD);
+    assertSame(instantiator.create(StringBuilder.class), instantiator.create(StringBuilder.class));
+    List<Object> instances = createConcurrently(instantiator, 4);
+    assertEquals(4, instances.stream()
+        .distinct()
+        .count());
+    assertEquals(5, delegate.creationCount.get());
+  }
+
+  @Test
+  public void testPerExecutionScope() {
+    CachingInstantiator instantiator = new CachingInstantiator(
+        new ReflectiveInstantiator(), Scope.PER_EXECUTION);
+    assertEquals(Scope.PER_EXECUTION, instantiator.getScope(StringBuilder.class));
+    StringBuilder instance = instantiator.create(StringBuilder.class);
+    assertNotSame(instance, instantiator.create(StringBuilder.class));
+  }
+
+  @Test
+  public void testSetScopeAfterCreation() {
+    CachingInstantiator instantiator = new CachingInstantiator(new ReflectiveInstantiator());
+    instantiator.setScope(StringBuilder.class, Scope.PER_THREAD);
+    instantiator.setScope(StringBuilder.class, Scope.PER_EXECUTION);
+    instantiator.create(StringBuilder.class);
+    assertThrows(CommandLineException.class,
+        () -> instantiator.setScope(StringBuilder.class, Scope.SINGLETON));
+    assertEquals(Scope.PER_EXECUTION, instantiator.getScope(StringBuilder.class));
+  }
+
+  @Test
+  public void testGetScopeDoesNotFreeze() {
+    CachingInstantiator instantiator = new CachingInstantiator(new ReflectiveInstantiator());
+    assertEquals(Scope.SINGLETON, instantiator.getScope(StringBuilder.class));
+    instantiator.setScope(StringBuilder.class, Scope.PER_EXECUTION);
+    assertEquals(Scope.PER_EXECUTION, instantiator.freezeScope(StringBuilder.class));
+    assertThrows(CommandLineException.class,
+        () -> instantiator.setScope(StringBuilder.class, Scope.SINGLETON));
+  }
+
+  @Test
+  public void testCanCreate() {
+    CachingInstantiator instantiator = new CachingInstantiator(new ReflectiveInstantiator());
+    assertTrue(instantiator.canCreate(StringBuilder.class));
+    assertFalse(instantiator.canCreate(Integer.class));
+  }
+
+  private static List<Object> createConcurrently(IInstantiator instantiator, int threadCount)
+      throws InterruptedException, ExecutionException {
+    ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+    CountDownLatch startLatch = new CountDownLatch(threadCount);
+    try {
+      List<Future<Object>> futures = new ArrayList<>();
+      for (int index = 0; index < threadCount; index++) {
+        futures.add(threadPool.submit(() -> {
+          startLatch.countDown();
+          startLatch.await();
+          return instantiator.create(StringBuilder.class);
+        }));
+      }
+      List<Object> instances = new ArrayList<>();
+      for (Future<Object> future : futures) {
+        instances.add(future.get());
+      }
+      return instances;
+    } finally {
+      threadPool.shutdown();
+      threadPool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+  }
+
+  private static final class CountingInstantiator extends ReflectiveInstantiator {
+
+    private final AtomicInteger creationCount = new AtomicInteger();
+
+    @Override
+    public <T> T create(Class<T> clazz) {
+      creationCount.incrementAndGet();
+      return super.create(clazz);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.instantiators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.scambon.cliwrapper4j.CommandLineException;
+
+import org.junit.jupiter.api.Test;
+
+public class ReflectiveInstantiatorTest {
+
+  @Test
+  public void testCreate() {
+    ReflectiveInstantiator instantiator = new ReflectiveInstantiator();
+    assertTrue(instantiator.canCreate(StringBuilder.class));
+    StringBuilder instance = instantiator.create(StringBuilder.class);
+    assertNotSame(instance, instantiator.create(StringBuilder.class));
+  }
+
+  @Test
+  public void testNoPublicNoArgConstructor() {
+    ReflectiveInstantiator instantiator = new ReflectiveInstantiator();
+    assertFalse(instantiator.canCreate(Integer.class));
+    assertFalse(instantiator.canCreate(Runnable.class));
+    assertThrows(CommandLineException.class, () -> instantiator.create(Integer.class));
+  }
+
+  @Test
+  public void testConstructorFailure() {
+    ReflectiveInstantiator instantiator = new ReflectiveInstantiator();
+    CommandLineException exception = assertThrows(
+        CommandLineException.class, () -> instantiator.create(FailingClass.class));
+    assertEquals(IllegalStateException.class, exception.getCause()
+        .getClass());
+  }
+
+  public static final class FailingClass {
+
+    public FailingClass() {
+      throw new IllegalStateException("Failure");
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.github.scambon.cliwrapper4j.BytecodeExecutableFactory;
+import io.github.scambon.cliwrapper4j.Coalesced;
+import io.github.scambon.cliwrapper4j.Executable;
+import io.github.scambon.cliwrapper4j.ExecuteNow;
+import io.github.scambon.cliwrapper4j.Executor;
+import io.github.scambon.cliwrapper4j.IExecutable;
+import io.github.scambon.cliwrapper4j.IExecutableFactory;
+import io.github.scambon.cliwrapper4j.ReflectiveExecutableFactory;
+import io.github.scambon.cliwrapper4j.Result;
+import io.github.scambon.cliwrapper4j.Switch;
+import io.github.scambon.cliwrapper4j.environment.DefaultExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.environment.IExecutionEnvironment;
+import io.github.scambon.cliwrapper4j.example.IGitCommandLine;
+import io.github.scambon.cliwrapper4j.example.IJavaCommandLine;
+import io.github.scambon.cliwrapper4j.executors.IExecutor;
+import io.github.scambon.cliwrapper4j.instantiators.CachingInstantiator;
+import io.github.scambon.cliwrapper4j.instantiators.CachingInstantiator.Scope;
+import io.github.scambon.cliwrapper4j.instantiators.ReflectiveInstantiator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class ExecutableDefinitionTest {
+
+  @Executable("counter")
+  public interface ICounterCommandLine extends IExecutable {
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(InstanceCountingExecutor.class)
+    String count();
+
+    @Switch("")
+    @ExecuteNow
+    @Executor(GatedExecutor.class)
+    @Coalesced
+    String gated();
+  }
+
+  @Test
+  public void testDefaultDefinitionsAreShared() {
+    CachingInstantiator instantiator = CachingInstantiator.getDefault();
+    ExecutableDefinition definition =
+        ExecutableDefinition.get(IJavaCommandLine.class, instantiator);
+    ExecutableDefinition otherDefinition =
+        ExecutableDefinition.get(IJavaCommandLine.class, instantiator);
+    assertSame(definition, otherDefinition);
+    assertSame(definition.getGeneratedClass(IJavaCommandLine.class),
+        otherDefinition.getGeneratedClass(IJavaCommandLine.class));
+  }
+
+  @Test
+  public void testOtherInstantiatorDefinitionsAreNotShared() {
+    CachingInstantiator instantiator = new CachingInstantiator(new ReflectiveInstantiator());
+    assertNotSame(ExecutableDefinition.get(IJavaCommandLine.class, instantiator),
+        ExecutableDefinition.get(IJavaCommandLine.class, instantiator));
+  }
+
+  @Test
+  public void testExecutorCreatedOncePerMethod() {
+    ICounterCommandLine counter = new ReflectiveExecutableFactory<>(ICounterCommandLine.class,
+        new CachingInstantiator(new ReflectiveInstantiator()))
+        .create();
+    int instanceCount = InstanceCountingExecutor.INSTANCE_COUNT.get();
+    String first = counter.count();
+    assertEquals(first, counter.count());
+    assertEquals(instanceCount, InstanceCountingExecutor.INSTANCE_COUNT.get());
+  }
+
+  @Test
+  public void testPerExecutionExecutor() {
+    ICounterCommandLine counter = new ReflectiveExecutableFactory<>(ICounterCommandLine.class,
+        new CachingInstantiator(new ReflectiveInstantiator(), Scope.PER_EXECUTION))
+        .create();
+    int instanceCount = InstanceCountingExecutor.INSTANCE_COUNT.get();
+    counter.count();
+    counter.count();
+    assertEquals(instanceCount + 2, InstanceCountingExecutor.INSTANCE_COUNT.get());
+  }
+
+  @Test
+  public void testPerExecutionExecutorIsCoalesced()
+      throws InterruptedException, ExecutionException {
+    IExecutableFactory<ICounterCommandLine> factory = new ReflectiveExecutableFactory<>(
+        ICounterCommandLine.class,
+        new CachingInstantiator(new ReflectiveInstantiator(), Scope.PER_EXECUTION));
+    ExecutorService threadPool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      futures.add(threadPool.submit(() -> factory.create()
+          .gated()));
+      GatedExecutor.STARTED.await();
+      for (int index = 1; index < 4; index++) {
+        futures.add(threadPool.submit(() -> factory.create()
+            .gated()));
+      }
+      Thread.sleep(50);
+      GatedExecutor.RELEASE.countDown();
+      for (Future<String> future : futures) {
+        assertEquals("gated", future.get());
+      }
+    } finally {
+      threadPool.shutdown();
+    }
+    assertEquals(1, GatedExecutor.EXECUTION_COUNT.get());
+  }
+
+  @Test
+  public void testConcurrentFactories() throws InterruptedException, ExecutionException {
+    int threadCount = 8;
+    ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+    CountDownLatch startLatch = new CountDownLatch(threadCount);
+    try {
+      List<Future<IGitCommandLine>> futures = new ArrayList<>();
+      for (int index = 0; index < threadCount; index++) {
+        boolean isBytecode = index % 2 == 0;
+        futures.add(threadPool.submit(() -> {
+          startLatch.countDown();
+          startLatch.await();
+          IExecutableFactory<IGitCommandLine> factory = isBytecode
+              ? new BytecodeExecutableFactory<>(IGitCommandLine.class)
+              : new ReflectiveExecutableFactory<>(IGitCommandLine.class);
+          return factory.create(new DefaultExecutionEnvironment());
+        }));
+      }
+      for (Future<IGitCommandLine> future : futures) {
+        assertNotNull(future.get());
+      }
+    } finally {
+      threadPool.shutdown();
+      threadPool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+  }
+
+  public static final class InstanceCountingExecutor implements IExecutor {
+
+    private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger();
+
+    private final String instance = Integer.toString(INSTANCE_COUNT.incrementAndGet());
+
+    @Override
+    public Result execute(List<String> elements,
+        IExecutionEnvironment environment, Map<String, Object> extraParameterName2ValueMap) {
+      return new Result(instance, "", 0);
+    }
+  }
+
+  public static final class GatedExecutor implements IExecutor {
+
+    private static final AtomicInteger EXECUTION_COUNT = new AtomicInteger();
+    private static final CountDownLatch STARTED = new CountDownLatch(1);
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+    @Override
+    public Result execute(List<String> elements,
+        IExecutionEnvironment environment, Map<String, Object> extraParameterName2ValueMap) {
+      EXECUTION_COUNT.incrementAndGet();
+      STARTED.countDown();
+      try {
+        RELEASE.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread()
+            .interrupt();
+      }
+      return new Result("gated", "", 0);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.internal.executors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@EnabledOnOs(OS.LINUX)
+public class ProcessUtilsTest {
+
+  @Test
+  public void testStartPipeline() throws IOException, InterruptedException {
+    List<Process> processes = ProcessUtils.startPipeline(
+        createProcessBuilders(), StreamDrainingUtils.getDefaultDrainingExecutor());
+    checkPipeline(processes);
+  }
+
+  @Test
+  public void testStartPumpedPipeline() throws IOException, InterruptedException {
+    List<Process> processes = ProcessUtils.startPumpedPipeline(
+        createProcessBuilders(), StreamDrainingUtils.getDefaultDrainingExecutor());
+    checkPipeline(processes);
+  }
+
+  private static List<ProcessBuilder> createProcessBuilders() {
+    return asList(
+        new ProcessBuilder("seq", "1", "100000"),
+        new ProcessBuilder("grep", "7"),
+        new ProcessBuilder("wc", "-l"));
+  }
+
+  private static void checkPipeline(List<Process> processes)
+      throws IOException, InterruptedException {
+    assertEquals(3, processes.size());
+    processes.get(0)
+        .getOutputStream()
+        .close();
+    String output = StreamDrainingUtils.readInputStream(
+        processes.get(2).getInputStream(), StandardCharsets.UTF_8);
+    assertEquals("40951", output.trim());
+    for (Process process : processes) {
+      assertEquals(0, process.waitFor());
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.github.scambon.cliwrapper4j.metrics.InMemoryMetricsRegistry.Statistics;
+import io.github.scambon.cliwrapper4j.metrics.InMemoryMetricsRegistry.Summary;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class InMemoryMetricsRegistryTest {
+
+  @Test
+  public void testStatistics() {
+    InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+    registry.record("ILs.list", createMetrics(100, 0));
+    registry.record("ILs.list", createMetrics(300, 2));
+    registry.record("ILs.list", new ExecutionMetrics());
+    Statistics statistics = registry.getStatistics("ILs.list");
+    assertEquals(3, statistics.getExecutionCount());
+    Summary spawnLatency = statistics.getSpawnLatency();
+    assertEquals(2, spawnLatency.getCount());
+    assertEquals(400, spawnLatency.getTotal());
+    assertEquals(300, spawnLatency.getMaximum());
+    assertEquals(200, spawnLatency.getMean(), 0);
+    assertEquals(0, statistics.getCpuTime()
+        .getCount());
+    assertEquals(20, statistics.getDecodeTime()
+        .getTotal());
+    Map<Integer, Long> expectedReturnCodeCounts = new HashMap<>();
+    expectedReturnCodeCounts.put(0, 1L);
+    expectedReturnCodeCounts.put(2, 1L);
+    assertEquals(expectedReturnCodeCounts, statistics.getReturnCodeCounts());
+  }
+
+  @Test
+  public void testAllStatistics() {
+    InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+    registry.record("IB.b", createMetrics(1, 0));
+    registry.record("IA.a", createMetrics(1, 0));
+    assertEquals("[IA.a, IB.b]", registry.getAllStatistics()
+        .keySet()
+        .toString());
+    assertNull(registry.getStatistics("IC.c"));
+    registry.clear();
+    assertEquals(0, registry.getAllStatistics()
+        .size());
+  }
+
+  private static ExecutionMetrics createMetrics(long spawnLatencyNanos, int returnCode) {
+    ExecutionMetrics metrics = new ExecutionMetrics();
+    metrics.setSpawnLatencyNanos(spawnLatencyNanos);
+    metrics.setOutput(10, 7);
+    metrics.setError(0, 3);
+    metrics.setReturnCode(returnCode);
+    return metrics;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Sylvain Cambon
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.scambon.cliwrapper4j.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.Test;
+
+public class JmxMetricsRegistryTest {
+
+  @Test
+  public void testBeanAttributes() throws JMException {
+    MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    JmxMetricsRegistry registry = new JmxMetricsRegistry(mbeanServer, "cliwrapper4j.test");
+    try {
+      ExecutionMetrics metrics = new ExecutionMetrics();
+      metrics.setWallTimeNanos(4_000_000);
+      metrics.setOutput(42, 1);
+      metrics.setReturnCode(1);
+      registry.record("IGit.fetch", metrics);
+      registry.record("IGit.fetch", metrics);
+      ObjectName objectName = registry.getObjectName("IGit.fetch");
+      assertEquals("cliwrapper4j.test:type=CommandLineMetrics,name=\"IGit.fetch\"",
+          objectName.toString());
+      assertEquals(2L, mbeanServer.getAttribute(objectName, "ExecutionCount"));
+      assertEquals(4.0, mbeanServer.getAttribute(objectName, "MeanWallTimeMillis"));
+      assertEquals(84L, mbeanServer.getAttribute(objectName, "TotalOutputBytes"));
+      TabularData returnCodeCounts =
+          (TabularData) mbeanServer.getAttribute(objectName, "ReturnCodeCounts");
+      assertEquals(2L, returnCodeCounts.get(new Object[]{1})
+          .get("value"));
+      assertEquals(2, registry.getInMemoryRegistry()
+          .getStatistics("IGit.fetch")
+          .getExecutionCount());
+    } finally {
+      registry.unregisterAll();
+    }
+    assertFalse(mbeanServer.queryNames(new ObjectName("cliwrapper4j.test:*"), null)
+        .iterator()
+        .hasNext());
+    assertTrue(registry.getObjectName("IGit.fetch") == null);
+  }
+}
\ No newline at end of file